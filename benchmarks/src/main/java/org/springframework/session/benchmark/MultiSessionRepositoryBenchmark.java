@@ -0,0 +1,151 @@
+package org.springframework.session.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MultiSessionRepositoryBenchmark measures the cost per request of MultiSessionRepository for every combination of
+ * a primary storage with no secondary storage or one of the two other storages.
+ * Sessions are saved, found and deleted synchronously, so a save also pays for the secondary write.
+ * Run with -prof gc for the allocation rate; the sample time mode reports the latency percentiles.
+ * The benchmarks are meant to run in a single thread, sharing the sessions of the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiSessionRepositoryBenchmark {
+
+    private static final int SESSION_COUNT = 1024;
+
+    @Param({"REDIS", "REDIS,MONGO", "REDIS,RDBMS",
+            "MONGO", "MONGO,REDIS", "MONGO,RDBMS",
+            "RDBMS", "RDBMS,REDIS", "RDBMS,MONGO"})
+    public String storages;
+
+    @Param({"4", "16", "64"})
+    public int attributeCount;
+
+    @Param({"64", "1024", "8192"})
+    public int payloadSize;
+
+    private SessionStandIns standIns;
+
+    private ConfigurableApplicationContext context;
+
+    private SessionRepository<Session> sessionRepository;
+
+    private final Session[] sessions = new Session[SESSION_COUNT];
+
+    private int next;
+
+    /**
+     * Starts the stand-ins and the application, and saves the sessions the benchmarks work on.
+     */
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        String[] storageNames = storages.split(",");
+        standIns = new SessionStandIns();
+        context = SessionBenchmarkApplication.start(standIns, storageNames[0],
+                storageNames.length > 1 ? storageNames[1] : null, Collections.emptyMap());
+        sessionRepository = context.getBean("sessionRepository", SessionRepository.class);
+        for (int i = 0; i < SESSION_COUNT; i++) {
+            sessions[i] = saveNewSession();
+        }
+    }
+
+    /**
+     * Stops the application and the stand-ins.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        standIns.close();
+    }
+
+    /**
+     * Creates a session without storing it.
+     * @return The new session.
+     */
+    @Benchmark
+    public Session createSession() {
+        return sessionRepository.createSession();
+    }
+
+    /**
+     * Changes one attribute of a stored session and saves it.
+     */
+    @Benchmark
+    public void save() {
+        Session session = sessions[next++ % SESSION_COUNT];
+        session.setAttribute(SessionPayloads.attributeName(0), next);
+        sessionRepository.save(session);
+    }
+
+    /**
+     * Finds a stored session.
+     * @return The session found.
+     */
+    @Benchmark
+    public Session findById() {
+        return sessionRepository.findById(sessions[next++ % SESSION_COUNT].getId());
+    }
+
+    /**
+     * Deletes a session saved just before the invocation.
+     * @param deletion The session to delete.
+     */
+    @Benchmark
+    public void deleteById(Deletion deletion) {
+        sessionRepository.deleteById(deletion.sessionId);
+    }
+
+    /**
+     * Creates and saves a session filled with the attributes of the trial.
+     * @return The saved session.
+     */
+    private Session saveNewSession() {
+        Session session = sessionRepository.createSession();
+        SessionPayloads.fill(session, attributeCount, payloadSize);
+        sessionRepository.save(session);
+        return session;
+    }
+
+    /**
+     * Deletion holds a session saved before every invocation of deleteById, so every deletion removes a stored session.
+     */
+    @State(Scope.Thread)
+    public static class Deletion {
+
+        private String sessionId;
+
+        /**
+         * Saves the session the next invocation deletes.
+         * @param benchmark The benchmark state holding the repository.
+         */
+        @Setup(Level.Invocation)
+        public void setUp(MultiSessionRepositoryBenchmark benchmark) {
+            sessionId = benchmark.saveNewSession().getId();
+        }
+    }
+}
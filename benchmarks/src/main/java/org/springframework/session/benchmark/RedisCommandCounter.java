@@ -0,0 +1,38 @@
+package org.springframework.session.benchmark;
+
+import io.lettuce.core.metrics.CommandLatencyRecorder;
+import io.lettuce.core.protocol.ProtocolKeyword;
+
+import java.net.SocketAddress;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RedisCommandCounter counts the commands the Lettuce driver completes, as the latency recorder of its client
+ * resources, so benchmarks can report the number of Redis commands an operation costs.
+ */
+public class RedisCommandCounter implements CommandLatencyRecorder {
+
+    private final LongAdder commands = new LongAdder();
+
+    /**
+     * Counts a completed command.
+     * @param local The local address of the connection.
+     * @param remote The remote address of the connection.
+     * @param commandType The type of the command.
+     * @param firstResponseLatency The time until the first response, in nanoseconds.
+     * @param completionLatency The time until the command completed, in nanoseconds.
+     */
+    @Override
+    public void recordCommandLatency(SocketAddress local, SocketAddress remote, ProtocolKeyword commandType,
+                                     long firstResponseLatency, long completionLatency) {
+        commands.increment();
+    }
+
+    /**
+     * Gets the number of commands completed so far.
+     * @return The number of commands.
+     */
+    public long getCommands() {
+        return commands.sum();
+    }
+}
@@ -0,0 +1,144 @@
+package org.springframework.session.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RedisSessionModeBenchmark compares the INDEXED and LEAN layouts of Redis sessions, with Redis as primary storage
+ * or as secondary storage behind Mongo. Besides the time of a save, every trial prints the Redis commands sent per
+ * save and the keys and bytes Redis holds per session, keys, fields and values included, which is the write and
+ * memory amplification the layout adds to the session itself.
+ * The benchmarks are meant to run in a single thread, sharing the sessions of the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisSessionModeBenchmark {
+
+    private static final int SESSION_COUNT = 1024;
+
+    @Param({"INDEXED", "LEAN"})
+    public String mode;
+
+    @Param({"REDIS", "MONGO,REDIS"})
+    public String storages;
+
+    @Param({"4", "16"})
+    public int attributeCount;
+
+    @Param({"64", "1024"})
+    public int payloadSize;
+
+    private SessionStandIns standIns;
+
+    private ConfigurableApplicationContext context;
+
+    private SessionRepository<Session> sessionRepository;
+
+    private RedisCommandCounter redisCommandCounter;
+
+    private final Session[] sessions = new Session[SESSION_COUNT];
+
+    private long commandsBeforeSaves;
+
+    private int next;
+
+    /**
+     * Starts the stand-ins and the application with both Redis modes set to the mode of the trial, and saves the
+     * sessions the benchmarks work on.
+     */
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        String[] storageNames = storages.split(",");
+        standIns = new SessionStandIns();
+        context = SessionBenchmarkApplication.start(standIns, storageNames[0],
+                storageNames.length > 1 ? storageNames[1] : null,
+                Map.of("spring.session.redis.primary.mode", mode, "spring.session.redis.secondary.mode", mode));
+        sessionRepository = context.getBean("sessionRepository", SessionRepository.class);
+        redisCommandCounter = context.getBean(RedisCommandCounter.class);
+        for (int i = 0; i < SESSION_COUNT; i++) {
+            Session session = sessionRepository.createSession();
+            SessionPayloads.fill(session, attributeCount, payloadSize);
+            sessionRepository.save(session);
+            sessions[i] = session;
+        }
+        commandsBeforeSaves = redisCommandCounter.getCommands();
+    }
+
+    /**
+     * Prints the commands per save and the footprint per session, then stops the application and the stand-ins.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long commands = redisCommandCounter.getCommands() - commandsBeforeSaves;
+        long[] footprint = measureFootprint(context.getBean(RedisConnectionFactory.class));
+        System.out.printf("%n%s %s: %.2f Redis commands per save, %.2f keys and %d bytes per session%n",
+                mode, storages, next == 0 ? 0 : (double) commands / next,
+                (double) footprint[0] / SESSION_COUNT, footprint[1] / SESSION_COUNT);
+        context.close();
+        standIns.close();
+    }
+
+    /**
+     * Changes one attribute of a stored session and saves it.
+     */
+    @Benchmark
+    public void save() {
+        Session session = sessions[next++ % SESSION_COUNT];
+        session.setAttribute(SessionPayloads.attributeName(0), next);
+        sessionRepository.save(session);
+    }
+
+    /**
+     * Counts the keys of Redis and the bytes of their names and contents.
+     * @param redisConnectionFactory The connection factory of the Redis stand-in.
+     * @return The number of keys and the number of bytes.
+     */
+    private static long[] measureFootprint(RedisConnectionFactory redisConnectionFactory) {
+        long[] footprint = new long[2];
+        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
+            Set<byte[]> keys = connection.keyCommands().keys("*".getBytes(StandardCharsets.UTF_8));
+            for (byte[] key : keys == null ? Set.<byte[]>of() : keys) {
+                footprint[0]++;
+                footprint[1] += key.length;
+                DataType type = connection.keyCommands().type(key);
+                if (type == DataType.HASH) {
+                    connection.hashCommands().hGetAll(key).forEach((field, value) ->
+                            footprint[1] += field.length + value.length);
+                } else if (type == DataType.SET) {
+                    connection.setCommands().sMembers(key).forEach(member -> footprint[1] += member.length);
+                } else if (type == DataType.STRING) {
+                    byte[] value = connection.stringCommands().get(key);
+                    footprint[1] += value == null ? 0 : value.length;
+                }
+            }
+        }
+        return footprint;
+    }
+}
@@ -0,0 +1,145 @@
+package org.springframework.session.benchmark;
+
+import org.framework.data.SpringSessionData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.session.ISessionSaveAsSecondary;
+import org.springframework.session.MapSession;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.SessionStoreBackend;
+import org.springframework.session.data.mongo.SpringMongoSessionConfig;
+import org.springframework.session.data.mongo.SpringMongoSessionStoreBackend;
+import org.springframework.session.data.redis.SpringRedisSessionConfig;
+import org.springframework.session.data.redis.SpringRedisSessionStoreBackend;
+import org.springframework.session.jdbc.SpringRdbmsSessionConfig;
+import org.springframework.session.jdbc.SpringRdbmsSessionStoreBackend;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SecondaryWriteBenchmark measures the secondary writer of every storage saving a full session that already exists,
+ * as a blind upsert in a single round trip, and as the read-then-write it replaced, which finds the stored session
+ * before every save. The difference is the round trip and the deserialization of the stored session the upsert saves.
+ * Run with -prof gc for the allocation rate; the sample time mode reports the latency percentiles.
+ * The benchmarks are meant to run in a single thread, sharing the sessions of the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecondaryWriteBenchmark {
+
+    private static final int SESSION_COUNT = 1024;
+
+    @Param({"REDIS", "MONGO", "RDBMS"})
+    public String storage;
+
+    @Param({"BLIND_UPSERT", "READ_THEN_WRITE"})
+    public String write;
+
+    @Param({"4", "16"})
+    public int attributeCount;
+
+    @Param({"64", "1024"})
+    public int payloadSize;
+
+    private SessionStandIns standIns;
+
+    private ConfigurableApplicationContext context;
+
+    private ISessionSaveAsSecondary secondaryWriter;
+
+    private SessionRepository<?> secondarySessionRepository;
+
+    private boolean readBeforeWrite;
+
+    private final SpringSessionData[] sessions = new SpringSessionData[SESSION_COUNT];
+
+    private int next;
+
+    /**
+     * Starts the stand-ins and the application, resolves the secondary writer of the storage of the trial and
+     * writes the sessions the benchmarks overwrite.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        standIns = new SessionStandIns();
+        context = SessionBenchmarkApplication.start(standIns, storage, null, Collections.emptyMap());
+        SessionStoreBackend sessionStoreBackend = createSessionStoreBackend();
+        secondaryWriter = sessionStoreBackend.getSecondaryWriter();
+        secondarySessionRepository = sessionStoreBackend.getSecondarySessionRepository();
+        readBeforeWrite = "READ_THEN_WRITE".equals(write);
+        for (int i = 0; i < SESSION_COUNT; i++) {
+            MapSession session = new MapSession(UUID.randomUUID().toString());
+            SessionPayloads.fill(session, attributeCount, payloadSize);
+            Map<String, Object> attributes = new HashMap<>();
+            session.getAttributeNames().forEach(name -> attributes.put(name, session.getAttribute(name)));
+            sessions[i] = SpringSessionData.builder()
+                    .id(session.getId())
+                    .maxInactiveInterval(Duration.ofMinutes(30))
+                    .attributes(attributes)
+                    .createdMillis(System.currentTimeMillis())
+                    .lastAccessedMillis(System.currentTimeMillis())
+                    .build();
+            secondaryWriter.saveAsSecondary(sessions[i]);
+        }
+    }
+
+    /**
+     * Stops the application and the stand-ins.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        standIns.close();
+    }
+
+    /**
+     * Changes one attribute of a stored session and writes it in full to the storage of the trial.
+     * @param blackhole The sink of the session read before the write.
+     */
+    @Benchmark
+    public void saveAsSecondary(Blackhole blackhole) {
+        SpringSessionData session = sessions[next++ % SESSION_COUNT];
+        session.getAttributes().put(SessionPayloads.attributeName(0), next);
+        if (readBeforeWrite) {
+            blackhole.consume(secondarySessionRepository.findById(session.getId()));
+        }
+        secondaryWriter.saveAsSecondary(session.toBuilder().lastAccessedMillis(System.currentTimeMillis()).build());
+    }
+
+    /**
+     * Creates the backend of the storage of the trial from the session configuration of the application.
+     * @return The SessionStoreBackend.
+     */
+    private SessionStoreBackend createSessionStoreBackend() {
+        switch (storage) {
+            case SpringRedisSessionStoreBackend.NAME:
+                return new SpringRedisSessionStoreBackend(context.getBean(SpringRedisSessionConfig.class));
+            case SpringMongoSessionStoreBackend.NAME:
+                return new SpringMongoSessionStoreBackend(context.getBean(SpringMongoSessionConfig.class));
+            default:
+                return new SpringRdbmsSessionStoreBackend(context.getBean(SpringRdbmsSessionConfig.class));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.springframework.session.benchmark;
+
+import org.framework.config.SpringSessionConfigurator;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * SessionBenchmarkApplication boots the session configuration of the library the way an application does,
+ * with the connections of Spring Boot pointing at the stand-ins and an embedded H2 database holding the
+ * Spring Session JDBC schema.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@Import(SpringSessionConfigurator.class)
+public class SessionBenchmarkApplication {
+
+    /**
+     * Creates the embedded H2 database with the Spring Session JDBC schema.
+     * Every context gets its own database, so benchmark trials do not see each other's sessions.
+     * @return The embedded database.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public EmbeddedDatabase dataSource() {
+        return new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("sessions-" + UUID.randomUUID())
+                .addScript("org/springframework/session/jdbc/schema-h2.sql")
+                .build();
+    }
+
+    /**
+     * Creates the counter of the Redis commands sent by the application.
+     * @return The RedisCommandCounter.
+     */
+    @Bean
+    public RedisCommandCounter redisCommandCounter() {
+        return new RedisCommandCounter();
+    }
+
+    /**
+     * Installs the counter of the Redis commands as the latency recorder of the Lettuce client resources.
+     * @param redisCommandCounter The RedisCommandCounter to install.
+     * @return The ClientResourcesBuilderCustomizer.
+     */
+    @Bean
+    public ClientResourcesBuilderCustomizer redisCommandCounterCustomizer(RedisCommandCounter redisCommandCounter) {
+        return builder -> builder.commandLatencyRecorder(redisCommandCounter);
+    }
+
+    /**
+     * Starts the application with the given primary and secondary storage.
+     * @param standIns The running stand-ins to connect to.
+     * @param primaryStorage The name of the primary storage.
+     * @param secondaryStorage The name of the secondary storage, or null to disable secondary storage.
+     * @param properties Additional properties of the library.
+     * @return The started application context.
+     */
+    public static ConfigurableApplicationContext start(SessionStandIns standIns, String primaryStorage,
+                                                       String secondaryStorage, Map<String, Object> properties) {
+        Map<String, Object> defaultProperties = new HashMap<>(standIns.getConnectionProperties());
+        defaultProperties.put("spring.main.banner-mode", "off");
+        defaultProperties.put("logging.level.org.springframework.session", "WARN");
+        defaultProperties.put("logging.level.org.framework", "WARN");
+        defaultProperties.put("spring.session.enable.redis.bean", "true");
+        defaultProperties.put("spring.session.enable.mongo.bean", "true");
+        defaultProperties.put("spring.session.enable.rdbms.bean", "true");
+        defaultProperties.put("spring.session.enable.offheap.bean", "true");
+        defaultProperties.put("spring.session.offheap.max_memory", "67108864");
+        defaultProperties.put("spring.session.primary_storage.name", primaryStorage);
+        defaultProperties.put("spring.session.secondary_storage.enabled", String.valueOf(secondaryStorage != null));
+        defaultProperties.put("spring.session.secondary_storage.name",
+                secondaryStorage != null ? secondaryStorage : primaryStorage);
+        defaultProperties.putAll(properties);
+        return new SpringApplicationBuilder(SessionBenchmarkApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(defaultProperties)
+                .run();
+    }
+}
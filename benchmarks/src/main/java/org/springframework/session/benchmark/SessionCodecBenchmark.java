@@ -0,0 +1,104 @@
+package org.springframework.session.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.session.MapSession;
+import org.springframework.session.serializer.SessionCodec;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionCodecBenchmark compares the JDK and COMPACT session codecs, with and without compression, on the
+ * attributes of one session: encoding every attribute, as the storages do on a full save, and decoding them back.
+ * Besides the time, every trial prints the encoded bytes per session, which is what the storages keep and send.
+ * Run with -prof gc for the allocation rate; the sample time mode reports the latency percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionCodecBenchmark {
+
+    @Param({"JDK", "COMPACT"})
+    public String codec;
+
+    @Param({"0", "1024"})
+    public int compressionThreshold;
+
+    @Param({"4", "16", "64"})
+    public int attributeCount;
+
+    @Param({"64", "1024", "8192"})
+    public int payloadSize;
+
+    private SessionCodec sessionCodec;
+
+    private Object[] attributes;
+
+    private byte[][] encodedAttributes;
+
+    /**
+     * Creates the codec of the trial and encodes the attributes of one filled session once, for the decode benchmark.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionCodec = SessionCodec.of(codec, compressionThreshold);
+        MapSession session = new MapSession();
+        SessionPayloads.fill(session, attributeCount, payloadSize);
+        attributes = new Object[attributeCount];
+        encodedAttributes = new byte[attributeCount][];
+        for (int i = 0; i < attributeCount; i++) {
+            attributes[i] = session.getAttribute(SessionPayloads.attributeName(i));
+            encodedAttributes[i] = sessionCodec.encode(attributes[i]);
+        }
+    }
+
+    /**
+     * Prints the encoded bytes per session.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long bytes = 0;
+        for (byte[] encodedAttribute : encodedAttributes) {
+            bytes += encodedAttribute.length;
+        }
+        System.out.printf("%n%s compressing above %d: %d encoded bytes per session%n",
+                codec, compressionThreshold, bytes);
+    }
+
+    /**
+     * Encodes every attribute of the session.
+     * @param blackhole The sink of the encoded bytes.
+     */
+    @Benchmark
+    public void encode(Blackhole blackhole) {
+        for (Object attribute : attributes) {
+            blackhole.consume(sessionCodec.encode(attribute));
+        }
+    }
+
+    /**
+     * Decodes every attribute of the session.
+     * @param blackhole The sink of the decoded attributes.
+     */
+    @Benchmark
+    public void decode(Blackhole blackhole) {
+        for (byte[] encodedAttribute : encodedAttributes) {
+            blackhole.consume(sessionCodec.decode(encodedAttribute));
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package org.springframework.session.benchmark;
+
+import org.framework.data.SpringSessionData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.data.mongo.SpringMongoSessionConverterUtil;
+import org.springframework.session.data.redis.RedisIndexedSessionRepository;
+import org.springframework.session.data.redis.SpringRedisSessionConverterUtil;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.jdbc.SpringRdbmsSessionConverterUtil;
+import org.springframework.session.offheap.SpringOffHeapSessionConverterUtil;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionConverterUtilBenchmark measures the converter utils of every storage: converting a session of the storage
+ * to SpringSessionData in full or as a delta of one changed attribute, and restoring a session of the storage from a
+ * snapshot. The converted attributes are read, as the secondary writers do, so the cost of a lazy view is measured too.
+ * Run with -prof gc for the allocation rate; the sample time mode reports the latency percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionConverterUtilBenchmark {
+
+    @Param({"4", "16", "64"})
+    public int attributeCount;
+
+    @Param({"64", "1024", "8192"})
+    public int payloadSize;
+
+    private final Set<String> changedAttributeNames = Collections.singleton(SessionPayloads.attributeName(0));
+
+    private final Set<String> removedAttributeNames = Collections.emptySet();
+
+    private MapSession mapSession;
+
+    private Session redisSession;
+
+    private Session mongoSession;
+
+    private Session rdbmsSession;
+
+    private RedisIndexedSessionRepository redisIndexedSessionRepository;
+
+    private JdbcIndexedSessionRepository jdbcIndexedSessionRepository;
+
+    private EmbeddedDatabase database;
+
+    /**
+     * Creates the sessions of every storage from one filled snapshot.
+     * The Redis repository is never connected, only its session type is needed.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        mapSession = new MapSession();
+        SessionPayloads.fill(mapSession, attributeCount, payloadSize);
+
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(new LettuceConnectionFactory());
+        redisTemplate.afterPropertiesSet();
+        redisIndexedSessionRepository = new RedisIndexedSessionRepository(redisTemplate);
+
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .addScript("org/springframework/session/jdbc/schema-h2.sql")
+                .build();
+        jdbcIndexedSessionRepository = new JdbcIndexedSessionRepository(new JdbcTemplate(database),
+                new TransactionTemplate(new DataSourceTransactionManager(database)));
+
+        redisSession = SpringRedisSessionConverterUtil.convertToSession(redisIndexedSessionRepository, mapSession, false);
+        mongoSession = SpringMongoSessionConverterUtil.convertToSession(mapSession);
+        rdbmsSession = SpringRdbmsSessionConverterUtil.convertToSession(jdbcIndexedSessionRepository, mapSession);
+    }
+
+    /**
+     * Shuts the embedded database down.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    /**
+     * Converts a Redis session in full.
+     * @param blackhole The sink of the converted attributes.
+     */
+    @Benchmark
+    public void redisConvertToSessionData(Blackhole blackhole) {
+        consume(SpringRedisSessionConverterUtil.convertToSessionData(redisSession), blackhole);
+    }
+
+    /**
+     * Converts the delta of a Redis session.
+     * @param blackhole The sink of the converted attributes.
+     */
+    @Benchmark
+    public void redisConvertToSessionDelta(Blackhole blackhole) {
+        consume(SpringRedisSessionConverterUtil.convertToSessionDelta(redisSession,
+                changedAttributeNames, removedAttributeNames), blackhole);
+    }
+
+    /**
+     * Restores a Redis session from a snapshot.
+     * @return The restored session.
+     */
+    @Benchmark
+    public Session redisConvertToSession() {
+        return SpringRedisSessionConverterUtil.convertToSession(redisIndexedSessionRepository, mapSession, false);
+    }
+
+    /**
+     * Converts a Mongo session in full.
+     * @param blackhole The sink of the converted attributes.
+     */
+    @Benchmark
+    public void mongoConvertToSessionData(Blackhole blackhole) {
+        consume(SpringMongoSessionConverterUtil.convertToSessionData(mongoSession), blackhole);
+    }
+
+    /**
+     * Converts the delta of a Mongo session.
+     * @param blackhole The sink of the converted attributes.
+     */
+    @Benchmark
+    public void mongoConvertToSessionDelta(Blackhole blackhole) {
+        consume(SpringMongoSessionConverterUtil.convertToSessionDelta(mongoSession,
+                changedAttributeNames, removedAttributeNames), blackhole);
+    }
+
+    /**
+     * Restores a Mongo session from a snapshot.
+     * @return The restored session.
+     */
+    @Benchmark
+    public Session mongoConvertToSession() {
+        return SpringMongoSessionConverterUtil.convertToSession(mapSession);
+    }
+
+    /**
+     * Converts a JDBC session in full.
+     * @param blackhole The sink of the converted attributes.
+     */
+    @Benchmark
+    public void rdbmsConvertToSessionData(Blackhole blackhole) {
+        consume(SpringRdbmsSessionConverterUtil.convertToSessionData(rdbmsSession), blackhole);
+    }
+
+    /**
+     * Converts the delta of a JDBC session.
+     * @param blackhole The sink of the converted attributes.
+     */
+    @Benchmark
+    public void rdbmsConvertToSessionDelta(Blackhole blackhole) {
+        consume(SpringRdbmsSessionConverterUtil.convertToSessionDelta(rdbmsSession,
+                changedAttributeNames, removedAttributeNames), blackhole);
+    }
+
+    /**
+     * Restores a JDBC session from a snapshot.
+     * @return The restored session.
+     */
+    @Benchmark
+    public Session rdbmsConvertToSession() {
+        return SpringRdbmsSessionConverterUtil.convertToSession(jdbcIndexedSessionRepository, mapSession);
+    }
+
+    /**
+     * Converts an off-heap session in full.
+     * @param blackhole The sink of the converted attributes.
+     */
+    @Benchmark
+    public void offHeapConvertToSessionData(Blackhole blackhole) {
+        consume(SpringOffHeapSessionConverterUtil.convertToSessionData(mapSession), blackhole);
+    }
+
+    /**
+     * Converts the delta of an off-heap session.
+     * @param blackhole The sink of the converted attributes.
+     */
+    @Benchmark
+    public void offHeapConvertToSessionDelta(Blackhole blackhole) {
+        consume(SpringOffHeapSessionConverterUtil.convertToSessionDelta(mapSession,
+                changedAttributeNames, removedAttributeNames), blackhole);
+    }
+
+    /**
+     * Reads the converted session data the way a secondary writer does.
+     * @param springSessionData The converted session data.
+     * @param blackhole The sink of the attributes.
+     */
+    private static void consume(SpringSessionData springSessionData, Blackhole blackhole) {
+        blackhole.consume(springSessionData.getId());
+        springSessionData.getAttributes().forEach((name, value) -> blackhole.consume(value));
+    }
+}
@@ -0,0 +1,72 @@
+package org.springframework.session.benchmark;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.session.Session;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SessionPayloads fills sessions with attributes of a given count and size, shaped like the attributes of a
+ * web application: strings, numbers and collections, with the size spent in string values.
+ * The attributes are deterministic, so every storage and codec sees the same payload.
+ */
+@UtilityClass
+public class SessionPayloads {
+
+    /**
+     * Sets the attributes of a session.
+     * @param session The session to fill.
+     * @param attributeCount The number of attributes.
+     * @param payloadSize The approximate size of every attribute, in characters.
+     */
+    public static void fill(Session session, int attributeCount, int payloadSize) {
+        for (int i = 0; i < attributeCount; i++) {
+            session.setAttribute(attributeName(i), attributeValue(i, payloadSize));
+        }
+    }
+
+    /**
+     * Gets the name of an attribute set by fill.
+     * @param index The index of the attribute.
+     * @return The name of the attribute.
+     */
+    public static String attributeName(int index) {
+        return "attribute-" + index;
+    }
+
+    /**
+     * Creates the value of an attribute, rotating over a string, a list of strings and a map of strings to numbers.
+     * @param index The index of the attribute.
+     * @param payloadSize The approximate size of the value, in characters.
+     * @return The value of the attribute.
+     */
+    private static Object attributeValue(int index, int payloadSize) {
+        switch (index % 3) {
+            case 0:
+                return text(index, payloadSize);
+            case 1:
+                List<String> list = new ArrayList<>();
+                for (int i = 0; i < Math.max(1, payloadSize / 32); i++) {
+                    list.add(text(index + i, 32));
+                }
+                return list;
+            default:
+                Map<String, Long> map = new HashMap<>();
+                for (int i = 0; i < Math.max(1, payloadSize / 24); i++) {
+                    map.put("key-" + i, (long) index * i);
+                }
+                return map;
+        }
+    }
+
+    private static String text(int seed, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + (seed + i) % 26);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,129 @@
+package org.springframework.session.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.session.MapSession;
+import org.springframework.session.MapSessionRepository;
+import org.springframework.session.SessionRepository;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionRoutingBenchmark measures the routing of one findById to the primary and secondary storage, without the
+ * storages themselves: in-memory repositories stand in for them, so only the dispatch is left.
+ * The switch benchmark routes as MultiSessionRepository did before its backends were resolved at startup, with a
+ * string switch on the primary storage and the message of its per-call INFO log line, then a switch on the upper-cased
+ * secondary storage. The log line itself is not written, so the numbers are a lower bound of the former cost.
+ * The resolved benchmark routes through the repositories resolved once, as MultiSessionRepository does now.
+ * Run with -prof gc for the allocation rate; the sample time mode reports the latency percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SessionRoutingBenchmark {
+
+    @Param({"REDIS,MONGO", "MONGO,RDBMS", "RDBMS,REDIS"})
+    public String storages;
+
+    private String primaryStorage;
+
+    private String secondaryStorage;
+
+    private final SessionRepository<MapSession> redisRepository = new MapSessionRepository(new HashMap<>());
+
+    private final SessionRepository<MapSession> mongoRepository = new MapSessionRepository(new HashMap<>());
+
+    private final SessionRepository<MapSession> rdbmsRepository = new MapSessionRepository(new HashMap<>());
+
+    private SessionRepository<MapSession> primaryRepository;
+
+    private SessionRepository<MapSession> secondaryRepository;
+
+    private String sessionId;
+
+    /**
+     * Resolves the repositories of the trial's storages and saves the session the benchmarks find.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] storageNames = storages.split(",");
+        primaryStorage = storageNames[0];
+        secondaryStorage = storageNames[1];
+        primaryRepository = switchPrimaryRepository();
+        secondaryRepository = switchSecondaryRepository();
+        MapSession session = primaryRepository.createSession();
+        primaryRepository.save(session);
+        secondaryRepository.save(session);
+        sessionId = session.getId();
+    }
+
+    /**
+     * Routes a findById to both storages with per-call string switches.
+     * @param blackhole The sink of the found sessions and log messages.
+     */
+    @Benchmark
+    public void switchRouting(Blackhole blackhole) {
+        blackhole.consume(primaryStorage + " is primary storage");
+        blackhole.consume(switchPrimaryRepository().findById(sessionId));
+        blackhole.consume(switchSecondaryRepository().findById(sessionId));
+    }
+
+    /**
+     * Routes a findById to both storages through the repositories resolved at startup.
+     * @param blackhole The sink of the found sessions.
+     */
+    @Benchmark
+    public void resolvedRouting(Blackhole blackhole) {
+        blackhole.consume(primaryRepository.findById(sessionId));
+        blackhole.consume(secondaryRepository.findById(sessionId));
+    }
+
+    /**
+     * Selects the primary repository the way getSessionRepositoryBean did.
+     * @return The primary repository.
+     */
+    private SessionRepository<MapSession> switchPrimaryRepository() {
+        switch (primaryStorage) {
+            case "MONGO":
+                return mongoRepository;
+            case "REDIS":
+                return redisRepository;
+            case "RDBMS":
+                return rdbmsRepository;
+            default:
+                throw new IllegalArgumentException("Does not match the given primary storage");
+        }
+    }
+
+    /**
+     * Selects the secondary repository the way the secondary paths did.
+     * @return The secondary repository.
+     */
+    private SessionRepository<MapSession> switchSecondaryRepository() {
+        switch (secondaryStorage.toUpperCase()) {
+            case "MONGO":
+                return mongoRepository;
+            case "REDIS":
+                return redisRepository;
+            case "RDBMS":
+                return rdbmsRepository;
+            default:
+                throw new IllegalArgumentException("Does not match the given secondary storage");
+        }
+    }
+}
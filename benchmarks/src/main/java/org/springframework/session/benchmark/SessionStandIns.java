@@ -0,0 +1,68 @@
+package org.springframework.session.benchmark;
+
+import com.github.fppt.jedismock.RedisServer;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SessionStandIns runs in-process stand-ins of the storages the benchmarks need: a Redis protocol fake and
+ * a Mongo wire protocol server keeping its documents in memory. The SQL storage is an embedded H2 database
+ * created by the benchmark application.
+ * The stand-ins answer on loopback sockets, so the drivers, serializers and network stack are measured,
+ * but not the cost of a real server.
+ */
+public class SessionStandIns implements AutoCloseable {
+
+    private final RedisServer redisServer;
+
+    private final MongoServer mongoServer;
+
+    private final InetSocketAddress mongoAddress;
+
+    /**
+     * Constructor for SessionStandIns, starting both servers on ephemeral ports.
+     * @throws UncheckedIOException If a server fails to start.
+     */
+    public SessionStandIns() {
+        try {
+            redisServer = RedisServer.newRedisServer();
+            redisServer.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start the Redis stand-in", e);
+        }
+        mongoServer = new MongoServer(new MemoryBackend());
+        mongoAddress = mongoServer.bind();
+    }
+
+    /**
+     * Gets the properties connecting Spring Boot to the stand-ins.
+     * @return The connection properties.
+     */
+    public Map<String, Object> getConnectionProperties() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.data.redis.host", redisServer.getHost());
+        properties.put("spring.data.redis.port", redisServer.getBindPort());
+        properties.put("spring.data.mongodb.uri",
+                "mongodb://" + mongoAddress.getHostString() + ":" + mongoAddress.getPort() + "/benchmark");
+        return properties;
+    }
+
+    /**
+     * Stops both servers.
+     */
+    @Override
+    public void close() {
+        mongoServer.shutdownNow();
+        try {
+            redisServer.stop();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to stop the Redis stand-in", e);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.framework.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.session.ReactiveMultiSessionRepository;
+import org.springframework.session.ReactiveSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.config.annotation.web.server.SpringWebSessionConfiguration;
+import org.springframework.session.data.mongo.SpringReactiveMongoSessionStoreBackend;
+import org.springframework.session.data.redis.SpringReactiveRedisSessionStoreBackend;
+import org.springframework.session.jdbc.SpringRdbmsSessionConfig;
+import org.springframework.session.jdbc.SpringReactiveRdbmsSessionStoreBackend;
+import org.springframework.session.serializer.SessionCodec;
+import org.springframework.session.web.server.session.SpringSessionWebSessionStore;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import org.springframework.web.server.session.WebSessionIdResolver;
+import org.springframework.web.server.session.WebSessionManager;
+
+import java.time.Duration;
+
+/**
+ * SpringReactiveSessionConfigurator configures the session management of WebFlux applications based on the configured
+ * storage options. It provides the WebSessionManager backed by a ReactiveMultiSessionRepository, with the same
+ * storage flags and primary and secondary storage properties as SpringSessionConfigurator.
+ * Attribute offload is not supported by the reactive storages, the attributes are encoded with the configured codec only.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class SpringReactiveSessionConfigurator extends SpringWebSessionConfiguration {
+
+    @Value("${spring.session.enable.redis.bean:true}")
+    private boolean ENABLE_REDIS_BEAN;
+
+    @Value("${spring.session.enable.mongo.bean:false}")
+    private boolean ENABLE_MONGO_BEAN;
+
+    @Value("${spring.session.enable.rdbms.bean:false}")
+    private boolean ENABLE_RDBMS_BEAN;
+
+    @Value("${spring.session.codec:JDK}")
+    private String SESSION_CODEC;
+
+    @Value("${spring.session.codec.compression_threshold:1024}")
+    private int SESSION_CODEC_COMPRESSION_THRESHOLD;
+
+    @Value("${spring.session.max_inactive_interval:PT30M}")
+    private Duration MAX_INACTIVE_INTERVAL;
+
+    @Autowired(required = false)
+    private ReactiveRedisConnectionFactory reactiveRedisConnectionFactory;
+
+    @Autowired(required = false)
+    private ReactiveMongoOperations reactiveMongoOperations;
+
+    @Autowired(required = false)
+    private MongoOperations mongoOperations;
+
+    @Autowired(required = false)
+    private JdbcOperations jdbcOperations;
+
+    @Autowired(required = false)
+    private TransactionOperations transactionOperations;
+
+    @Autowired(required = false)
+    private WebSessionIdResolver webSessionIdResolver;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Configures the WebSessionManager storing the web sessions in the reactive session repository.
+     * @param repository The session repository resolved by Spring, replaced by reactiveSessionRepository.
+     * @return The configured WebSessionManager.
+     */
+    @Bean(WebHttpHandlerBuilder.WEB_SESSION_MANAGER_BEAN_NAME)
+    @Override
+    public WebSessionManager webSessionManager(ReactiveSessionRepository<? extends Session> repository) {
+        DefaultWebSessionManager webSessionManager = new DefaultWebSessionManager();
+        webSessionManager.setSessionStore(new SpringSessionWebSessionStore<>(reactiveSessionRepository()));
+        if (webSessionIdResolver != null) {
+            webSessionManager.setSessionIdResolver(webSessionIdResolver);
+        }
+        return webSessionManager;
+    }
+
+    /**
+     * Configures the reactive session repository based on enabled storage options.
+     * @return The configured ReactiveMultiSessionRepository.
+     * @throws IllegalArgumentException If an enabled storage has no reactive infrastructure.
+     */
+    @Bean
+    public ReactiveMultiSessionRepository reactiveSessionRepository() {
+        ReactiveMultiSessionRepository reactiveMultiSessionRepository = new ReactiveMultiSessionRepository();
+        if (meterRegistry != null) {
+            reactiveMultiSessionRepository.setMeterRegistry(meterRegistry);
+        }
+        SessionCodec sessionCodec = SessionCodec.of(SESSION_CODEC, SESSION_CODEC_COMPRESSION_THRESHOLD);
+        if (ENABLE_MONGO_BEAN) {
+            if (reactiveMongoOperations == null) {
+                throw new IllegalArgumentException("Reactive Mongo storage requires ReactiveMongoOperations");
+            }
+            log.info("Reactive Mongo bean initialized");
+            reactiveMultiSessionRepository.registerSessionStoreBackend(new SpringReactiveMongoSessionStoreBackend(
+                    reactiveMongoOperations, mongoOperations, sessionCodec, MAX_INACTIVE_INTERVAL));
+        }
+        if (ENABLE_REDIS_BEAN) {
+            if (reactiveRedisConnectionFactory == null) {
+                throw new IllegalArgumentException("Reactive Redis storage requires a ReactiveRedisConnectionFactory");
+            }
+            log.info("Reactive Redis bean initialized");
+            reactiveMultiSessionRepository.registerSessionStoreBackend(new SpringReactiveRedisSessionStoreBackend(
+                    reactiveRedisConnectionFactory, sessionCodec, MAX_INACTIVE_INTERVAL));
+        }
+        if (ENABLE_RDBMS_BEAN) {
+            log.info("Reactive Rdbms bean initialized");
+            reactiveMultiSessionRepository.registerSessionStoreBackend(
+                    new SpringReactiveRdbmsSessionStoreBackend(reactiveSpringRdbmsSessionConfig()));
+        }
+        log.info("Initialized Reactive Multi-Session Repository");
+        return reactiveMultiSessionRepository;
+    }
+
+    /**
+     * Configures the Spring RDBMS session run by the reactive RDBMS storage.
+     * @return The configured SpringRdbmsSessionConfig bean.
+     * @throws IllegalArgumentException If no JdbcOperations is available.
+     */
+    @Bean
+    @ConditionalOnProperty(havingValue = "true", value = "spring.session.enable.rdbms.bean")
+    public SpringRdbmsSessionConfig reactiveSpringRdbmsSessionConfig() {
+        if (jdbcOperations == null) {
+            throw new IllegalArgumentException("Reactive Rdbms storage requires JdbcOperations");
+        }
+        SpringRdbmsSessionConfig springRdbmsSessionConfig =
+                new SpringRdbmsSessionConfig(jdbcOperations, transactionOperations);
+        springRdbmsSessionConfig.setSessionCodec(SessionCodec.of(SESSION_CODEC, SESSION_CODEC_COMPRESSION_THRESHOLD));
+        if (meterRegistry != null) {
+            springRdbmsSessionConfig.setMeterRegistry(meterRegistry);
+        }
+        return springRdbmsSessionConfig;
+    }
+}
@@ -1,26 +1,56 @@
 package org.framework.config;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.session.MapSession;
 import org.springframework.session.Session;
 import org.springframework.session.SessionRepository;
+import org.springframework.session.SessionStoreBackend;
+import org.springframework.session.ShardedSessionStoreBackend;
 import org.springframework.session.config.annotation.web.http.SpringHttpSessionConfiguration;
 import org.springframework.session.MultiSessionRepository;
+import org.springframework.session.data.mongo.SpringMongoSessionBlobStore;
 import org.springframework.session.data.mongo.SpringMongoSessionConfig;
+import org.springframework.session.data.mongo.SpringMongoSessionStoreBackend;
+import org.springframework.session.data.redis.RedisIndexedSessionRepository;
+import org.springframework.session.data.redis.SpringRedisSessionBlobStore;
 import org.springframework.session.data.redis.SpringRedisSessionConfig;
+import org.springframework.session.data.redis.SpringRedisSessionStoreBackend;
+import org.springframework.session.jdbc.SpringRdbmsSessionBlobStore;
 import org.springframework.session.jdbc.SpringRdbmsSessionConfig;
+import org.springframework.session.offheap.SpringOffHeapSessionConfig;
+import org.springframework.session.serializer.DeduplicatingSessionCodec;
+import org.springframework.session.serializer.SessionBlobStore;
+import org.springframework.session.serializer.SessionCodec;
 import org.springframework.session.web.http.SessionRepositoryFilter;
 import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.StringUtils;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * SpringSessionConfigurator configures the Spring session management system based on the configured storage options.
- * It provides beans for session repositories and filters, and initializes session configurations for MongoDB, Redis, and RDBMS.
+ * It provides beans for session repositories and filters, and initializes session configurations for MongoDB, Redis, RDBMS and off-heap memory.
  * @author Shishir Pandey
  */
 @Slf4j
@@ -36,6 +66,76 @@ public class SpringSessionConfigurator extends SpringHttpSessionConfiguration {
     @Value("${spring.session.enable.rdbms.bean:false}")
     private boolean ENABLE_RDBMS_BEAN;
 
+    @Value("${spring.session.enable.offheap.bean:false}")
+    private boolean ENABLE_OFFHEAP_BEAN;
+
+    @Value("${spring.session.codec:JDK}")
+    private String SESSION_CODEC;
+
+    @Value("${spring.session.codec.compression_threshold:1024}")
+    private int SESSION_CODEC_COMPRESSION_THRESHOLD;
+
+    @Value("${spring.session.attribute_offload.enabled:false}")
+    private boolean ATTRIBUTE_OFFLOAD_ENABLED;
+
+    @Value("${spring.session.attribute_offload.store:REDIS}")
+    private String ATTRIBUTE_OFFLOAD_STORE;
+
+    @Value("${spring.session.attribute_offload.threshold:4096}")
+    private int ATTRIBUTE_OFFLOAD_THRESHOLD;
+
+    @Value("${spring.session.attribute_offload.ttl:PT24H}")
+    private Duration ATTRIBUTE_OFFLOAD_TTL;
+
+    @Value("${spring.session.offheap.max_inactive_interval:PT30M}")
+    private Duration OFFHEAP_MAX_INACTIVE_INTERVAL;
+
+    @Value("${spring.session.attribute_offload.cache_maximum_bytes:67108864}")
+    private long ATTRIBUTE_OFFLOAD_CACHE_MAXIMUM_BYTES;
+
+    @Value("${spring.session.attribute_offload.purge_interval:PT10M}")
+    private Duration ATTRIBUTE_OFFLOAD_PURGE_INTERVAL;
+
+    @Value("${spring.session.attribute_offload.collection_name:sessions_blobs}")
+    private String ATTRIBUTE_OFFLOAD_COLLECTION_NAME;
+
+    @Value("${spring.session.attribute_offload.table_name:SPRING_SESSION_BLOBS}")
+    private String ATTRIBUTE_OFFLOAD_TABLE_NAME;
+
+    @Value("${spring.session.sharding.redis.nodes:}")
+    private String SHARDING_REDIS_NODES;
+
+    @Value("${spring.session.sharding.redis.previous_nodes:}")
+    private String SHARDING_REDIS_PREVIOUS_NODES;
+
+    @Value("${spring.session.sharding.mongo.uris:}")
+    private String SHARDING_MONGO_URIS;
+
+    @Value("${spring.session.sharding.mongo.previous_uris:}")
+    private String SHARDING_MONGO_PREVIOUS_URIS;
+
+    @Value("${spring.session.sharding.virtual_nodes:160}")
+    private int SHARDING_VIRTUAL_NODES;
+
+    @Value("${spring.session.sharding.rebalance.page_size:500}")
+    private int SHARDING_REBALANCE_PAGE_SIZE;
+
+    @Value("${spring.session.sharding.rebalance.max_sessions_per_second:1000}")
+    private double SHARDING_REBALANCE_MAX_SESSIONS_PER_SECOND;
+
+    @Value("${spring.session.sharding.rebalance.shutdown_timeout:PT10S}")
+    private Duration SHARDING_REBALANCE_SHUTDOWN_TIMEOUT;
+
+    private final List<LettuceConnectionFactory> shardConnectionFactories = new ArrayList<>();
+
+    private final List<MongoClient> shardMongoClients = new ArrayList<>();
+
+    @Autowired
+    private AutowireCapableBeanFactory autowireCapableBeanFactory;
+
+    @Autowired(required = false)
+    private RedisConnectionFactory redisConnectionFactory;
+
     @Autowired(required = false)
     private MongoOperations mongoOperations;
 
@@ -45,6 +145,9 @@ public class SpringSessionConfigurator extends SpringHttpSessionConfiguration {
     @Autowired(required = false)
     private TransactionOperations transactionOperations;
 
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
     /**
      * Configures the session repository filter.
      * @param sessionRepository The session repository to be filtered.
@@ -69,22 +172,130 @@ public class SpringSessionConfigurator extends SpringHttpSessionConfiguration {
     @Bean
     public SessionRepository sessionRepository() {
         MultiSessionRepository multiSessionRepository = new MultiSessionRepository();
+        if (meterRegistry != null) {
+            multiSessionRepository.setMeterRegistry(meterRegistry);
+        }
+        multiSessionRepository.setNearCacheCodec(SessionCodec.of(SESSION_CODEC, 0));
+        if (sessionCodec() instanceof DeduplicatingSessionCodec) {
+            multiSessionRepository.setDeduplicatingSessionCodec((DeduplicatingSessionCodec) sessionCodec());
+        }
         if(ENABLE_MONGO_BEAN) {
             log.info("Mongo bean initialized");
             multiSessionRepository.setSpringMongoSessionConfigs(springMongoSessionConfig());
+            if (StringUtils.hasText(SHARDING_MONGO_URIS)) {
+                multiSessionRepository.registerSessionStoreBackend(shardedMongoSessionStoreBackend());
+            }
         }
         if(ENABLE_REDIS_BEAN) {
             log.info("Redis bean initialized");
             multiSessionRepository.setRedisSessionConfig(springRedisSessionConfig());
+            if (StringUtils.hasText(SHARDING_REDIS_NODES)) {
+                multiSessionRepository.registerSessionStoreBackend(shardedRedisSessionStoreBackend());
+            }
         }
         if (ENABLE_RDBMS_BEAN) {
             log.info("Rdbms bean initialized");
             multiSessionRepository.setRdbmsSessionConfig(springRdbmsSessionConfig());
         }
+        if (ENABLE_OFFHEAP_BEAN) {
+            log.info("Off-heap bean initialized");
+            multiSessionRepository.setOffHeapSessionConfig(springOffHeapSessionConfig());
+        }
         log.info("Initialized Multi-Session Repository");
         return multiSessionRepository;
     }
 
+    /**
+     * Configures the codec the session attributes are encoded with in every storage.
+     * @return The configured SessionCodec bean.
+     */
+    @Bean
+    public SessionCodec sessionCodec() {
+        log.info("Session attributes are encoded with the " + SESSION_CODEC + " codec");
+        SessionCodec sessionCodec = attributeSessionCodec();
+        if (!ATTRIBUTE_OFFLOAD_ENABLED) {
+            return sessionCodec;
+        }
+        validateAttributeOffloadTtl();
+        SessionBlobStore sessionBlobStore = createSessionBlobStore();
+        log.info("Session attributes above " + ATTRIBUTE_OFFLOAD_THRESHOLD + " bytes are offloaded to " + sessionBlobStore.getName());
+        return new DeduplicatingSessionCodec(sessionCodec, sessionBlobStore,
+                ATTRIBUTE_OFFLOAD_THRESHOLD,
+                ATTRIBUTE_OFFLOAD_TTL,
+                ATTRIBUTE_OFFLOAD_CACHE_MAXIMUM_BYTES,
+                ATTRIBUTE_OFFLOAD_PURGE_INTERVAL,
+                meterRegistry != null ? meterRegistry : Metrics.globalRegistry);
+    }
+
+    /**
+     * Creates the codec encoding the attributes without offloading them.
+     * @return The SessionCodec of the configured codec.
+     */
+    private SessionCodec attributeSessionCodec() {
+        return SessionCodec.of(SESSION_CODEC, SESSION_CODEC_COMPRESSION_THRESHOLD);
+    }
+
+    /**
+     * Configures the codec of Mongo storage. Mongo stores the attributes of a session as one serialized value, so
+     * offloading would store a blob per session revision instead of one per shared value, and Mongo sessions keep
+     * their attributes inline even when attribute offload is enabled.
+     * @return The SessionCodec of Mongo storage.
+     */
+    private SessionCodec mongoSessionCodec() {
+        if (!ATTRIBUTE_OFFLOAD_ENABLED) {
+            return sessionCodec();
+        }
+        log.warn("Session attributes are not offloaded from Mongo storage, which stores them as one value");
+        return attributeSessionCodec();
+    }
+
+    /**
+     * Checks that offloaded attributes outlive the sessions referencing them. A blob is refreshed at most once per
+     * half of its time to live, when a session referencing it is saved or read, so a session last accessed right
+     * after a refresh keeps its blob for half of the time to live only. The time to live is checked against the
+     * default max inactive interval of every enabled storage encoding attributes one by one: Redis and RDBMS use the
+     * default of Spring Session and off-heap its own property. Sessions given a longer interval extend it on save.
+     * @throws IllegalArgumentException If the time to live is shorter than twice the max inactive interval.
+     */
+    private void validateAttributeOffloadTtl() {
+        Duration maxInactiveInterval = Duration.ofSeconds(MapSession.DEFAULT_MAX_INACTIVE_INTERVAL_SECONDS);
+        if (ENABLE_OFFHEAP_BEAN && OFFHEAP_MAX_INACTIVE_INTERVAL.compareTo(maxInactiveInterval) > 0) {
+            maxInactiveInterval = OFFHEAP_MAX_INACTIVE_INTERVAL;
+        }
+        if (ATTRIBUTE_OFFLOAD_TTL.compareTo(maxInactiveInterval.multipliedBy(2)) < 0) {
+            throw new IllegalArgumentException("Attribute offload ttl " + ATTRIBUTE_OFFLOAD_TTL
+                    + " must be at least twice the max inactive interval " + maxInactiveInterval
+                    + ", otherwise blobs expire before the sessions referencing them");
+        }
+    }
+
+    /**
+     * Creates the store large session attributes are offloaded to.
+     * @return The SessionBlobStore of the configured storage.
+     * @throws IllegalArgumentException If the storage is unknown or not available.
+     */
+    private SessionBlobStore createSessionBlobStore() {
+        switch (ATTRIBUTE_OFFLOAD_STORE.trim().toUpperCase()) {
+            case "REDIS":
+                if (redisConnectionFactory == null) {
+                    throw new IllegalArgumentException("Attribute offload to Redis requires a RedisConnectionFactory");
+                }
+                return new SpringRedisSessionBlobStore(redisConnectionFactory, RedisIndexedSessionRepository.DEFAULT_NAMESPACE);
+            case "MONGO":
+                if (mongoOperations == null) {
+                    throw new IllegalArgumentException("Attribute offload to Mongo requires MongoOperations");
+                }
+                return new SpringMongoSessionBlobStore(mongoOperations, ATTRIBUTE_OFFLOAD_COLLECTION_NAME);
+            case "RDBMS":
+                if (jdbcOperations == null) {
+                    throw new IllegalArgumentException("Attribute offload to Rdbms requires JdbcOperations");
+                }
+                return new SpringRdbmsSessionBlobStore(jdbcOperations, ATTRIBUTE_OFFLOAD_TABLE_NAME);
+            default:
+                throw new IllegalArgumentException("Unknown attribute offload storage " + ATTRIBUTE_OFFLOAD_STORE);
+        }
+    }
+
     /**
      * Configures the Spring Redis session.
      * @return The configured SpringRedisSessionConfig bean.
@@ -92,7 +303,148 @@ public class SpringSessionConfigurator extends SpringHttpSessionConfiguration {
     @Bean
     @ConditionalOnProperty(havingValue= "true",value = "spring.session.enable.redis.bean")
     public SpringRedisSessionConfig springRedisSessionConfig() {
-        return new SpringRedisSessionConfig();
+        SpringRedisSessionConfig springRedisSessionConfig = new SpringRedisSessionConfig();
+        springRedisSessionConfig.setSessionCodec(sessionCodec());
+        if (meterRegistry != null) {
+            springRedisSessionConfig.setMeterRegistry(meterRegistry);
+        }
+        return springRedisSessionConfig;
+    }
+
+    /**
+     * Configures the Redis storage sharded over the configured Redis nodes, replacing the single Redis instance.
+     * Every node gets its own connection factory and SpringRedisSessionConfig, and is named by its address.
+     * @return The ShardedSessionStoreBackend bean of the Redis nodes.
+     */
+    @Bean
+    @ConditionalOnProperty(value = "spring.session.sharding.redis.nodes")
+    public ShardedSessionStoreBackend shardedRedisSessionStoreBackend() {
+        List<String> shardNames = new ArrayList<>();
+        List<SessionStoreBackend> shardBackends = new ArrayList<>();
+        for (String node : StringUtils.commaDelimitedListToSet(SHARDING_REDIS_NODES)) {
+            URI nodeUri = URI.create(node.trim());
+            LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(toRedisConfiguration(nodeUri));
+            connectionFactory.afterPropertiesSet();
+            shardConnectionFactories.add(connectionFactory);
+            SpringRedisSessionConfig shardSessionConfig = new SpringRedisSessionConfig();
+            autowireCapableBeanFactory.autowireBean(shardSessionConfig);
+            shardSessionConfig.setRedisConnectionFactory(connectionFactory);
+            shardSessionConfig.setSessionCodec(sessionCodec());
+            if (meterRegistry != null) {
+                shardSessionConfig.setMeterRegistry(meterRegistry);
+            }
+            shardNames.add(redisShardName(nodeUri));
+            shardBackends.add(new SpringRedisSessionStoreBackend(shardSessionConfig));
+        }
+        List<String> previousShardNames = new ArrayList<>();
+        for (String node : StringUtils.commaDelimitedListToSet(SHARDING_REDIS_PREVIOUS_NODES)) {
+            previousShardNames.add(redisShardName(URI.create(node.trim())));
+        }
+        return createShardedSessionStoreBackend(SpringRedisSessionStoreBackend.NAME, shardNames, shardBackends, previousShardNames);
+    }
+
+    /**
+     * Configures the Mongo storage sharded over the configured Mongo deployments, replacing the single one.
+     * Every deployment gets its own client and SpringMongoSessionConfig, and is named by its hosts and database.
+     * @return The ShardedSessionStoreBackend bean of the Mongo deployments.
+     */
+    @Bean
+    @ConditionalOnProperty(value = "spring.session.sharding.mongo.uris")
+    public ShardedSessionStoreBackend shardedMongoSessionStoreBackend() {
+        List<String> shardNames = new ArrayList<>();
+        List<SessionStoreBackend> shardBackends = new ArrayList<>();
+        for (String uri : SHARDING_MONGO_URIS.split(";")) {
+            ConnectionString connectionString = new ConnectionString(uri.trim());
+            MongoClient mongoClient = MongoClients.create(connectionString);
+            shardMongoClients.add(mongoClient);
+            SpringMongoSessionConfig shardSessionConfig =
+                    new SpringMongoSessionConfig(new MongoTemplate(mongoClient, connectionString.getDatabase()));
+            autowireCapableBeanFactory.autowireBean(shardSessionConfig);
+            shardSessionConfig.setSessionCodec(mongoSessionCodec());
+            if (meterRegistry != null) {
+                shardSessionConfig.setMeterRegistry(meterRegistry);
+            }
+            shardNames.add(mongoShardName(connectionString));
+            shardBackends.add(new SpringMongoSessionStoreBackend(shardSessionConfig));
+        }
+        List<String> previousShardNames = new ArrayList<>();
+        if (StringUtils.hasText(SHARDING_MONGO_PREVIOUS_URIS)) {
+            for (String uri : SHARDING_MONGO_PREVIOUS_URIS.split(";")) {
+                previousShardNames.add(mongoShardName(new ConnectionString(uri.trim())));
+            }
+        }
+        return createShardedSessionStoreBackend(SpringMongoSessionStoreBackend.NAME, shardNames, shardBackends, previousShardNames);
+    }
+
+    /**
+     * Closes the connections to the shards.
+     */
+    @PreDestroy
+    public void closeShardConnections() {
+        shardConnectionFactories.forEach(LettuceConnectionFactory::destroy);
+        shardMongoClients.forEach(MongoClient::close);
+    }
+
+    /**
+     * Creates a sharded backend and starts rebalancing it if shards were added.
+     * @param storageName The name of the storage type.
+     * @param shardNames The names of the shards.
+     * @param shardBackends The backends of the shards.
+     * @param previousShardNames The names of the shards before shards were added, or an empty list.
+     * @return The ShardedSessionStoreBackend.
+     */
+    private ShardedSessionStoreBackend createShardedSessionStoreBackend(String storageName, List<String> shardNames,
+                                                                        List<SessionStoreBackend> shardBackends,
+                                                                        List<String> previousShardNames) {
+        ShardedSessionStoreBackend shardedSessionStoreBackend = new ShardedSessionStoreBackend(storageName,
+                shardNames, shardBackends, previousShardNames, SHARDING_VIRTUAL_NODES,
+                meterRegistry != null ? meterRegistry : Metrics.globalRegistry);
+        shardedSessionStoreBackend.startRebalance(SHARDING_REBALANCE_PAGE_SIZE,
+                SHARDING_REBALANCE_MAX_SESSIONS_PER_SECOND, SHARDING_REBALANCE_SHUTDOWN_TIMEOUT);
+        return shardedSessionStoreBackend;
+    }
+
+    /**
+     * Builds the configuration of a Redis node from its URI, such as redis://:password@host:6379/0.
+     * @param nodeUri The URI of the node.
+     * @return The RedisStandaloneConfiguration of the node.
+     */
+    private static RedisStandaloneConfiguration toRedisConfiguration(URI nodeUri) {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+                nodeUri.getHost(), nodeUri.getPort() > 0 ? nodeUri.getPort() : 6379);
+        String userInfo = nodeUri.getUserInfo();
+        if (userInfo != null) {
+            int separator = userInfo.indexOf(':');
+            if (separator > 0) {
+                configuration.setUsername(userInfo.substring(0, separator));
+            }
+            configuration.setPassword(separator >= 0 ? userInfo.substring(separator + 1) : userInfo);
+        }
+        String path = nodeUri.getPath();
+        if (path != null && path.length() > 1) {
+            configuration.setDatabase(Integer.parseInt(path.substring(1)));
+        }
+        return configuration;
+    }
+
+    /**
+     * Names a Redis shard by its address and database, leaving the credentials out.
+     * @param nodeUri The URI of the node.
+     * @return The shard name, such as host:6379/0.
+     */
+    private static String redisShardName(URI nodeUri) {
+        String path = nodeUri.getPath();
+        return nodeUri.getHost() + ":" + (nodeUri.getPort() > 0 ? nodeUri.getPort() : 6379)
+                + "/" + (path != null && path.length() > 1 ? path.substring(1) : "0");
+    }
+
+    /**
+     * Names a Mongo shard by its hosts and database, leaving the credentials out.
+     * @param connectionString The connection string of the deployment.
+     * @return The shard name, such as host1:27017,host2:27017/sessions.
+     */
+    private static String mongoShardName(ConnectionString connectionString) {
+        return String.join(",", connectionString.getHosts()) + "/" + connectionString.getDatabase();
     }
 
     /**
@@ -102,7 +454,12 @@ public class SpringSessionConfigurator extends SpringHttpSessionConfiguration {
     @Bean
     @ConditionalOnProperty(havingValue = "true",value= "spring.session.enable.mongo.bean")
     public SpringMongoSessionConfig springMongoSessionConfig() {
-        return new SpringMongoSessionConfig(mongoOperations);
+        SpringMongoSessionConfig springMongoSessionConfig = new SpringMongoSessionConfig(mongoOperations);
+        springMongoSessionConfig.setSessionCodec(mongoSessionCodec());
+        if (meterRegistry != null) {
+            springMongoSessionConfig.setMeterRegistry(meterRegistry);
+        }
+        return springMongoSessionConfig;
     }
 
     /**
@@ -112,7 +469,27 @@ public class SpringSessionConfigurator extends SpringHttpSessionConfiguration {
     @Bean
     @ConditionalOnProperty(havingValue= "true", value= "spring.session.enable.rdbms.bean")
     public SpringRdbmsSessionConfig springRdbmsSessionConfig(){
-        return new SpringRdbmsSessionConfig(jdbcOperations,transactionOperations);
+        SpringRdbmsSessionConfig springRdbmsSessionConfig =
+                new SpringRdbmsSessionConfig(jdbcOperations,transactionOperations);
+        springRdbmsSessionConfig.setSessionCodec(sessionCodec());
+        if (meterRegistry != null) {
+            springRdbmsSessionConfig.setMeterRegistry(meterRegistry);
+        }
+        return springRdbmsSessionConfig;
     }
-}
 
+    /**
+     * Configures the Spring off-heap session.
+     * @return The configured SpringOffHeapSessionConfig bean.
+     */
+    @Bean
+    @ConditionalOnProperty(havingValue = "true", value = "spring.session.enable.offheap.bean")
+    public SpringOffHeapSessionConfig springOffHeapSessionConfig() {
+        SpringOffHeapSessionConfig springOffHeapSessionConfig = new SpringOffHeapSessionConfig();
+        springOffHeapSessionConfig.setSessionCodec(sessionCodec());
+        if (meterRegistry != null) {
+            springOffHeapSessionConfig.setMeterRegistry(meterRegistry);
+        }
+        return springOffHeapSessionConfig;
+    }
+}
@@ -1,8 +1,13 @@
 package org.framework.data;
 
 import lombok.*;
+import org.springframework.session.FindByIndexNameSessionRepository;
+
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * SpringSessionData is a data class representing session data.
@@ -11,7 +16,7 @@ import java.util.Map;
 @Data
 @Setter
 @Getter
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class SpringSessionData {
@@ -35,4 +40,70 @@ public class SpringSessionData {
      * The time at which the session was created, in milliseconds since the epoch.
      */
     private long createdMillis;
+
+    /**
+     * The time at which the session was last accessed, in milliseconds since the epoch.
+     */
+    private long lastAccessedMillis;
+
+    /**
+     * Whether the attributes only hold the attributes set since the session was last saved.
+     */
+    private boolean delta;
+
+    /**
+     * The names of the attributes removed since the session was last saved, only set for deltas.
+     */
+    private Set<String> removedAttributeNames;
+
+    /**
+     * Resolves the name of the principal the session belongs to.
+     * @return The principal name, or null if the session is not bound to a principal.
+     */
+    public String getPrincipalName() {
+        if (attributes == null) {
+            return null;
+        }
+        Object principalName = attributes.get(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME);
+        return principalName instanceof String ? (String) principalName : null;
+    }
+
+    /**
+     * Copies the attributes and removed attribute names, so the data no longer follows the session it was
+     * converted from. Converted session data views the attributes of the session until it is detached.
+     * @return The detached copy of the data.
+     */
+    public SpringSessionData detach() {
+        return toBuilder()
+                .attributes(attributes != null ? new HashMap<>(attributes) : null)
+                .removedAttributeNames(removedAttributeNames != null ? new HashSet<>(removedAttributeNames) : null)
+                .build();
+    }
+
+    /**
+     * Combines this save with an earlier save of the same session that has not been replicated yet.
+     * @param previous The earlier save.
+     * @return The save replicating both changes.
+     */
+    public SpringSessionData coalesce(SpringSessionData previous) {
+        if (!delta) {
+            return this;
+        }
+        Map<String, Object> mergedAttributes = new HashMap<>(previous.getAttributes());
+        mergedAttributes.putAll(attributes);
+        Set<String> mergedRemovedAttributeNames = new HashSet<>();
+        if (previous.isDelta() && previous.getRemovedAttributeNames() != null) {
+            mergedRemovedAttributeNames.addAll(previous.getRemovedAttributeNames());
+        }
+        if (removedAttributeNames != null) {
+            removedAttributeNames.forEach(mergedAttributes::remove);
+            mergedRemovedAttributeNames.addAll(removedAttributeNames);
+        }
+        mergedRemovedAttributeNames.removeAll(attributes.keySet());
+        return toBuilder()
+                .attributes(mergedAttributes)
+                .delta(previous.isDelta())
+                .removedAttributeNames(previous.isDelta() ? mergedRemovedAttributeNames : null)
+                .build();
+    }
 }
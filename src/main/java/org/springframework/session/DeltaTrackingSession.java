@@ -0,0 +1,164 @@
+package org.springframework.session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * DeltaTrackingSession wraps a session of the primary storage and records the attributes set and removed
+ * since it was last saved, so only the changes have to be replicated to the secondary storage.
+ * It also remembers the id the session was read with, so a changed id can be evicted from the near cache.
+ */
+public final class DeltaTrackingSession implements Session {
+
+    private final Session delegate;
+
+    private final Set<String> changedAttributeNames = new HashSet<>();
+
+    private final Set<String> removedAttributeNames = new HashSet<>();
+
+    private boolean fullSaveRequired;
+
+    private String originalId;
+
+    /**
+     * Constructor for DeltaTrackingSession.
+     * @param delegate The session of the primary storage.
+     * @param isNew True if the session was just created and has never been replicated.
+     */
+    public DeltaTrackingSession(Session delegate, boolean isNew) {
+        this.delegate = delegate;
+        this.fullSaveRequired = isNew;
+        this.originalId = delegate.getId();
+    }
+
+    /**
+     * Unwraps a session, returning the session of the primary storage.
+     * @param session The possibly wrapped session.
+     * @return The session of the primary storage.
+     */
+    public static Session unwrap(Session session) {
+        return session instanceof DeltaTrackingSession ? ((DeltaTrackingSession) session).delegate : session;
+    }
+
+    /**
+     * Gets the session of the primary storage.
+     * @return The wrapped session.
+     */
+    public Session getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Checks if the session must be replicated in full, because it is new or its id changed.
+     * @return True if a delta is not enough, otherwise false.
+     */
+    public boolean isFullSaveRequired() {
+        return fullSaveRequired;
+    }
+
+    /**
+     * Gets the id the session had when it was read or last saved.
+     * @return The original session id.
+     */
+    public String getOriginalId() {
+        return originalId;
+    }
+
+    /**
+     * Gets the names of the attributes set since the last save.
+     * @return The changed attribute names.
+     */
+    public Set<String> getChangedAttributeNames() {
+        return Collections.unmodifiableSet(changedAttributeNames);
+    }
+
+    /**
+     * Gets the names of the attributes removed since the last save.
+     * @return The removed attribute names.
+     */
+    public Set<String> getRemovedAttributeNames() {
+        return Collections.unmodifiableSet(removedAttributeNames);
+    }
+
+    /**
+     * Resets the recorded changes once the session has been saved.
+     */
+    public void clearDelta() {
+        changedAttributeNames.clear();
+        removedAttributeNames.clear();
+        fullSaveRequired = false;
+        originalId = delegate.getId();
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public String changeSessionId() {
+        fullSaveRequired = true;
+        return delegate.changeSessionId();
+    }
+
+    @Override
+    public <T> T getAttribute(String attributeName) {
+        return delegate.getAttribute(attributeName);
+    }
+
+    @Override
+    public Set<String> getAttributeNames() {
+        return delegate.getAttributeNames();
+    }
+
+    @Override
+    public void setAttribute(String attributeName, Object attributeValue) {
+        if (attributeValue == null) {
+            removeAttribute(attributeName);
+            return;
+        }
+        delegate.setAttribute(attributeName, attributeValue);
+        changedAttributeNames.add(attributeName);
+        removedAttributeNames.remove(attributeName);
+    }
+
+    @Override
+    public void removeAttribute(String attributeName) {
+        delegate.removeAttribute(attributeName);
+        removedAttributeNames.add(attributeName);
+        changedAttributeNames.remove(attributeName);
+    }
+
+    @Override
+    public Instant getCreationTime() {
+        return delegate.getCreationTime();
+    }
+
+    @Override
+    public void setLastAccessedTime(Instant lastAccessedTime) {
+        delegate.setLastAccessedTime(lastAccessedTime);
+    }
+
+    @Override
+    public Instant getLastAccessedTime() {
+        return delegate.getLastAccessedTime();
+    }
+
+    @Override
+    public void setMaxInactiveInterval(Duration interval) {
+        delegate.setMaxInactiveInterval(interval);
+    }
+
+    @Override
+    public Duration getMaxInactiveInterval() {
+        return delegate.getMaxInactiveInterval();
+    }
+
+    @Override
+    public boolean isExpired() {
+        return delegate.isExpired();
+    }
+}
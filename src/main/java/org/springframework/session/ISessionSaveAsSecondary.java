@@ -3,6 +3,8 @@ package org.springframework.session;
 
 import org.framework.data.SpringSessionData;
 
+import java.util.List;
+
 /**
  * ISessionSaveAsSecondary defines a contract for saving session data as a secondary operation.
  * Implementing classes should provide an implementation for the saveAsSecondary method.
@@ -15,4 +17,22 @@ public interface ISessionSaveAsSecondary {
      * @param springSessionData The SpringSessionData object containing session data to be saved.
      */
     void saveAsSecondary(SpringSessionData springSessionData);
+
+    /**
+     * Saves a batch of sessions as secondary.
+     * Implementations able to write several sessions in one round trip should override this method.
+     * @param springSessionDataList The SpringSessionData objects containing session data to be saved.
+     */
+    default void saveAllAsSecondary(List<SpringSessionData> springSessionDataList) {
+        springSessionDataList.forEach(this::saveAsSecondary);
+    }
+
+    /**
+     * Checks if the implementation can apply a delta SpringSessionData, holding only the changed attributes
+     * and the names of the removed ones, on top of the session it already stores.
+     * @return True if deltas are supported, otherwise false.
+     */
+    default boolean supportsDelta() {
+        return false;
+    }
 }
@@ -1,60 +1,716 @@
 package org.springframework.session;
 
 import io.micrometer.common.util.StringUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import lombok.extern.slf4j.Slf4j;
 import org.framework.data.SpringSessionData;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.session.data.mongo.SpringMongoSessionConfig;
-import org.springframework.session.data.mongo.SpringMongoSessionConverterUtil;
+import org.springframework.session.data.mongo.SpringMongoSessionStoreBackend;
+import org.springframework.session.data.redis.SpringRedisNearCacheInvalidator;
 import org.springframework.session.data.redis.SpringRedisSessionConfig;
-import org.springframework.session.data.redis.SpringRedisSessionConverterUtil;
+import org.springframework.session.data.redis.SpringRedisSessionStoreBackend;
 import org.springframework.session.jdbc.SpringRdbmsSessionConfig;
-import org.springframework.session.jdbc.SpringRdbmsSessionConverterUtil;
+import org.springframework.session.jdbc.SpringRdbmsSessionStoreBackend;
+import org.springframework.session.offheap.SpringOffHeapSessionConfig;
+import org.springframework.session.offheap.SpringOffHeapSessionStoreBackend;
+import org.springframework.session.serializer.DeduplicatingSessionCodec;
+import org.springframework.session.serializer.JdkSessionCodec;
+import org.springframework.session.serializer.SessionCodec;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 /**
  * MultiSessionRepository is a session repository that supports multiple storage options as primary and secondary storage.
  * It determines the primary storage based on configuration and delegates session operations accordingly.
+ * Storages are plugged in as SessionStoreBackend instances, resolved once at startup into the primary and secondary routes.
  * @author Hardik Sharma
  */
 @Slf4j
-public class MultiSessionRepository implements SessionRepository {
+public class MultiSessionRepository implements SessionRepository, InitializingBean, DisposableBean {
+
+    private static final String EXPIRY_SWEEP_LOCK_NAME = "expiry-sweep";
 
-    @Value("${spring.session.primary_storage.name}")
+    @Value("${spring.session.primary_storage.name:}")
     private String PRIMARYSTORAGE;
 
     @Value("${spring.session.secondary_storage.enabled:false}")
     private boolean SECONDARY_STORAGE_ENABLED;
 
-    @Value("${spring.session.secondary_storage.name}")
+    @Value("${spring.session.secondary_storage.name:}")
     private String SECONDARYSTORAGE;
 
-    private SpringMongoSessionConfig springMongoSessionConfig;
+    @Value("${spring.session.replication.storages:}")
+    private String REPLICATION_STORAGES;
+
+    @Value("${spring.session.replication.write_consistency:ALL}")
+    private String REPLICATION_WRITE_CONSISTENCY;
+
+    @Value("${spring.session.replication.timeout:PT2S}")
+    private Duration REPLICATION_TIMEOUT;
+
+    @Value("${spring.session.replication.lanes_per_storage:4}")
+    private int REPLICATION_LANES_PER_STORAGE;
+
+    @Value("${spring.session.replication.queue_capacity:10000}")
+    private int REPLICATION_QUEUE_CAPACITY;
+
+    @Value("${spring.session.replication.shutdown_timeout:PT10S}")
+    private Duration REPLICATION_SHUTDOWN_TIMEOUT;
+
+    @Value("${spring.session.secondary_storage.write_behind.enabled:false}")
+    private boolean WRITE_BEHIND_ENABLED;
+
+    @Value("${spring.session.secondary_storage.write_behind.queue_capacity:10000}")
+    private int WRITE_BEHIND_QUEUE_CAPACITY;
+
+    @Value("${spring.session.secondary_storage.write_behind.workers:2}")
+    private int WRITE_BEHIND_WORKERS;
+
+    @Value("${spring.session.secondary_storage.write_behind.overflow_policy:DROP_OLDEST}")
+    private String WRITE_BEHIND_OVERFLOW_POLICY;
+
+    @Value("${spring.session.secondary_storage.write_behind.batch_size:100}")
+    private int WRITE_BEHIND_BATCH_SIZE;
+
+    @Value("${spring.session.secondary_storage.write_behind.batch_window:PT0S}")
+    private Duration WRITE_BEHIND_BATCH_WINDOW;
+
+    @Value("${spring.session.secondary_storage.write_behind.shutdown_timeout:PT10S}")
+    private Duration WRITE_BEHIND_SHUTDOWN_TIMEOUT;
+
+    @Value("${spring.session.secondary_storage.delta.enabled:false}")
+    private boolean DELTA_REPLICATION_ENABLED;
+
+    @Value("${spring.session.near_cache.enabled:false}")
+    private boolean NEAR_CACHE_ENABLED;
+
+    @Value("${spring.session.near_cache.maximum_size:10000}")
+    private long NEAR_CACHE_MAXIMUM_SIZE;
+
+    @Value("${spring.session.near_cache.ttl:PT5S}")
+    private Duration NEAR_CACHE_TTL;
+
+    @Value("${spring.session.near_cache.invalidation:REDIS}")
+    private String NEAR_CACHE_INVALIDATION;
+
+    @Value("${spring.session.near_cache.channel:spring:session:near-cache}")
+    private String NEAR_CACHE_CHANNEL;
+
+    @Value("${spring.session.read_failover.enabled:false}")
+    private boolean READ_FAILOVER_ENABLED;
+
+    @Value("${spring.session.read_failover.timeout:PT1S}")
+    private Duration READ_FAILOVER_TIMEOUT;
+
+    @Value("${spring.session.read_failover.max_concurrent_calls:64}")
+    private int READ_FAILOVER_MAX_CONCURRENT_CALLS;
+
+    @Value("${spring.session.read_failover.sliding_window_size:100}")
+    private int READ_FAILOVER_SLIDING_WINDOW_SIZE;
+
+    @Value("${spring.session.read_failover.minimum_calls:20}")
+    private int READ_FAILOVER_MINIMUM_CALLS;
+
+    @Value("${spring.session.read_failover.failure_rate_threshold:50}")
+    private float READ_FAILOVER_FAILURE_RATE_THRESHOLD;
+
+    @Value("${spring.session.read_failover.slow_call_rate_threshold:100}")
+    private float READ_FAILOVER_SLOW_CALL_RATE_THRESHOLD;
+
+    @Value("${spring.session.read_failover.slow_call_duration:PT0.5S}")
+    private Duration READ_FAILOVER_SLOW_CALL_DURATION;
+
+    @Value("${spring.session.read_failover.wait_duration_in_open_state:PT30S}")
+    private Duration READ_FAILOVER_WAIT_DURATION_IN_OPEN_STATE;
+
+    @Value("${spring.session.read_failover.permitted_calls_in_half_open_state:5}")
+    private int READ_FAILOVER_PERMITTED_CALLS_IN_HALF_OPEN_STATE;
+
+    @Value("${spring.session.hedged_reads.enabled:false}")
+    private boolean HEDGED_READS_ENABLED;
+
+    @Value("${spring.session.hedged_reads.delay:PT0.02S}")
+    private Duration HEDGED_READS_DELAY;
+
+    @Value("${spring.session.hedged_reads.delay_percentile:95}")
+    private int HEDGED_READS_DELAY_PERCENTILE;
+
+    @Value("${spring.session.hedged_reads.budget_percent:10}")
+    private float HEDGED_READS_BUDGET_PERCENT;
+
+    @Value("${spring.session.hedged_reads.max_concurrent_calls:64}")
+    private int HEDGED_READS_MAX_CONCURRENT_CALLS;
+
+    @Value("${spring.session.migration.enabled:false}")
+    private boolean MIGRATION_ENABLED;
+
+    @Value("${spring.session.migration.source:}")
+    private String MIGRATION_SOURCE;
+
+    @Value("${spring.session.migration.target:}")
+    private String MIGRATION_TARGET;
+
+    @Value("${spring.session.migration.workers:4}")
+    private int MIGRATION_WORKERS;
+
+    @Value("${spring.session.migration.page_size:500}")
+    private int MIGRATION_PAGE_SIZE;
+
+    @Value("${spring.session.migration.max_sessions_per_second:1000}")
+    private double MIGRATION_MAX_SESSIONS_PER_SECOND;
+
+    @Value("${spring.session.migration.max_retries:3}")
+    private int MIGRATION_MAX_RETRIES;
+
+    @Value("${spring.session.migration.checkpoint_file:}")
+    private String MIGRATION_CHECKPOINT_FILE;
+
+    @Value("${spring.session.migration.shutdown_timeout:PT10S}")
+    private Duration MIGRATION_SHUTDOWN_TIMEOUT;
+
+    @Value("${spring.session.migration.read_through.enabled:false}")
+    private boolean READ_THROUGH_ENABLED;
+
+    @Value("${spring.session.migration.read_through.legacy_storage:}")
+    private String READ_THROUGH_LEGACY_STORAGE;
+
+    @Value("${spring.session.migration.read_through.negative_cache_size:100000}")
+    private long READ_THROUGH_NEGATIVE_CACHE_SIZE;
+
+    @Value("${spring.session.migration.read_through.negative_cache_ttl:PT5M}")
+    private Duration READ_THROUGH_NEGATIVE_CACHE_TTL;
+
+    @Value("${spring.session.migration.read_through.drain_window:PT24H}")
+    private Duration READ_THROUGH_DRAIN_WINDOW;
+
+    @Value("${spring.session.migration.read_through.workers:2}")
+    private int READ_THROUGH_WORKERS;
+
+    @Value("${spring.session.migration.read_through.queue_capacity:10000}")
+    private int READ_THROUGH_QUEUE_CAPACITY;
+
+    @Value("${spring.session.anti_entropy.enabled:false}")
+    private boolean ANTI_ENTROPY_ENABLED;
+
+    @Value("${spring.session.anti_entropy.interval:PT10M}")
+    private Duration ANTI_ENTROPY_INTERVAL;
+
+    @Value("${spring.session.anti_entropy.page_size:500}")
+    private int ANTI_ENTROPY_PAGE_SIZE;
+
+    @Value("${spring.session.anti_entropy.max_sessions_per_second:1000}")
+    private double ANTI_ENTROPY_MAX_SESSIONS_PER_SECOND;
+
+    @Value("${spring.session.anti_entropy.settle_time:PT1M}")
+    private Duration ANTI_ENTROPY_SETTLE_TIME;
+
+    @Value("${spring.session.anti_entropy.shutdown_timeout:PT10S}")
+    private Duration ANTI_ENTROPY_SHUTDOWN_TIMEOUT;
+
+    @Value("${spring.session.expiry_sweep.enabled:false}")
+    private boolean EXPIRY_SWEEP_ENABLED;
+
+    @Value("${spring.session.expiry_sweep.interval:PT1M}")
+    private Duration EXPIRY_SWEEP_INTERVAL;
+
+    @Value("${spring.session.expiry_sweep.batch_size:500}")
+    private int EXPIRY_SWEEP_BATCH_SIZE;
+
+    @Value("${spring.session.expiry_sweep.max_sessions_per_second:1000}")
+    private double EXPIRY_SWEEP_MAX_SESSIONS_PER_SECOND;
+
+    @Value("${spring.session.expiry_sweep.lock:}")
+    private String EXPIRY_SWEEP_LOCK;
+
+    @Value("${spring.session.expiry_sweep.lock_lease:PT3M}")
+    private Duration EXPIRY_SWEEP_LOCK_LEASE;
+
+    @Value("${spring.session.expiry_sweep.shutdown_timeout:PT10S}")
+    private Duration EXPIRY_SWEEP_SHUTDOWN_TIMEOUT;
+
+    @Value("${spring.session.debug_log.sample_rate:0.01}")
+    private double DEBUG_LOG_SAMPLE_RATE;
+
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    private SessionCodec nearCacheCodec = new JdkSessionCodec();
+
+    private DeduplicatingSessionCodec deduplicatingSessionCodec;
+
+    private SessionStoreMetrics primaryMetrics;
+
+    private SessionStoreMetrics secondaryMetrics;
+
+    private SessionReadThrough sessionReadThrough;
+
+    private SessionMigrationEngine sessionMigrationEngine;
+
+    private SessionAntiEntropy sessionAntiEntropy;
+
+    private SessionExpirySweep sessionExpirySweep;
+
+    private SessionReadHedger sessionReadHedger;
+
+    private SessionCircuitBreaker primaryReadCircuitBreaker;
+
+    private SessionNearCache sessionNearCache;
+
+    private SpringRedisNearCacheInvalidator nearCacheInvalidator;
+
+    private SecondaryWriteBehindQueue secondaryWriteBehindQueue;
+
+    private SessionReplicator sessionReplicator;
 
     private SpringRedisSessionConfig springRedisSessionConfig;
 
-    private SpringRdbmsSessionConfig springRdbmsSessionConfig;
+    private final Map<String, SessionStoreBackend> sessionStoreBackends = new LinkedHashMap<>();
+
+    private SessionStoreBackend primaryBackend;
+
+    private SessionRepository primaryRepository;
+
+    private SessionStoreBackend secondaryBackend;
+
+    private SessionRepository secondaryRepository;
+
+    private ISessionSaveAsSecondary secondaryWriter;
+
+    private final List<SessionStoreBackend> replicaBackends = new ArrayList<>();
+
+    private final List<SessionStoreMetrics> replicaMetrics = new ArrayList<>();
+
+    private boolean secondarySupportsDelta;
 
     /**
-     * Retrieves the appropriate session repository based on the primary storage configuration.
-     * @return The session repository bean for the configured primary storage.
+     * Starts the replication or the write-behind queue for the secondary storage, the near cache, the read failover, the hedged reads,
+     * the legacy read-through, the session migration, the anti-entropy repair and the expiry sweep when they are enabled.
      */
-    public SessionRepository getSessionRepositoryBean() {
-        if(StringUtils.isNotEmpty(PRIMARYSTORAGE)) {
-            log.info(PRIMARYSTORAGE + " is primary storage");
-            switch (PRIMARYSTORAGE) {
-                case "MONGO":
-                    return springMongoSessionConfig.getMongoOperationsSessionRepository();
-                case "REDIS":
-                    return springRedisSessionConfig.getRedisOperationsSessionRepository();
-                case "RDBMS":
-                    return springRdbmsSessionConfig.getJdbcIndexedSessionRepository();
-                default:
-                    throw new IllegalArgumentException("Does not match the given primary storage");
+    @Override
+    public void afterPropertiesSet() {
+        resolveSessionStoreBackends();
+        if (NEAR_CACHE_ENABLED) {
+            initializeNearCache();
+        }
+        if (READ_FAILOVER_ENABLED) {
+            initializeReadFailover();
+        }
+        if (HEDGED_READS_ENABLED) {
+            initializeHedgedReads();
+        }
+        if (secondaryStorageIsEnabled() && WRITE_BEHIND_ENABLED) {
+            if (replicaBackends.size() > 1) {
+                throw new IllegalArgumentException("Write-behind replication supports a single secondary storage, "
+                        + "use spring.session.replication.write_consistency=ONE to replicate to " + replicaBackends.size() + " storages");
+            }
+            secondaryWriteBehindQueue = new SecondaryWriteBehindQueue(
+                    this::multiSessionSaveAllAsSecondary,
+                    this::deleteSessionsFromSecondary,
+                    WRITE_BEHIND_QUEUE_CAPACITY,
+                    WRITE_BEHIND_WORKERS,
+                    SecondaryWriteBehindQueue.OverflowPolicy.valueOf(WRITE_BEHIND_OVERFLOW_POLICY.toUpperCase()),
+                    WRITE_BEHIND_BATCH_SIZE,
+                    WRITE_BEHIND_BATCH_WINDOW,
+                    secondaryBackend.getName(),
+                    meterRegistry);
+            log.info("Write-behind replication to " + secondaryBackend.getName() + " is enabled");
+        } else if (secondaryStorageIsEnabled()) {
+            sessionReplicator = new SessionReplicator(
+                    replicaBackends,
+                    replicaMetrics,
+                    SessionReplicator.WriteConsistency.valueOf(REPLICATION_WRITE_CONSISTENCY.trim().toUpperCase()),
+                    REPLICATION_TIMEOUT,
+                    REPLICATION_LANES_PER_STORAGE,
+                    REPLICATION_QUEUE_CAPACITY,
+                    meterRegistry);
+        }
+        if (READ_THROUGH_ENABLED) {
+            initializeReadThrough();
+        }
+        if (MIGRATION_ENABLED) {
+            startSessionMigration();
+        }
+        if (ANTI_ENTROPY_ENABLED) {
+            startAntiEntropy();
+        }
+        if (EXPIRY_SWEEP_ENABLED) {
+            startExpirySweep();
+        }
+    }
+
+    /**
+     * Starts sweeping the expired sessions of the primary and replica storages that do not expire them by themselves,
+     * on the node holding the sweep lock. Without a configured lock storage, the lock is held in the first of the
+     * primary and replica storages able to hold one, and every node sweeps if none can.
+     */
+    private void startExpirySweep() {
+        List<SessionExpirySweeper> sweepers = new ArrayList<>();
+        List<SessionStoreBackend> backends = new ArrayList<>();
+        backends.add(primaryBackend);
+        backends.addAll(replicaBackends);
+        for (SessionStoreBackend backend : backends) {
+            try {
+                sweepers.add(backend.getExpirySweeper());
+            } catch (UnsupportedOperationException e) {
+                log.info("Expiry sweep skips " + backend.getName() + ": " + e.getMessage());
             }
         }
-        else {
+        if (sweepers.isEmpty()) {
+            log.info("Expiry sweep has no storage to sweep, it stays disabled");
+            return;
+        }
+        sessionExpirySweep = new SessionExpirySweep(
+                sweepers,
+                resolveExpirySweepLock(backends),
+                EXPIRY_SWEEP_BATCH_SIZE,
+                EXPIRY_SWEEP_MAX_SESSIONS_PER_SECOND,
+                EXPIRY_SWEEP_LOCK_LEASE,
+                meterRegistry);
+        sessionExpirySweep.start(EXPIRY_SWEEP_INTERVAL);
+    }
+
+    /**
+     * Resolves the lock electing the node sweeping the expired sessions.
+     * @param backends The primary and replica backends, tried in order when no lock storage is configured.
+     * @return The SessionLock, or null if no storage can hold it.
+     * @throws IllegalArgumentException If the configured lock storage is not registered.
+     * @throws UnsupportedOperationException If the configured lock storage cannot hold locks.
+     */
+    private SessionLock resolveExpirySweepLock(List<SessionStoreBackend> backends) {
+        if (!StringUtils.isEmpty(EXPIRY_SWEEP_LOCK)) {
+            return getSessionStoreBackend(EXPIRY_SWEEP_LOCK).getLock(EXPIRY_SWEEP_LOCK_NAME);
+        }
+        for (SessionStoreBackend backend : backends) {
+            try {
+                return backend.getLock(EXPIRY_SWEEP_LOCK_NAME);
+            } catch (UnsupportedOperationException e) {
+                log.debug("No expiry sweep lock in {}: {}", backend.getName(), e.getMessage());
+            }
+        }
+        log.warn("No storage can hold the expiry sweep lock, every node sweeps");
+        return null;
+    }
+
+    /**
+     * Starts the rounds comparing secondary storage with primary storage and repairing the sessions that differ,
+     * so the secondary writes lost to failures are caught up.
+     */
+    private void startAntiEntropy() {
+        if (!secondaryStorageIsEnabled()) {
+            log.warn("Anti-entropy requires secondary storage, it stays disabled");
+            return;
+        }
+        SessionSource primarySource;
+        SessionSource secondarySource;
+        try {
+            primarySource = primaryBackend.getSessionSource();
+            secondarySource = secondaryBackend.getSessionSource();
+        } catch (UnsupportedOperationException e) {
+            log.warn("Anti-entropy is not supported between " + primaryBackend.getName() + " and "
+                    + secondaryBackend.getName() + ", it stays disabled: " + e.getMessage());
+            return;
+        }
+        sessionAntiEntropy = new SessionAntiEntropy(
+                primarySource,
+                secondarySource,
+                primaryRepository,
+                secondaryRepository,
+                secondaryWriter,
+                SessionCodec.of("COMPACT", 0),
+                ANTI_ENTROPY_PAGE_SIZE,
+                ANTI_ENTROPY_MAX_SESSIONS_PER_SECOND,
+                ANTI_ENTROPY_SETTLE_TIME,
+                meterRegistry);
+        sessionAntiEntropy.start(ANTI_ENTROPY_INTERVAL);
+    }
+
+    /**
+     * Creates the read-through looking up sessions missing from primary storage in the legacy storage.
+     * Found sessions are copied to the primary storage in the background, except for primaries whose sessions
+     * cannot be restored from a snapshot, which insert the returned session on its next save instead.
+     */
+    private void initializeReadThrough() {
+        if (StringUtils.isEmpty(READ_THROUGH_LEGACY_STORAGE)) {
+            throw new IllegalArgumentException("No legacy storage configuration found for read-through");
+        }
+        SessionStoreBackend legacyBackend = getSessionStoreBackend(READ_THROUGH_LEGACY_STORAGE);
+        if (legacyBackend == primaryBackend) {
+            throw new IllegalArgumentException("Legacy storage must differ from primary storage");
+        }
+        sessionReadThrough = new SessionReadThrough(
+                legacyBackend,
+                primaryBackend.supportsSnapshotRestore() ? primaryBackend.getSecondaryWriter() : null,
+                READ_THROUGH_NEGATIVE_CACHE_SIZE,
+                READ_THROUGH_NEGATIVE_CACHE_TTL,
+                READ_THROUGH_DRAIN_WINDOW,
+                READ_THROUGH_WORKERS,
+                READ_THROUGH_QUEUE_CAPACITY,
+                meterRegistry);
+        log.info("Read-through from " + legacyBackend.getName() + " legacy storage is enabled for " + READ_THROUGH_DRAIN_WINDOW);
+    }
+
+    /**
+     * Starts migrating the sessions of the migration source to the migration target in the background.
+     * Without configured storages, sessions are migrated from secondary storage to primary storage,
+     * which moves the existing sessions after a storage switch.
+     */
+    private void startSessionMigration() {
+        String sourceName = StringUtils.isEmpty(MIGRATION_SOURCE) && secondaryBackend != null
+                ? secondaryBackend.getName() : MIGRATION_SOURCE;
+        String targetName = StringUtils.isEmpty(MIGRATION_TARGET) ? primaryBackend.getName() : MIGRATION_TARGET;
+        if (StringUtils.isEmpty(sourceName)) {
+            throw new IllegalArgumentException("No migration source storage configuration found");
+        }
+        sessionMigrationEngine = createSessionMigrationEngine(sourceName, targetName,
+                StringUtils.isEmpty(MIGRATION_CHECKPOINT_FILE) ? null : Paths.get(MIGRATION_CHECKPOINT_FILE));
+        sessionMigrationEngine.start();
+    }
+
+    /**
+     * Creates an engine migrating all live sessions between two registered storages with the configured
+     * workers, page size, rate limit and retries.
+     * @param sourceName The name of the storage the sessions are read from.
+     * @param targetName The name of the storage the sessions are written to.
+     * @param checkpointFile The file the progress is kept in to resume the migration, or null to keep it in memory.
+     * @return The SessionMigrationEngine, not started yet.
+     * @throws IllegalArgumentException If a storage is not registered or both storages are the same.
+     * @throws UnsupportedOperationException If the source storage cannot be scanned.
+     */
+    public SessionMigrationEngine createSessionMigrationEngine(String sourceName, String targetName, Path checkpointFile) {
+        SessionStoreBackend sourceBackend = getSessionStoreBackend(sourceName);
+        SessionStoreBackend targetBackend = getSessionStoreBackend(targetName);
+        if (sourceBackend == targetBackend) {
+            throw new IllegalArgumentException("Migration source and target storage must differ");
+        }
+        return new SessionMigrationEngine(
+                sourceBackend.getSessionSource(),
+                targetBackend.getSecondaryWriter(),
+                targetBackend.getSecondarySessionRepository(),
+                targetBackend.getName(),
+                MIGRATION_WORKERS,
+                MIGRATION_PAGE_SIZE,
+                MIGRATION_MAX_SESSIONS_PER_SECOND,
+                MIGRATION_MAX_RETRIES,
+                new SessionMigrationCheckpoint(checkpointFile, sourceBackend.getName(), targetBackend.getName()),
+                meterRegistry);
+    }
+
+    /**
+     * Resolves the primary backend and the backends of the replica storages from the configured storage names.
+     * The first replica is the secondary storage, used by the read failover, the hedged reads, the anti-entropy
+     * repair and the migration. Deltas are only replicated when every replica applies them.
+     * @throws IllegalArgumentException If a configured storage has no registered backend or is configured twice.
+     */
+    private void resolveSessionStoreBackends() {
+        List<String> storageNames = getStorageNames();
+        primaryBackend = getSessionStoreBackend(storageNames.get(0));
+        primaryRepository = primaryBackend.getSessionRepository();
+        primaryMetrics = new SessionStoreMetrics(primaryBackend.getName(), SessionStoreMetrics.PRIMARY, meterRegistry);
+        log.info(primaryBackend.getName() + " is primary storage");
+        boolean replicasSupportDelta = true;
+        for (String storageName : storageNames.subList(1, storageNames.size())) {
+            SessionStoreBackend replicaBackend = getSessionStoreBackend(storageName);
+            if (replicaBackend == primaryBackend || replicaBackends.contains(replicaBackend)) {
+                throw new IllegalArgumentException("Storage " + replicaBackend.getName() + " is configured twice, "
+                        + "primary and secondary storage must differ");
+            }
+            replicaBackends.add(replicaBackend);
+            replicaMetrics.add(new SessionStoreMetrics(replicaBackend.getName(), SessionStoreMetrics.SECONDARY, meterRegistry));
+            replicasSupportDelta &= replicaBackend.getSecondaryWriter().supportsDelta();
+        }
+        if (replicaBackends.isEmpty()) {
+            return;
+        }
+        secondaryBackend = replicaBackends.get(0);
+        secondaryRepository = secondaryBackend.getSecondarySessionRepository();
+        secondaryWriter = secondaryBackend.getSecondaryWriter();
+        secondarySupportsDelta = replicasSupportDelta;
+        secondaryMetrics = replicaMetrics.get(0);
+        log.info(secondaryBackend.getName() + " is secondary storage"
+                + (replicaBackends.size() > 1 ? ", replicas are " + replicaBackends.stream()
+                        .map(SessionStoreBackend::getName).toList() : ""));
+    }
+
+    /**
+     * Gets the configured storage names in order, the primary storage first. The replication storages, when
+     * configured, take precedence over the primary and secondary storage names.
+     * @return The storage names, the primary storage first.
+     * @throws IllegalArgumentException If no primary storage, or no secondary storage while enabled, is configured.
+     */
+    private List<String> getStorageNames() {
+        List<String> storageNames = new ArrayList<>();
+        if (!StringUtils.isEmpty(REPLICATION_STORAGES)) {
+            for (String storageName : REPLICATION_STORAGES.split(",")) {
+                if (!storageName.isBlank()) {
+                    storageNames.add(storageName.trim());
+                }
+            }
+            return storageNames;
+        }
+        if (StringUtils.isEmpty(PRIMARYSTORAGE)) {
             throw new IllegalArgumentException("No primary storage configuration found");
         }
+        storageNames.add(PRIMARYSTORAGE);
+        if (!SECONDARY_STORAGE_ENABLED) {
+            return storageNames;
+        }
+        if (StringUtils.isEmpty(SECONDARYSTORAGE)) {
+            throw new IllegalArgumentException("No secondary storage configuration found");
+        }
+        storageNames.add(SECONDARYSTORAGE);
+        return storageNames;
+    }
+
+    /**
+     * Gets the registered backend of a storage.
+     * @param storageName The configured name of the storage.
+     * @return The backend of the storage.
+     * @throws IllegalArgumentException If no backend is registered under the name.
+     */
+    private SessionStoreBackend getSessionStoreBackend(String storageName) {
+        SessionStoreBackend sessionStoreBackend = sessionStoreBackends.get(storageName.toUpperCase());
+        if (sessionStoreBackend == null) {
+            throw new IllegalArgumentException("Does not match any enabled storage: " + storageName
+                    + ", enabled storages are " + sessionStoreBackends.keySet());
+        }
+        return sessionStoreBackend;
+    }
+
+    /**
+     * Creates the near cache and subscribes to the invalidations of the other nodes.
+     */
+    private void initializeNearCache() {
+        if (!primaryBackend.supportsSnapshotRestore()) {
+            log.warn("Near cache is not supported for " + primaryBackend.getName() + " primary storage, its sessions cannot be restored from a snapshot");
+            return;
+        }
+        sessionNearCache = new SessionNearCache(NEAR_CACHE_MAXIMUM_SIZE, NEAR_CACHE_TTL, nearCacheCodec, meterRegistry);
+        if ("REDIS".equalsIgnoreCase(NEAR_CACHE_INVALIDATION)) {
+            if (springRedisSessionConfig == null) {
+                throw new IllegalStateException("Near cache invalidation through Redis requires the Redis bean");
+            }
+            nearCacheInvalidator = new SpringRedisNearCacheInvalidator(
+                    springRedisSessionConfig.getRedisConnectionFactory(), sessionNearCache, NEAR_CACHE_CHANNEL);
+            nearCacheInvalidator.start();
+        }
+        log.info("Near cache is enabled for " + primaryBackend.getName() + " primary storage");
+    }
+
+    /**
+     * Creates the circuit breaker guarding the reads from primary storage.
+     * Primaries whose sessions cannot be restored from a snapshot are not guarded, a session read from secondary
+     * storage would be saved to them as another session with the same id.
+     */
+    private void initializeReadFailover() {
+        if (!secondaryStorageIsEnabled()) {
+            log.warn("Read failover requires secondary storage, it stays disabled");
+            return;
+        }
+        if (!primaryBackend.supportsSnapshotRestore()) {
+            log.warn("Read failover is not supported for " + primaryBackend.getName() + " primary storage, its sessions cannot be restored from a snapshot");
+            return;
+        }
+        primaryReadCircuitBreaker = new SessionCircuitBreaker(
+                primaryBackend.getName(),
+                READ_FAILOVER_TIMEOUT,
+                READ_FAILOVER_MAX_CONCURRENT_CALLS,
+                READ_FAILOVER_SLIDING_WINDOW_SIZE,
+                READ_FAILOVER_MINIMUM_CALLS,
+                READ_FAILOVER_FAILURE_RATE_THRESHOLD,
+                READ_FAILOVER_SLOW_CALL_RATE_THRESHOLD,
+                READ_FAILOVER_SLOW_CALL_DURATION,
+                READ_FAILOVER_WAIT_DURATION_IN_OPEN_STATE,
+                READ_FAILOVER_PERMITTED_CALLS_IN_HALF_OPEN_STATE,
+                meterRegistry);
+        log.info("Read failover from " + primaryBackend.getName() + " to " + secondaryBackend.getName() + " is enabled");
+    }
+
+    /**
+     * Creates the hedger sending slow primary reads to secondary storage as well.
+     * The answer of secondary storage is taken as is, so reads are only hedged while secondary storage is written
+     * in full before every save returns. Write-behind replication, delta replication and a write consistency not
+     * waiting for every storage let secondary storage lag behind, and a hedged read would hand out a stale session.
+     */
+    private void initializeHedgedReads() {
+        if (!secondaryStorageIsEnabled()) {
+            log.warn("Hedged reads require secondary storage, they stay disabled");
+            return;
+        }
+        int storageCount = replicaBackends.size() + 1;
+        if (WRITE_BEHIND_ENABLED || DELTA_REPLICATION_ENABLED || SessionReplicator.WriteConsistency
+                .valueOf(REPLICATION_WRITE_CONSISTENCY.trim().toUpperCase()).requiredAcks(storageCount) < storageCount) {
+            log.warn("Hedged reads require secondary storage to be written in full with ALL write consistency, they stay disabled");
+            return;
+        }
+        if (!primaryBackend.supportsSnapshotRestore()) {
+            log.warn("Hedged reads are not supported for " + primaryBackend.getName() + " primary storage, its sessions cannot be restored from a snapshot");
+            return;
+        }
+        sessionReadHedger = new SessionReadHedger(
+                primaryBackend.getName(),
+                HEDGED_READS_DELAY,
+                HEDGED_READS_DELAY_PERCENTILE,
+                HEDGED_READS_BUDGET_PERCENT,
+                HEDGED_READS_MAX_CONCURRENT_CALLS,
+                meterRegistry);
+        log.info("Hedged reads from " + primaryBackend.getName() + " to " + secondaryBackend.getName() + " are enabled");
+    }
+
+    /**
+     * Stops the session migration and flushes the pending secondary writes before the application shuts down.
+     */
+    @Override
+    public void destroy() {
+        if (sessionReplicator != null) {
+            sessionReplicator.shutdown(REPLICATION_SHUTDOWN_TIMEOUT);
+        }
+        if (sessionExpirySweep != null) {
+            sessionExpirySweep.stop(EXPIRY_SWEEP_SHUTDOWN_TIMEOUT);
+        }
+        if (sessionAntiEntropy != null) {
+            sessionAntiEntropy.stop(ANTI_ENTROPY_SHUTDOWN_TIMEOUT);
+        }
+        if (sessionMigrationEngine != null) {
+            sessionMigrationEngine.stop(MIGRATION_SHUTDOWN_TIMEOUT);
+        }
+        if (sessionReadThrough != null) {
+            sessionReadThrough.shutdown();
+        }
+        if (sessionReadHedger != null) {
+            sessionReadHedger.shutdown();
+        }
+        if (primaryReadCircuitBreaker != null) {
+            primaryReadCircuitBreaker.shutdown();
+        }
+        if (nearCacheInvalidator != null) {
+            nearCacheInvalidator.stop();
+        }
+        if (secondaryWriteBehindQueue != null) {
+            secondaryWriteBehindQueue.shutdown(WRITE_BEHIND_SHUTDOWN_TIMEOUT);
+        }
+    }
+
+    /**
+     * Retrieves the appropriate session repository based on the primary storage configuration.
+     * @return The session repository bean for the configured primary storage.
+     * @throws IllegalStateException If the backends have not been resolved yet.
+     */
+    public SessionRepository getSessionRepositoryBean() {
+        if (primaryRepository == null) {
+            throw new IllegalStateException("Session store backends are not resolved yet");
+        }
+        return primaryRepository;
     }
 
     /**
@@ -63,87 +719,133 @@ public class MultiSessionRepository implements SessionRepository {
      */
     @Override
     public Session createSession() {
-        log.debug("Storage not configured");
-        return getSessionRepositoryBean().createSession();
+        if (debugLogSampled()) {
+            log.debug("Creating session in {} primary storage", primaryBackend.getName());
+        }
+        return trackDelta(primaryMetrics.getCreateTimer().record(() -> primaryRepository.createSession()), true);
     }
 
     /**
      * Saves a session.
+     * The session data replicated to secondary storage is detached from the session, since its write may outlive
+     * the call, in the write-behind queue or a replica not acknowledged in time, and the delta is cleared on return.
      * @param session The session to be saved.
      */
     @Override
     public void save(Session session) {
-        SessionRepository sessionRepository = getSessionRepositoryBean();
-        sessionRepository.save(session);
-        if(secondaryStorageIsEnabled()) {
-            saveSessionAsSecondary(session);
+        Session primarySession = DeltaTrackingSession.unwrap(session);
+        if (debugLogSampled()) {
+            log.debug("Saving session {} in {} primary storage", primarySession.getId(), primaryBackend.getName());
+        }
+        coverOffloadedAttributes(primarySession);
+        Runnable primarySave = () -> {
+            primaryMetrics.getSaveTimer().record(() -> primaryRepository.save(primarySession));
+            if (sessionNearCache != null) {
+                sessionNearCache.update(primarySession, session instanceof DeltaTrackingSession
+                        ? ((DeltaTrackingSession) session).getOriginalId() : null);
+            }
+        };
+        if (sessionReplicator != null) {
+            sessionReplicator.save(primarySave, multiSessionConverter(session).detach());
+        } else {
+            primarySave.run();
+            if (secondaryWriteBehindQueue != null) {
+                secondaryWriteBehindQueue.enqueueSave(multiSessionConverter(session).detach());
+            }
+        }
+        if (session instanceof DeltaTrackingSession) {
+            ((DeltaTrackingSession) session).clearDelta();
         }
     }
 
     /**
-     * Checks if secondary storage is enabled.
-     * @return True if secondary storage is enabled, otherwise false.
+     * Makes the offloaded attributes of a session outlive it when its max inactive interval exceeds the one the blob
+     * time to live was validated against. The attributes are encoded once more when the time to live is extended,
+     * since a save only writes the changed attributes to most storages and would leave the other blobs to expire first.
+     * @param session The session of the primary storage about to be saved.
      */
-    private boolean secondaryStorageIsEnabled() {
-        return SECONDARY_STORAGE_ENABLED;
+    private void coverOffloadedAttributes(Session session) {
+        if (deduplicatingSessionCodec == null
+                || !deduplicatingSessionCodec.coverMaxInactiveInterval(session.getMaxInactiveInterval())) {
+            return;
+        }
+        for (String attributeName : session.getAttributeNames()) {
+            deduplicatingSessionCodec.encode(session.getAttribute(attributeName));
+        }
     }
 
     /**
-     * Saves a session to secondary storage.
-     * @param session The session to be saved.
+     * Wraps a session of the primary storage to record its changes when delta replication or the near cache is enabled.
+     * @param session The session of the primary storage.
+     * @param isNew True if the session was just created.
+     * @return The session to hand out.
      */
-    private void saveSessionAsSecondary(Session session) {
-        if (StringUtils.isNotEmpty(SECONDARYSTORAGE)) {
-            SpringSessionData springSessionData = multiSessionConverter(session);
-            multiSessionSaveAsSecondary(springSessionData);
-        }
-        else {
-            throw new IllegalArgumentException("No secondary storage configuration found");
+    private Session trackDelta(Session session, boolean isNew) {
+        if (session == null || !(deltaReplicationIsEnabled() || sessionNearCache != null)) {
+            return session;
         }
+        return new DeltaTrackingSession(session, isNew);
     }
 
     /**
-     * Saves the given SpringSessionData object to a secondary storage based on the configured secondary storage type.
-     *
-     * @param springSessionData The SpringSessionData object to be saved to secondary storage.
-     * @throws IllegalArgumentException If the configured secondary storage type is not supported.
+     * Checks if only the changes of a session are replicated to secondary storage.
+     * @return True if delta replication is enabled, otherwise false.
      */
-    private void multiSessionSaveAsSecondary(SpringSessionData springSessionData) {
-        switch (SECONDARYSTORAGE.toUpperCase()){
-            case "MONGO":
-                springMongoSessionConfig.getSpringMongoOperationsSessionRepository().saveAsSecondary(springSessionData);
-                return;
-            case "REDIS":
-                springRedisSessionConfig.getSpringRedisOperationsSessionRepository().saveAsSecondary(springSessionData);
-                return;
-            case "RDBMS":
-                springRdbmsSessionConfig.getSpringJdbcOperationsSessionRepository().saveAsSecondary(springSessionData);
-                return;
-            default:
-                throw new IllegalArgumentException("cannot save as secondary storage");
+    private boolean deltaReplicationIsEnabled() {
+        return DELTA_REPLICATION_ENABLED && secondaryStorageIsEnabled();
+    }
 
-        }
+    /**
+     * Decides if a per-request debug message is logged. Only a sample of the requests is logged, so debug logging
+     * can be enabled in production without logging every session operation.
+     * @return True if debug logging is enabled and the request is sampled, otherwise false.
+     */
+    private boolean debugLogSampled() {
+        return log.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < DEBUG_LOG_SAMPLE_RATE;
+    }
+
+    /**
+     * Checks if secondary storage is enabled, which it is as soon as one replica storage is configured.
+     * @return True if secondary storage is enabled, otherwise false.
+     */
+    private boolean secondaryStorageIsEnabled() {
+        return !replicaBackends.isEmpty();
+    }
+
+    /**
+     * Saves a batch of SpringSessionData objects to the configured secondary storage.
+     *
+     * @param springSessionDataList The SpringSessionData objects to be saved to secondary storage.
+     */
+    private void multiSessionSaveAllAsSecondary(List<SpringSessionData> springSessionDataList) {
+        secondaryMetrics.getSaveBatchTimer().record(() -> secondaryWriter.saveAllAsSecondary(springSessionDataList));
     }
 
     /**
-     * Converts a Session object to a SpringSessionData object based on the configured primary storage type.
+     * Converts a Session object to a SpringSessionData object with the converter of the primary storage.
+     * Only the recorded changes are converted when delta replication is enabled and every replica storage supports it,
+     * unless a write of the session to secondary storage was dropped, failed or not acknowledged since its last full save.
      *
      * @param session The Session object to be converted.
      * @return The converted SpringSessionData object.
-     * @throws IllegalArgumentException If the configured primary storage type is not supported.
      */
     private SpringSessionData multiSessionConverter(Session session) {
-        switch (PRIMARYSTORAGE.toUpperCase()) {
-            case "MONGO":
-                return SpringMongoSessionConverterUtil.convertToSessionData(session);
-            case "REDIS":
-                return SpringRedisSessionConverterUtil.convertToSessionData(session);
-            case "RDBMS":
-                return SpringRdbmsSessionConverterUtil.convertToSessionData(session);
-            default:
-                throw new IllegalArgumentException("Session can not be converted");
+        if (session instanceof DeltaTrackingSession) {
+            DeltaTrackingSession deltaTrackingSession = (DeltaTrackingSession) session;
+            if (deltaReplicationIsEnabled() && !deltaTrackingSession.isFullSaveRequired() && secondarySupportsDelta
+                    && (secondaryWriteBehindQueue == null || !secondaryWriteBehindQueue.requiresFullSave(session.getId()))
+                    && (sessionReplicator == null || !sessionReplicator.requiresFullSave(session.getId()))) {
+                return primaryMetrics.getConversionTimer(true).record(() ->
+                        primaryBackend.convertToSessionDelta(deltaTrackingSession.getDelegate(),
+                                deltaTrackingSession.getChangedAttributeNames(),
+                                deltaTrackingSession.getRemovedAttributeNames()));
+            }
+            session = deltaTrackingSession.getDelegate();
         }
+        Session fullSession = session;
+        return primaryMetrics.getConversionTimer(false).record(() -> primaryBackend.convertToSessionData(fullSession));
     }
+
     /**
      * Finds a session by its ID.
      * @param id The ID of the session to find.
@@ -151,22 +853,113 @@ public class MultiSessionRepository implements SessionRepository {
      */
     @Override
     public Session findById(String id) {
-        SessionRepository sessionRepository = getSessionRepositoryBean();
-        log.info("Going to find session");
-        return sessionRepository.findById(id);
+        if (debugLogSampled()) {
+            log.debug("Finding session {} in {} primary storage", id, primaryBackend.getName());
+        }
+        if (sessionNearCache != null) {
+            MapSession snapshot = sessionNearCache.get(id);
+            if (snapshot != null) {
+                return trackDelta(restoreSession(snapshot, false), false);
+            }
+        }
+        Session session;
+        if (sessionReadHedger == null && primaryReadCircuitBreaker == null) {
+            session = findByIdInPrimary(id);
+        } else {
+            Supplier<Session> primaryRead = sessionReadHedger != null
+                    ? () -> sessionReadHedger.execute(() -> findByIdInPrimary(id), () -> findByIdInSecondary(id, false))
+                    : () -> findByIdInPrimary(id);
+            session = primaryReadCircuitBreaker != null
+                    ? primaryReadCircuitBreaker.execute(primaryRead, () -> findByIdInSecondary(id, true))
+                    : primaryRead.get();
+        }
+        if (session == null && sessionReadThrough != null && sessionReadThrough.isActive()) {
+            return findByIdInLegacy(id);
+        }
+        return session;
+    }
+
+    /**
+     * Finds a session missing from primary storage in the legacy storage.
+     * The session is restored as new, so it is written in full to primary storage on its next save.
+     * @param id The ID of the session to find.
+     * @return The session restored for primary storage, or null if the legacy storage does not know it.
+     */
+    private Session findByIdInLegacy(String id) {
+        MapSession snapshot = sessionReadThrough.findById(id);
+        if (snapshot == null) {
+            return null;
+        }
+        return trackDelta(restoreSession(snapshot, true), true);
+    }
+
+    /**
+     * Finds a session by its ID in primary storage and caches it in the near cache.
+     * @param id The ID of the session to find.
+     * @return The session if found, otherwise null.
+     */
+    private Session findByIdInPrimary(String id) {
+        Session session = primaryMetrics.getFindTimer().record(() -> primaryRepository.findById(id));
+        if (session != null && sessionNearCache != null) {
+            sessionNearCache.put(session);
+        }
+        return trackDelta(session, false);
+    }
+
+    /**
+     * Finds a session by its ID in secondary storage and converts it to the primary storage type.
+     * @param id The ID of the session to find.
+     * @param primaryUnavailable True if primary storage may have lost the session, which is then written back in full on its next save.
+     * @return The session if found, otherwise null.
+     */
+    private Session findByIdInSecondary(String id, boolean primaryUnavailable) {
+        if (debugLogSampled()) {
+            log.debug("Finding session {} in {} secondary storage", id, secondaryBackend.getName());
+        }
+        Session session = secondaryMetrics.getFindTimer().record(() -> secondaryRepository.findById(id));
+        if (session == null) {
+            return null;
+        }
+        return trackDelta(restoreSession(new MapSession(session), primaryUnavailable), primaryUnavailable);
+    }
+
+    /**
+     * Restores a session of the primary storage type from a snapshot.
+     * @param snapshot The snapshot of the session.
+     * @param isNew True if the session may be missing from primary storage and must be written in full on save.
+     * @return The session of the primary storage type.
+     */
+    private Session restoreSession(MapSession snapshot, boolean isNew) {
+        return primaryBackend.restoreSession(snapshot, isNew);
     }
 
     /**
      * Deletes a session by its ID.
+     * While the read-through is active the session is deleted from the legacy storage as well, otherwise the next
+     * lookup would read the deleted session through from there.
      * @param id The ID of the session to delete.
      */
     @Override
     public void deleteById(String id) {
-        SessionRepository sessionRepository = getSessionRepositoryBean();
-        log.info("Going to delete session");
-        sessionRepository.deleteById(id);
-        if(secondaryStorageIsEnabled()){
-            deleteSessionsFromSecondary(id);
+        if (debugLogSampled()) {
+            log.debug("Deleting session {} from {} primary storage", id, primaryBackend.getName());
+        }
+        Runnable primaryDelete = () -> {
+            if (sessionReadThrough != null && sessionReadThrough.isActive()) {
+                sessionReadThrough.deleteById(id);
+            }
+            primaryMetrics.getDeleteTimer().record(() -> primaryRepository.deleteById(id));
+            if (sessionNearCache != null) {
+                sessionNearCache.evict(id);
+            }
+        };
+        if (sessionReplicator != null) {
+            sessionReplicator.delete(primaryDelete, id);
+        } else {
+            primaryDelete.run();
+            if (secondaryWriteBehindQueue != null) {
+                secondaryWriteBehindQueue.enqueueDelete(id);
+            }
         }
     }
 
@@ -175,22 +968,7 @@ public class MultiSessionRepository implements SessionRepository {
      * @param sessionId The ID of the session to delete from secondary storage.
      */
     private void deleteSessionsFromSecondary(String sessionId) {
-        switch (SECONDARYSTORAGE.toUpperCase()) {
-            case "MONGO":
-                log.info("Going to delete Mongo as secondary session");
-                springMongoSessionConfig.getSpringMongoOperationsSessionRepository().deleteById(sessionId);
-                break;
-            case "REDIS":
-                log.info("Going to delete Redis as secondary session");
-                springRedisSessionConfig.getRedisOperationsSessionRepository().deleteById(sessionId);
-                break;
-            case "RDBMS":
-                log.info("Going to delete Rdbms as secondary session");
-                springRdbmsSessionConfig.getSpringJdbcOperationsSessionRepository().deleteById(sessionId);
-                break;
-            default:
-                log.error("Session cannot be deleted");
-        }
+        secondaryMetrics.getDeleteTimer().record(() -> secondaryRepository.deleteById(sessionId));
     }
 
     /**
@@ -198,7 +976,7 @@ public class MultiSessionRepository implements SessionRepository {
      * @param springMongoSessionConfig The SpringMongoSessionConfig bean to set.
      */
     public void setSpringMongoSessionConfigs(SpringMongoSessionConfig springMongoSessionConfig) {
-        this.springMongoSessionConfig = springMongoSessionConfig;
+        registerSessionStoreBackend(new SpringMongoSessionStoreBackend(springMongoSessionConfig));
     }
 
     /**
@@ -207,6 +985,7 @@ public class MultiSessionRepository implements SessionRepository {
      */
     public void setRedisSessionConfig(SpringRedisSessionConfig springRedisSessionConfig) {
         this.springRedisSessionConfig = springRedisSessionConfig;
+        registerSessionStoreBackend(new SpringRedisSessionStoreBackend(springRedisSessionConfig));
     }
 
     /**
@@ -214,6 +993,46 @@ public class MultiSessionRepository implements SessionRepository {
      * @param springRdbmsSessionConfig The SpringRdbmsSessionConfig bean to set.
      */
     public void setRdbmsSessionConfig(SpringRdbmsSessionConfig springRdbmsSessionConfig){
-        this.springRdbmsSessionConfig = springRdbmsSessionConfig;
+        registerSessionStoreBackend(new SpringRdbmsSessionStoreBackend(springRdbmsSessionConfig));
+    }
+
+    /**
+     * Sets the SpringOffHeapSessionConfig bean.
+     * @param springOffHeapSessionConfig The SpringOffHeapSessionConfig bean to set.
+     */
+    public void setOffHeapSessionConfig(SpringOffHeapSessionConfig springOffHeapSessionConfig) {
+        registerSessionStoreBackend(new SpringOffHeapSessionStoreBackend(springOffHeapSessionConfig));
+    }
+
+    /**
+     * Registers the backend of a storage, which can then be configured as primary or secondary storage by its name.
+     * @param sessionStoreBackend The SessionStoreBackend to register.
+     */
+    public void registerSessionStoreBackend(SessionStoreBackend sessionStoreBackend) {
+        sessionStoreBackends.put(sessionStoreBackend.getName().toUpperCase(), sessionStoreBackend);
+    }
+
+    /**
+     * Sets the codec the near cache keeps attribute values encoded with, so cached sessions share no mutable value.
+     * @param nearCacheCodec The SessionCodec to set.
+     */
+    public void setNearCacheCodec(SessionCodec nearCacheCodec) {
+        this.nearCacheCodec = nearCacheCodec;
+    }
+
+    /**
+     * Sets the codec offloading large attributes, whose blob time to live is extended to cover the sessions saved.
+     * @param deduplicatingSessionCodec The DeduplicatingSessionCodec to set.
+     */
+    public void setDeduplicatingSessionCodec(DeduplicatingSessionCodec deduplicatingSessionCodec) {
+        this.deduplicatingSessionCodec = deduplicatingSessionCodec;
+    }
+
+    /**
+     * Sets the MeterRegistry the repository metrics are published to.
+     * @param meterRegistry The MeterRegistry to set.
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package org.springframework.session;
+
+import io.micrometer.common.util.StringUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.framework.data.SpringSessionData;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReactiveMultiSessionRepository is the reactive counterpart of MultiSessionRepository for WebFlux applications.
+ * Sessions are served by the primary storage and replicated to the secondary storage, which is written concurrently
+ * with the primary storage on save and delete: both writes are awaited, and a failed write fails the request once
+ * the other write is done, as the blocking repository fails it on a failed secondary write.
+ * Storages are plugged in as ReactiveSessionStoreBackend instances, resolved once at startup.
+ */
+@Slf4j
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class ReactiveMultiSessionRepository implements ReactiveSessionRepository<Session>, InitializingBean {
+
+    @Value("${spring.session.primary_storage.name}")
+    private String PRIMARYSTORAGE;
+
+    @Value("${spring.session.secondary_storage.enabled:false}")
+    private boolean SECONDARY_STORAGE_ENABLED;
+
+    @Value("${spring.session.secondary_storage.name}")
+    private String SECONDARYSTORAGE;
+
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    private final Map<String, ReactiveSessionStoreBackend> sessionStoreBackends = new LinkedHashMap<>();
+
+    private ReactiveSessionStoreBackend primaryBackend;
+
+    private ReactiveSessionRepository primaryRepository;
+
+    private ReactiveSessionStoreBackend secondaryBackend;
+
+    private SessionStoreMetrics primaryMetrics;
+
+    private SessionStoreMetrics secondaryMetrics;
+
+    /**
+     * Resolves the primary and secondary backends from the configured storage names.
+     * @throws IllegalArgumentException If a configured storage has no registered backend.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        if (StringUtils.isEmpty(PRIMARYSTORAGE)) {
+            throw new IllegalArgumentException("No primary storage configuration found");
+        }
+        primaryBackend = getSessionStoreBackend(PRIMARYSTORAGE);
+        primaryRepository = primaryBackend.getSessionRepository();
+        primaryMetrics = new SessionStoreMetrics(primaryBackend.getName(), SessionStoreMetrics.PRIMARY, meterRegistry);
+        log.info(primaryBackend.getName() + " is reactive primary storage");
+        if (!SECONDARY_STORAGE_ENABLED) {
+            return;
+        }
+        if (StringUtils.isEmpty(SECONDARYSTORAGE)) {
+            throw new IllegalArgumentException("No secondary storage configuration found");
+        }
+        secondaryBackend = getSessionStoreBackend(SECONDARYSTORAGE);
+        if (secondaryBackend == primaryBackend) {
+            throw new IllegalArgumentException("Primary and secondary storage must differ");
+        }
+        secondaryMetrics = new SessionStoreMetrics(secondaryBackend.getName(), SessionStoreMetrics.SECONDARY, meterRegistry);
+        log.info(secondaryBackend.getName() + " is reactive secondary storage");
+    }
+
+    /**
+     * Registers a storage, so it can be configured as primary or secondary storage.
+     * @param sessionStoreBackend The backend of the storage.
+     */
+    public void registerSessionStoreBackend(ReactiveSessionStoreBackend sessionStoreBackend) {
+        sessionStoreBackends.put(sessionStoreBackend.getName().toUpperCase(), sessionStoreBackend);
+    }
+
+    /**
+     * Sets the MeterRegistry the storage operation metrics are published to.
+     * @param meterRegistry The MeterRegistry to set.
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Creates a new session in primary storage.
+     * @return A Mono emitting the new session.
+     */
+    @Override
+    public Mono<Session> createSession() {
+        return timed(primaryRepository.createSession(), primaryMetrics.getCreateTimer());
+    }
+
+    /**
+     * Saves a session to primary storage and, concurrently, to secondary storage.
+     * The session is converted and its attributes copied before the writes start, so the secondary write does not
+     * read the session while the primary write updates it.
+     * @param session The session to save.
+     * @return A Mono completing once both writes are done, or failing if either failed.
+     */
+    @Override
+    public Mono<Void> save(Session session) {
+        Mono<Void> primarySave = timed(primaryRepository.save(session), primaryMetrics.getSaveTimer());
+        if (secondaryBackend == null) {
+            return primarySave;
+        }
+        return Mono.defer(() -> {
+            SpringSessionData springSessionData = primaryMetrics.getConversionTimer(false)
+                    .record(() -> primaryBackend.convertToSessionData(session).detach());
+            long[] savedAt = new long[2];
+            Mono<Void> secondarySave = timed(secondaryBackend.saveAsSecondary(springSessionData), secondaryMetrics.getSaveTimer())
+                    .doOnSuccess(ignored -> savedAt[1] = System.nanoTime())
+                    .doOnError(e -> secondaryMetrics.getFailures().increment());
+            return Mono.whenDelayError(primarySave.doOnSuccess(ignored -> savedAt[0] = System.nanoTime()), secondarySave)
+                    .doOnSuccess(ignored -> secondaryMetrics.getReplicationLag()
+                            .record(Math.max(0, savedAt[1] - savedAt[0]), TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * Finds a session by its ID in primary storage.
+     * @param id The ID of the session to find.
+     * @return A Mono emitting the session, or empty if it is not found.
+     */
+    @Override
+    public Mono<Session> findById(String id) {
+        return timed(primaryRepository.findById(id), primaryMetrics.getFindTimer());
+    }
+
+    /**
+     * Deletes a session from primary storage and, concurrently, from secondary storage.
+     * @param id The ID of the session to delete.
+     * @return A Mono completing once both deletions are done, or failing if either failed.
+     */
+    @Override
+    public Mono<Void> deleteById(String id) {
+        Mono<Void> primaryDelete = timed(primaryRepository.deleteById(id), primaryMetrics.getDeleteTimer());
+        if (secondaryBackend == null) {
+            return primaryDelete;
+        }
+        Mono<Void> secondaryDelete = timed(secondaryBackend.deleteAsSecondary(id), secondaryMetrics.getDeleteTimer())
+                .doOnError(e -> secondaryMetrics.getFailures().increment());
+        return Mono.whenDelayError(primaryDelete, secondaryDelete);
+    }
+
+    /**
+     * Gets the registered backend of a storage.
+     * @param storageName The configured name of the storage.
+     * @return The backend of the storage.
+     * @throws IllegalArgumentException If no backend is registered under the name.
+     */
+    private ReactiveSessionStoreBackend getSessionStoreBackend(String storageName) {
+        ReactiveSessionStoreBackend sessionStoreBackend = sessionStoreBackends.get(storageName.toUpperCase());
+        if (sessionStoreBackend == null) {
+            throw new IllegalArgumentException("Does not match any enabled reactive storage: " + storageName
+                    + ", enabled storages are " + sessionStoreBackends.keySet());
+        }
+        return sessionStoreBackend;
+    }
+
+    /**
+     * Times a Mono from its subscription to its termination or cancellation.
+     * @param mono The Mono to time.
+     * @param timer The timer to record the duration with.
+     * @param <T> The type of the emitted value.
+     * @return The timed Mono.
+     */
+    private static <T> Mono<T> timed(Mono<T> mono, Timer timer) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return mono.doFinally(signal -> sample.stop(timer));
+        });
+    }
+}
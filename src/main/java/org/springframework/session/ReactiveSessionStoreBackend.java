@@ -0,0 +1,45 @@
+package org.springframework.session;
+
+import org.framework.data.SpringSessionData;
+import reactor.core.publisher.Mono;
+
+/**
+ * ReactiveSessionStoreBackend bundles what ReactiveMultiSessionRepository needs from a storage: the reactive repository
+ * used as primary storage, the converter of its sessions to SpringSessionData, and the writes of secondary storage.
+ * Secondary writes are returned as Mono, so they run without blocking the event loop.
+ */
+public interface ReactiveSessionStoreBackend {
+
+    /**
+     * Gets the name the storage is configured with, such as REDIS.
+     * @return The upper case name of the storage.
+     */
+    String getName();
+
+    /**
+     * Gets the reactive repository used when the storage is primary.
+     * @return The primary reactive session repository.
+     */
+    ReactiveSessionRepository<? extends Session> getSessionRepository();
+
+    /**
+     * Converts a session of the primary repository to a SpringSessionData object.
+     * @param session The session to convert.
+     * @return The converted SpringSessionData object.
+     */
+    SpringSessionData convertToSessionData(Session session);
+
+    /**
+     * Saves session data when the storage is secondary.
+     * @param springSessionData The SpringSessionData object to save.
+     * @return A Mono completing once the session is saved.
+     */
+    Mono<Void> saveAsSecondary(SpringSessionData springSessionData);
+
+    /**
+     * Deletes a session when the storage is secondary.
+     * @param id The ID of the session to delete.
+     * @return A Mono completing once the session is deleted.
+     */
+    Mono<Void> deleteAsSecondary(String id);
+}
@@ -0,0 +1,479 @@
+package org.springframework.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.framework.data.SpringSessionData;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * SecondaryWriteBehindQueue replicates sessions to the secondary storage off the request thread.
+ * Pending writes are coalesced per session id, so a session that is saved several times before a worker
+ * picks it up is written to the secondary only once with its latest state.
+ * Workers take pending sessions in batches, waiting up to the batch window for a batch to fill.
+ * Once a write of a session is dropped or fails, the secondary storage may miss changes a later delta does not
+ * carry, so the session is reported as requiring a full save until one has been written.
+ * Deletes are never dropped nor folded into a save: a save following a pending delete is written after it, in full,
+ * so a deleted session cannot survive in the secondary storage.
+ */
+@Slf4j
+public class SecondaryWriteBehindQueue {
+
+    /**
+     * Behaviour of the queue when it already holds the maximum number of pending sessions.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Discards the oldest pending save to make room for the new one. Deletes are never discarded, the calling
+         * thread waits for a worker like with BLOCK while only deletes are pending.
+         */
+        DROP_OLDEST,
+        /** Blocks the calling thread until a worker frees a slot. */
+        BLOCK,
+        /**
+         * Writes the session synchronously on the calling thread, or queues it beyond the capacity when
+         * a worker is writing the same session, so the two writes cannot overtake each other.
+         */
+        CALLER_RUNS
+    }
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private static final long FULL_SAVE_REQUIRED_MAXIMUM_SIZE = 100_000;
+
+    private final Consumer<List<SpringSessionData>> saveAction;
+
+    private final Consumer<String> deleteAction;
+
+    private final int capacity;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final int batchSize;
+
+    private final long batchWindowNanos;
+
+    private final Map<String, PendingWrite> pendingWrites = new LinkedHashMap<>();
+
+    private final Set<String> inFlight = new HashSet<>();
+
+    private final Cache<String, Boolean> fullSaveRequired = Caffeine.newBuilder()
+            .maximumSize(FULL_SAVE_REQUIRED_MAXIMUM_SIZE)
+            .build();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notEmpty = lock.newCondition();
+
+    private final Condition notFull = lock.newCondition();
+
+    private final ExecutorService workers;
+
+    private final Timer replicationLag;
+
+    private final Counter droppedWrites;
+
+    private final Counter coalescedWrites;
+
+    private final Counter failedWrites;
+
+    private volatile boolean running = true;
+
+    /**
+     * Constructor for SecondaryWriteBehindQueue.
+     * @param saveAction The action writing a batch of sessions to the secondary storage.
+     * @param deleteAction The action deleting a session from the secondary storage.
+     * @param capacity The maximum number of distinct sessions waiting to be replicated.
+     * @param workerCount The number of worker threads draining the queue.
+     * @param overflowPolicy The behaviour when the queue is full.
+     * @param batchSize The maximum number of sessions a worker writes at once.
+     * @param batchWindow The maximum time a worker waits for a batch to fill.
+     * @param storageName The name of the secondary storage, used to tag metrics.
+     * @param meterRegistry The registry the queue metrics are published to.
+     */
+    public SecondaryWriteBehindQueue(Consumer<List<SpringSessionData>> saveAction, Consumer<String> deleteAction,
+                                     int capacity, int workerCount, OverflowPolicy overflowPolicy,
+                                     int batchSize, Duration batchWindow,
+                                     String storageName, MeterRegistry meterRegistry) {
+        if (capacity <= 0 || workerCount <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Write-behind capacity, workers and batch size must be positive");
+        }
+        this.saveAction = saveAction;
+        this.deleteAction = deleteAction;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.batchSize = batchSize;
+        this.batchWindowNanos = batchWindow.toNanos();
+        Gauge.builder("spring.session.secondary.queue.depth", this, SecondaryWriteBehindQueue::size)
+                .tag("storage", storageName)
+                .register(meterRegistry);
+        this.replicationLag = Timer.builder("spring.session.secondary.replication.lag")
+                .tag("storage", storageName)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.droppedWrites = meterRegistry.counter("spring.session.secondary.queue.dropped", "storage", storageName);
+        this.coalescedWrites = meterRegistry.counter("spring.session.secondary.queue.coalesced", "storage", storageName);
+        this.failedWrites = meterRegistry.counter("spring.session.secondary.failures", "storage", storageName);
+        this.workers = Executors.newFixedThreadPool(workerCount, newThreadFactory());
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::drain);
+        }
+    }
+
+    /**
+     * Queues a session to be saved to the secondary storage.
+     * A save following a pending delete of the same session is written after the delete, in full. A delta cannot
+     * be applied to the deleted session, so it is dropped and the next save of the session is written in full.
+     * @param springSessionData The session data to replicate.
+     */
+    public void enqueueSave(SpringSessionData springSessionData) {
+        enqueue(new PendingWrite(springSessionData.getId(), false, springSessionData, System.nanoTime()));
+    }
+
+    /**
+     * Queues a session to be deleted from the secondary storage.
+     * A pending save for the same session is replaced, so it can never resurrect the deleted session.
+     * @param sessionId The ID of the session to delete.
+     */
+    public void enqueueDelete(String sessionId) {
+        enqueue(new PendingWrite(sessionId, true, null, System.nanoTime()));
+    }
+
+    /**
+     * Checks if a session has to be replicated in full, because one of its writes was dropped or failed since
+     * its last full save was written.
+     * @param sessionId The ID of the session.
+     * @return True if a delta of the session could miss changes, otherwise false.
+     */
+    public boolean requiresFullSave(String sessionId) {
+        return fullSaveRequired.getIfPresent(sessionId) != null;
+    }
+
+    /**
+     * Returns the number of sessions waiting to be replicated.
+     * @return The current queue depth.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return pendingWrites.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting work and waits for the pending writes to be flushed.
+     * @param timeout The maximum time to wait for the queue to drain.
+     */
+    public void shutdown(Duration timeout) {
+        running = false;
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Write-behind queue did not drain in {}, {} sessions not replicated", timeout, size());
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Adds a write to the queue, coalescing it with a pending write for the same session.
+     * A write run on the calling thread marks its session in flight like a worker does, so no worker writes
+     * the session at the same time.
+     * @param write The write to add.
+     */
+    private void enqueue(PendingWrite write) {
+        if (!running) {
+            execute(Collections.singletonList(write));
+            return;
+        }
+        boolean runOnCaller = false;
+        boolean callerInFlight = false;
+        boolean queueBehindInFlight = false;
+        lock.lock();
+        try {
+            PendingWrite previous = pendingWrites.get(write.id);
+            if (previous != null) {
+                PendingWrite coalesced = write.coalesce(previous);
+                if (coalesced.delete && write.data != null && coalesced.data == null) {
+                    fullSaveRequired.put(write.id, Boolean.TRUE);
+                }
+                pendingWrites.put(write.id, coalesced);
+                coalescedWrites.increment();
+                return;
+            }
+            while (pendingWrites.size() >= capacity && !runOnCaller && !queueBehindInFlight) {
+                switch (overflowPolicy) {
+                    case DROP_OLDEST:
+                        if (dropOldestSave()) {
+                            break;
+                        }
+                        notFull.await(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                        if (!running) {
+                            runOnCaller = true;
+                        }
+                        break;
+                    case BLOCK:
+                        notFull.await(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                        if (!running) {
+                            runOnCaller = true;
+                        }
+                        break;
+                    default:
+                        if (inFlight.add(write.id)) {
+                            callerInFlight = true;
+                            runOnCaller = true;
+                        } else {
+                            queueBehindInFlight = true;
+                        }
+                }
+            }
+            if (!runOnCaller) {
+                pendingWrites.put(write.id, write);
+                notEmpty.signal();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            runOnCaller = true;
+        } finally {
+            lock.unlock();
+        }
+        if (runOnCaller) {
+            List<PendingWrite> callerWrite = Collections.singletonList(write);
+            try {
+                execute(callerWrite);
+            } finally {
+                if (callerInFlight) {
+                    release(callerWrite);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the oldest pending write that does not delete its session, and marks its session as requiring a full save.
+     * Must be called holding the lock.
+     * @return True if a save was dropped, false if only deletes are pending.
+     */
+    private boolean dropOldestSave() {
+        Iterator<PendingWrite> iterator = pendingWrites.values().iterator();
+        while (iterator.hasNext()) {
+            PendingWrite write = iterator.next();
+            if (!write.delete) {
+                iterator.remove();
+                fullSaveRequired.put(write.id, Boolean.TRUE);
+                droppedWrites.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Worker loop taking batches of pending writes until the queue is shut down and empty.
+     */
+    private void drain() {
+        while (true) {
+            List<PendingWrite> batch = take();
+            if (batch == null) {
+                return;
+            }
+            try {
+                execute(batch);
+            } finally {
+                release(batch);
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest pending writes whose sessions are not being written by another worker.
+     * Once a first write is taken, waits up to the batch window for the batch to fill.
+     * @return The next batch, or null once the queue is shut down and empty.
+     */
+    private List<PendingWrite> take() {
+        List<PendingWrite> batch = new ArrayList<>();
+        long deadline = 0;
+        lock.lock();
+        try {
+            while (true) {
+                Iterator<PendingWrite> iterator = pendingWrites.values().iterator();
+                while (iterator.hasNext() && batch.size() < batchSize) {
+                    PendingWrite write = iterator.next();
+                    if (inFlight.add(write.id)) {
+                        iterator.remove();
+                        notFull.signal();
+                        batch.add(write);
+                    }
+                }
+                if (batch.size() >= batchSize) {
+                    return batch;
+                }
+                if (batch.isEmpty()) {
+                    if (!running && pendingWrites.isEmpty()) {
+                        return null;
+                    }
+                    notEmpty.await(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                if (deadline == 0) {
+                    deadline = System.nanoTime() + batchWindowNanos;
+                }
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0 || !running) {
+                    return batch;
+                }
+                notEmpty.awaitNanos(remainingNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return batch.isEmpty() ? null : batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the sessions of a batch as no longer being written, so further writes for them can be taken.
+     * @param batch The batch that was written.
+     */
+    private void release(List<PendingWrite> batch) {
+        lock.lock();
+        try {
+            for (PendingWrite write : batch) {
+                inFlight.remove(write.id);
+                if (pendingWrites.containsKey(write.id)) {
+                    notEmpty.signal();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies a batch of writes to the secondary storage. Deletes are applied first one by one, then the saves are
+     * written together, so a session saved again after its delete is written after the delete.
+     * @param batch The writes to apply.
+     */
+    private void execute(List<PendingWrite> batch) {
+        List<SpringSessionData> saves = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            if (write.data != null) {
+                saves.add(write.data);
+            }
+            if (!write.delete) {
+                continue;
+            }
+            try {
+                deleteAction.accept(write.id);
+                if (write.data == null) {
+                    replicationLag.record(System.nanoTime() - write.enqueuedNanos, TimeUnit.NANOSECONDS);
+                }
+            } catch (RuntimeException e) {
+                failedWrites.increment();
+                log.error("Failed to delete session {} from secondary storage", write.id, e);
+            }
+        }
+        if (saves.isEmpty()) {
+            return;
+        }
+        try {
+            saveAction.accept(saves);
+            long now = System.nanoTime();
+            for (PendingWrite write : batch) {
+                if (write.data != null) {
+                    replicationLag.record(now - write.enqueuedNanos, TimeUnit.NANOSECONDS);
+                    if (!write.data.isDelta()) {
+                        fullSaveRequired.invalidate(write.id);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            saves.forEach(springSessionData -> fullSaveRequired.put(springSessionData.getId(), Boolean.TRUE));
+            failedWrites.increment(saves.size());
+            log.error("Failed to replicate {} sessions to secondary storage", saves.size(), e);
+        }
+    }
+
+    private static ThreadFactory newThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "session-write-behind-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * A write waiting to be replicated: a delete, a save, or a delete followed by a full save of the session.
+     */
+    private static final class PendingWrite {
+
+        private final String id;
+
+        private final boolean delete;
+
+        private final SpringSessionData data;
+
+        private final long enqueuedNanos;
+
+        private PendingWrite(String id, boolean delete, SpringSessionData data, long enqueuedNanos) {
+            this.id = id;
+            this.delete = delete;
+            this.data = data;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+
+        /**
+         * Replaces a pending write, keeping its enqueue time so the lag covers the oldest unreplicated change.
+         * A delete replaces any pending save. A save following a pending delete keeps the delete, and is kept only
+         * when it is a full save, since a delta cannot be applied to the deleted session. A delta is merged into the
+         * pending save it follows.
+         * @param previous The pending write being replaced.
+         * @return The coalesced write.
+         */
+        private PendingWrite coalesce(PendingWrite previous) {
+            if (delete) {
+                return new PendingWrite(id, true, null, previous.enqueuedNanos);
+            }
+            SpringSessionData coalesced = previous.data == null ? data : data.coalesce(previous.data);
+            if (previous.delete && coalesced.isDelta()) {
+                coalesced = null;
+            }
+            return new PendingWrite(id, previous.delete, coalesced, previous.enqueuedNanos);
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package org.springframework.session;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.framework.data.SpringSessionData;
+import org.springframework.session.serializer.SessionCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+/**
+ * SessionAntiEntropy finds and repairs the sessions secondary storage lost or missed, in rounds run in the background.
+ * Session ids are split in buckets by their first two hexadecimal characters, with one more bucket for the other ids.
+ * A round streams both storages once and sums a hash of (id, last accessed time, attributes) of every session into
+ * the digest of its bucket, so digests do not depend on the order sessions are read in. Only the buckets whose digests
+ * differ are read again, by id prefix, and their sessions compared one by one: sessions missing from secondary storage
+ * or differing are written from primary storage, and sessions only found in secondary storage are deleted once primary
+ * storage confirms they are gone. Sessions accessed during the settle time are left to the replication in flight.
+ * Reads and writes share a token bucket capping the sessions handled per second, so rounds can run continuously.
+ */
+@Slf4j
+public class SessionAntiEntropy {
+
+    private static final int HEX_BUCKETS = SessionSource.HEX_PARTITIONS * SessionSource.HEX_PARTITIONS;
+
+    private static final int RESIDUAL_BUCKET = HEX_BUCKETS;
+
+    private final SessionSource primarySource;
+
+    private final SessionSource secondarySource;
+
+    private final SessionRepository<?> primaryRepository;
+
+    private final SessionRepository<?> secondaryRepository;
+
+    private final ISessionSaveAsSecondary secondaryWriter;
+
+    private final SessionCodec sessionCodec;
+
+    private final int pageSize;
+
+    private final double maxSessionsPerSecond;
+
+    private final long settleMillis;
+
+    private final CRC32C crc = new CRC32C();
+
+    private final AtomicLong divergentBuckets = new AtomicLong();
+
+    private final AtomicLong divergentSessions = new AtomicLong();
+
+    private final Timer rounds;
+
+    private final Counter primaryScanned;
+
+    private final Counter secondaryScanned;
+
+    private final Counter writtenSessions;
+
+    private final Counter deletedSessions;
+
+    private final Counter skippedSessions;
+
+    private ScheduledExecutorService executor;
+
+    private volatile boolean stopped;
+
+    private double permits;
+
+    private long lastRefillNanos = System.nanoTime();
+
+    /**
+     * Constructor for SessionAntiEntropy.
+     * @param primarySource The source of the sessions of primary storage.
+     * @param secondarySource The source of the sessions of secondary storage, readable by id prefix.
+     * @param primaryRepository The repository of primary storage, checked before a session is deleted.
+     * @param secondaryRepository The repository of secondary storage, the sessions are deleted with.
+     * @param secondaryWriter The writer of secondary storage, the sessions are repaired with.
+     * @param sessionCodec The codec hashing the attribute values, which must not depend on earlier values.
+     * @param pageSize The number of sessions read and written at once.
+     * @param maxSessionsPerSecond The maximum number of sessions read and written per second, or 0 for no limit.
+     * @param settleTime The time after its last access during which a session is not repaired.
+     * @param meterRegistry The registry the anti-entropy metrics are published to.
+     */
+    public SessionAntiEntropy(SessionSource primarySource, SessionSource secondarySource,
+                              SessionRepository<?> primaryRepository, SessionRepository<?> secondaryRepository,
+                              ISessionSaveAsSecondary secondaryWriter, SessionCodec sessionCodec, int pageSize,
+                              double maxSessionsPerSecond, Duration settleTime, MeterRegistry meterRegistry) {
+        if (pageSize <= 0 || maxSessionsPerSecond < 0 || settleTime.isNegative()) {
+            throw new IllegalArgumentException("Anti-entropy page size must be positive, rate and settle time not negative");
+        }
+        this.primarySource = primarySource;
+        this.secondarySource = secondarySource;
+        this.primaryRepository = primaryRepository;
+        this.secondaryRepository = secondaryRepository;
+        this.secondaryWriter = secondaryWriter;
+        this.sessionCodec = sessionCodec;
+        this.pageSize = pageSize;
+        this.maxSessionsPerSecond = maxSessionsPerSecond;
+        this.settleMillis = settleTime.toMillis();
+        this.permits = Math.min(maxSessionsPerSecond, pageSize);
+        Tags tags = Tags.of("primary", primarySource.getName(), "secondary", secondarySource.getName());
+        this.rounds = Timer.builder("spring.session.anti_entropy.rounds").tags(tags).register(meterRegistry);
+        this.primaryScanned = meterRegistry.counter("spring.session.anti_entropy.sessions.scanned",
+                tags.and("storage", primarySource.getName()));
+        this.secondaryScanned = meterRegistry.counter("spring.session.anti_entropy.sessions.scanned",
+                tags.and("storage", secondarySource.getName()));
+        this.writtenSessions = meterRegistry.counter("spring.session.anti_entropy.sessions.repaired",
+                tags.and("action", "write"));
+        this.deletedSessions = meterRegistry.counter("spring.session.anti_entropy.sessions.repaired",
+                tags.and("action", "delete"));
+        this.skippedSessions = meterRegistry.counter("spring.session.anti_entropy.sessions.unsettled", tags);
+        meterRegistry.gauge("spring.session.anti_entropy.buckets.divergent", tags, divergentBuckets);
+        meterRegistry.gauge("spring.session.anti_entropy.sessions.divergent", tags, divergentSessions);
+    }
+
+    /**
+     * Starts running rounds in the background, one after another with the given delay in between.
+     * @param interval The delay between the end of a round and the start of the next one.
+     * @throws IllegalStateException If the rounds are already running.
+     */
+    public synchronized void start(Duration interval) {
+        if (executor != null && !executor.isShutdown()) {
+            throw new IllegalStateException("Anti-entropy between " + primarySource.getName() + " and "
+                    + secondarySource.getName() + " is already running");
+        }
+        stopped = false;
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-anti-entropy-" + primarySource.getName().toLowerCase()
+                    + "-" + secondarySource.getName().toLowerCase());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                runRound();
+            } catch (RuntimeException e) {
+                log.error("Anti-entropy round between " + primarySource.getName() + " and "
+                        + secondarySource.getName() + " failed, it runs again after the interval", e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Anti-entropy between " + primarySource.getName() + " and " + secondarySource.getName()
+                + " runs every " + interval);
+    }
+
+    /**
+     * Stops running rounds, abandoning the round in progress at its next page.
+     * @param timeout The maximum time to wait for the round in progress.
+     */
+    public void stop(Duration timeout) {
+        stopped = true;
+        ScheduledExecutorService runningExecutor;
+        synchronized (this) {
+            runningExecutor = executor;
+        }
+        if (runningExecutor == null) {
+            return;
+        }
+        runningExecutor.shutdown();
+        try {
+            if (!runningExecutor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                runningExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            runningExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs one round: compares the bucket digests of both storages and repairs the buckets that differ.
+     * Rounds are not meant to run concurrently with each other.
+     * @return The number of sessions repaired.
+     */
+    public long runRound() {
+        return rounds.record(() -> {
+            long[] primaryDigests = new long[HEX_BUCKETS + 1];
+            long[] secondaryDigests = new long[HEX_BUCKETS + 1];
+            scanDigests(primarySource, primaryDigests, primaryScanned);
+            scanDigests(secondarySource, secondaryDigests, secondaryScanned);
+            if (stopped) {
+                return 0L;
+            }
+            long buckets = 0;
+            long sessions = 0;
+            long repaired = 0;
+            for (int bucket = 0; bucket <= HEX_BUCKETS && !stopped; bucket++) {
+                if (primaryDigests[bucket] != secondaryDigests[bucket]) {
+                    buckets++;
+                    long[] result = repairBucket(bucket);
+                    sessions += result[0];
+                    repaired += result[1];
+                }
+            }
+            divergentBuckets.set(buckets);
+            divergentSessions.set(sessions);
+            if (buckets > 0) {
+                log.info("Anti-entropy found " + sessions + " divergent sessions in " + buckets + " buckets of "
+                        + secondarySource.getName() + ", repaired " + repaired);
+            }
+            return repaired;
+        });
+    }
+
+    /**
+     * Streams all partitions of a source, adding the hash of every session to the digest of its bucket.
+     * @param source The source to read.
+     * @param digests The digests of the buckets, indexed by bucket.
+     * @param scanned The counter of the sessions read from the source.
+     */
+    private void scanDigests(SessionSource source, long[] digests, Counter scanned) {
+        for (int partition = 0; partition < source.getPartitionCount() && !stopped; partition++) {
+            int scannedPartition = partition;
+            readAll(cursor -> source.readPage(scannedPartition, cursor, pageSize), session -> {
+                digests[getBucket(session.getId())] += hash(session);
+                scanned.increment();
+            });
+        }
+    }
+
+    /**
+     * Reads the sessions of a bucket from both storages and repairs the ones that differ.
+     * @param bucket The bucket to repair.
+     * @return The number of divergent sessions and the number of repaired sessions.
+     */
+    private long[] repairBucket(int bucket) {
+        Map<String, SpringSessionData> primarySessions = readBucket(primarySource, bucket);
+        Map<String, SpringSessionData> secondarySessions = readBucket(secondarySource, bucket);
+        long settledBefore = System.currentTimeMillis() - settleMillis;
+        long divergent = 0;
+        List<SpringSessionData> writes = new ArrayList<>();
+        for (SpringSessionData primarySession : primarySessions.values()) {
+            SpringSessionData secondarySession = secondarySessions.remove(primarySession.getId());
+            if (secondarySession != null && hash(secondarySession) == hash(primarySession)) {
+                continue;
+            }
+            divergent++;
+            if (primarySession.getLastAccessedMillis() > settledBefore) {
+                skippedSessions.increment();
+            } else {
+                writes.add(primarySession);
+            }
+        }
+        long deleted = 0;
+        for (SpringSessionData secondarySession : secondarySessions.values()) {
+            divergent++;
+            if (secondarySession.getLastAccessedMillis() > settledBefore) {
+                skippedSessions.increment();
+            } else if (primaryRepository.findById(secondarySession.getId()) == null) {
+                secondaryRepository.deleteById(secondarySession.getId());
+                deletedSessions.increment();
+                deleted++;
+            }
+        }
+        for (int from = 0; from < writes.size() && !stopped; from += pageSize) {
+            List<SpringSessionData> page = writes.subList(from, Math.min(from + pageSize, writes.size()));
+            acquirePermits(page.size());
+            secondaryWriter.saveAllAsSecondary(page);
+            writtenSessions.increment(page.size());
+        }
+        return new long[]{divergent, writes.size() + deleted};
+    }
+
+    /**
+     * Reads the sessions of a bucket, by id prefix for a hexadecimal bucket and with a full scan for the others.
+     * @param source The source to read.
+     * @param bucket The bucket to read.
+     * @return The sessions of the bucket by id.
+     */
+    private Map<String, SpringSessionData> readBucket(SessionSource source, int bucket) {
+        Map<String, SpringSessionData> sessions = new HashMap<>();
+        if (bucket != RESIDUAL_BUCKET) {
+            String idPrefix = String.valueOf(Character.forDigit(bucket / SessionSource.HEX_PARTITIONS, SessionSource.HEX_PARTITIONS))
+                    + Character.forDigit(bucket % SessionSource.HEX_PARTITIONS, SessionSource.HEX_PARTITIONS);
+            readAll(cursor -> source.readPrefixPage(idPrefix, cursor, pageSize),
+                    session -> sessions.put(session.getId(), session));
+            return sessions;
+        }
+        for (int partition = 0; partition < source.getPartitionCount() && !stopped; partition++) {
+            int scannedPartition = partition;
+            readAll(cursor -> source.readPage(scannedPartition, cursor, pageSize), session -> {
+                if (getBucket(session.getId()) == RESIDUAL_BUCKET) {
+                    sessions.put(session.getId(), session);
+                }
+            });
+        }
+        return sessions;
+    }
+
+    /**
+     * Reads pages until the last one, taking permits for every page read.
+     * @param pageReader The reader of the page following a cursor.
+     * @param consumer The consumer of the sessions read.
+     */
+    private void readAll(Function<String, SessionPage> pageReader, Consumer<SpringSessionData> consumer) {
+        String cursor = null;
+        while (!stopped) {
+            SessionPage page = pageReader.apply(cursor);
+            acquirePermits(page.getSessions().size());
+            page.getSessions().forEach(consumer);
+            if (page.isLast()) {
+                return;
+            }
+            cursor = page.getNextCursor();
+        }
+    }
+
+    /**
+     * Hashes the id, the last accessed time and the attributes of a session. Attribute hashes are summed,
+     * so the hash does not depend on the order the attributes are read in.
+     * @param session The session to hash.
+     * @return The hash of the session.
+     */
+    private long hash(SpringSessionData session) {
+        long attributesHash = 0;
+        for (Map.Entry<String, Object> attribute : session.getAttributes().entrySet()) {
+            long nameHash = crc(attribute.getKey().getBytes(StandardCharsets.UTF_8));
+            attributesHash += mix((nameHash << 32) ^ crc(sessionCodec.encode(attribute.getValue())));
+        }
+        return mix(mix(crc(session.getId().getBytes(StandardCharsets.UTF_8))) ^ session.getLastAccessedMillis())
+                + attributesHash;
+    }
+
+    private long crc(byte[] bytes) {
+        crc.reset();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    /**
+     * Spreads the bits of a value, with the finalizer of SplitMix64.
+     * @param value The value to mix.
+     * @return The mixed value.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Gets the bucket of a session id.
+     * @param id The session id.
+     * @return The bucket of the first two characters of the id, or the residual bucket if one is not hexadecimal.
+     */
+    private static int getBucket(String id) {
+        if (id.length() < 2) {
+            return RESIDUAL_BUCKET;
+        }
+        int high = hexDigit(id.charAt(0));
+        int low = hexDigit(id.charAt(1));
+        return high < 0 || low < 0 ? RESIDUAL_BUCKET : high * SessionSource.HEX_PARTITIONS + low;
+    }
+
+    private static int hexDigit(char c) {
+        return c >= '0' && c <= '9' || c >= 'a' && c <= 'f' ? Character.digit(c, SessionSource.HEX_PARTITIONS) : -1;
+    }
+
+    /**
+     * Takes permits from the token bucket, waiting until enough have been refilled.
+     * @param count The number of sessions about to be read or written.
+     */
+    private void acquirePermits(int count) {
+        if (maxSessionsPerSecond == 0 || count == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        permits = Math.min(Math.max(maxSessionsPerSecond, pageSize),
+                permits + (now - lastRefillNanos) * maxSessionsPerSecond / TimeUnit.SECONDS.toNanos(1));
+        lastRefillNanos = now;
+        permits -= count;
+        if (permits < 0) {
+            try {
+                Thread.sleep(TimeUnit.NANOSECONDS.toMillis((long) (-permits * TimeUnit.SECONDS.toNanos(1) / maxSessionsPerSecond)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while comparing sessions", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.springframework.session;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * SessionAttributesView is a read-only map of the attributes of a session that reads them from the session on access
+ * instead of copying them, so converting a session for the secondary storage allocates no attribute map.
+ * The view follows the session, so it must be detached before the session is used by another request.
+ */
+public class SessionAttributesView extends AbstractMap<String, Object> {
+
+    private final Session session;
+
+    private final Set<String> attributeNames;
+
+    /**
+     * Constructor for SessionAttributesView over all attributes of a session.
+     * @param session The session whose attributes are viewed.
+     */
+    public SessionAttributesView(Session session) {
+        this(session, null);
+    }
+
+    /**
+     * Constructor for SessionAttributesView over some attributes of a session.
+     * @param session The session whose attributes are viewed.
+     * @param attributeNames The names of the viewed attributes, or null for all attributes.
+     */
+    public SessionAttributesView(Session session, Set<String> attributeNames) {
+        this.session = session;
+        this.attributeNames = attributeNames;
+    }
+
+    /**
+     * Gets a viewed attribute from the session.
+     * @param key The name of the attribute.
+     * @return The value of the attribute, or null if it is not set or not viewed.
+     */
+    @Override
+    public Object get(Object key) {
+        if (!(key instanceof String) || (attributeNames != null && !attributeNames.contains(key))) {
+            return null;
+        }
+        return session.getAttribute((String) key);
+    }
+
+    /**
+     * Checks if a viewed attribute is set.
+     * @param key The name of the attribute.
+     * @return True if the attribute is set and viewed, otherwise false.
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Passes every set attribute to an action without creating entries.
+     * @param action The action receiving the name and value of every attribute.
+     */
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        for (String attributeName : getAttributeNames()) {
+            Object value = session.getAttribute(attributeName);
+            if (value != null) {
+                action.accept(attributeName, value);
+            }
+        }
+    }
+
+    /**
+     * Gets the set attributes as entries read from the session while iterating.
+     * @return The entry set of the view.
+     */
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new AttributeIterator(getAttributeNames().iterator());
+            }
+
+            @Override
+            public int size() {
+                if (attributeNames == null) {
+                    return session.getAttributeNames().size();
+                }
+                int size = 0;
+                for (String attributeName : attributeNames) {
+                    if (session.getAttribute(attributeName) != null) {
+                        size++;
+                    }
+                }
+                return size;
+            }
+        };
+    }
+
+    private Set<String> getAttributeNames() {
+        return attributeNames != null ? attributeNames : session.getAttributeNames();
+    }
+
+    /**
+     * AttributeIterator iterates the set attributes of the session, skipping the viewed names that are not set.
+     */
+    private final class AttributeIterator implements Iterator<Entry<String, Object>> {
+
+        private final Iterator<String> names;
+
+        private Entry<String, Object> next;
+
+        private AttributeIterator(Iterator<String> names) {
+            this.names = names;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && names.hasNext()) {
+                String attributeName = names.next();
+                Object value = session.getAttribute(attributeName);
+                if (value != null) {
+                    next = new SimpleImmutableEntry<>(attributeName, value);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Entry<String, Object> entry = next;
+            next = null;
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package org.springframework.session;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * SessionCircuitBreaker guards the calls to a storage and falls back to another one while it is unhealthy.
+ * Calls run on a bounded pool with a timeout, so a hung connection never holds the calling thread.
+ * The outcome of the last calls is kept in a count based sliding window; the breaker opens when the
+ * failure rate or the slow call rate reaches its threshold, fails fast while open, and lets a few probe
+ * calls through once the wait duration has passed to decide whether to close again.
+ */
+@Slf4j
+public class SessionCircuitBreaker {
+
+    /**
+     * State of the circuit breaker.
+     */
+    public enum State {
+        /** Calls go to the guarded storage. */
+        CLOSED,
+        /** Calls go straight to the fallback. */
+        OPEN,
+        /** A limited number of probe calls go to the guarded storage. */
+        HALF_OPEN
+    }
+
+    private final String name;
+
+    private final Duration timeout;
+
+    private final int minimumCalls;
+
+    private final float failureRateThreshold;
+
+    private final float slowCallRateThreshold;
+
+    private final long slowCallDurationNanos;
+
+    private final long waitDurationInOpenStateNanos;
+
+    private final int permittedCallsInHalfOpenState;
+
+    private final boolean[] failedCalls;
+
+    private final boolean[] slowCalls;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Counter fallbackOpen;
+
+    private final Counter fallbackTimeout;
+
+    private final Counter fallbackError;
+
+    private State state = State.CLOSED;
+
+    private int windowIndex;
+
+    private int windowCount;
+
+    private int failedCount;
+
+    private int slowCount;
+
+    private long openedAtNanos;
+
+    private int halfOpenPermits;
+
+    /**
+     * Constructor for SessionCircuitBreaker.
+     * @param name The name of the guarded storage, used in logs and to tag metrics.
+     * @param timeout The time after which a call is abandoned and counted as failed.
+     * @param maxConcurrentCalls The maximum number of calls running on the guarded storage at once.
+     * @param slidingWindowSize The number of last calls the failure and slow call rates are computed from.
+     * @param minimumCalls The number of calls required before the rates are evaluated.
+     * @param failureRateThreshold The failure rate in percent at which the breaker opens.
+     * @param slowCallRateThreshold The slow call rate in percent at which the breaker opens.
+     * @param slowCallDuration The duration above which a call is counted as slow.
+     * @param waitDurationInOpenState The time the breaker stays open before probing the guarded storage.
+     * @param permittedCallsInHalfOpenState The number of probe calls deciding whether the breaker closes.
+     * @param meterRegistry The registry the breaker metrics are published to.
+     */
+    public SessionCircuitBreaker(String name, Duration timeout, int maxConcurrentCalls,
+                                 int slidingWindowSize, int minimumCalls,
+                                 float failureRateThreshold, float slowCallRateThreshold, Duration slowCallDuration,
+                                 Duration waitDurationInOpenState, int permittedCallsInHalfOpenState,
+                                 MeterRegistry meterRegistry) {
+        if (maxConcurrentCalls <= 0 || slidingWindowSize <= 0 || permittedCallsInHalfOpenState <= 0) {
+            throw new IllegalArgumentException("Circuit breaker concurrency, window size and half-open calls must be positive");
+        }
+        this.name = name;
+        this.timeout = timeout;
+        this.minimumCalls = Math.min(Math.max(minimumCalls, 1), slidingWindowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDurationNanos = slowCallDuration.toNanos();
+        this.waitDurationInOpenStateNanos = waitDurationInOpenState.toNanos();
+        this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        this.failedCalls = new boolean[slidingWindowSize];
+        this.slowCalls = new boolean[slidingWindowSize];
+        this.executor = new ThreadPoolExecutor(0, maxConcurrentCalls, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), newThreadFactory(name));
+        Gauge.builder("spring.session.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .tag("storage", name)
+                .description("0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+        this.fallbackOpen = meterRegistry.counter("spring.session.circuit.fallbacks", "storage", name, "reason", "open");
+        this.fallbackTimeout = meterRegistry.counter("spring.session.circuit.fallbacks", "storage", name, "reason", "timeout");
+        this.fallbackError = meterRegistry.counter("spring.session.circuit.fallbacks", "storage", name, "reason", "error");
+    }
+
+    /**
+     * Runs a call on the guarded storage, or the fallback when the breaker is open or the call fails.
+     * @param call The call to the guarded storage.
+     * @param fallback The call serving the result when the guarded storage cannot.
+     * @param <T> The type of the result.
+     * @return The result of the call, or of the fallback.
+     */
+    public <T> T execute(Supplier<T> call, Supplier<T> fallback) {
+        if (!tryAcquirePermission()) {
+            fallbackOpen.increment();
+            return fallback.get();
+        }
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(call::get);
+        } catch (RejectedExecutionException e) {
+            onResult(true, System.nanoTime() - start);
+            fallbackError.increment();
+            log.warn("All {} calls to {} are busy, using fallback", executor.getMaximumPoolSize(), name);
+            return fallback.get();
+        }
+        try {
+            T result = future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            onResult(false, System.nanoTime() - start);
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            onResult(true, System.nanoTime() - start);
+            fallbackTimeout.increment();
+            log.warn("Call to {} timed out after {}, using fallback", name, timeout);
+        } catch (ExecutionException e) {
+            onResult(true, System.nanoTime() - start);
+            fallbackError.increment();
+            log.warn("Call to {} failed, using fallback", name, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            onResult(true, System.nanoTime() - start);
+            fallbackError.increment();
+        }
+        return fallback.get();
+    }
+
+    /**
+     * Gets the current state of the breaker.
+     * @return The state of the breaker.
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Stops the threads running the calls.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Checks if a call may go to the guarded storage, moving an open breaker to half-open once it waited long enough.
+     * @return True if the call is permitted, otherwise false.
+     */
+    private synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= waitDurationInOpenStateNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return state != State.OPEN;
+    }
+
+    /**
+     * Records the outcome of a call and opens or closes the breaker when the window crosses a threshold.
+     * @param failed True if the call failed or timed out.
+     * @param durationNanos The duration of the call.
+     */
+    private synchronized void onResult(boolean failed, long durationNanos) {
+        if (state == State.OPEN) {
+            return;
+        }
+        boolean slow = durationNanos >= slowCallDurationNanos;
+        failedCount += (failed ? 1 : 0) - (failedCalls[windowIndex] ? 1 : 0);
+        slowCount += (slow ? 1 : 0) - (slowCalls[windowIndex] ? 1 : 0);
+        failedCalls[windowIndex] = failed;
+        slowCalls[windowIndex] = slow;
+        windowIndex = (windowIndex + 1) % failedCalls.length;
+        windowCount = Math.min(windowCount + 1, failedCalls.length);
+        int requiredCalls = state == State.HALF_OPEN
+                ? Math.min(permittedCallsInHalfOpenState, failedCalls.length) : minimumCalls;
+        if (windowCount < requiredCalls) {
+            return;
+        }
+        if (failedCount * 100f / windowCount >= failureRateThreshold || slowCount * 100f / windowCount >= slowCallRateThreshold) {
+            transitionTo(State.OPEN);
+        } else if (state == State.HALF_OPEN) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    /**
+     * Moves the breaker to a new state with an empty sliding window.
+     * @param newState The state to move to.
+     */
+    private void transitionTo(State newState) {
+        log.warn("Circuit breaker of {} moved from {} to {}", name, state, newState);
+        state = newState;
+        openedAtNanos = System.nanoTime();
+        halfOpenPermits = permittedCallsInHalfOpenState;
+        windowIndex = 0;
+        windowCount = 0;
+        failedCount = 0;
+        slowCount = 0;
+        Arrays.fill(failedCalls, false);
+        Arrays.fill(slowCalls, false);
+    }
+
+    private static ThreadFactory newThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "session-" + name.toLowerCase() + "-call-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
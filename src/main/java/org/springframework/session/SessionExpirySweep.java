@@ -0,0 +1,197 @@
+package org.springframework.session;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SessionExpirySweep runs the expiry sweepers of the storages in the background, on one node at a time.
+ * Every tick the node acquires or renews a SessionLock, and only the holder sweeps, batch after batch, until no
+ * expired session is left or its share of half the lease has passed, so the lock is renewed before the lease runs out.
+ * Deletions are capped per second by a token bucket. Without a lock every node sweeps, which is safe since deleting
+ * an expired session twice is a no-op.
+ */
+@Slf4j
+public class SessionExpirySweep {
+
+    private final List<SessionExpirySweeper> sweepers;
+
+    private final SessionLock sessionLock;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    private final int batchSize;
+
+    private final double maxSessionsPerSecond;
+
+    private final Duration lease;
+
+    private final List<Timer> sweepTimers = new ArrayList<>();
+
+    private final List<Counter> sweptSessions = new ArrayList<>();
+
+    private final AtomicInteger leader = new AtomicInteger();
+
+    private ScheduledExecutorService executor;
+
+    private volatile boolean stopped;
+
+    private double permits;
+
+    private long lastRefillNanos = System.nanoTime();
+
+    /**
+     * Constructor for SessionExpirySweep.
+     * @param sweepers The sweepers of the storages to clean up.
+     * @param sessionLock The lock electing the sweeping node, or null to sweep on every node.
+     * @param batchSize The maximum number of sessions deleted at once.
+     * @param maxSessionsPerSecond The maximum number of sessions deleted per second, or 0 for no limit.
+     * @param lease The time the lock is held without being renewed.
+     * @param meterRegistry The registry the sweep metrics are published to.
+     */
+    public SessionExpirySweep(List<SessionExpirySweeper> sweepers, SessionLock sessionLock, int batchSize,
+                              double maxSessionsPerSecond, Duration lease, MeterRegistry meterRegistry) {
+        if (batchSize <= 0 || maxSessionsPerSecond < 0 || lease.isNegative() || lease.isZero()) {
+            throw new IllegalArgumentException("Expiry sweep batch size and lease must be positive, rate not negative");
+        }
+        this.sweepers = sweepers;
+        this.sessionLock = sessionLock;
+        this.batchSize = batchSize;
+        this.maxSessionsPerSecond = maxSessionsPerSecond;
+        this.lease = lease;
+        this.permits = Math.min(maxSessionsPerSecond, batchSize);
+        for (SessionExpirySweeper sweeper : sweepers) {
+            sweepTimers.add(meterRegistry.timer("spring.session.expiry.sweeps", "storage", sweeper.getName()));
+            sweptSessions.add(meterRegistry.counter("spring.session.expiry.sessions.swept", "storage", sweeper.getName()));
+        }
+        meterRegistry.gauge("spring.session.expiry.leader", leader);
+    }
+
+    /**
+     * Starts sweeping in the background, one tick after another with the given delay in between.
+     * @param interval The delay between the end of a tick and the start of the next one, shorter than the lease.
+     * @throws IllegalStateException If the sweep is already running.
+     */
+    public synchronized void start(Duration interval) {
+        if (executor != null && !executor.isShutdown()) {
+            throw new IllegalStateException("Expiry sweep is already running");
+        }
+        stopped = false;
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-expiry-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                log.error("Expiry sweep failed, it runs again after the interval", e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Expiry sweep of " + sweepers.stream().map(SessionExpirySweeper::getName).toList() + " runs every "
+                + interval + (sessionLock != null ? " on the node holding the " + sessionLock.getName() + " lock" : " on every node"));
+    }
+
+    /**
+     * Stops sweeping once the batch being deleted is done, and releases the lock.
+     * @param timeout The maximum time to wait for the batch being deleted.
+     */
+    public void stop(Duration timeout) {
+        stopped = true;
+        ScheduledExecutorService runningExecutor;
+        synchronized (this) {
+            runningExecutor = executor;
+        }
+        if (runningExecutor == null) {
+            return;
+        }
+        runningExecutor.shutdown();
+        try {
+            if (!runningExecutor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                runningExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            runningExecutor.shutdownNow();
+        }
+        if (sessionLock != null && leader.get() == 1) {
+            try {
+                sessionLock.release(owner);
+            } catch (RuntimeException e) {
+                log.warn("Failed to release the expiry sweep lock, it is free once its lease has expired: " + e.getMessage());
+            }
+        }
+        leader.set(0);
+    }
+
+    /**
+     * Checks whether this node holds the lock, as of its last tick.
+     * @return True if this node sweeps, otherwise false.
+     */
+    public boolean isLeader() {
+        return leader.get() == 1;
+    }
+
+    /**
+     * Acquires or renews the lock and, if this node holds it, sweeps every storage.
+     */
+    private void tick() {
+        if (sessionLock != null && !sessionLock.tryAcquire(owner, lease)) {
+            if (leader.getAndSet(0) == 1) {
+                log.info("Expiry sweep lock was lost, another node sweeps");
+            }
+            return;
+        }
+        if (leader.getAndSet(1) == 0 && sessionLock != null) {
+            log.info("Expiry sweep lock was acquired, this node sweeps");
+        }
+        long budgetNanos = lease.toNanos() / 2 / sweepers.size();
+        for (int i = 0; i < sweepers.size() && !stopped; i++) {
+            SessionExpirySweeper sweeper = sweepers.get(i);
+            Counter swept = sweptSessions.get(i);
+            long deadline = System.nanoTime() + budgetNanos;
+            sweepTimers.get(i).record(() -> {
+                int deleted;
+                do {
+                    deleted = sweeper.sweep(System.currentTimeMillis(), batchSize);
+                    swept.increment(deleted);
+                    acquirePermits(deleted);
+                } while (deleted > 0 && !stopped && System.nanoTime() < deadline);
+            });
+        }
+    }
+
+    /**
+     * Takes permits from the token bucket, waiting until enough have been refilled.
+     * @param count The number of sessions deleted.
+     */
+    private void acquirePermits(int count) {
+        if (maxSessionsPerSecond == 0 || count == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        permits = Math.min(Math.max(maxSessionsPerSecond, batchSize),
+                permits + (now - lastRefillNanos) * maxSessionsPerSecond / TimeUnit.SECONDS.toNanos(1));
+        lastRefillNanos = now;
+        permits -= count;
+        if (permits < 0) {
+            try {
+                Thread.sleep(TimeUnit.NANOSECONDS.toMillis((long) (-permits * TimeUnit.SECONDS.toNanos(1) / maxSessionsPerSecond)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sweeping expired sessions", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.springframework.session;
+
+/**
+ * SessionExpirySweeper deletes the expired sessions of a storage that does not expire them by itself, in batches.
+ */
+public interface SessionExpirySweeper {
+
+    /**
+     * Gets the name of the storage the sessions are deleted from.
+     * @return The name of the storage.
+     */
+    String getName();
+
+    /**
+     * Deletes a batch of sessions expired at the given time.
+     * @param now The current time, in milliseconds since the epoch.
+     * @param batchSize The maximum number of sessions to delete.
+     * @return The number of sessions deleted, 0 once no expired session is left.
+     */
+    int sweep(long now, int batchSize);
+}
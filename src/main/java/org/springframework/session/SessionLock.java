@@ -0,0 +1,30 @@
+package org.springframework.session;
+
+import java.time.Duration;
+
+/**
+ * SessionLock is a lease held by one node at a time in a shared storage, electing the node running a background job.
+ * A lease expires unless its owner renews it, so a stopped node hands the job over once its lease has run out.
+ */
+public interface SessionLock {
+
+    /**
+     * Gets the name of the storage the lock is held in.
+     * @return The name of the storage.
+     */
+    String getName();
+
+    /**
+     * Acquires the lock if it is free or its lease has expired, or renews it if the owner already holds it.
+     * @param owner The unique id of the node.
+     * @param lease The time the lock is held without being renewed.
+     * @return True if the owner holds the lock, otherwise false.
+     */
+    boolean tryAcquire(String owner, Duration lease);
+
+    /**
+     * Releases the lock if the owner holds it.
+     * @param owner The unique id of the node.
+     */
+    void release(String owner);
+}
@@ -0,0 +1,107 @@
+package org.springframework.session;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * SessionMigrationCheckpoint records how far every partition of a migration has been read, so a stopped or failed
+ * migration resumes where it left off. The checkpoint is a properties file rewritten atomically after every page.
+ * Without a file the checkpoint is only kept in memory.
+ */
+public class SessionMigrationCheckpoint {
+
+    private static final String SOURCE_KEY = "source";
+
+    private static final String TARGET_KEY = "target";
+
+    private static final String CURSOR_KEY_PREFIX = "cursor.";
+
+    private static final String COMPLETED_KEY_PREFIX = "completed.";
+
+    private final Path file;
+
+    private final Properties properties = new Properties();
+
+    /**
+     * Constructor for SessionMigrationCheckpoint, loading the checkpoint of a previous run of the same migration.
+     * @param file The file the checkpoint is kept in, or null to keep it in memory.
+     * @param sourceName The name of the storage the sessions are read from.
+     * @param targetName The name of the storage the sessions are written to.
+     * @throws IllegalStateException If the file holds the checkpoint of another migration.
+     */
+    public SessionMigrationCheckpoint(Path file, String sourceName, String targetName) {
+        this.file = file;
+        if (file != null && Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read migration checkpoint " + file, e);
+            }
+            if (!sourceName.equals(properties.getProperty(SOURCE_KEY))
+                    || !targetName.equals(properties.getProperty(TARGET_KEY))) {
+                throw new IllegalStateException("Migration checkpoint " + file + " belongs to the migration from "
+                        + properties.getProperty(SOURCE_KEY) + " to " + properties.getProperty(TARGET_KEY));
+            }
+        }
+        properties.setProperty(SOURCE_KEY, sourceName);
+        properties.setProperty(TARGET_KEY, targetName);
+    }
+
+    /**
+     * Checks if a partition has been migrated completely.
+     * @param partition The partition.
+     * @return True if the partition is completed, otherwise false.
+     */
+    public synchronized boolean isCompleted(int partition) {
+        return properties.containsKey(COMPLETED_KEY_PREFIX + partition);
+    }
+
+    /**
+     * Gets the cursor a partition resumes from.
+     * @param partition The partition.
+     * @return The cursor, or null to read the partition from its start.
+     */
+    public synchronized String getCursor(int partition) {
+        return properties.getProperty(CURSOR_KEY_PREFIX + partition);
+    }
+
+    /**
+     * Records the progress of a partition once a page has been written to the target storage.
+     * @param partition The partition.
+     * @param cursor The cursor of the next page, or null when the partition is completed.
+     */
+    public synchronized void update(int partition, String cursor) {
+        if (cursor == null) {
+            properties.remove(CURSOR_KEY_PREFIX + partition);
+            properties.setProperty(COMPLETED_KEY_PREFIX + partition, Boolean.TRUE.toString());
+        } else {
+            properties.setProperty(CURSOR_KEY_PREFIX + partition, cursor);
+        }
+        store();
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file and moves it over the checkpoint file,
+     * so a crash never leaves a partially written checkpoint.
+     */
+    private void store() {
+        if (file == null) {
+            return;
+        }
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporaryFile)) {
+                properties.store(writer, "Session migration checkpoint");
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write migration checkpoint " + file, e);
+        }
+    }
+}
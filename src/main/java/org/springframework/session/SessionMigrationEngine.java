@@ -0,0 +1,294 @@
+package org.springframework.session;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.framework.data.SpringSessionData;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * SessionMigrationEngine copies all live sessions of a SessionSource to the writer of another storage.
+ * The partitions of the source are migrated in parallel by a fixed number of workers, page by page.
+ * A token bucket shared by the workers caps the number of sessions written per second, failed reads and writes
+ * are retried with an exponential backoff, and the progress of every partition is checkpointed once its page
+ * has been written, so a stopped migration resumes where it left off.
+ * A session is only written when the target storage does not hold it yet, or holds an older copy of it, so the
+ * migration never overwrites a session the application has saved to the target storage since.
+ */
+@Slf4j
+public class SessionMigrationEngine {
+
+    private static final long RETRY_BACKOFF_MILLIS = 100;
+
+    private final SessionSource sessionSource;
+
+    private final ISessionSaveAsSecondary sessionWriter;
+
+    private final SessionRepository targetRepository;
+
+    private final String targetName;
+
+    private final int workers;
+
+    private final int pageSize;
+
+    private final double maxSessionsPerSecond;
+
+    private final int maxRetries;
+
+    private final SessionMigrationCheckpoint checkpoint;
+
+    private final Counter migratedSessions;
+
+    private final Counter skippedSessions;
+
+    private final Counter migratedPages;
+
+    private final Counter retries;
+
+    private final AtomicInteger remainingPartitions = new AtomicInteger();
+
+    private ExecutorService executor;
+
+    private volatile boolean stopped;
+
+    private double permits;
+
+    private long lastRefillNanos = System.nanoTime();
+
+    /**
+     * Constructor for SessionMigrationEngine.
+     * @param sessionSource The source the sessions are read from.
+     * @param sessionWriter The writer the sessions are saved with.
+     * @param targetRepository The repository the copies already held by the target storage are read with.
+     * @param targetName The name of the storage the sessions are written to, used to tag metrics.
+     * @param workers The number of partitions migrated in parallel.
+     * @param pageSize The number of sessions read and written at once.
+     * @param maxSessionsPerSecond The maximum number of sessions written per second, or 0 for no limit.
+     * @param maxRetries The number of times a failed page is retried before its partition is abandoned.
+     * @param checkpoint The checkpoint the progress is recorded in.
+     * @param meterRegistry The registry the migration metrics are published to.
+     */
+    public SessionMigrationEngine(SessionSource sessionSource, ISessionSaveAsSecondary sessionWriter,
+                                  SessionRepository targetRepository, String targetName, int workers, int pageSize, double maxSessionsPerSecond, int maxRetries,
+                                  SessionMigrationCheckpoint checkpoint, MeterRegistry meterRegistry) {
+        if (workers <= 0 || pageSize <= 0 || maxSessionsPerSecond < 0 || maxRetries < 0) {
+            throw new IllegalArgumentException("Migration workers and page size must be positive, rate and retries not negative");
+        }
+        this.sessionSource = sessionSource;
+        this.sessionWriter = sessionWriter;
+        this.targetRepository = targetRepository;
+        this.targetName = targetName;
+        this.workers = workers;
+        this.pageSize = pageSize;
+        this.maxSessionsPerSecond = maxSessionsPerSecond;
+        this.maxRetries = maxRetries;
+        this.checkpoint = checkpoint;
+        this.permits = Math.min(maxSessionsPerSecond, pageSize);
+        String sourceName = sessionSource.getName();
+        this.migratedSessions = meterRegistry.counter("spring.session.migration.sessions",
+                "source", sourceName, "target", targetName);
+        this.skippedSessions = meterRegistry.counter("spring.session.migration.sessions.skipped",
+                "source", sourceName, "target", targetName);
+        this.migratedPages = meterRegistry.counter("spring.session.migration.pages",
+                "source", sourceName, "target", targetName);
+        this.retries = meterRegistry.counter("spring.session.migration.retries",
+                "source", sourceName, "target", targetName);
+        meterRegistry.gauge("spring.session.migration.partitions.remaining",
+                Tags.of("source", sourceName, "target", targetName), remainingPartitions);
+    }
+
+    /**
+     * Starts migrating the partitions that are not completed yet.
+     * @return A future completed with the number of migrated sessions once every partition is completed,
+     * or completed exceptionally if a partition failed or the migration was stopped.
+     * @throws IllegalStateException If the migration is already running.
+     */
+    public synchronized CompletableFuture<Long> start() {
+        if (executor != null && !executor.isTerminated()) {
+            throw new IllegalStateException("Migration from " + sessionSource.getName() + " to " + targetName + " is already running");
+        }
+        stopped = false;
+        executor = Executors.newFixedThreadPool(workers, newThreadFactory(sessionSource.getName(), targetName));
+        List<CompletableFuture<Long>> partitions = new ArrayList<>();
+        for (int partition = 0; partition < sessionSource.getPartitionCount(); partition++) {
+            if (!checkpoint.isCompleted(partition)) {
+                int migratedPartition = partition;
+                partitions.add(CompletableFuture.supplyAsync(() -> migratePartition(migratedPartition), executor));
+            }
+        }
+        remainingPartitions.set(partitions.size());
+        log.info("Migrating " + partitions.size() + " partitions from " + sessionSource.getName() + " to " + targetName);
+        executor.shutdown();
+        return CompletableFuture.allOf(partitions.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> partitions.stream().mapToLong(CompletableFuture::join).sum())
+                .whenComplete((migrated, error) -> {
+                    if (error == null) {
+                        log.info("Migrated " + migrated + " sessions from " + sessionSource.getName() + " to " + targetName);
+                    } else {
+                        log.error("Migration from " + sessionSource.getName() + " to " + targetName
+                                + " did not complete, it resumes from its checkpoint", error);
+                    }
+                });
+    }
+
+    /**
+     * Stops the migration once the pages being written are checkpointed.
+     * @param timeout The maximum time to wait for the workers.
+     */
+    public void stop(Duration timeout) {
+        stopped = true;
+        ExecutorService runningExecutor;
+        synchronized (this) {
+            runningExecutor = executor;
+        }
+        if (runningExecutor == null) {
+            return;
+        }
+        try {
+            if (!runningExecutor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                runningExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            runningExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the number of partitions not migrated yet.
+     * @return The number of remaining partitions.
+     */
+    public int getRemainingPartitions() {
+        return remainingPartitions.get();
+    }
+
+    /**
+     * Migrates a partition from its checkpoint to its end.
+     * @param partition The partition to migrate.
+     * @return The number of sessions migrated.
+     * @throws IllegalStateException If the migration was stopped before the partition was completed.
+     */
+    private long migratePartition(int partition) {
+        String cursor = checkpoint.getCursor(partition);
+        long migrated = 0;
+        while (!stopped) {
+            String pageCursor = cursor;
+            SessionPage page = withRetries(() -> sessionSource.readPage(partition, pageCursor, pageSize));
+            List<SpringSessionData> sessions = page.getSessions();
+            if (!sessions.isEmpty()) {
+                acquirePermits(sessions.size());
+                sessions = withRetries(() -> filterSessionsToWrite(page.getSessions()));
+            }
+            if (!sessions.isEmpty()) {
+                List<SpringSessionData> writtenSessions = sessions;
+                withRetries(() -> {
+                    sessionWriter.saveAllAsSecondary(writtenSessions);
+                    return null;
+                });
+            }
+            checkpoint.update(partition, page.getNextCursor());
+            migrated += sessions.size();
+            migratedSessions.increment(sessions.size());
+            skippedSessions.increment(page.getSessions().size() - sessions.size());
+            migratedPages.increment();
+            if (page.isLast()) {
+                remainingPartitions.decrementAndGet();
+                return migrated;
+            }
+            cursor = page.getNextCursor();
+        }
+        throw new IllegalStateException("Migration of partition " + partition + " was stopped");
+    }
+
+    /**
+     * Drops the sessions of a page the target storage holds a copy of that was accessed at the same time or later.
+     * Such a copy was saved to the target storage by the application, or migrated before, and is kept.
+     * @param sessions The sessions of the page.
+     * @return The sessions to write to the target storage.
+     */
+    private List<SpringSessionData> filterSessionsToWrite(List<SpringSessionData> sessions) {
+        List<SpringSessionData> sessionsToWrite = new ArrayList<>(sessions.size());
+        for (SpringSessionData springSessionData : sessions) {
+            Session existing = targetRepository.findById(springSessionData.getId());
+            if (existing == null
+                    || existing.getLastAccessedTime().toEpochMilli() < springSessionData.getLastAccessedMillis()) {
+                sessionsToWrite.add(springSessionData);
+            }
+        }
+        return sessionsToWrite;
+    }
+
+    /**
+     * Runs a call, retrying it with an exponential backoff when it fails.
+     * @param call The call to run.
+     * @param <T> The type of the result.
+     * @return The result of the call.
+     */
+    private <T> T withRetries(Supplier<T> call) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return call.get();
+            } catch (RuntimeException e) {
+                if (attempt >= maxRetries || stopped) {
+                    throw e;
+                }
+                retries.increment();
+                log.warn("Migration call failed, retrying: " + e.getMessage());
+                sleep(RETRY_BACKOFF_MILLIS << Math.min(attempt, 10));
+            }
+        }
+    }
+
+    /**
+     * Takes permits from the token bucket shared by the workers, waiting until enough have been refilled.
+     * @param count The number of sessions about to be written.
+     */
+    private void acquirePermits(int count) {
+        if (maxSessionsPerSecond == 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            permits = Math.min(Math.max(maxSessionsPerSecond, pageSize),
+                    permits + (now - lastRefillNanos) * maxSessionsPerSecond / TimeUnit.SECONDS.toNanos(1));
+            lastRefillNanos = now;
+            permits -= count;
+            waitNanos = permits >= 0 ? 0 : (long) (-permits * TimeUnit.SECONDS.toNanos(1) / maxSessionsPerSecond);
+        }
+        if (waitNanos > 0) {
+            sleep(TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while migrating sessions", e);
+        }
+    }
+
+    private static ThreadFactory newThreadFactory(String sourceName, String targetName) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "session-migration-" + sourceName.toLowerCase() + "-"
+                    + targetName.toLowerCase() + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,140 @@
+package org.springframework.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.session.serializer.SessionCodec;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * SessionNearCache keeps snapshots of recently used sessions in the JVM, in front of the primary storage.
+ * Eviction is bounded by size and time, with Caffeine's W-TinyLFU admission policy deciding which sessions stay.
+ * Attribute values are kept encoded by a SessionCodec and decoded on every read, so callers never share
+ * a session or any of its mutable attribute values.
+ */
+@Slf4j
+public class SessionNearCache {
+
+    private final Cache<String, EncodedSession> cache;
+
+    private final SessionCodec sessionCodec;
+
+    private Consumer<String> invalidationPublisher = sessionId -> { };
+
+    /**
+     * Constructor for SessionNearCache.
+     * @param maximumSize The maximum number of sessions kept in the cache.
+     * @param timeToLive The time a snapshot is served after it was cached.
+     * @param sessionCodec The codec the attribute values are kept encoded with.
+     * @param meterRegistry The registry the hit, miss and eviction metrics are published to.
+     */
+    public SessionNearCache(long maximumSize, Duration timeToLive, SessionCodec sessionCodec,
+                            MeterRegistry meterRegistry) {
+        this.sessionCodec = sessionCodec;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "spring.session.near.cache");
+    }
+
+    /**
+     * Sets the action telling the other nodes that a session changed.
+     * @param invalidationPublisher The action publishing the id of a changed session.
+     */
+    public void setInvalidationPublisher(Consumer<String> invalidationPublisher) {
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    /**
+     * Gets a snapshot of a session decoded from the cache.
+     * @param id The ID of the session.
+     * @return The snapshot, or null if the session is not cached or has expired.
+     */
+    public MapSession get(String id) {
+        EncodedSession encodedSession = cache.getIfPresent(id);
+        if (encodedSession == null) {
+            return null;
+        }
+        if (encodedSession.session.isExpired()) {
+            cache.invalidate(id);
+            return null;
+        }
+        MapSession snapshot = new MapSession(encodedSession.session);
+        encodedSession.attributes.forEach((name, bytes) -> snapshot.setAttribute(name, sessionCodec.decode(bytes)));
+        return snapshot;
+    }
+
+    /**
+     * Caches a snapshot of a session read from the primary storage, with its attribute values encoded.
+     * @param session The session to cache.
+     */
+    public void put(Session session) {
+        MapSession metadata = new MapSession(session.getId());
+        metadata.setCreationTime(session.getCreationTime());
+        metadata.setLastAccessedTime(session.getLastAccessedTime());
+        metadata.setMaxInactiveInterval(session.getMaxInactiveInterval());
+        Map<String, byte[]> attributes = new HashMap<>();
+        for (String name : session.getAttributeNames()) {
+            attributes.put(name, sessionCodec.encode(session.getAttribute(name)));
+        }
+        cache.put(session.getId(), new EncodedSession(metadata, attributes));
+    }
+
+    /**
+     * Caches a snapshot of a session that was just saved and tells the other nodes to drop their copy.
+     * @param session The saved session.
+     * @param previousId The ID the session had when it was read, if it has been changed since.
+     */
+    public void update(Session session, String previousId) {
+        if (previousId != null && !previousId.equals(session.getId())) {
+            evict(previousId);
+        }
+        put(session);
+        invalidationPublisher.accept(session.getId());
+    }
+
+    /**
+     * Removes a session from this cache and tells the other nodes to drop their copy.
+     * @param id The ID of the session.
+     */
+    public void evict(String id) {
+        cache.invalidate(id);
+        invalidationPublisher.accept(id);
+    }
+
+    /**
+     * Removes a session from this cache only, after another node changed it.
+     * @param id The ID of the session.
+     */
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * EncodedSession is a cached session, its times and its attribute values encoded by the codec of the cache.
+     */
+    private static final class EncodedSession {
+
+        private final MapSession session;
+
+        private final Map<String, byte[]> attributes;
+
+        /**
+         * Constructor for EncodedSession.
+         * @param session The session without attributes, holding its id and times.
+         * @param attributes The encoded attribute values by their name.
+         */
+        private EncodedSession(MapSession session, Map<String, byte[]> attributes) {
+            this.session = session;
+            this.attributes = attributes;
+        }
+    }
+}
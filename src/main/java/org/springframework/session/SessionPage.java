@@ -0,0 +1,33 @@
+package org.springframework.session;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.framework.data.SpringSessionData;
+
+import java.util.List;
+
+/**
+ * SessionPage is a page of sessions read from a SessionSource partition.
+ */
+@Getter
+@AllArgsConstructor
+public class SessionPage {
+
+    /**
+     * The live sessions of the page.
+     */
+    private final List<SpringSessionData> sessions;
+
+    /**
+     * The cursor to read the next page from, or null when the partition has been read completely.
+     */
+    private final String nextCursor;
+
+    /**
+     * Checks if the partition has been read completely.
+     * @return True if this is the last page of the partition, otherwise false.
+     */
+    public boolean isLast() {
+        return nextCursor == null;
+    }
+}
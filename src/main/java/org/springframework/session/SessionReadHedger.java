@@ -0,0 +1,255 @@
+package org.springframework.session;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * SessionReadHedger sends a read to a second storage when the first one has not answered within a delay.
+ * The delay follows a live percentile of the first storage's latency, so only its tail is hedged,
+ * and a token budget caps the extra load hedging may put on the second storage.
+ * The first valid answer wins and the losing call is cancelled.
+ */
+@Slf4j
+public class SessionReadHedger {
+
+    private static final int LATENCY_SAMPLES = 1024;
+
+    private static final int PERCENTILE_REFRESH_INTERVAL = 100;
+
+    private static final double MAX_BUDGET_TOKENS = 10;
+
+    private final long minimumDelayNanos;
+
+    private final int delayPercentile;
+
+    private final double budgetRatio;
+
+    private final long[] latencySamples = new long[LATENCY_SAMPLES];
+
+    private final ThreadPoolExecutor executor;
+
+    private final Counter hedgedReads;
+
+    private final Counter hedgeWins;
+
+    private final Counter budgetExhausted;
+
+    private int sampleIndex;
+
+    private int sampleCount;
+
+    private volatile long delayNanos;
+
+    private double budgetTokens = MAX_BUDGET_TOKENS;
+
+    /**
+     * Constructor for SessionReadHedger.
+     * @param name The name of the first storage, used to tag metrics.
+     * @param delay The delay before hedging, and its lower bound once the percentile is known.
+     * @param delayPercentile The percentile of the first storage's latency used as delay, or 0 to always use the fixed delay.
+     * @param budgetPercent The maximum share of reads, in percent, that may be hedged.
+     * @param maxConcurrentCalls The maximum number of calls running at once.
+     * @param meterRegistry The registry the hedging metrics are published to.
+     */
+    public SessionReadHedger(String name, Duration delay, int delayPercentile, float budgetPercent,
+                             int maxConcurrentCalls, MeterRegistry meterRegistry) {
+        if (delayPercentile < 0 || delayPercentile >= 100 || maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("Hedging percentile must be in [0, 100) and concurrency positive");
+        }
+        this.minimumDelayNanos = delay.toNanos();
+        this.delayNanos = minimumDelayNanos;
+        this.delayPercentile = delayPercentile;
+        this.budgetRatio = budgetPercent / 100d;
+        this.executor = new ThreadPoolExecutor(0, maxConcurrentCalls, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), newThreadFactory(name));
+        this.hedgedReads = meterRegistry.counter("spring.session.hedge.requests", "storage", name);
+        this.hedgeWins = meterRegistry.counter("spring.session.hedge.wins", "storage", name);
+        this.budgetExhausted = meterRegistry.counter("spring.session.hedge.budget.exhausted", "storage", name);
+    }
+
+    /**
+     * Reads from the first storage, hedging to the second one if the first is slower than the delay.
+     * A null answer of the second storage is not valid, since it may simply lag behind the first one.
+     * @param call The read on the first storage.
+     * @param hedge The read on the second storage.
+     * @param <T> The type of the result.
+     * @return The first valid answer.
+     */
+    public <T> T execute(Supplier<T> call, Supplier<T> hedge) {
+        CompletableFuture<T> primary = new CompletableFuture<>();
+        long start = System.nanoTime();
+        Future<?> primaryTask;
+        try {
+            primaryTask = executor.submit(() -> run(call, primary, start));
+        } catch (RejectedExecutionException e) {
+            return call.get();
+        }
+        try {
+            return primary.get(delayNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // the first storage is in its tail, hedge below
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primaryTask.cancel(true);
+            throw new IllegalStateException("Interrupted while reading session", e);
+        }
+        if (!tryAcquireBudget()) {
+            budgetExhausted.increment();
+            return await(primary, primaryTask, null);
+        }
+        CompletableFuture<T> secondary = new CompletableFuture<>();
+        Future<?> hedgeTask;
+        try {
+            hedgeTask = executor.submit(() -> run(hedge, secondary, 0));
+        } catch (RejectedExecutionException e) {
+            return await(primary, primaryTask, null);
+        }
+        hedgedReads.increment();
+        CompletableFuture<T> winner = new CompletableFuture<>();
+        primary.whenComplete((result, error) -> {
+            if (error == null) {
+                winner.complete(result);
+            } else if (secondary.isDone()) {
+                winner.completeExceptionally(error);
+            }
+        });
+        secondary.whenComplete((result, error) -> {
+            if (error == null && result != null) {
+                if (winner.complete(result)) {
+                    hedgeWins.increment();
+                }
+            } else if (primary.isCompletedExceptionally()) {
+                primary.whenComplete((primaryResult, primaryError) -> winner.completeExceptionally(primaryError));
+            }
+        });
+        try {
+            return await(winner, primaryTask, hedgeTask);
+        } finally {
+            primaryTask.cancel(true);
+            hedgeTask.cancel(true);
+        }
+    }
+
+    /**
+     * Gets the delay after which reads are currently hedged.
+     * @return The current hedging delay.
+     */
+    public Duration getDelay() {
+        return Duration.ofNanos(delayNanos);
+    }
+
+    /**
+     * Stops the threads running the calls.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs a call and completes its future, recording the latency of the first storage.
+     * @param call The call to run.
+     * @param future The future completed with the outcome of the call.
+     * @param start The start of a call on the first storage, or 0 for the hedge.
+     * @param <T> The type of the result.
+     */
+    private <T> void run(Supplier<T> call, CompletableFuture<T> future, long start) {
+        try {
+            future.complete(call.get());
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            return;
+        }
+        if (start != 0) {
+            recordLatency(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Waits for a future, cancelling the given tasks if the waiting thread is interrupted.
+     * @param future The future to wait for.
+     * @param primaryTask The task reading the first storage.
+     * @param hedgeTask The task reading the second storage, or null.
+     * @param <T> The type of the result.
+     * @return The result of the future.
+     */
+    private <T> T await(CompletableFuture<T> future, Future<?> primaryTask, Future<?> hedgeTask) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            primaryTask.cancel(true);
+            if (hedgeTask != null) {
+                hedgeTask.cancel(true);
+            }
+            throw new IllegalStateException("Interrupted while reading session", e);
+        }
+    }
+
+    /**
+     * Takes a token from the hedging budget. Every read adds the budget ratio to the budget, so the share of
+     * hedged reads cannot exceed it beyond a small burst.
+     * @return True if the read may be hedged, otherwise false.
+     */
+    private synchronized boolean tryAcquireBudget() {
+        if (budgetTokens < 1) {
+            return false;
+        }
+        budgetTokens--;
+        return true;
+    }
+
+    /**
+     * Records the latency of a read on the first storage and refreshes the delay from its percentile.
+     * @param latencyNanos The latency of the read.
+     */
+    private synchronized void recordLatency(long latencyNanos) {
+        budgetTokens = Math.min(MAX_BUDGET_TOKENS, budgetTokens + budgetRatio);
+        latencySamples[sampleIndex] = latencyNanos;
+        sampleIndex = (sampleIndex + 1) % LATENCY_SAMPLES;
+        sampleCount = Math.min(sampleCount + 1, LATENCY_SAMPLES);
+        if (delayPercentile == 0 || sampleIndex % PERCENTILE_REFRESH_INTERVAL != 0 || sampleCount < PERCENTILE_REFRESH_INTERVAL) {
+            return;
+        }
+        long[] sorted = Arrays.copyOf(latencySamples, sampleCount);
+        Arrays.sort(sorted);
+        delayNanos = Math.max(minimumDelayNanos, sorted[sampleCount * delayPercentile / 100]);
+    }
+
+    private static RuntimeException propagate(Throwable error) {
+        if (error instanceof RuntimeException) {
+            return (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        return new IllegalStateException(error);
+    }
+
+    private static ThreadFactory newThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "session-" + name.toLowerCase() + "-hedge-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
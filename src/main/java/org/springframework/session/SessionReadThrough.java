@@ -0,0 +1,185 @@
+package org.springframework.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.framework.data.SpringSessionData;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SessionReadThrough looks up the sessions missing from a new primary storage in the legacy storage they were kept in
+ * before the primary storage was switched, so users keep their sessions across the switch.
+ * Sessions found in the legacy storage are copied to the primary storage in the background. Misses are remembered
+ * in a bounded cache so repeated lookups of unknown ids do not reach the legacy storage, and the read-through turns
+ * itself off once the drain window has passed, by when the remaining legacy sessions have expired or been copied.
+ */
+@Slf4j
+public class SessionReadThrough {
+
+    private final SessionStoreBackend legacyBackend;
+
+    private final SessionRepository legacyRepository;
+
+    private final ISessionSaveAsSecondary primaryWriter;
+
+    private final Cache<String, Boolean> misses;
+
+    private final long drainDeadlineMillis;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Counter legacyHits;
+
+    private final Counter legacyMisses;
+
+    private final Counter droppedCopies;
+
+    private final Counter failedCopies;
+
+    private volatile boolean active = true;
+
+    /**
+     * Constructor for SessionReadThrough.
+     * @param legacyBackend The backend of the storage the sessions are looked up in.
+     * @param primaryWriter The writer copying found sessions to the primary storage, or null to leave the copy
+     *                      to the next save of the session.
+     * @param negativeCacheSize The maximum number of remembered misses.
+     * @param negativeCacheTtl The time a miss is remembered.
+     * @param drainWindow The time after which the read-through turns itself off.
+     * @param workers The number of threads copying sessions to the primary storage.
+     * @param queueCapacity The maximum number of copies waiting for a thread, further copies are dropped.
+     * @param meterRegistry The registry the read-through metrics are published to.
+     */
+    public SessionReadThrough(SessionStoreBackend legacyBackend, ISessionSaveAsSecondary primaryWriter,
+                              long negativeCacheSize, Duration negativeCacheTtl, Duration drainWindow,
+                              int workers, int queueCapacity, MeterRegistry meterRegistry) {
+        this.legacyBackend = legacyBackend;
+        this.legacyRepository = legacyBackend.getSecondarySessionRepository();
+        this.primaryWriter = primaryWriter;
+        this.misses = Caffeine.newBuilder()
+                .maximumSize(negativeCacheSize)
+                .expireAfterWrite(negativeCacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, misses, "spring.session.read.through.negative.cache");
+        this.drainDeadlineMillis = System.currentTimeMillis() + drainWindow.toMillis();
+        this.executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), newThreadFactory(legacyBackend.getName()));
+        this.executor.allowCoreThreadTimeOut(true);
+        String storageName = legacyBackend.getName();
+        this.legacyHits = meterRegistry.counter("spring.session.read.through.hits", "storage", storageName);
+        this.legacyMisses = meterRegistry.counter("spring.session.read.through.misses", "storage", storageName);
+        this.droppedCopies = meterRegistry.counter("spring.session.read.through.copies.dropped", "storage", storageName);
+        this.failedCopies = meterRegistry.counter("spring.session.read.through.copies.failed", "storage", storageName);
+    }
+
+    /**
+     * Checks if sessions are still looked up in the legacy storage, turning the read-through off once
+     * the drain window has passed.
+     * @return True while the drain window lasts, otherwise false.
+     */
+    public boolean isActive() {
+        if (active && System.currentTimeMillis() >= drainDeadlineMillis) {
+            active = false;
+            misses.invalidateAll();
+            executor.shutdown();
+            log.info("Drain window of " + legacyBackend.getName() + " legacy storage has passed, read-through is off");
+        }
+        return active;
+    }
+
+    /**
+     * Looks up a session missing from the primary storage in the legacy storage, and copies it to the primary
+     * storage in the background when it is found.
+     * A failing legacy storage is treated as a miss that is not remembered.
+     * @param id The ID of the session.
+     * @return A snapshot of the legacy session, or null if it is unknown to the legacy storage.
+     */
+    public MapSession findById(String id) {
+        if (misses.getIfPresent(id) != null) {
+            return null;
+        }
+        Session session;
+        try {
+            session = legacyRepository.findById(id);
+        } catch (RuntimeException e) {
+            log.warn("Failed to find session in " + legacyBackend.getName() + " legacy storage: " + e.getMessage());
+            return null;
+        }
+        if (session == null) {
+            misses.put(id, Boolean.TRUE);
+            legacyMisses.increment();
+            return null;
+        }
+        legacyHits.increment();
+        if (primaryWriter != null) {
+            copyToPrimary(legacyBackend.convertToSessionData(session));
+        }
+        return new MapSession(session);
+    }
+
+    /**
+     * Deletes a session from the legacy storage, so it is not read through again once it is deleted from the
+     * primary storage. The id is remembered as a miss first, which also covers a failing legacy storage for as long
+     * as the miss is remembered, and keeps a copy still waiting for a thread from writing the session back.
+     * @param id The ID of the deleted session.
+     */
+    public void deleteById(String id) {
+        misses.put(id, Boolean.TRUE);
+        try {
+            legacyRepository.deleteById(id);
+        } catch (RuntimeException e) {
+            log.warn("Failed to delete session from " + legacyBackend.getName() + " legacy storage: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the threads copying sessions, dropping the copies still waiting.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Writes a legacy session to the primary storage on a background thread.
+     * A dropped or failed copy is harmless, the session is written in full on its next save anyway.
+     * The copy is skipped when the session was deleted while it waited for a thread.
+     * @param springSessionData The converted legacy session.
+     */
+    private void copyToPrimary(SpringSessionData springSessionData) {
+        try {
+            executor.execute(() -> {
+                if (misses.getIfPresent(springSessionData.getId()) != null) {
+                    return;
+                }
+                try {
+                    primaryWriter.saveAsSecondary(springSessionData);
+                } catch (RuntimeException e) {
+                    failedCopies.increment();
+                    log.warn("Failed to copy session from " + legacyBackend.getName() + " legacy storage: " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            droppedCopies.increment();
+        }
+    }
+
+    private static ThreadFactory newThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "session-" + name.toLowerCase() + "-read-through-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,364 @@
+package org.springframework.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.framework.data.SpringSessionData;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionReplicator fans every save and delete out to the primary storage and all replica storages.
+ * The primary write runs first on the calling thread, and only once it succeeded are the replica writes handed to
+ * worker lanes, so a replica never stores a write the primary storage rejected. The call returns once as many
+ * replicas as the write consistency requires have acknowledged the write, the other replica writes finish in the
+ * background, so a call takes as long as the primary write and its slowest required replica write.
+ * Every replica has its own lanes, and the writes of a session always take the same lane, so they reach each replica
+ * in the order they were made even when the caller does not wait for them.
+ * A write missing its required acknowledgements does not fail the call, since the primary storage has committed it
+ * by then and a failed call would only make the caller retry a write that took place. It is logged and counted as
+ * spring.session.replication.unacknowledged instead. A session whose replica save failed, was rejected or was not
+ * acknowledged in time has to be saved in full next, since a later delta would build on a replica missing changes.
+ */
+@Slf4j
+public class SessionReplicator {
+
+    private static final long FULL_SAVE_REQUIRED_MAXIMUM_SIZE = 100_000;
+
+    /**
+     * Number of storages, the primary storage included, that must acknowledge a write before it returns.
+     * The primary storage always has to, since sessions are read from it.
+     */
+    public enum WriteConsistency {
+        /** The primary storage only, replicas are written in the background. */
+        ONE,
+        /** A majority of all storages. */
+        QUORUM,
+        /** Every storage. */
+        ALL;
+
+        /**
+         * Gets the number of storages that must acknowledge a write.
+         * @param storageCount The number of storages, the primary storage included.
+         * @return The number of required acknowledgements, the one of the primary storage included.
+         */
+        public int requiredAcks(int storageCount) {
+            switch (this) {
+                case ONE:
+                    return 1;
+                case QUORUM:
+                    return storageCount / 2 + 1;
+                default:
+                    return storageCount;
+            }
+        }
+    }
+
+    private final List<SessionStoreBackend> replicaBackends;
+
+    private final List<SessionStoreMetrics> replicaMetrics;
+
+    private final List<ExecutorService[]> replicaLanes = new ArrayList<>();
+
+    private final int requiredReplicaAcks;
+
+    private final WriteConsistency writeConsistency;
+
+    private final Duration timeout;
+
+    private final Counter unacknowledgedWrites;
+
+    private final Cache<String, Boolean> fullSaveRequired = Caffeine.newBuilder()
+            .maximumSize(FULL_SAVE_REQUIRED_MAXIMUM_SIZE)
+            .build();
+
+    /**
+     * Constructor for SessionReplicator.
+     * @param replicaBackends The backends of the replica storages, in their configured order.
+     * @param replicaMetrics The metrics of the replica storages, in the same order.
+     * @param writeConsistency The number of storages a write waits for.
+     * @param timeout The maximum time a write waits for the required replicas.
+     * @param lanesPerReplica The number of worker threads writing to each replica.
+     * @param queueCapacity The maximum number of writes waiting in a lane, further writes to its replica fail.
+     * @param meterRegistry The registry the replication metrics are published to.
+     */
+    public SessionReplicator(List<SessionStoreBackend> replicaBackends, List<SessionStoreMetrics> replicaMetrics,
+                             WriteConsistency writeConsistency, Duration timeout, int lanesPerReplica,
+                             int queueCapacity, MeterRegistry meterRegistry) {
+        if (replicaBackends.isEmpty() || lanesPerReplica <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Replication requires a replica storage, positive lanes and queue capacity");
+        }
+        this.replicaBackends = replicaBackends;
+        this.replicaMetrics = replicaMetrics;
+        this.writeConsistency = writeConsistency;
+        this.requiredReplicaAcks = writeConsistency.requiredAcks(replicaBackends.size() + 1) - 1;
+        this.timeout = timeout;
+        for (SessionStoreBackend replicaBackend : replicaBackends) {
+            ExecutorService[] lanes = new ExecutorService[lanesPerReplica];
+            for (int i = 0; i < lanesPerReplica; i++) {
+                String threadName = "session-replication-" + replicaBackend.getName().toLowerCase() + "-" + (i + 1);
+                lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                            Thread thread = new Thread(runnable, threadName);
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+            }
+            replicaLanes.add(lanes);
+        }
+        this.unacknowledgedWrites = meterRegistry.counter("spring.session.replication.unacknowledged",
+                "consistency", writeConsistency.name());
+        log.info("Sessions are replicated to " + replicaBackends.stream().map(SessionStoreBackend::getName).toList()
+                + " with " + writeConsistency + " write consistency");
+    }
+
+    /**
+     * Saves a session to the primary storage and all replicas.
+     * @param primarySave The save to the primary storage, run on the calling thread.
+     * @param springSessionData The session data written to the replicas, detached from the session since replica
+     *                          writes may outlive the call.
+     */
+    public void save(Runnable primarySave, SpringSessionData springSessionData) {
+        String sessionId = springSessionData.getId();
+        replicate(sessionId, primarySave, () -> {
+            if (!springSessionData.isDelta()) {
+                fullSaveRequired.invalidate(sessionId);
+            }
+        }, () -> fullSaveRequired.put(sessionId, Boolean.TRUE), (index, acks) -> {
+            SessionStoreMetrics metrics = replicaMetrics.get(index);
+            metrics.getSaveTimer().record(() ->
+                    replicaBackends.get(index).getSecondaryWriter().saveAsSecondary(springSessionData));
+            acks.success();
+            metrics.getReplicationLag().record(acks.nanosSincePrimaryWrite(), TimeUnit.NANOSECONDS);
+        });
+    }
+
+    /**
+     * Deletes a session from the primary storage and all replicas.
+     * @param primaryDelete The deletion from the primary storage, run on the calling thread.
+     * @param sessionId The ID of the session to delete.
+     */
+    public void delete(Runnable primaryDelete, String sessionId) {
+        replicate(sessionId, primaryDelete, () -> fullSaveRequired.invalidate(sessionId), () -> {}, (index, acks) -> {
+            replicaMetrics.get(index).getDeleteTimer().record(() ->
+                    replicaBackends.get(index).getSecondarySessionRepository().deleteById(sessionId));
+            acks.success();
+        });
+    }
+
+    /**
+     * Checks if a session has to be replicated in full, because one of its replica saves failed, was rejected or
+     * was not acknowledged in time since its last full save was handed to the replicas.
+     * @param sessionId The ID of the session.
+     * @return True if a delta of the session could miss changes, otherwise false.
+     */
+    public boolean requiresFullSave(String sessionId) {
+        return fullSaveRequired.getIfPresent(sessionId) != null;
+    }
+
+    /**
+     * Stops the lanes once the writes waiting in them are done.
+     * @param timeout The maximum time to wait for the waiting writes.
+     */
+    public void shutdown(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (ExecutorService[] lanes : replicaLanes) {
+            for (ExecutorService lane : lanes) {
+                lane.shutdown();
+            }
+        }
+        try {
+            for (ExecutorService[] lanes : replicaLanes) {
+                for (ExecutorService lane : lanes) {
+                    if (!lane.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                        log.warn("Replication did not drain in {}, pending replica writes are dropped", timeout);
+                        lane.shutdownNow();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            replicaLanes.forEach(lanes -> {
+                for (ExecutorService lane : lanes) {
+                    lane.shutdownNow();
+                }
+            });
+        }
+    }
+
+    /**
+     * Runs the primary write, then submits the write to every replica and waits for the required acknowledgements.
+     * A failed primary write is rethrown before any replica write is submitted.
+     * Missing replica acknowledgements are logged and counted, the write is committed to the primary storage already.
+     * @param sessionId The ID of the written session, choosing the lane of every replica.
+     * @param primaryWrite The write to the primary storage.
+     * @param onSubmit Run once the primary write succeeded, before the replica writes are submitted.
+     * @param onReplicaFailure Run when a replica write fails, is rejected or is not acknowledged in time.
+     * @param replicaWrite The write to the replica of the given index, acknowledging it on success.
+     */
+    private void replicate(String sessionId, Runnable primaryWrite, Runnable onSubmit, Runnable onReplicaFailure,
+                           ReplicaWrite replicaWrite) {
+        primaryWrite.run();
+        Acks acks = new Acks(requiredReplicaAcks, replicaBackends.size() - requiredReplicaAcks);
+        acks.primaryWritten();
+        onSubmit.run();
+        int lane = (sessionId.hashCode() & Integer.MAX_VALUE);
+        for (int i = 0; i < replicaBackends.size(); i++) {
+            int index = i;
+            ExecutorService[] lanes = replicaLanes.get(index);
+            try {
+                lanes[lane % lanes.length].execute(() -> {
+                    try {
+                        replicaWrite.write(index, acks);
+                    } catch (RuntimeException e) {
+                        replicaMetrics.get(index).getFailures().increment();
+                        onReplicaFailure.run();
+                        acks.failure(e);
+                        log.warn("Replication of session {} to {} failed: {}", sessionId,
+                                replicaBackends.get(index).getName(), e.getMessage());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                replicaMetrics.get(index).getFailures().increment();
+                onReplicaFailure.run();
+                acks.failure(new IllegalStateException("Replication queue of "
+                        + replicaBackends.get(index).getName() + " is full", e));
+            }
+        }
+        if (requiredReplicaAcks > 0 && !awaitAcks(acks)) {
+            onReplicaFailure.run();
+        }
+    }
+
+    /**
+     * Waits until the required replicas acknowledged a write. The primary storage has committed the write already,
+     * so a write missing its acknowledgements is logged and counted rather than failed.
+     * @param acks The acknowledgements of the write.
+     * @return True if the required replicas acknowledged the write, otherwise false.
+     */
+    private boolean awaitAcks(Acks acks) {
+        try {
+            acks.await(timeout.toNanos());
+            return true;
+        } catch (RuntimeException e) {
+            unacknowledgedWrites.increment();
+            log.warn("Write was committed to primary storage but not acknowledged with {} write consistency: {}",
+                    writeConsistency, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unacknowledgedWrites.increment();
+            log.warn("Interrupted while waiting for {} replication of a write committed to primary storage", writeConsistency);
+        }
+        return false;
+    }
+
+    /**
+     * ReplicaWrite writes to one replica and acknowledges the write.
+     */
+    @FunctionalInterface
+    private interface ReplicaWrite {
+
+        /**
+         * Writes to a replica.
+         * @param index The index of the replica.
+         * @param acks The acknowledgements of the write.
+         */
+        void write(int index, Acks acks);
+    }
+
+    /**
+     * Acks counts the replica acknowledgements of one write, until enough succeeded or too many failed.
+     */
+    private static final class Acks {
+
+        private final int required;
+
+        private final int tolerableFailures;
+
+        private int successes;
+
+        private int failures;
+
+        private RuntimeException failure;
+
+        private volatile long primaryWrittenAt;
+
+        /**
+         * Constructor for Acks.
+         * @param required The number of replicas that must acknowledge the write.
+         * @param tolerableFailures The number of replicas that may fail without failing the write.
+         */
+        private Acks(int required, int tolerableFailures) {
+            this.required = required;
+            this.tolerableFailures = tolerableFailures;
+        }
+
+        /**
+         * Records that the primary storage acknowledged the write.
+         */
+        private void primaryWritten() {
+            primaryWrittenAt = System.nanoTime();
+        }
+
+        /**
+         * Gets the time since the primary storage acknowledged the write.
+         * @return The elapsed nanoseconds.
+         */
+        private long nanosSincePrimaryWrite() {
+            return Math.max(0, System.nanoTime() - primaryWrittenAt);
+        }
+
+        /**
+         * Records a replica acknowledgement.
+         */
+        private synchronized void success() {
+            successes++;
+            notifyAll();
+        }
+
+        /**
+         * Records a failed replica write.
+         * @param e The failure of the write.
+         */
+        private synchronized void failure(RuntimeException e) {
+            failures++;
+            if (failure == null) {
+                failure = e;
+            } else {
+                failure.addSuppressed(e);
+            }
+            notifyAll();
+        }
+
+        /**
+         * Waits until enough replicas acknowledged the write.
+         * @param timeoutNanos The maximum time to wait.
+         * @throws InterruptedException If the thread is interrupted while waiting.
+         * @throws RuntimeException The first replica failure if too many replicas failed.
+         * @throws IllegalStateException If the acknowledgements did not arrive within the timeout.
+         */
+        private synchronized void await(long timeoutNanos) throws InterruptedException {
+            long deadline = System.nanoTime() + timeoutNanos;
+            while (successes < required && failures <= tolerableFailures) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("Only " + successes + " of " + required
+                            + " required replicas acknowledged the write in time");
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            if (successes < required) {
+                throw failure;
+            }
+        }
+    }
+}
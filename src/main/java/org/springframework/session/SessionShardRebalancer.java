@@ -0,0 +1,175 @@
+package org.springframework.session;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.framework.data.SpringSessionData;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SessionShardRebalancer moves the sessions of the previous shards of a ShardedSessionStoreBackend to the shard they
+ * belong to since shards were added. Every previous shard is streamed page by page, and only the sessions whose shard
+ * changed are moved, about 1 / N of them per added shard. Sessions are read at a capped rate with a token bucket,
+ * so the rebalance runs online next to the traffic, which moves the sessions it touches first on its own.
+ * Moves are idempotent, so the nodes started with the added shards can all rebalance at once.
+ */
+@Slf4j
+public class SessionShardRebalancer {
+
+    private final ShardedSessionStoreBackend backend;
+
+    private final int pageSize;
+
+    private final double maxSessionsPerSecond;
+
+    private final Counter movedSessions;
+
+    private final Counter scannedSessions;
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private ExecutorService executor;
+
+    private volatile boolean stopped;
+
+    private double permits;
+
+    private long lastRefillNanos = System.nanoTime();
+
+    /**
+     * Constructor for SessionShardRebalancer.
+     * @param backend The sharded backend whose sessions are moved.
+     * @param pageSize The number of sessions read at once.
+     * @param maxSessionsPerSecond The maximum number of sessions read per second, or 0 for no limit.
+     * @param meterRegistry The registry the rebalance metrics are published to.
+     */
+    public SessionShardRebalancer(ShardedSessionStoreBackend backend, int pageSize, double maxSessionsPerSecond,
+                                  MeterRegistry meterRegistry) {
+        if (pageSize <= 0 || maxSessionsPerSecond < 0) {
+            throw new IllegalArgumentException("Rebalance page size must be positive and rate not negative");
+        }
+        this.backend = backend;
+        this.pageSize = pageSize;
+        this.maxSessionsPerSecond = maxSessionsPerSecond;
+        this.permits = Math.min(maxSessionsPerSecond, pageSize);
+        this.movedSessions = meterRegistry.counter("spring.session.shard.rebalance.sessions.moved", "storage", backend.getName());
+        this.scannedSessions = meterRegistry.counter("spring.session.shard.rebalance.sessions.scanned", "storage", backend.getName());
+        meterRegistry.gauge("spring.session.shard.rebalance.active", active);
+    }
+
+    /**
+     * Starts the rebalance in the background.
+     * @throws IllegalStateException If the rebalance is already running.
+     */
+    public synchronized void start() {
+        if (executor != null && !executor.isShutdown()) {
+            throw new IllegalStateException("Shard rebalance is already running");
+        }
+        stopped = false;
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-shard-rebalance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        active.set(1);
+        executor.execute(() -> {
+            try {
+                rebalance();
+            } catch (RuntimeException e) {
+                log.error("Shard rebalance failed, sessions left on their previous shard are moved when accessed", e);
+            } finally {
+                active.set(0);
+            }
+        });
+    }
+
+    /**
+     * Stops the rebalance once the page being moved is done.
+     * @param timeout The maximum time to wait for the page being moved.
+     */
+    public void stop(Duration timeout) {
+        stopped = true;
+        ExecutorService runningExecutor;
+        synchronized (this) {
+            runningExecutor = executor;
+        }
+        if (runningExecutor == null) {
+            return;
+        }
+        runningExecutor.shutdown();
+        try {
+            if (!runningExecutor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                runningExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            runningExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Checks whether the rebalance is still moving sessions.
+     * @return True while the rebalance runs, otherwise false.
+     */
+    public boolean isActive() {
+        return active.get() == 1;
+    }
+
+    /**
+     * Streams every previous shard and moves its sessions that belong to another shard, then completes the
+     * rebalance unless it was stopped.
+     */
+    private void rebalance() {
+        for (int shard : backend.getPreviousShards()) {
+            SessionSource source = backend.getShardSessionSource(shard);
+            for (int partition = 0; partition < source.getPartitionCount() && !stopped; partition++) {
+                String cursor = null;
+                do {
+                    SessionPage page = source.readPage(partition, cursor, pageSize);
+                    acquirePermits(page.getSessions().size());
+                    for (SpringSessionData springSessionData : page.getSessions()) {
+                        scannedSessions.increment();
+                        int targetShard = backend.locate(springSessionData.getId());
+                        if (targetShard != shard && backend.moveSession(springSessionData.getId(), shard, targetShard)) {
+                            movedSessions.increment();
+                        }
+                    }
+                    cursor = page.getNextCursor();
+                } while (cursor != null && !stopped);
+            }
+            if (stopped) {
+                return;
+            }
+            log.info("Sessions of shard " + backend.getShardName(shard) + " are rebalanced");
+        }
+        backend.completeRebalance();
+    }
+
+    /**
+     * Takes permits from the token bucket, waiting until enough have been refilled.
+     * @param count The number of sessions read.
+     */
+    private void acquirePermits(int count) {
+        if (maxSessionsPerSecond == 0 || count == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        permits = Math.min(Math.max(maxSessionsPerSecond, pageSize),
+                permits + (now - lastRefillNanos) * maxSessionsPerSecond / TimeUnit.SECONDS.toNanos(1));
+        lastRefillNanos = now;
+        permits -= count;
+        if (permits < 0) {
+            try {
+                Thread.sleep(TimeUnit.NANOSECONDS.toMillis((long) (-permits * TimeUnit.SECONDS.toNanos(1) / maxSessionsPerSecond)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while rebalancing sessions", e);
+            }
+        }
+    }
+}
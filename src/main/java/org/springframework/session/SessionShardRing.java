@@ -0,0 +1,75 @@
+package org.springframework.session;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SessionShardRing assigns session ids to shards by consistent hashing. Every shard is placed on a 64-bit ring at
+ * a number of virtual node positions derived from its name, and a session belongs to the shard of the first position
+ * at or after the hash of its id. Adding a shard only moves the sessions of the ring ranges it takes over, about
+ * 1 / (N + 1) of them, and virtual nodes keep the shares of the shards within a few percent of each other.
+ * Positions only depend on the shard names, so every node computes the same ring from the same configuration.
+ */
+public class SessionShardRing {
+
+    private final TreeMap<Long, Integer> positions = new TreeMap<>();
+
+    private final List<String> shardNames;
+
+    /**
+     * Constructor for SessionShardRing.
+     * @param shardNames The stable names of the shards, such as their addresses, indexed as the shards.
+     * @param virtualNodes The number of positions of every shard on the ring.
+     * @throws IllegalArgumentException If there is no shard, a name is used twice or virtualNodes is not positive.
+     */
+    public SessionShardRing(List<String> shardNames, int virtualNodes) {
+        if (shardNames.isEmpty() || virtualNodes <= 0) {
+            throw new IllegalArgumentException("A shard ring requires a shard and positive virtual nodes");
+        }
+        if (shardNames.stream().distinct().count() != shardNames.size()) {
+            throw new IllegalArgumentException("Shard names must be unique: " + shardNames);
+        }
+        this.shardNames = List.copyOf(shardNames);
+        for (int shard = 0; shard < shardNames.size(); shard++) {
+            for (int virtualNode = 0; virtualNode < virtualNodes; virtualNode++) {
+                positions.putIfAbsent(hash(shardNames.get(shard) + "#" + virtualNode), shard);
+            }
+        }
+    }
+
+    /**
+     * Gets the shard a session belongs to.
+     * @param sessionId The ID of the session.
+     * @return The index of the shard.
+     */
+    public int locate(String sessionId) {
+        Map.Entry<Long, Integer> position = positions.ceilingEntry(hash(sessionId));
+        return (position != null ? position : positions.firstEntry()).getValue();
+    }
+
+    /**
+     * Gets the names of the shards of the ring.
+     * @return The shard names, indexed as the shards.
+     */
+    public List<String> getShardNames() {
+        return shardNames;
+    }
+
+    /**
+     * Hashes a string to a position of the ring, with 64-bit FNV-1a over its UTF-8 bytes and the finalizer of
+     * SplitMix64, which spreads ids sharing a long prefix over the whole ring.
+     * @param value The string to hash.
+     * @return The position of the string.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
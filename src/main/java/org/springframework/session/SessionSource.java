@@ -0,0 +1,83 @@
+package org.springframework.session;
+
+/**
+ * SessionSource streams the live sessions of a storage, split into partitions that can be read in parallel.
+ * Every partition is read page by page, each page returning the cursor to resume the partition from.
+ * Storages keyed by session id split the id space on the first character of the id, so random UUID ids
+ * spread evenly over HEX_PARTITIONS partitions.
+ */
+public interface SessionSource {
+
+    /**
+     * Number of partitions of a source split on the first hexadecimal character of the session id.
+     */
+    int HEX_PARTITIONS = 16;
+
+    /**
+     * Gets the name of the storage the sessions are read from.
+     * @return The name of the storage.
+     */
+    String getName();
+
+    /**
+     * Gets the number of partitions of the source.
+     * @return The number of partitions.
+     */
+    int getPartitionCount();
+
+    /**
+     * Reads the next page of live sessions of a partition.
+     * @param partition The partition to read, from 0 to the partition count excluded.
+     * @param cursor The cursor returned with the previous page, or null to read the partition from its start.
+     * @param pageSize The maximum number of sessions to read.
+     * @return The page of sessions.
+     */
+    SessionPage readPage(int partition, String cursor, int pageSize);
+
+    /**
+     * Reads the next page of live sessions whose id starts with a prefix, in the order of the partitions.
+     * Sources able to read a narrow range of ids override this method, so a small group of sessions can be
+     * read without reading its whole partition.
+     * @param idPrefix The prefix of the session ids to read.
+     * @param cursor The cursor returned with the previous page, or null to read from the first session.
+     * @param pageSize The maximum number of sessions to read.
+     * @return The page of sessions.
+     * @throws UnsupportedOperationException If the source cannot read sessions by id prefix.
+     */
+    default SessionPage readPrefixPage(String idPrefix, String cursor, int pageSize) {
+        throw new UnsupportedOperationException(getName() + " sessions cannot be read by id prefix");
+    }
+
+    /**
+     * Gets the lowest session id of a hexadecimal partition, included.
+     * @param partition The partition.
+     * @return The lower bound, or null for the first partition.
+     */
+    static String lowerBound(int partition) {
+        return partition == 0 ? null : Character.toString(Character.forDigit(partition, HEX_PARTITIONS));
+    }
+
+    /**
+     * Gets the highest session id of a hexadecimal partition, excluded.
+     * @param partition The partition.
+     * @return The upper bound, or null for the last partition.
+     */
+    static String upperBound(int partition) {
+        return partition == HEX_PARTITIONS - 1 ? null : Character.toString(Character.forDigit(partition + 1, HEX_PARTITIONS));
+    }
+
+    /**
+     * Gets the lowest string above all strings starting with a prefix, excluded from the range of the prefix.
+     * @param idPrefix The prefix, not empty.
+     * @return The upper bound of the prefix, or null if no string is above the prefix.
+     */
+    static String prefixUpperBound(String idPrefix) {
+        for (int i = idPrefix.length() - 1; i >= 0; i--) {
+            char c = idPrefix.charAt(i);
+            if (c != Character.MAX_VALUE) {
+                return idPrefix.substring(0, i) + (char) (c + 1);
+            }
+        }
+        return null;
+    }
+}
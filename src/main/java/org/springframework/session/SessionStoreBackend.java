@@ -0,0 +1,97 @@
+package org.springframework.session;
+
+import org.framework.data.SpringSessionData;
+
+import java.util.Set;
+
+/**
+ * SessionStoreBackend bundles what MultiSessionRepository needs from a storage: the repository used as primary
+ * storage, the converters between its sessions and SpringSessionData, and the repository used as secondary storage.
+ * Backends are resolved once at startup, so adding a storage only needs a new implementation.
+ */
+public interface SessionStoreBackend {
+
+    /**
+     * Gets the name the storage is configured with, such as REDIS.
+     * @return The upper case name of the storage.
+     */
+    String getName();
+
+    /**
+     * Gets the repository used when the storage is primary.
+     * @return The primary session repository.
+     */
+    SessionRepository getSessionRepository();
+
+    /**
+     * Gets the repository used to read and delete sessions when the storage is secondary.
+     * @return The secondary session repository.
+     */
+    SessionRepository getSecondarySessionRepository();
+
+    /**
+     * Gets the writer used to save sessions when the storage is secondary.
+     * @return The secondary session writer.
+     */
+    ISessionSaveAsSecondary getSecondaryWriter();
+
+    /**
+     * Converts a session of the primary repository to a SpringSessionData object.
+     * @param session The session to convert.
+     * @return The converted SpringSessionData object.
+     */
+    SpringSessionData convertToSessionData(Session session);
+
+    /**
+     * Converts the changes made to a session of the primary repository to a delta SpringSessionData object.
+     * @param session The session to convert.
+     * @param changedAttributeNames The names of the attributes set since the session was last saved.
+     * @param removedAttributeNames The names of the attributes removed since the session was last saved.
+     * @return The converted SpringSessionData object holding only the changes.
+     */
+    SpringSessionData convertToSessionDelta(Session session, Set<String> changedAttributeNames,
+                                            Set<String> removedAttributeNames);
+
+    /**
+     * Checks if a session that already exists in the primary repository can be restored from a snapshot.
+     * @return True if existing sessions can be restored, otherwise false.
+     */
+    boolean supportsSnapshotRestore();
+
+    /**
+     * Restores a session of the primary repository from a snapshot.
+     * @param snapshot The snapshot of the session.
+     * @param isNew True if the session may be missing from the primary repository and must be written in full on save.
+     * @return The session of the primary repository.
+     */
+    Session restoreSession(MapSession snapshot, boolean isNew);
+
+    /**
+     * Gets the source streaming all live sessions of the storage, used to migrate them to another storage
+     * and to compare them with another storage.
+     * @return The SessionSource of the storage.
+     * @throws UnsupportedOperationException If the storage cannot be scanned.
+     */
+    default SessionSource getSessionSource() {
+        throw new UnsupportedOperationException(getName() + " storage cannot be scanned");
+    }
+
+    /**
+     * Gets the sweeper deleting the expired sessions of the storage in batches.
+     * @return The SessionExpirySweeper of the storage.
+     * @throws UnsupportedOperationException If the storage expires its sessions by itself.
+     */
+    default SessionExpirySweeper getExpirySweeper() {
+        throw new UnsupportedOperationException(getName() + " storage expires its sessions by itself");
+    }
+
+    /**
+     * Gets a lock held in the storage, electing the node running a background job.
+     * @param lockName The name of the lock.
+     * @return The SessionLock.
+     * @throws UnsupportedOperationException If the storage cannot hold locks.
+     */
+    default SessionLock getLock(String lockName) {
+        throw new UnsupportedOperationException(getName() + " storage cannot hold locks");
+    }
+}
@@ -0,0 +1,151 @@
+package org.springframework.session;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * SessionStoreMetrics holds the meters of the operations MultiSessionRepository runs against one storage in one role.
+ * Timers are published as spring.session.operations, tagged by storage, role and operation, so the cost of every
+ * primary and secondary route can be compared per backend. Sessions are converted with the converter of the primary
+ * storage, so conversion meters only exist for the primary role, and replication meters only for the secondary role.
+ */
+public class SessionStoreMetrics {
+
+    /**
+     * Role of the storage serving the sessions.
+     */
+    public static final String PRIMARY = "primary";
+
+    /**
+     * Role of the storage the sessions are replicated to.
+     */
+    public static final String SECONDARY = "secondary";
+
+    private final Timer createTimer;
+
+    private final Timer findTimer;
+
+    private final Timer saveTimer;
+
+    private final Timer saveBatchTimer;
+
+    private final Timer deleteTimer;
+
+    private final Timer fullConversionTimer;
+
+    private final Timer deltaConversionTimer;
+
+    private final Timer replicationLag;
+
+    private final Counter failures;
+
+    /**
+     * Constructor for SessionStoreMetrics.
+     * @param storageName The name of the storage, used to tag the meters.
+     * @param role The role of the storage, PRIMARY or SECONDARY.
+     * @param meterRegistry The registry the meters are published to.
+     */
+    public SessionStoreMetrics(String storageName, String role, MeterRegistry meterRegistry) {
+        this.createTimer = operationTimer(storageName, role, "create", meterRegistry);
+        this.findTimer = operationTimer(storageName, role, "find", meterRegistry);
+        this.saveTimer = operationTimer(storageName, role, "save", meterRegistry);
+        this.saveBatchTimer = operationTimer(storageName, role, "save_batch", meterRegistry);
+        this.deleteTimer = operationTimer(storageName, role, "delete", meterRegistry);
+        if (!SECONDARY.equals(role)) {
+            this.fullConversionTimer = conversionTimer(storageName, "full", meterRegistry);
+            this.deltaConversionTimer = conversionTimer(storageName, "delta", meterRegistry);
+            this.replicationLag = null;
+            this.failures = null;
+            return;
+        }
+        this.fullConversionTimer = null;
+        this.deltaConversionTimer = null;
+        this.replicationLag = Timer.builder("spring.session.secondary.replication.lag")
+                .tag("storage", storageName)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.failures = meterRegistry.counter("spring.session.secondary.failures", "storage", storageName);
+    }
+
+    /**
+     * Gets the timer of session creations.
+     * @return The create timer.
+     */
+    public Timer getCreateTimer() {
+        return createTimer;
+    }
+
+    /**
+     * Gets the timer of session lookups.
+     * @return The find timer.
+     */
+    public Timer getFindTimer() {
+        return findTimer;
+    }
+
+    /**
+     * Gets the timer of single session saves.
+     * @return The save timer.
+     */
+    public Timer getSaveTimer() {
+        return saveTimer;
+    }
+
+    /**
+     * Gets the timer of batched saves of the write-behind queue.
+     * @return The batch save timer.
+     */
+    public Timer getSaveBatchTimer() {
+        return saveBatchTimer;
+    }
+
+    /**
+     * Gets the timer of session deletions.
+     * @return The delete timer.
+     */
+    public Timer getDeleteTimer() {
+        return deleteTimer;
+    }
+
+    /**
+     * Gets the timer of the conversions of sessions of this storage to SpringSessionData.
+     * @param delta True for conversions of the changes only, false for full conversions.
+     * @return The conversion timer, or null for the secondary role.
+     */
+    public Timer getConversionTimer(boolean delta) {
+        return delta ? deltaConversionTimer : fullConversionTimer;
+    }
+
+    /**
+     * Gets the timer of the time between a primary save and its replication to this storage.
+     * @return The replication lag timer, or null for the primary role.
+     */
+    public Timer getReplicationLag() {
+        return replicationLag;
+    }
+
+    /**
+     * Gets the counter of the failed writes to this storage.
+     * @return The failure counter, or null for the primary role.
+     */
+    public Counter getFailures() {
+        return failures;
+    }
+
+    private static Timer operationTimer(String storageName, String role, String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("spring.session.operations")
+                .tag("storage", storageName)
+                .tag("role", role)
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    private static Timer conversionTimer(String storageName, String type, MeterRegistry meterRegistry) {
+        return Timer.builder("spring.session.conversion")
+                .tag("storage", storageName)
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+}
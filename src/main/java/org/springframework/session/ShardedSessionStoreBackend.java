@@ -0,0 +1,733 @@
+package org.springframework.session;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.framework.data.SpringSessionData;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * ShardedSessionStoreBackend spreads the sessions of one storage type over several instances of it, the shards,
+ * by consistent hashing of the session ids with a SessionShardRing. It is registered under the name of the storage
+ * type, so MultiSessionRepository uses it as primary or secondary storage like a single instance.
+ * Sessions of storages binding a session to the repository that created it, such as Redis, are saved through that
+ * repository: a session whose id moved to another shard, after a session id change or a rebalance, is saved where
+ * it lives and then moved to its new shard.
+ * When shards are added, the previous shards are configured as well: sessions missing from their new shard are
+ * looked up in their previous shard and moved on access, while a SessionShardRebalancer moves the others in the
+ * background. Every shard is timed and counted separately, and reported unhealthy after consecutive failures.
+ */
+@Slf4j
+@SuppressWarnings("unchecked")
+public class ShardedSessionStoreBackend implements SessionStoreBackend, DisposableBean {
+
+    private static final int UNHEALTHY_AFTER_FAILURES = 3;
+
+    private static final int MAX_CREATE_ATTEMPTS = 64;
+
+    private final String name;
+
+    private final List<Shard> shards = new ArrayList<>();
+
+    private final SessionShardRing ring;
+
+    private volatile SessionShardRing previousRing;
+
+    private final int[] previousShardIndexes;
+
+    private final Cache<Session, Integer> sessionShards = Caffeine.newBuilder().weakKeys().build();
+
+    private final ShardedSessionRepository primaryRepository = new ShardedSessionRepository(false);
+
+    private final ShardedSessionRepository secondaryRepository = new ShardedSessionRepository(true);
+
+    private final ShardedSessionWriter sessionWriter = new ShardedSessionWriter();
+
+    private final MeterRegistry meterRegistry;
+
+    private SessionShardRebalancer sessionShardRebalancer;
+
+    private Duration rebalanceShutdownTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Constructor for ShardedSessionStoreBackend.
+     * @param name The name of the storage type, such as REDIS, the backend is registered under.
+     * @param shardNames The stable names of the shards, such as their addresses, placing them on the ring.
+     * @param shardBackends The backends of the shards, in the order of their names, all of the same storage type.
+     * @param previousShardNames The names of the shards before shards were added, or an empty list.
+     * @param virtualNodes The number of positions of every shard on the ring.
+     * @param meterRegistry The registry the shard metrics are published to.
+     * @throws IllegalArgumentException If the names and backends differ in number, or a previous shard is unknown.
+     */
+    public ShardedSessionStoreBackend(String name, List<String> shardNames, List<SessionStoreBackend> shardBackends,
+                                      List<String> previousShardNames, int virtualNodes, MeterRegistry meterRegistry) {
+        if (shardNames.size() != shardBackends.size()) {
+            throw new IllegalArgumentException("Every shard requires a name and a backend");
+        }
+        this.name = name;
+        this.meterRegistry = meterRegistry;
+        this.ring = new SessionShardRing(shardNames, virtualNodes);
+        for (int i = 0; i < shardNames.size(); i++) {
+            shards.add(new Shard(name, shardNames.get(i), shardBackends.get(i), meterRegistry));
+        }
+        this.previousShardIndexes = new int[previousShardNames.size()];
+        for (int i = 0; i < previousShardNames.size(); i++) {
+            previousShardIndexes[i] = shardNames.indexOf(previousShardNames.get(i));
+            if (previousShardIndexes[i] < 0) {
+                throw new IllegalArgumentException("Previous shard " + previousShardNames.get(i) + " is not a shard of " + name);
+            }
+        }
+        if (!previousShardNames.isEmpty() && !previousShardNames.equals(shardNames)) {
+            this.previousRing = new SessionShardRing(previousShardNames, virtualNodes);
+        }
+        log.info(name + " sessions are sharded over " + shardNames
+                + (previousRing != null ? ", rebalancing from " + previousShardNames : ""));
+    }
+
+    /**
+     * Starts moving the sessions of the previous shards to their new shard in the background, if shards were added.
+     * @param pageSize The number of sessions read at once.
+     * @param maxSessionsPerSecond The maximum number of sessions read per second, or 0 for no limit.
+     * @param shutdownTimeout The maximum time to wait for the page being moved when the backend is destroyed.
+     */
+    public synchronized void startRebalance(int pageSize, double maxSessionsPerSecond, Duration shutdownTimeout) {
+        if (previousRing == null || sessionShardRebalancer != null) {
+            return;
+        }
+        this.rebalanceShutdownTimeout = shutdownTimeout;
+        sessionShardRebalancer = new SessionShardRebalancer(this, pageSize, maxSessionsPerSecond, meterRegistry);
+        sessionShardRebalancer.start();
+    }
+
+    /**
+     * Stops the rebalance once the page being moved is done.
+     */
+    @Override
+    public void destroy() {
+        SessionShardRebalancer rebalancer;
+        synchronized (this) {
+            rebalancer = sessionShardRebalancer;
+        }
+        if (rebalancer != null) {
+            rebalancer.stop(rebalanceShutdownTimeout);
+        }
+    }
+
+    /**
+     * Gets the name the storage is configured with.
+     * @return The name of the storage type.
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the repository routing the sessions to their shard when the storage is primary.
+     * @return The sharded primary repository.
+     */
+    @Override
+    public SessionRepository getSessionRepository() {
+        return primaryRepository;
+    }
+
+    /**
+     * Gets the repository routing reads and deletes to their shard when the storage is secondary.
+     * @return The sharded secondary repository.
+     */
+    @Override
+    public SessionRepository getSecondarySessionRepository() {
+        return secondaryRepository;
+    }
+
+    /**
+     * Gets the writer routing the secondary writes to their shard.
+     * @return The sharded secondary writer.
+     */
+    @Override
+    public ISessionSaveAsSecondary getSecondaryWriter() {
+        return sessionWriter;
+    }
+
+    /**
+     * Converts a session of any shard to a SpringSessionData object, with the converter of the storage type.
+     * @param session The session to convert.
+     * @return The converted SpringSessionData object.
+     */
+    @Override
+    public SpringSessionData convertToSessionData(Session session) {
+        return shards.get(0).backend.convertToSessionData(session);
+    }
+
+    /**
+     * Converts the changes made to a session of any shard to a delta SpringSessionData object.
+     * @param session The session to convert.
+     * @param changedAttributeNames The names of the attributes set since the session was last saved.
+     * @param removedAttributeNames The names of the attributes removed since the session was last saved.
+     * @return The converted SpringSessionData object holding only the changes.
+     */
+    @Override
+    public SpringSessionData convertToSessionDelta(Session session, Set<String> changedAttributeNames,
+                                                   Set<String> removedAttributeNames) {
+        return shards.get(0).backend.convertToSessionDelta(session, changedAttributeNames, removedAttributeNames);
+    }
+
+    /**
+     * Sessions can be restored from a snapshot if the storage type supports it.
+     * @return True if the shards restore sessions from snapshots, otherwise false.
+     */
+    @Override
+    public boolean supportsSnapshotRestore() {
+        return shards.get(0).backend.supportsSnapshotRestore();
+    }
+
+    /**
+     * Restores a session from a snapshot on the shard it belongs to.
+     * @param snapshot The snapshot of the session.
+     * @param isNew True if the session may be missing from its shard and must be written in full on save.
+     * @return The session bound to its shard.
+     */
+    @Override
+    public Session restoreSession(MapSession snapshot, boolean isNew) {
+        int shard = ring.locate(snapshot.getId());
+        Session session = shards.get(shard).backend.restoreSession(snapshot, isNew);
+        sessionShards.put(session, shard);
+        return session;
+    }
+
+    /**
+     * Gets the source streaming the live sessions of all shards, one shard after the other.
+     * @return The sharded SessionSource.
+     * @throws UnsupportedOperationException If the storage type cannot be scanned.
+     */
+    @Override
+    public SessionSource getSessionSource() {
+        List<SessionSource> sources = new ArrayList<>();
+        for (Shard shard : shards) {
+            sources.add(shard.backend.getSessionSource());
+        }
+        return new ShardedSessionSource(sources);
+    }
+
+    /**
+     * Gets the sweeper deleting the expired sessions of all shards.
+     * @return The sharded SessionExpirySweeper.
+     * @throws UnsupportedOperationException If the storage type expires its sessions by itself.
+     */
+    @Override
+    public SessionExpirySweeper getExpirySweeper() {
+        List<SessionExpirySweeper> sweepers = new ArrayList<>();
+        for (Shard shard : shards) {
+            sweepers.add(shard.backend.getExpirySweeper());
+        }
+        return new ShardedExpirySweeper(sweepers);
+    }
+
+    /**
+     * Gets a lock held in the first shard, which stays in place when shards are added.
+     * @param lockName The name of the lock.
+     * @return The SessionLock of the first shard.
+     * @throws UnsupportedOperationException If the storage type cannot hold locks.
+     */
+    @Override
+    public SessionLock getLock(String lockName) {
+        return shards.get(0).backend.getLock(lockName);
+    }
+
+    /**
+     * Reports the health of every shard, a shard being unhealthy after consecutive failed operations.
+     * @return True for every healthy shard, false for every unhealthy one, by shard name.
+     */
+    public Map<String, Boolean> getShardHealth() {
+        Map<String, Boolean> shardHealth = new LinkedHashMap<>();
+        for (Shard shard : shards) {
+            shardHealth.put(shard.name, shard.isHealthy());
+        }
+        return shardHealth;
+    }
+
+    /**
+     * Gets the number of shards.
+     * @return The number of shards.
+     */
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Gets the shard a session belongs to.
+     * @param sessionId The ID of the session.
+     * @return The index of the shard.
+     */
+    public int locate(String sessionId) {
+        return ring.locate(sessionId);
+    }
+
+    /**
+     * Gets the shards sessions belonged to before shards were added.
+     * @return The indexes of the previous shards, empty once the rebalance is complete.
+     */
+    public int[] getPreviousShards() {
+        return previousRing != null ? previousShardIndexes.clone() : new int[0];
+    }
+
+    /**
+     * Gets the source streaming the live sessions of one shard.
+     * @param shard The index of the shard.
+     * @return The SessionSource of the shard.
+     * @throws UnsupportedOperationException If the storage type cannot be scanned.
+     */
+    public SessionSource getShardSessionSource(int shard) {
+        return shards.get(shard).backend.getSessionSource();
+    }
+
+    /**
+     * Gets the name of a shard.
+     * @param shard The index of the shard.
+     * @return The name of the shard.
+     */
+    public String getShardName(int shard) {
+        return shards.get(shard).name;
+    }
+
+    /**
+     * Moves a session from one shard to another. The copy on the target shard wins if there already is one,
+     * as it was written after the session moved, and the copy on the source shard is deleted either way.
+     * @param sessionId The ID of the session to move.
+     * @param sourceShard The index of the shard the session is moved from.
+     * @param targetShard The index of the shard the session is moved to.
+     * @return True if the source shard held the session, otherwise false.
+     */
+    public boolean moveSession(String sessionId, int sourceShard, int targetShard) {
+        Shard source = shards.get(sourceShard);
+        Shard target = shards.get(targetShard);
+        Session session = call(source, source.findTimer, () -> source.backend.getSecondarySessionRepository().findById(sessionId));
+        if (session == null) {
+            return false;
+        }
+        Session existing = call(target, target.findTimer, () -> target.backend.getSecondarySessionRepository().findById(sessionId));
+        if (existing == null) {
+            SpringSessionData springSessionData = source.backend.convertToSessionData(session);
+            call(target, target.saveTimer, () -> {
+                target.backend.getSecondaryWriter().saveAsSecondary(springSessionData);
+                return null;
+            });
+        }
+        call(source, source.deleteTimer, () -> {
+            source.backend.getSecondarySessionRepository().deleteById(sessionId);
+            return null;
+        });
+        return true;
+    }
+
+    /**
+     * Ends the rebalance, once every session of the previous shards is on its new shard, so missing sessions
+     * are no longer looked up in their previous shard.
+     */
+    public void completeRebalance() {
+        previousRing = null;
+        log.info(name + " shard rebalance is complete");
+    }
+
+    /**
+     * Moves a session missing from its shard from the shard it belonged to before the rebalance, if any.
+     * @param sessionId The ID of the session.
+     * @param shard The index of the shard the session belongs to.
+     * @return True if the session was moved, otherwise false.
+     */
+    private boolean moveFromPreviousShard(String sessionId, int shard) {
+        SessionShardRing rebalancedRing = previousRing;
+        if (rebalancedRing == null) {
+            return false;
+        }
+        int previousShard = previousShardIndexes[rebalancedRing.locate(sessionId)];
+        return previousShard != shard && moveSession(sessionId, previousShard, shard);
+    }
+
+    /**
+     * Runs an operation on a shard, timing it and tracking the health of the shard.
+     * @param shard The shard.
+     * @param timer The timer of the operation.
+     * @param operation The operation.
+     * @param <T> The type of the result.
+     * @return The result of the operation.
+     */
+    private static <T> T call(Shard shard, Timer timer, Supplier<T> operation) {
+        T result;
+        try {
+            result = timer.record(operation);
+        } catch (RuntimeException e) {
+            shard.failures.increment();
+            if (shard.consecutiveFailures.incrementAndGet() == UNHEALTHY_AFTER_FAILURES) {
+                log.warn("Shard " + shard.name + " is unhealthy after " + UNHEALTHY_AFTER_FAILURES + " failures: " + e.getMessage());
+            }
+            throw e;
+        }
+        if (shard.consecutiveFailures.getAndSet(0) >= UNHEALTHY_AFTER_FAILURES) {
+            log.info("Shard " + shard.name + " is healthy again");
+        }
+        return result;
+    }
+
+    /**
+     * Shard holds the backend of one instance of the storage and its meters.
+     */
+    private static final class Shard {
+
+        private final String name;
+
+        private final SessionStoreBackend backend;
+
+        private final Timer findTimer;
+
+        private final Timer saveTimer;
+
+        private final Timer deleteTimer;
+
+        private final Counter failures;
+
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+        /**
+         * Constructor for Shard.
+         * @param storageName The name of the storage type.
+         * @param name The name of the shard.
+         * @param backend The backend of the shard.
+         * @param meterRegistry The registry the shard metrics are published to.
+         */
+        private Shard(String storageName, String name, SessionStoreBackend backend, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.backend = backend;
+            this.findTimer = operationTimer(storageName, name, "find", meterRegistry);
+            this.saveTimer = operationTimer(storageName, name, "save", meterRegistry);
+            this.deleteTimer = operationTimer(storageName, name, "delete", meterRegistry);
+            this.failures = meterRegistry.counter("spring.session.shard.failures", "storage", storageName, "shard", name);
+            Gauge.builder("spring.session.shard.healthy", this, shard -> shard.isHealthy() ? 1 : 0)
+                    .tag("storage", storageName)
+                    .tag("shard", name)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Checks if the last operations of the shard succeeded.
+         * @return True if the shard has failed fewer times in a row than the unhealthy threshold, otherwise false.
+         */
+        private boolean isHealthy() {
+            return consecutiveFailures.get() < UNHEALTHY_AFTER_FAILURES;
+        }
+
+        private static Timer operationTimer(String storageName, String shardName, String operation, MeterRegistry meterRegistry) {
+            return Timer.builder("spring.session.shard.operations")
+                    .tag("storage", storageName)
+                    .tag("shard", shardName)
+                    .tag("operation", operation)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * ShardedSessionRepository routes the operations on a session to the repository of its shard, the primary
+     * repositories of the shards or their secondary ones.
+     */
+    @SuppressWarnings("rawtypes")
+    private final class ShardedSessionRepository implements SessionRepository<Session> {
+
+        private final boolean secondary;
+
+        /**
+         * Constructor for ShardedSessionRepository.
+         * @param secondary True to route to the secondary repositories of the shards, false for the primary ones.
+         */
+        private ShardedSessionRepository(boolean secondary) {
+            this.secondary = secondary;
+        }
+
+        /**
+         * Creates a session on the shard its id belongs to. Storages restoring sessions from snapshots create it
+         * on any shard and restore it on its own, the others create sessions until one belongs to its shard,
+         * which takes as many attempts as there are shards on average, without any round trip.
+         * @return The new session.
+         */
+        @Override
+        public Session createSession() {
+            int shard = ThreadLocalRandom.current().nextInt(shards.size());
+            Session session = repository(shard).createSession();
+            for (int attempt = 1; ring.locate(session.getId()) != shard; attempt++) {
+                shard = ring.locate(session.getId());
+                if (supportsSnapshotRestore() || attempt == MAX_CREATE_ATTEMPTS) {
+                    session = shards.get(shard).backend.restoreSession(new MapSession(session), true);
+                    break;
+                }
+                session = repository(shard).createSession();
+            }
+            sessionShards.put(session, shard);
+            return session;
+        }
+
+        /**
+         * Saves a session through the shard it was created or found on, then moves it if its id now belongs
+         * to another shard.
+         * @param session The session to save.
+         */
+        @Override
+        public void save(Session session) {
+            int shard = ring.locate(session.getId());
+            Integer boundShard = sessionShards.getIfPresent(session);
+            int savedShard = boundShard != null ? boundShard : shard;
+            Shard target = shards.get(savedShard);
+            call(target, target.saveTimer, () -> {
+                repository(savedShard).save(session);
+                return null;
+            });
+            if (savedShard != shard) {
+                moveSession(session.getId(), savedShard, shard);
+                sessionShards.put(session, shard);
+            }
+        }
+
+        /**
+         * Finds a session on its shard, or on its previous shard while shards are rebalanced.
+         * @param id The ID of the session to find.
+         * @return The session if found, otherwise null.
+         */
+        @Override
+        public Session findById(String id) {
+            int shard = ring.locate(id);
+            Shard target = shards.get(shard);
+            Session session = call(target, target.findTimer, () -> repository(shard).findById(id));
+            if (session == null && moveFromPreviousShard(id, shard)) {
+                session = call(target, target.findTimer, () -> repository(shard).findById(id));
+            }
+            if (session != null) {
+                sessionShards.put(session, shard);
+            }
+            return session;
+        }
+
+        /**
+         * Deletes a session from its shard, and from its previous shard while shards are rebalanced.
+         * @param id The ID of the session to delete.
+         */
+        @Override
+        public void deleteById(String id) {
+            int shard = ring.locate(id);
+            deleteFromShard(id, shard);
+            SessionShardRing rebalancedRing = previousRing;
+            if (rebalancedRing != null) {
+                int previousShard = previousShardIndexes[rebalancedRing.locate(id)];
+                if (previousShard != shard) {
+                    deleteFromShard(id, previousShard);
+                }
+            }
+        }
+
+        /**
+         * Deletes a session from one shard.
+         * @param id The ID of the session to delete.
+         * @param shard The index of the shard.
+         */
+        private void deleteFromShard(String id, int shard) {
+            Shard target = shards.get(shard);
+            call(target, target.deleteTimer, () -> {
+                repository(shard).deleteById(id);
+                return null;
+            });
+        }
+
+        /**
+         * Gets the repository of a shard for the role of this repository.
+         * @param shard The index of the shard.
+         * @return The primary or secondary repository of the shard.
+         */
+        private SessionRepository<Session> repository(int shard) {
+            SessionStoreBackend backend = shards.get(shard).backend;
+            return secondary ? backend.getSecondarySessionRepository() : backend.getSessionRepository();
+        }
+    }
+
+    /**
+     * ShardedSessionWriter routes the secondary writes to the writer of the shard of every session.
+     * Deltas are only written once the session is on its shard, so they are never applied to a missing session.
+     */
+    private final class ShardedSessionWriter implements ISessionSaveAsSecondary {
+
+        /**
+         * Saves session data on its shard.
+         * @param springSessionData The SpringSessionData object to save.
+         */
+        @Override
+        public void saveAsSecondary(SpringSessionData springSessionData) {
+            int shard = ring.locate(springSessionData.getId());
+            if (springSessionData.isDelta()) {
+                moveFromPreviousShard(springSessionData.getId(), shard);
+            }
+            Shard target = shards.get(shard);
+            call(target, target.saveTimer, () -> {
+                target.backend.getSecondaryWriter().saveAsSecondary(springSessionData);
+                return null;
+            });
+        }
+
+        /**
+         * Saves a batch of sessions, split into one batch per shard.
+         * @param springSessionDataList The SpringSessionData objects to save.
+         */
+        @Override
+        public void saveAllAsSecondary(List<SpringSessionData> springSessionDataList) {
+            Map<Integer, List<SpringSessionData>> batches = new LinkedHashMap<>();
+            for (SpringSessionData springSessionData : springSessionDataList) {
+                int shard = ring.locate(springSessionData.getId());
+                if (springSessionData.isDelta()) {
+                    moveFromPreviousShard(springSessionData.getId(), shard);
+                }
+                batches.computeIfAbsent(shard, key -> new ArrayList<>()).add(springSessionData);
+            }
+            batches.forEach((shard, batch) -> {
+                Shard target = shards.get(shard);
+                call(target, target.saveTimer, () -> {
+                    target.backend.getSecondaryWriter().saveAllAsSecondary(batch);
+                    return null;
+                });
+            });
+        }
+
+        /**
+         * Deltas are supported if the writers of the shards support them.
+         * @return True if the storage type applies deltas, otherwise false.
+         */
+        @Override
+        public boolean supportsDelta() {
+            return shards.get(0).backend.getSecondaryWriter().supportsDelta();
+        }
+    }
+
+    /**
+     * ShardedSessionSource streams the partitions of every shard one after the other. Pages by id prefix read the
+     * shards in turn, the cursor holding the index of the shard before the cursor of the shard.
+     */
+    private final class ShardedSessionSource implements SessionSource {
+
+        private final List<SessionSource> sources;
+
+        /**
+         * Constructor for ShardedSessionSource.
+         * @param sources The sources of the shards.
+         */
+        private ShardedSessionSource(List<SessionSource> sources) {
+            this.sources = sources;
+        }
+
+        /**
+         * Gets the name of the storage type.
+         * @return The name of the storage type.
+         */
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the number of partitions of all shards.
+         * @return The sum of the partition counts of the shards.
+         */
+        @Override
+        public int getPartitionCount() {
+            return sources.stream().mapToInt(SessionSource::getPartitionCount).sum();
+        }
+
+        /**
+         * Reads the next page of a partition of the shard owning it.
+         * @param partition The partition to read, from 0 to the partition count excluded.
+         * @param cursor The cursor returned with the previous page, or null to read the partition from its start.
+         * @param pageSize The maximum number of sessions to read.
+         * @return The page of sessions.
+         */
+        @Override
+        public SessionPage readPage(int partition, String cursor, int pageSize) {
+            for (SessionSource source : sources) {
+                if (partition < source.getPartitionCount()) {
+                    return source.readPage(partition, cursor, pageSize);
+                }
+                partition -= source.getPartitionCount();
+            }
+            throw new IllegalArgumentException("No partition " + partition + " in " + name + " shards");
+        }
+
+        /**
+         * Reads the next page of sessions whose id starts with a prefix, shard after shard.
+         * @param idPrefix The prefix of the session ids to read.
+         * @param cursor The cursor returned with the previous page, or null to read from the first shard.
+         * @param pageSize The maximum number of sessions to read.
+         * @return The page of sessions.
+         */
+        @Override
+        public SessionPage readPrefixPage(String idPrefix, String cursor, int pageSize) {
+            int shard = 0;
+            String shardCursor = null;
+            if (cursor != null) {
+                int separator = cursor.indexOf(':');
+                shard = Integer.parseInt(cursor.substring(0, separator));
+                shardCursor = separator + 1 < cursor.length() ? cursor.substring(separator + 1) : null;
+            }
+            SessionPage page = sources.get(shard).readPrefixPage(idPrefix, shardCursor, pageSize);
+            String nextCursor = !page.isLast() ? shard + ":" + page.getNextCursor()
+                    : shard + 1 < sources.size() ? (shard + 1) + ":" : null;
+            return new SessionPage(page.getSessions(), nextCursor);
+        }
+    }
+
+    /**
+     * ShardedExpirySweeper sweeps every shard in turn, each with the whole batch size.
+     */
+    private final class ShardedExpirySweeper implements SessionExpirySweeper {
+
+        private final List<SessionExpirySweeper> sweepers;
+
+        /**
+         * Constructor for ShardedExpirySweeper.
+         * @param sweepers The sweepers of the shards.
+         */
+        private ShardedExpirySweeper(List<SessionExpirySweeper> sweepers) {
+            this.sweepers = sweepers;
+        }
+
+        /**
+         * Gets the name of the storage type.
+         * @return The name of the storage type.
+         */
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Deletes a batch of expired sessions from every shard.
+         * @param now The current time, in milliseconds since the epoch.
+         * @param batchSize The maximum number of sessions deleted from each shard.
+         * @return The number of deleted sessions, 0 once no shard holds an expired session.
+         */
+        @Override
+        public int sweep(long now, int batchSize) {
+            int deleted = 0;
+            for (SessionExpirySweeper sweeper : sweepers) {
+                deleted += sweeper.sweep(now, batchSize);
+            }
+            return deleted;
+        }
+    }
+}
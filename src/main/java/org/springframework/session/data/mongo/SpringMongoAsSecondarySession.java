@@ -1,11 +1,24 @@
 package org.springframework.session.data.mongo;
 
+import com.mongodb.DBObject;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import org.framework.data.SpringSessionData;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.session.ISessionSaveAsSecondary;
 
-import java.util.Map;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * SpringMongoAsSecondarySession extends MongoIndexedSessionRepository and implements ISessionSaveAsSecondaryOperation.
@@ -17,6 +30,27 @@ import java.util.Map;
 public class SpringMongoAsSecondarySession extends MongoIndexedSessionRepository
         implements ISessionSaveAsSecondary {
 
+    private static final ReplaceOptions UPSERT = new ReplaceOptions().upsert(true);
+
+    private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+
+    private static final String STORAGE_NAME = "MONGO";
+
+    /**
+     * Field of the serialized attributes in the documents of JdkMongoSessionConverter.
+     */
+    private static final String ATTRIBUTES_FIELD = "attr";
+
+    private final MongoOperations mongoOperations;
+
+    private String collectionName = DEFAULT_COLLECTION_NAME;
+
+    private AbstractMongoSessionConverter mongoSessionConverter;
+
+    private WriteConcern writeConcern = WriteConcern.ACKNOWLEDGED;
+
+    private DistributionSummary sessionSizeSummary;
+
     /**
      * Constructor for SpringMongoAsSecondarySession.
      * @param mongoOperations The MongoOperations object to interact with MongoDB.
@@ -24,30 +58,99 @@ public class SpringMongoAsSecondarySession extends MongoIndexedSessionRepository
 
     public SpringMongoAsSecondarySession(MongoOperations mongoOperations) {
         super(mongoOperations);
+        this.mongoOperations = mongoOperations;
+        setMeterRegistry(Metrics.globalRegistry);
+    }
+
+    /**
+     * Sets the name of the collection the sessions are stored in.
+     * @param collectionName The name of the collection.
+     */
+    @Override
+    public void setCollectionName(String collectionName) {
+        super.setCollectionName(collectionName);
+        this.collectionName = collectionName;
+    }
+
+    /**
+     * Sets the converter used to map sessions to Mongo documents.
+     * @param mongoSessionConverter The AbstractMongoSessionConverter to use.
+     */
+    @Override
+    public void setMongoSessionConverter(AbstractMongoSessionConverter mongoSessionConverter) {
+        super.setMongoSessionConverter(mongoSessionConverter);
+        this.mongoSessionConverter = mongoSessionConverter;
+    }
+
+    /**
+     * Sets the write concern of the secondary writes, for example w:0 for a best-effort backup copy.
+     * @param writeConcern The WriteConcern to use.
+     */
+    public void setWriteConcern(WriteConcern writeConcern) {
+        this.writeConcern = writeConcern;
+    }
+
+    /**
+     * Sets the MeterRegistry the size of the serialized session attributes is published to.
+     * @param meterRegistry The MeterRegistry to set.
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.sessionSizeSummary = DistributionSummary.builder("spring.session.secondary.size")
+                .tag("storage", STORAGE_NAME)
+                .baseUnit("bytes")
+                .register(meterRegistry);
     }
 
     /**
      * Saves session data as secondary in MongoDB.
+     * The session document is upserted without reading the existing session first.
      * @param springSessionData The SpringSessionData object containing session data to be saved.
      */
 
     @Override
     public void saveAsSecondary(SpringSessionData springSessionData) {
-        log.info("Mongo is set to save secondary session");
-        MongoSession mongoSession = findById(springSessionData.getId());
-        if(mongoSession==null){
-            mongoSession = new MongoSession(springSessionData.getId(),
-                    springSessionData.getMaxInactiveInterval().getSeconds());
+        saveAllAsSecondary(Collections.singletonList(springSessionData));
+        log.debug("Secondary session {} is saved in Mongo", springSessionData.getId());
+    }
+
+    /**
+     * Saves a batch of sessions as secondary in MongoDB with a single unordered bulkWrite of replaceOne upserts.
+     * @param springSessionDataList The SpringSessionData objects containing session data to be saved.
+     */
+    @Override
+    public void saveAllAsSecondary(List<SpringSessionData> springSessionDataList) {
+        List<ReplaceOneModel<DBObject>> upserts = new ArrayList<>(springSessionDataList.size());
+        for (SpringSessionData springSessionData : springSessionDataList) {
+            upserts.add(new ReplaceOneModel<>(Filters.eq("_id", springSessionData.getId()),
+                    toDocument(springSessionData), UPSERT));
         }
-        else{
-            mongoSession.setMaxInactiveInterval(springSessionData.getMaxInactiveInterval());
+        mongoOperations.getCollection(collectionName)
+                .withDocumentClass(DBObject.class)
+                .withWriteConcern(writeConcern)
+                .bulkWrite(upserts, UNORDERED);
+    }
+
+    /**
+     * Converts session data to the document layout written by the configured session converter.
+     * The last accessed time of the primary session is kept, so both copies expire together and compare equal.
+     * The document is written as the converter builds it, without copying it into another document type.
+     * The size of the serialized attributes is recorded when the converter serializes them into a single field.
+     * @param springSessionData The SpringSessionData object to convert.
+     * @return The session document.
+     */
+    private DBObject toDocument(SpringSessionData springSessionData) {
+        MongoSession mongoSession = new MongoSession(springSessionData.getId(),
+                springSessionData.getMaxInactiveInterval().getSeconds());
+        springSessionData.getAttributes().forEach(mongoSession::setAttribute);
+        mongoSession.setCreationTime(springSessionData.getCreatedMillis());
+        if (springSessionData.getLastAccessedMillis() > 0) {
+            mongoSession.setLastAccessedTime(Instant.ofEpochMilli(springSessionData.getLastAccessedMillis()));
         }
-        Map<String,Object> keys = springSessionData.getAttributes();
-        for(Map.Entry<String,Object> key : keys.entrySet()){
-            mongoSession.setAttribute(key.getKey(), key.getValue());
+        DBObject document = (DBObject) mongoSessionConverter.convert(mongoSession,
+                TypeDescriptor.valueOf(MongoSession.class), TypeDescriptor.valueOf(DBObject.class));
+        if (document.get(ATTRIBUTES_FIELD) instanceof byte[]) {
+            sessionSizeSummary.record(((byte[]) document.get(ATTRIBUTES_FIELD)).length);
         }
-        mongoSession.setCreationTime(springSessionData.getCreatedMillis());
-        log.info("Secondary Session is created in Mongo");
-        super.save(mongoSession);
+        return document;
     }
-}
\ No newline at end of file
+}
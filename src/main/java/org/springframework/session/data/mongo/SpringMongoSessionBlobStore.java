@@ -0,0 +1,105 @@
+package org.springframework.session.data.mongo;
+
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.session.serializer.SessionBlobStore;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * SpringMongoSessionBlobStore keeps session attribute blobs in a collection, removed by a TTL index once they expire.
+ */
+public class SpringMongoSessionBlobStore implements SessionBlobStore {
+
+    private static final String ID_FIELD_NAME = "_id";
+
+    private static final String BLOB_FIELD_NAME = "blob";
+
+    private static final String EXPIRE_AT_FIELD_NAME = "expireAt";
+
+    private final MongoOperations mongoOperations;
+
+    private final String collectionName;
+
+    private volatile boolean indexesEnsured;
+
+    /**
+     * Constructor for SpringMongoSessionBlobStore.
+     * @param mongoOperations The MongoOperations object to interact with MongoDB.
+     * @param collectionName The name of the collection the blobs are stored in.
+     */
+    public SpringMongoSessionBlobStore(MongoOperations mongoOperations, String collectionName) {
+        this.mongoOperations = mongoOperations;
+        this.collectionName = collectionName;
+    }
+
+    /**
+     * Gets the name of the storage the blobs are kept in.
+     * @return MONGO.
+     */
+    @Override
+    public String getName() {
+        return SpringMongoSessionStoreBackend.NAME;
+    }
+
+    /**
+     * Upserts a blob with its expiry, which also extends the expiry of a stored blob.
+     * @param hash The hexadecimal content hash of the blob.
+     * @param bytes The content of the blob.
+     * @param timeToLive The time the blob is kept.
+     */
+    @Override
+    public void put(String hash, byte[] bytes, Duration timeToLive) {
+        ensureIndexes();
+        mongoOperations.upsert(Query.query(Criteria.where(ID_FIELD_NAME).is(hash)),
+                Update.update(BLOB_FIELD_NAME, new Binary(bytes)).set(EXPIRE_AT_FIELD_NAME, expireAt(timeToLive)),
+                collectionName);
+    }
+
+    /**
+     * Gets a blob.
+     * @param hash The hexadecimal content hash of the blob.
+     * @return The content of the blob, or null if it has expired.
+     */
+    @Override
+    public byte[] get(String hash) {
+        Document document = mongoOperations.findOne(Query.query(Criteria.where(ID_FIELD_NAME).is(hash)
+                .and(EXPIRE_AT_FIELD_NAME).gt(new Date())), Document.class, collectionName);
+        return document != null ? document.get(BLOB_FIELD_NAME, Binary.class).getData() : null;
+    }
+
+    /**
+     * Extends the expiry of a blob.
+     * @param hash The hexadecimal content hash of the blob.
+     * @param timeToLive The time the blob is kept from now.
+     * @return True if the blob is stored, otherwise false.
+     */
+    @Override
+    public boolean touch(String hash, Duration timeToLive) {
+        return mongoOperations.updateFirst(Query.query(Criteria.where(ID_FIELD_NAME).is(hash)),
+                Update.update(EXPIRE_AT_FIELD_NAME, expireAt(timeToLive)), collectionName).getMatchedCount() > 0;
+    }
+
+    /**
+     * Ensures the TTL index removing the expired blobs.
+     */
+    private void ensureIndexes() {
+        if (indexesEnsured) {
+            return;
+        }
+        mongoOperations.indexOps(collectionName).ensureIndex(
+                new Index(EXPIRE_AT_FIELD_NAME, Sort.Direction.ASC).named("expire_at_idx").expire(0));
+        indexesEnsured = true;
+    }
+
+    private static Date expireAt(Duration timeToLive) {
+        return new Date(System.currentTimeMillis() + timeToLive.toMillis());
+    }
+}
@@ -1,10 +1,15 @@
 package org.springframework.session.data.mongo;
 
+import com.mongodb.WriteConcern;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.session.serializer.SessionCodec;
 import org.springframework.util.StringUtils;
 
 import java.time.Duration;
@@ -20,6 +25,9 @@ public class SpringMongoSessionConfig {
     @Autowired
     private ApplicationEventPublisher applicationEventPublisher;
 
+    @Value("${spring.session.mongo.secondary.write_concern:ACKNOWLEDGED}")
+    private String secondaryWriteConcern;
+
     private String collectionName = "sessions";
 
     private MongoOperations mongoOperations;
@@ -30,6 +38,12 @@ public class SpringMongoSessionConfig {
 
     private final Integer MAX_TIME_INACTIVE_SESSION = 1800;
 
+    private boolean sessionIndexesEnsured;
+
+    private SpringMongoSessionSource springMongoSessionSource;
+
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
     /**
      * Constructor for SpringMongoSessionConfig.
      * @param mongoOperations The MongoOperations object to interact with MongoDB.
@@ -46,6 +60,24 @@ public class SpringMongoSessionConfig {
     private AbstractMongoSessionConverter mongoSessionConverter =
             new JdkMongoSessionConverter(Duration.ofSeconds(MAX_TIME_INACTIVE_SESSION));
 
+    /**
+     * Sets the codec the session attributes are encoded with in the session documents.
+     * The attributes of a session are encoded together, as one value, so the codec must not offload values.
+     * @param sessionCodec The SessionCodec to use.
+     */
+    public void setSessionCodec(SessionCodec sessionCodec) {
+        this.mongoSessionConverter = new JdkMongoSessionConverter(sessionCodec::encode, sessionCodec::decode,
+                Duration.ofSeconds(MAX_TIME_INACTIVE_SESSION));
+    }
+
+    /**
+     * Sets the MeterRegistry the secondary session metrics are published to.
+     * @param meterRegistry The MeterRegistry to set.
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * Retrieves the configured SpringMongoAsSecondarySession.
      * @return The configured SpringMongoAsSecondarySession.
@@ -57,6 +89,9 @@ public class SpringMongoSessionConfig {
         springMongoAsSecondarySession
                 = new SpringMongoAsSecondarySession(mongoOperations);
         setMongoRepositoryParameters(springMongoAsSecondarySession);
+        springMongoAsSecondarySession.setWriteConcern(resolveWriteConcern(secondaryWriteConcern));
+        springMongoAsSecondarySession.setMeterRegistry(meterRegistry);
+        ensureSessionIndexes();
         return springMongoAsSecondarySession;
     }
 
@@ -71,9 +106,21 @@ public class SpringMongoSessionConfig {
         mongoIndexedSessionRepository =
                 new MongoIndexedSessionRepository(mongoOperations);
         setMongoRepositoryParameters(mongoIndexedSessionRepository);
+        ensureSessionIndexes();
         return mongoIndexedSessionRepository;
     }
 
+    /**
+     * Retrieves the SpringMongoSessionSource reading the sessions collection.
+     * @return The configured SpringMongoSessionSource.
+     */
+    public SpringMongoSessionSource getSessionSource() {
+        if (springMongoSessionSource == null) {
+            springMongoSessionSource = new SpringMongoSessionSource(mongoOperations, collectionName, mongoSessionConverter);
+        }
+        return springMongoSessionSource;
+    }
+
     /**
      * Sets parameters for the MongoIndexedSessionRepository.
      * @param repository The MongoIndexedSessionRepository to set parameters for.
@@ -92,5 +139,43 @@ public class SpringMongoSessionConfig {
         }
         repository.setApplicationEventPublisher(this.applicationEventPublisher);
     }
-}
 
+    /**
+     * Ensures the TTL index on the expiry field of the sessions collection,
+     * so MongoDB removes expired sessions without any application side sweep.
+     */
+    private void ensureSessionIndexes() {
+        if (sessionIndexesEnsured) {
+            return;
+        }
+        mongoSessionConverter.ensureIndexes(mongoOperations.indexOps(collectionName));
+        sessionIndexesEnsured = true;
+    }
+
+    /**
+     * Resolves a write concern from its configured name.
+     * @param name The name of the write concern, e.g. W0, W1, MAJORITY.
+     * @return The matching WriteConcern.
+     */
+    private WriteConcern resolveWriteConcern(String name) {
+        switch (name.trim().toUpperCase()) {
+            case "W0":
+            case "UNACKNOWLEDGED":
+                return WriteConcern.UNACKNOWLEDGED;
+            case "W1":
+                return WriteConcern.W1;
+            case "W2":
+                return WriteConcern.W2;
+            case "W3":
+                return WriteConcern.W3;
+            case "MAJORITY":
+                return WriteConcern.MAJORITY;
+            case "JOURNALED":
+                return WriteConcern.JOURNALED;
+            case "ACKNOWLEDGED":
+                return WriteConcern.ACKNOWLEDGED;
+            default:
+                throw new IllegalArgumentException("Unknown write concern " + name);
+        }
+    }
+}
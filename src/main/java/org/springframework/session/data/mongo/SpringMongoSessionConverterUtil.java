@@ -2,10 +2,11 @@ package org.springframework.session.data.mongo;
 
 import org.framework.data.SpringSessionData;
 import lombok.experimental.UtilityClass;
+import org.springframework.session.MapSession;
 import org.springframework.session.Session;
+import org.springframework.session.SessionAttributesView;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -24,24 +25,46 @@ public class SpringMongoSessionConverterUtil {
         final MongoSession mongoSession = (MongoSession) session;
         return SpringSessionData.builder()
                 .id(mongoSession.getId())
-                .attributes(getAttributes(mongoSession))
+                .attributes(new SessionAttributesView(mongoSession))
                 .createdMillis(mongoSession.getCreationTime().toEpochMilli())
                 .maxInactiveInterval(mongoSession.getMaxInactiveInterval())
+                .lastAccessedMillis(mongoSession.getLastAccessedTime().toEpochMilli())
                 .build();
     }
 
     /**
-     * Retrieves attributes from a MongoSession and returns them as a map.
-     * @param mongoSession The MongoSession from which to retrieve attributes.
-     * @return A map containing the attributes of the MongoSession.
+     * Converts the changes made to a Session object to a delta SpringSessionData object.
+     * @param session The session object to be converted.
+     * @param changedAttributeNames The names of the attributes set since the session was last saved.
+     * @param removedAttributeNames The names of the attributes removed since the session was last saved.
+     * @return The converted SpringSessionData object holding only the changed attributes.
+     */
+    public static SpringSessionData convertToSessionDelta(Session session, Set<String> changedAttributeNames,
+                                                          Set<String> removedAttributeNames) {
+        final MongoSession mongoSession = (MongoSession) session;
+        return SpringSessionData.builder()
+                .id(mongoSession.getId())
+                .attributes(new SessionAttributesView(mongoSession, new HashSet<>(changedAttributeNames)))
+                .createdMillis(mongoSession.getCreationTime().toEpochMilli())
+                .maxInactiveInterval(mongoSession.getMaxInactiveInterval())
+                .lastAccessedMillis(mongoSession.getLastAccessedTime().toEpochMilli())
+                .delta(true)
+                .removedAttributeNames(new HashSet<>(removedAttributeNames))
+                .build();
+    }
+
+    /**
+     * Converts a MapSession snapshot back to a MongoSession.
+     * @param mapSession The snapshot of the session.
+     * @return The MongoSession holding the state of the snapshot.
      */
-    private static Map<String, Object> getAttributes(MongoSession mongoSession) {
-        Map<String, Object> attributesMap = new HashMap<>();
-        Set<String> attributeNames = mongoSession.getAttributeNames();
-        attributeNames.forEach(attribute -> {
-            attributesMap.put(attribute, mongoSession.getAttribute(attribute));
-        });
-        return attributesMap;
+    public static Session convertToSession(MapSession mapSession) {
+        MongoSession mongoSession = new MongoSession(mapSession.getId(),
+                mapSession.getMaxInactiveInterval().getSeconds());
+        mongoSession.setCreationTime(mapSession.getCreationTime().toEpochMilli());
+        mongoSession.setLastAccessedTime(mapSession.getLastAccessedTime());
+        mapSession.getAttributeNames().forEach(attribute ->
+                mongoSession.setAttribute(attribute, mapSession.getAttribute(attribute)));
+        return mongoSession;
     }
 }
-
@@ -0,0 +1,131 @@
+package org.springframework.session.data.mongo;
+
+import org.bson.Document;
+import org.framework.data.SpringSessionData;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.session.SessionPage;
+import org.springframework.session.SessionSource;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * SpringMongoSessionSource streams the sessions of the sessions collection with range queries on _id.
+ * Every partition is read in _id order and resumed after the last _id it returned, so pages stay cheap
+ * on the _id index however deep the partition is read.
+ */
+public class SpringMongoSessionSource implements SessionSource {
+
+    private static final String ID_FIELD_NAME = "_id";
+
+    private static final String EXPIRE_AT_FIELD_NAME = "expireAt";
+
+    private static final TypeDescriptor DOCUMENT_TYPE = TypeDescriptor.valueOf(Document.class);
+
+    private static final TypeDescriptor MONGO_SESSION_TYPE = TypeDescriptor.valueOf(MongoSession.class);
+
+    private final MongoOperations mongoOperations;
+
+    private final String collectionName;
+
+    private final AbstractMongoSessionConverter mongoSessionConverter;
+
+    /**
+     * Constructor for SpringMongoSessionSource.
+     * @param mongoOperations The MongoOperations object to interact with MongoDB.
+     * @param collectionName The name of the collection the sessions are stored in.
+     * @param mongoSessionConverter The converter of the session documents.
+     */
+    public SpringMongoSessionSource(MongoOperations mongoOperations, String collectionName,
+                                    AbstractMongoSessionConverter mongoSessionConverter) {
+        this.mongoOperations = mongoOperations;
+        this.collectionName = collectionName;
+        this.mongoSessionConverter = mongoSessionConverter;
+    }
+
+    /**
+     * Gets the name of the storage the sessions are read from.
+     * @return MONGO.
+     */
+    @Override
+    public String getName() {
+        return SpringMongoSessionStoreBackend.NAME;
+    }
+
+    /**
+     * Gets the number of partitions, one per hexadecimal character.
+     * @return The number of partitions.
+     */
+    @Override
+    public int getPartitionCount() {
+        return HEX_PARTITIONS;
+    }
+
+    /**
+     * Reads the next page of live sessions of a partition.
+     * The cursor is the _id of the last session of the previous page.
+     * @param partition The partition to read.
+     * @param cursor The cursor returned with the previous page, or null to read the partition from its start.
+     * @param pageSize The maximum number of sessions to read.
+     * @return The page of sessions.
+     */
+    @Override
+    public SessionPage readPage(int partition, String cursor, int pageSize) {
+        return readRange(SessionSource.lowerBound(partition), SessionSource.upperBound(partition), cursor, pageSize);
+    }
+
+    /**
+     * Reads the next page of live sessions whose _id starts with a prefix.
+     * The cursor is the _id of the last session of the previous page.
+     * @param idPrefix The prefix of the session ids to read.
+     * @param cursor The cursor returned with the previous page, or null to read from the first session.
+     * @param pageSize The maximum number of sessions to read.
+     * @return The page of sessions.
+     */
+    @Override
+    public SessionPage readPrefixPage(String idPrefix, String cursor, int pageSize) {
+        return readRange(idPrefix, SessionSource.prefixUpperBound(idPrefix), cursor, pageSize);
+    }
+
+    /**
+     * Reads the next page of live sessions of an _id range, in _id order.
+     * @param lowerBound The lowest _id of the range, included, or null for no lower bound.
+     * @param upperBound The highest _id of the range, excluded, or null for no upper bound.
+     * @param cursor The _id of the last session of the previous page, or null to read the range from its start.
+     * @param pageSize The maximum number of sessions to read.
+     * @return The page of sessions.
+     */
+    private SessionPage readRange(String lowerBound, String upperBound, String cursor, int pageSize) {
+        Criteria criteria = Criteria.where(EXPIRE_AT_FIELD_NAME).gt(new Date());
+        if (cursor != null || lowerBound != null || upperBound != null) {
+            Criteria idCriteria = criteria.and(ID_FIELD_NAME);
+            if (cursor != null) {
+                idCriteria.gt(cursor);
+            } else if (lowerBound != null) {
+                idCriteria.gte(lowerBound);
+            }
+            if (upperBound != null) {
+                idCriteria.lt(upperBound);
+            }
+        }
+        Query query = new Query(criteria).with(Sort.by(ID_FIELD_NAME)).limit(pageSize);
+        List<Document> documents = mongoOperations.find(query, Document.class, collectionName);
+        List<SpringSessionData> sessions = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            MongoSession mongoSession =
+                    (MongoSession) mongoSessionConverter.convert(document, DOCUMENT_TYPE, MONGO_SESSION_TYPE);
+            if (mongoSession != null) {
+                sessions.add(SpringMongoSessionConverterUtil.convertToSessionData(mongoSession));
+            }
+        }
+        if (documents.size() < pageSize) {
+            return new SessionPage(sessions, null);
+        }
+        return new SessionPage(sessions, documents.get(documents.size() - 1).getString(ID_FIELD_NAME));
+    }
+}
@@ -0,0 +1,117 @@
+package org.springframework.session.data.mongo;
+
+import org.framework.data.SpringSessionData;
+import org.springframework.session.ISessionSaveAsSecondary;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.SessionSource;
+import org.springframework.session.SessionStoreBackend;
+
+import java.util.Set;
+
+/**
+ * SpringMongoSessionStoreBackend exposes MongoDB to MultiSessionRepository as primary or secondary storage.
+ */
+public class SpringMongoSessionStoreBackend implements SessionStoreBackend {
+
+    public static final String NAME = "MONGO";
+
+    private final SpringMongoSessionConfig springMongoSessionConfig;
+
+    /**
+     * Constructor for SpringMongoSessionStoreBackend.
+     * @param springMongoSessionConfig The SpringMongoSessionConfig providing the repositories.
+     */
+    public SpringMongoSessionStoreBackend(SpringMongoSessionConfig springMongoSessionConfig) {
+        this.springMongoSessionConfig = springMongoSessionConfig;
+    }
+
+    /**
+     * Gets the name the storage is configured with.
+     * @return MONGO.
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Gets the MongoIndexedSessionRepository used when MongoDB is primary storage.
+     * @return The MongoIndexedSessionRepository.
+     */
+    @Override
+    public SessionRepository getSessionRepository() {
+        return springMongoSessionConfig.getMongoOperationsSessionRepository();
+    }
+
+    /**
+     * Gets the repository used to read and delete sessions when MongoDB is secondary storage.
+     * @return The SpringMongoAsSecondarySession.
+     */
+    @Override
+    public SessionRepository getSecondarySessionRepository() {
+        return springMongoSessionConfig.getSpringMongoOperationsSessionRepository();
+    }
+
+    /**
+     * Gets the writer used to save sessions when MongoDB is secondary storage.
+     * @return The SpringMongoAsSecondarySession.
+     */
+    @Override
+    public ISessionSaveAsSecondary getSecondaryWriter() {
+        return springMongoSessionConfig.getSpringMongoOperationsSessionRepository();
+    }
+
+    /**
+     * Converts a MongoSession to a SpringSessionData object.
+     * @param session The session to convert.
+     * @return The converted SpringSessionData object.
+     */
+    @Override
+    public SpringSessionData convertToSessionData(Session session) {
+        return SpringMongoSessionConverterUtil.convertToSessionData(session);
+    }
+
+    /**
+     * Converts the changes made to a MongoSession to a delta SpringSessionData object.
+     * @param session The session to convert.
+     * @param changedAttributeNames The names of the attributes set since the session was last saved.
+     * @param removedAttributeNames The names of the attributes removed since the session was last saved.
+     * @return The converted SpringSessionData object holding only the changes.
+     */
+    @Override
+    public SpringSessionData convertToSessionDelta(Session session, Set<String> changedAttributeNames,
+                                                   Set<String> removedAttributeNames) {
+        return SpringMongoSessionConverterUtil.convertToSessionDelta(session, changedAttributeNames, removedAttributeNames);
+    }
+
+    /**
+     * Mongo always writes the whole session document, so any session can be restored.
+     * @return Always true.
+     */
+    @Override
+    public boolean supportsSnapshotRestore() {
+        return true;
+    }
+
+    /**
+     * Restores a MongoSession from a snapshot.
+     * @param snapshot The snapshot of the session.
+     * @param isNew True if the session may be missing from MongoDB and must be written in full on save.
+     * @return The MongoSession backed by the snapshot.
+     */
+    @Override
+    public Session restoreSession(MapSession snapshot, boolean isNew) {
+        return SpringMongoSessionConverterUtil.convertToSession(snapshot);
+    }
+
+    /**
+     * Gets the source streaming the live sessions of the sessions collection.
+     * @return The SpringMongoSessionSource.
+     */
+    @Override
+    public SessionSource getSessionSource() {
+        return springMongoSessionConfig.getSessionSource();
+    }
+}
@@ -0,0 +1,112 @@
+package org.springframework.session.data.mongo;
+
+import org.framework.data.SpringSessionData;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.session.ReactiveSessionRepository;
+import org.springframework.session.ReactiveSessionStoreBackend;
+import org.springframework.session.Session;
+import org.springframework.session.serializer.SessionCodec;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * SpringReactiveMongoSessionStoreBackend exposes MongoDB to ReactiveMultiSessionRepository as primary or secondary
+ * storage, through a ReactiveMongoSessionRepository writing the same session documents as MongoIndexedSessionRepository.
+ * The indexes of the sessions collection, the TTL index included, are ensured at startup through the blocking
+ * MongoOperations, as ReactiveMongoSessionRepository does.
+ */
+public class SpringReactiveMongoSessionStoreBackend implements ReactiveSessionStoreBackend {
+
+    public static final String NAME = "MONGO";
+
+    private static final String COLLECTION_NAME = "sessions";
+
+    private final ReactiveMongoSessionRepository reactiveMongoSessionRepository;
+
+    /**
+     * Constructor for SpringReactiveMongoSessionStoreBackend.
+     * @param reactiveMongoOperations The ReactiveMongoOperations to read and write the sessions with.
+     * @param mongoOperations The MongoOperations to ensure the indexes with, or null to leave them to the deployment.
+     * @param sessionCodec The codec the session attributes are encoded with.
+     * @param defaultMaxInactiveInterval The maximum inactive interval of new sessions.
+     */
+    public SpringReactiveMongoSessionStoreBackend(ReactiveMongoOperations reactiveMongoOperations,
+                                                  MongoOperations mongoOperations, SessionCodec sessionCodec,
+                                                  Duration defaultMaxInactiveInterval) {
+        this.reactiveMongoSessionRepository = new ReactiveMongoSessionRepository(reactiveMongoOperations);
+        this.reactiveMongoSessionRepository.setCollectionName(COLLECTION_NAME);
+        this.reactiveMongoSessionRepository.setDefaultMaxInactiveInterval(defaultMaxInactiveInterval);
+        this.reactiveMongoSessionRepository.setMongoSessionConverter(
+                new JdkMongoSessionConverter(sessionCodec::encode, sessionCodec::decode, defaultMaxInactiveInterval));
+        if (mongoOperations != null) {
+            this.reactiveMongoSessionRepository.setBlockingMongoOperations(mongoOperations);
+        }
+        this.reactiveMongoSessionRepository.afterPropertiesSet();
+    }
+
+    /**
+     * Gets the name the storage is configured with.
+     * @return MONGO.
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Gets the ReactiveMongoSessionRepository used when MongoDB is primary storage.
+     * @return The ReactiveMongoSessionRepository.
+     */
+    @Override
+    public ReactiveSessionRepository<? extends Session> getSessionRepository() {
+        return reactiveMongoSessionRepository;
+    }
+
+    /**
+     * Converts a MongoSession to a SpringSessionData object.
+     * @param session The session to convert.
+     * @return The converted SpringSessionData object.
+     */
+    @Override
+    public SpringSessionData convertToSessionData(Session session) {
+        return SpringMongoSessionConverterUtil.convertToSessionData(session);
+    }
+
+    /**
+     * Saves session data as secondary in MongoDB, replacing the session document.
+     * @param springSessionData The SpringSessionData object to save.
+     * @return A Mono completing once the session is saved.
+     */
+    @Override
+    public Mono<Void> saveAsSecondary(SpringSessionData springSessionData) {
+        return Mono.defer(() -> reactiveMongoSessionRepository.save(toMongoSession(springSessionData)));
+    }
+
+    /**
+     * Deletes a session as secondary from MongoDB.
+     * @param id The ID of the session to delete.
+     * @return A Mono completing once the session is deleted.
+     */
+    @Override
+    public Mono<Void> deleteAsSecondary(String id) {
+        return reactiveMongoSessionRepository.deleteById(id);
+    }
+
+    /**
+     * Builds the MongoSession holding the session data, keeping the last accessed time of the primary session.
+     * @param springSessionData The SpringSessionData object to convert.
+     * @return The MongoSession to save.
+     */
+    private static MongoSession toMongoSession(SpringSessionData springSessionData) {
+        MongoSession mongoSession = new MongoSession(springSessionData.getId(),
+                springSessionData.getMaxInactiveInterval().getSeconds());
+        mongoSession.setCreationTime(springSessionData.getCreatedMillis());
+        mongoSession.setLastAccessedTime(springSessionData.getLastAccessedMillis() > 0
+                ? Instant.ofEpochMilli(springSessionData.getLastAccessedMillis()) : Instant.now());
+        springSessionData.getAttributes().forEach(mongoSession::setAttribute);
+        return mongoSession;
+    }
+}
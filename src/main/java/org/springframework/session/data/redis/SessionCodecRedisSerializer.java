@@ -0,0 +1,59 @@
+package org.springframework.session.data.redis;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.session.serializer.SessionCodec;
+
+/**
+ * SessionCodecRedisSerializer serializes the values of the session hashes with a SessionCodec.
+ */
+public class SessionCodecRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final SessionCodec sessionCodec;
+
+    /**
+     * Constructor for SessionCodecRedisSerializer.
+     * @param sessionCodec The SessionCodec encoding the values.
+     */
+    public SessionCodecRedisSerializer(SessionCodec sessionCodec) {
+        this.sessionCodec = sessionCodec;
+    }
+
+    /**
+     * Encodes a value with the codec.
+     * @param value The value to encode.
+     * @return The encoded bytes, or an empty array for null.
+     * @throws SerializationException If the value cannot be encoded.
+     */
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY;
+        }
+        try {
+            return sessionCodec.encode(value);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Cannot serialize session value", e);
+        }
+    }
+
+    /**
+     * Decodes a value with the codec.
+     * @param bytes The encoded bytes.
+     * @return The decoded value, or null for no bytes.
+     * @throws SerializationException If the bytes cannot be decoded.
+     */
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            return sessionCodec.decode(bytes);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Cannot deserialize session value", e);
+        }
+    }
+}
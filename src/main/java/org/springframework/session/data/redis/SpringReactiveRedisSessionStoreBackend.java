@@ -0,0 +1,140 @@
+package org.springframework.session.data.redis;
+
+import org.framework.data.SpringSessionData;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.session.ReactiveSessionRepository;
+import org.springframework.session.ReactiveSessionStoreBackend;
+import org.springframework.session.Session;
+import org.springframework.session.SessionAttributesView;
+import org.springframework.session.serializer.SessionCodec;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SpringReactiveRedisSessionStoreBackend exposes Redis to ReactiveMultiSessionRepository as primary or secondary
+ * storage, through a ReactiveRedisSessionRepository. As secondary storage the session hash is written in the layout
+ * ReactiveRedisSessionRepository reads, with one HMSET and one EXPIRE, without reading the existing session first.
+ */
+public class SpringReactiveRedisSessionStoreBackend implements ReactiveSessionStoreBackend {
+
+    public static final String NAME = "REDIS";
+
+    private final ReactiveRedisTemplate<String, Object> sessionRedisOperations;
+
+    private final ReactiveRedisSessionRepository reactiveRedisSessionRepository;
+
+    private final String namespace;
+
+    /**
+     * Constructor for SpringReactiveRedisSessionStoreBackend.
+     * @param redisConnectionFactory The ReactiveRedisConnectionFactory to connect to Redis with.
+     * @param sessionCodec The codec the session attributes are encoded with.
+     * @param defaultMaxInactiveInterval The maximum inactive interval of new sessions.
+     */
+    public SpringReactiveRedisSessionStoreBackend(ReactiveRedisConnectionFactory redisConnectionFactory,
+                                                  SessionCodec sessionCodec, Duration defaultMaxInactiveInterval) {
+        RedisSerializationContext<String, Object> serializationContext = RedisSerializationContext
+                .<String, Object>newSerializationContext(new SessionCodecRedisSerializer(sessionCodec))
+                .key(RedisSerializer.string())
+                .hashKey(RedisSerializer.string())
+                .build();
+        this.sessionRedisOperations = new ReactiveRedisTemplate<>(redisConnectionFactory, serializationContext);
+        this.reactiveRedisSessionRepository = new ReactiveRedisSessionRepository(sessionRedisOperations);
+        this.reactiveRedisSessionRepository.setRedisKeyNamespace(ReactiveRedisSessionRepository.DEFAULT_NAMESPACE);
+        this.reactiveRedisSessionRepository.setDefaultMaxInactiveInterval(defaultMaxInactiveInterval);
+        this.namespace = ReactiveRedisSessionRepository.DEFAULT_NAMESPACE + ":";
+    }
+
+    /**
+     * Gets the name the storage is configured with.
+     * @return REDIS.
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Gets the ReactiveRedisSessionRepository used when Redis is primary storage.
+     * @return The ReactiveRedisSessionRepository.
+     */
+    @Override
+    public ReactiveSessionRepository<? extends Session> getSessionRepository() {
+        return reactiveRedisSessionRepository;
+    }
+
+    /**
+     * Converts a session of the ReactiveRedisSessionRepository to a SpringSessionData object.
+     * @param session The session to convert.
+     * @return The converted SpringSessionData object.
+     */
+    @Override
+    public SpringSessionData convertToSessionData(Session session) {
+        return SpringSessionData.builder()
+                .id(session.getId())
+                .attributes(new SessionAttributesView(session))
+                .maxInactiveInterval(session.getMaxInactiveInterval())
+                .lastAccessedMillis(session.getLastAccessedTime().toEpochMilli())
+                .createdMillis(session.getCreationTime().toEpochMilli())
+                .build();
+    }
+
+    /**
+     * Saves session data as secondary in Redis: the session hash, then its expiry.
+     * @param springSessionData The SpringSessionData object to save.
+     * @return A Mono completing once the session is saved.
+     */
+    @Override
+    public Mono<Void> saveAsSecondary(SpringSessionData springSessionData) {
+        String sessionKey = getSessionKey(springSessionData.getId());
+        Duration maxInactiveInterval = springSessionData.getMaxInactiveInterval();
+        Mono<Boolean> expiry = maxInactiveInterval.isNegative()
+                ? sessionRedisOperations.persist(sessionKey)
+                : sessionRedisOperations.expire(sessionKey, maxInactiveInterval);
+        return sessionRedisOperations.opsForHash().putAll(sessionKey, toSessionHash(springSessionData))
+                .then(expiry)
+                .then();
+    }
+
+    /**
+     * Deletes a session as secondary from Redis.
+     * @param id The ID of the session to delete.
+     * @return A Mono completing once the session is deleted.
+     */
+    @Override
+    public Mono<Void> deleteAsSecondary(String id) {
+        return sessionRedisOperations.delete(getSessionKey(id)).then();
+    }
+
+    /**
+     * Builds the session hash in the layout read by ReactiveRedisSessionRepository.
+     * @param springSessionData The SpringSessionData object to convert.
+     * @return The session hash, keyed by hash field.
+     */
+    private static Map<String, Object> toSessionHash(SpringSessionData springSessionData) {
+        Map<String, Object> sessionHash = new HashMap<>();
+        sessionHash.put(RedisSessionMapper.CREATION_TIME_KEY, springSessionData.getCreatedMillis());
+        sessionHash.put(RedisSessionMapper.LAST_ACCESSED_TIME_KEY, springSessionData.getLastAccessedMillis() > 0
+                ? springSessionData.getLastAccessedMillis() : System.currentTimeMillis());
+        sessionHash.put(RedisSessionMapper.MAX_INACTIVE_INTERVAL_KEY,
+                (int) springSessionData.getMaxInactiveInterval().getSeconds());
+        springSessionData.getAttributes().forEach((attributeName, attributeValue) ->
+                sessionHash.put(RedisSessionMapper.ATTRIBUTE_PREFIX + attributeName, attributeValue));
+        return sessionHash;
+    }
+
+    /**
+     * Gets the key of the session hash, as ReactiveRedisSessionRepository builds it.
+     * @param sessionId The ID of the session.
+     * @return The key of the session hash.
+     */
+    private String getSessionKey(String sessionId) {
+        return namespace + "sessions:" + sessionId;
+    }
+}
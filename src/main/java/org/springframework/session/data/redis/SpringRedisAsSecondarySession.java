@@ -1,60 +1,559 @@
 package org.springframework.session.data.redis;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import org.framework.data.SpringSessionData;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisOperations;
-import org.springframework.session.MapSession;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.session.FindByIndexNameSessionRepository;
 import org.springframework.session.ISessionSaveAsSecondary;
 
+import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 /**
  * SpringRedisAsSecondarySession extends RedisIndexedSessionRepository and implements ISessionSaveAsSecondaryOperation.
  * This class is responsible for saving session data as a secondary operation in Redis.
+ * In LEAN mode only the session hash is written, expiring with its native TTL as RedisSessionRepository does.
  * @author Aakash Jain
  */
 @Slf4j
 public class SpringRedisAsSecondarySession extends RedisIndexedSessionRepository implements ISessionSaveAsSecondary {
 
+    /**
+     * Time the session hash outlives its expiry, matching RedisIndexedSessionRepository.
+     */
+    private static final Duration SESSION_HASH_GRACE_PERIOD = Duration.ofMinutes(5);
+
+    private static final String EXPIRES_PREFIX = "expires:";
+
+    /**
+     * Replaces a session hash atomically, so attributes the session no longer holds do not survive a full save.
+     * ARGV holds the fields and their values.
+     */
+    private static final RedisScript<Long> REPLACE_SESSION_SCRIPT = RedisScript.of("redis.call('DEL', KEYS[1]) "
+            + "for i = 1, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+            + "return 1", Long.class);
+
+    /**
+     * Applies a delta to a session hash, then refreshes its expiry and indexes, only if the hash exists, so a delta
+     * reaching Redis without its session never creates a partial session nor orphan index keys.
+     * KEYS holds the session hash, the principal index, the expires key and the expirations bucket.
+     * ARGV holds the expiry command of the hash (PEXPIRE, PEXPIREAT or PERSIST) and its argument, the principal
+     * index member or an empty string, 1 if the principal index expires with the hash, the TTL of the expires key
+     * or an empty string when the expiration keys are not maintained, the expirations bucket member, the number of
+     * removed fields, the removed fields, then the changed fields and their values.
+     */
+    private static final RedisScript<Long> APPLY_DELTA_SCRIPT = RedisScript.of(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+            + "local removed = tonumber(ARGV[7]) "
+            + "for i = 8, removed + 7 do redis.call('HDEL', KEYS[1], ARGV[i]) end "
+            + "for i = removed + 8, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+            + "local persist = ARGV[1] == 'PERSIST' "
+            + "if persist then redis.call('PERSIST', KEYS[1]) else redis.call(ARGV[1], KEYS[1], ARGV[2]) end "
+            + "if ARGV[3] ~= '' then "
+            + "redis.call('SADD', KEYS[2], ARGV[3]) "
+            + "if ARGV[4] == '1' then "
+            + "if persist then redis.call('PERSIST', KEYS[2]) else redis.call(ARGV[1], KEYS[2], ARGV[2]) end "
+            + "end "
+            + "end "
+            + "if ARGV[5] ~= '' then "
+            + "if persist then redis.call('DEL', KEYS[3]) else "
+            + "redis.call('APPEND', KEYS[3], '') "
+            + "redis.call('PEXPIRE', KEYS[3], ARGV[5]) "
+            + "redis.call('SADD', KEYS[4], ARGV[6]) "
+            + "redis.call('PEXPIRE', KEYS[4], ARGV[2]) "
+            + "end "
+            + "end "
+            + "return 1", Long.class);
+
+    private static final byte[] EMPTY_ARGUMENT = new byte[0];
+
+    private static final String STORAGE_NAME = "REDIS";
+
+    private static final String PRINCIPAL_NAME_ATTRIBUTE =
+            RedisSessionMapper.ATTRIBUTE_PREFIX + FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME;
+
+    private String namespace = DEFAULT_NAMESPACE + ":";
+
+    private WriteMode writeMode = WriteMode.PIPELINED;
+
+    private boolean maintainIndexes = true;
+
+    private SpringRedisSessionConfig.SessionMode sessionMode = SpringRedisSessionConfig.SessionMode.INDEXED;
+
+    private boolean leanPrincipalIndex;
+
+    private DistributionSummary sessionSizeSummary;
+
+    private volatile boolean scriptsLoaded;
+
     /**
      * Constructor for SpringRedisAsSecondarySession.
      * @param sessionRedisOperations The RedisOperations object to interact with Redis.
      */
     public SpringRedisAsSecondarySession(RedisOperations<String, Object> sessionRedisOperations) {
         super(sessionRedisOperations);
+        setMeterRegistry(Metrics.globalRegistry);
+    }
+
+    /**
+     * Sets the namespace for the keys used by this repository.
+     * @param namespace The namespace for the keys.
+     */
+    @Override
+    public void setRedisKeyNamespace(String namespace) {
+        super.setRedisKeyNamespace(namespace);
+        this.namespace = namespace.trim() + ":";
+    }
+
+    /**
+     * Sets how the commands of a batch are sent to Redis.
+     * @param writeMode The WriteMode to use.
+     */
+    public void setWriteMode(WriteMode writeMode) {
+        this.writeMode = writeMode;
+    }
+
+    /**
+     * Sets whether the expiration keys and the principal index are written along with the session hash.
+     * @param maintainIndexes True to maintain the indexes of RedisIndexedSessionRepository, otherwise false.
+     */
+    public void setMaintainIndexes(boolean maintainIndexes) {
+        this.maintainIndexes = maintainIndexes;
+    }
+
+    /**
+     * Sets the layout the sessions are written in.
+     * @param sessionMode The SessionMode to use.
+     */
+    public void setSessionMode(SpringRedisSessionConfig.SessionMode sessionMode) {
+        this.sessionMode = sessionMode;
+    }
+
+    /**
+     * Sets whether the principal index is written along with the session hash in LEAN mode.
+     * @param leanPrincipalIndex True to maintain the principal index, otherwise false.
+     */
+    public void setLeanPrincipalIndex(boolean leanPrincipalIndex) {
+        this.leanPrincipalIndex = leanPrincipalIndex;
+    }
+
+    /**
+     * Sets the MeterRegistry the size of the written session hashes is published to.
+     * @param meterRegistry The MeterRegistry to set.
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.sessionSizeSummary = DistributionSummary.builder("spring.session.secondary.size")
+                .tag("storage", STORAGE_NAME)
+                .baseUnit("bytes")
+                .register(meterRegistry);
     }
 
     /**
      * Saves session data as secondary in Redis.
+     * The session is written blindly, without reading the existing session first.
      * @param springSessionData The SpringSessionData object containing session data to be saved.
      */
     @Override
     public void saveAsSecondary(SpringSessionData springSessionData) {
-        log.info("Redis is set to save secondary session");
-        RedisSession session = findById(springSessionData.getId());
-        if (session != null) {
-            addAttributesAndSave(springSessionData, session);
+        saveAllAsSecondary(Collections.singletonList(springSessionData));
+        log.debug("Secondary session {} is saved in Redis", springSessionData.getId());
+    }
+
+    /**
+     * Saves a batch of sessions as secondary in Redis.
+     * All commands of all sessions are sent in a single pipelined round trip, wrapped in MULTI/EXEC
+     * when the write mode is MULTI_EXEC. The scripts are run by their SHA1, loaded into Redis before the first
+     * batch, and loaded again when Redis lost them, after which the batch is sent once more. Every command of
+     * a batch writes the same state when repeated, so a batch can be sent again as a whole.
+     * @param springSessionDataList The SpringSessionData objects containing session data to be saved.
+     */
+    @Override
+    public void saveAllAsSecondary(List<SpringSessionData> springSessionDataList) {
+        if (!scriptsLoaded) {
+            loadScripts();
+        }
+        try {
+            writeSessions(springSessionDataList);
+        } catch (DataAccessException e) {
+            if (!isNoScriptError(e)) {
+                throw e;
+            }
+            log.warn("Redis lost the session scripts, loading them again");
+            loadScripts();
+            writeSessions(springSessionDataList);
+        }
+    }
+
+    /**
+     * Sends the commands writing a batch of sessions in a single pipelined round trip.
+     * @param springSessionDataList The SpringSessionData objects containing session data to be saved.
+     */
+    private void writeSessions(List<SpringSessionData> springSessionDataList) {
+        long now = System.currentTimeMillis();
+        getSessionRedisOperations().executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                if (writeMode == WriteMode.MULTI_EXEC) {
+                    redisOperations.multi();
+                }
+                for (SpringSessionData springSessionData : springSessionDataList) {
+                    writeSession(redisOperations, springSessionData, springSessionData.getLastAccessedMillis() > 0
+                            ? springSessionData.getLastAccessedMillis() : now);
+                }
+                if (writeMode == WriteMode.MULTI_EXEC) {
+                    redisOperations.exec();
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Loads the scripts into the script cache of Redis, so they can be run by their SHA1.
+     */
+    private void loadScripts() {
+        getSessionRedisOperations().execute((RedisCallback<Object>) connection -> {
+            connection.scriptingCommands().scriptLoad(
+                    REPLACE_SESSION_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+            connection.scriptingCommands().scriptLoad(
+                    APPLY_DELTA_SCRIPT.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+            return null;
+        });
+        scriptsLoaded = true;
+    }
+
+    /**
+     * Checks if a failure was caused by a script missing from the script cache of Redis.
+     * @param e The failure.
+     * @return True if Redis answered NOSCRIPT, otherwise false.
+     */
+    private static boolean isNoScriptError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deletes a session. In LEAN mode only the session hash and its principal index entry are deleted,
+     * without reading the session or publishing a deleted event as RedisIndexedSessionRepository does.
+     * @param sessionId The ID of the session to delete.
+     */
+    @Override
+    public void deleteById(String sessionId) {
+        if (sessionMode == SpringRedisSessionConfig.SessionMode.INDEXED) {
+            super.deleteById(sessionId);
             return;
         }
-        MapSession mapSession = new MapSession();
-        mapSession.setId(springSessionData.getId());
-        RedisSession redisSession = new RedisSession(mapSession, true);
-        redisSession.setMaxInactiveInterval(springSessionData.getMaxInactiveInterval());
+        String sessionKey = getSecondarySessionKey(sessionId);
+        if (leanPrincipalIndex) {
+            Object principalName = getSessionRedisOperations().opsForHash().get(sessionKey, PRINCIPAL_NAME_ATTRIBUTE);
+            if (principalName != null) {
+                getSessionRedisOperations().opsForSet().remove(getSecondaryPrincipalKey(principalName.toString()), sessionId);
+            }
+        }
+        getSessionRedisOperations().delete(sessionKey);
+    }
 
-        redisSession.setLastAccessedTime(Instant.now());
-        addAttributesAndSave(springSessionData, redisSession);
-        log.info("Secondary Session is created in Redis");
+    /**
+     * Deltas are applied with HSET of the changed attributes and HDEL of the removed ones.
+     * @return True, Redis applies deltas.
+     */
+    @Override
+    public boolean supportsDelta() {
+        return true;
     }
 
     /**
-     * Adds attributes to the session and saves it.
-     * @param springSessionData The SpringSessionData object containing attributes to be added.
-     * @param session The RedisSession object to which attributes are added.
+     * Queues the commands writing one session: the session hash or its delta, and when indexes are maintained
+     * the expiration key, the expirations bucket and the principal index. A full session replaces the hash
+     * by a script, dropping the attributes it no longer holds. A delta is applied by a script that leaves
+     * a missing session hash missing, and writes the expiry and indexes of the session only when it applied the
+     * delta. In LEAN mode the hash expires with the
+     * session, as RedisSessionRepository expires it, and only the optional principal index is written besides.
+     * The hash is serialized before it is queued, so its size can be recorded without serializing it twice.
+     * A stale member left in a previous expirations bucket only causes a no-op check during cleanup.
+     * @param redisOperations The pipelined RedisOperations.
+     * @param springSessionData The SpringSessionData object to write.
+     * @param lastAccessedTime The last accessed time to store, in milliseconds since the epoch: the one of the
+     *                         primary session, so both copies expire together and compare equal.
      */
-    private void addAttributesAndSave(SpringSessionData springSessionData, RedisSession session) {
-        springSessionData.getAttributes().forEach(session::setAttribute);
-        super.save(session);
+    private void writeSession(RedisOperations<String, Object> redisOperations, SpringSessionData springSessionData,
+                              long lastAccessedTime) {
+        String sessionId = springSessionData.getId();
+        String sessionKey = getSecondarySessionKey(sessionId);
+        Duration maxInactiveInterval = springSessionData.getMaxInactiveInterval();
+        byte[] rawSessionKey = serialize(redisOperations.getKeySerializer(), sessionKey);
+        Map<byte[], byte[]> sessionHash = toSessionHash(redisOperations, springSessionData, lastAccessedTime);
+        boolean lean = sessionMode == SpringRedisSessionConfig.SessionMode.LEAN;
+        String principalName = springSessionData.getPrincipalName();
+        if (springSessionData.isDelta()) {
+            writeDelta(redisOperations, springSessionData, rawSessionKey, sessionHash,
+                    (lean ? leanPrincipalIndex : maintainIndexes) ? principalName : null, lastAccessedTime);
+            return;
+        }
+        evalSha(redisOperations, REPLACE_SESSION_SCRIPT, 1,
+                toScriptArgs(new byte[][] {rawSessionKey}, Collections.emptyList(), sessionHash));
+        if ((lean ? leanPrincipalIndex : maintainIndexes) && principalName != null) {
+            redisOperations.opsForSet().add(getSecondaryPrincipalKey(principalName), sessionId);
+        }
+        if (lean) {
+            writeLeanExpiry(redisOperations, sessionKey, principalName, maxInactiveInterval, lastAccessedTime);
+            return;
+        }
+        if (maxInactiveInterval.isNegative()) {
+            redisOperations.persist(sessionKey);
+            if (maintainIndexes) {
+                redisOperations.delete(getExpiresKey(sessionId));
+            }
+            return;
+        }
+        long sessionHashTtl = maxInactiveInterval.plus(SESSION_HASH_GRACE_PERIOD).toMillis();
+        redisOperations.expire(sessionKey, sessionHashTtl, TimeUnit.MILLISECONDS);
+        if (!maintainIndexes) {
+            return;
+        }
+        String expiresKey = getExpiresKey(sessionId);
+        redisOperations.opsForValue().append(expiresKey, "");
+        redisOperations.expire(expiresKey, maxInactiveInterval.toMillis(), TimeUnit.MILLISECONDS);
+        String expirationsKey = getSecondaryExpirationsKey(
+                roundUpToNextMinute(lastAccessedTime + maxInactiveInterval.toMillis()));
+        redisOperations.opsForSet().add(expirationsKey, EXPIRES_PREFIX + sessionId);
+        redisOperations.expire(expirationsKey, sessionHashTtl, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues the script applying a delta to a session hash, which also writes the expiry of the hash and the indexes
+     * the full save writes, but only when the hash exists.
+     * @param redisOperations The pipelined RedisOperations.
+     * @param springSessionData The delta to apply.
+     * @param rawSessionKey The serialized key of the session hash.
+     * @param sessionHash The serialized changed fields of the session.
+     * @param principalName The name of the principal to index the session under, or null.
+     * @param lastAccessedTime The last accessed time to store, in milliseconds since the epoch.
+     */
+    private void writeDelta(RedisOperations<String, Object> redisOperations, SpringSessionData springSessionData,
+                            byte[] rawSessionKey, Map<byte[], byte[]> sessionHash, String principalName,
+                            long lastAccessedTime) {
+        String sessionId = springSessionData.getId();
+        boolean lean = sessionMode == SpringRedisSessionConfig.SessionMode.LEAN;
+        Duration maxInactiveInterval = springSessionData.getMaxInactiveInterval();
+        RedisSerializer<?> keySerializer = redisOperations.getKeySerializer();
+        RedisSerializer<?> valueSerializer = redisOperations.getValueSerializer();
+        String expiryCommand;
+        long expiry;
+        if (maxInactiveInterval.isNegative()) {
+            expiryCommand = "PERSIST";
+            expiry = 0;
+        } else if (lean) {
+            expiryCommand = "PEXPIREAT";
+            expiry = lastAccessedTime + maxInactiveInterval.toMillis();
+        } else {
+            expiryCommand = "PEXPIRE";
+            expiry = maxInactiveInterval.plus(SESSION_HASH_GRACE_PERIOD).toMillis();
+        }
+        byte[][] keys = {
+                rawSessionKey,
+                principalName != null ? serialize(keySerializer, getSecondaryPrincipalKey(principalName)) : rawSessionKey,
+                serialize(keySerializer, getExpiresKey(sessionId)),
+                serialize(keySerializer, getSecondaryExpirationsKey(
+                        roundUpToNextMinute(lastAccessedTime + maxInactiveInterval.toMillis())))
+        };
+        List<byte[]> arguments = new ArrayList<>(7 + springSessionData.getRemovedAttributeNames().size());
+        arguments.add(toArgument(expiryCommand));
+        arguments.add(toArgument(String.valueOf(expiry)));
+        arguments.add(principalName != null ? serialize(valueSerializer, sessionId) : EMPTY_ARGUMENT);
+        arguments.add(toArgument(lean ? "1" : "0"));
+        arguments.add(!lean && maintainIndexes ? toArgument(String.valueOf(maxInactiveInterval.toMillis())) : EMPTY_ARGUMENT);
+        arguments.add(serialize(valueSerializer, EXPIRES_PREFIX + sessionId));
+        arguments.add(toArgument(String.valueOf(springSessionData.getRemovedAttributeNames().size())));
+        for (String attributeName : springSessionData.getRemovedAttributeNames()) {
+            arguments.add(serialize(redisOperations.getHashKeySerializer(),
+                    RedisSessionMapper.ATTRIBUTE_PREFIX + attributeName));
+        }
+        evalSha(redisOperations, APPLY_DELTA_SCRIPT, keys.length, toScriptArgs(keys, arguments, sessionHash));
+    }
+
+    /**
+     * Queues a script by its SHA1.
+     * @param redisOperations The pipelined RedisOperations.
+     * @param script The script to run.
+     * @param numKeys The number of keys of the script.
+     * @param keysAndArgs The keys of the script followed by its arguments.
+     */
+    private static void evalSha(RedisOperations<String, Object> redisOperations, RedisScript<Long> script,
+                                int numKeys, byte[][] keysAndArgs) {
+        redisOperations.execute((RedisCallback<Object>) connection -> connection.scriptingCommands()
+                .evalSha(script.getSha1(), ReturnType.INTEGER, numKeys, keysAndArgs));
+    }
+
+    /**
+     * Queues the expiry of a session written in LEAN mode, and of the index of its principal, which thereby
+     * expires with the session of the principal saved last.
+     * @param redisOperations The pipelined RedisOperations.
+     * @param sessionKey The key of the session hash.
+     * @param principalName The name of the principal of the session, or null.
+     * @param maxInactiveInterval The max inactive interval of the session, negative if it never expires.
+     * @param lastAccessedTime The last accessed time of the session, in milliseconds since the epoch.
+     */
+    private void writeLeanExpiry(RedisOperations<String, Object> redisOperations, String sessionKey,
+                                 String principalName, Duration maxInactiveInterval, long lastAccessedTime) {
+        String principalKey = leanPrincipalIndex && principalName != null ? getSecondaryPrincipalKey(principalName) : null;
+        if (maxInactiveInterval.isNegative()) {
+            redisOperations.persist(sessionKey);
+            if (principalKey != null) {
+                redisOperations.persist(principalKey);
+            }
+            return;
+        }
+        Instant expiry = Instant.ofEpochMilli(lastAccessedTime).plus(maxInactiveInterval);
+        redisOperations.expireAt(sessionKey, expiry);
+        if (principalKey != null) {
+            redisOperations.expireAt(principalKey, expiry);
+        }
+    }
+
+    /**
+     * Builds the serialized session hash in the layout read by RedisIndexedSessionRepository,
+     * with the hash serializers of the RedisOperations, and records its size.
+     * @param redisOperations The RedisOperations whose serializers are used.
+     * @param springSessionData The SpringSessionData object to convert.
+     * @param lastAccessedTime The last accessed time to store, in milliseconds since the epoch.
+     * @return The serialized hash fields of the session.
+     */
+    private Map<byte[], byte[]> toSessionHash(RedisOperations<String, Object> redisOperations,
+                                              SpringSessionData springSessionData, long lastAccessedTime) {
+        RedisSerializer<?> hashKeySerializer = redisOperations.getHashKeySerializer();
+        RedisSerializer<?> hashValueSerializer = redisOperations.getHashValueSerializer();
+        Map<byte[], byte[]> sessionHash = new HashMap<>(springSessionData.getAttributes().size() + 3);
+        long[] size = new long[1];
+        BiConsumer<String, Object> putField = (field, value) -> {
+            byte[] rawField = serialize(hashKeySerializer, field);
+            byte[] rawValue = serialize(hashValueSerializer, value);
+            sessionHash.put(rawField, rawValue);
+            size[0] += rawField.length + rawValue.length;
+        };
+        putField.accept(RedisSessionMapper.CREATION_TIME_KEY, springSessionData.getCreatedMillis());
+        putField.accept(RedisSessionMapper.LAST_ACCESSED_TIME_KEY, lastAccessedTime);
+        putField.accept(RedisSessionMapper.MAX_INACTIVE_INTERVAL_KEY,
+                (int) springSessionData.getMaxInactiveInterval().getSeconds());
+        springSessionData.getAttributes().forEach((name, value) ->
+                putField.accept(RedisSessionMapper.ATTRIBUTE_PREFIX + name, value));
+        sessionSizeSummary.record(size[0]);
+        return sessionHash;
     }
-}
 
+    /**
+     * Builds the keys and arguments of the scripts writing a session hash.
+     * @param keys The serialized keys of the script.
+     * @param arguments The arguments preceding the fields of the session.
+     * @param sessionHash The serialized fields of the session, passed last with their values.
+     * @return The keys followed by the arguments.
+     */
+    private static byte[][] toScriptArgs(byte[][] keys, List<byte[]> arguments, Map<byte[], byte[]> sessionHash) {
+        List<byte[]> keysAndArgs = new ArrayList<>(keys.length + arguments.size() + 2 * sessionHash.size());
+        Collections.addAll(keysAndArgs, keys);
+        keysAndArgs.addAll(arguments);
+        sessionHash.forEach((field, value) -> {
+            keysAndArgs.add(field);
+            keysAndArgs.add(value);
+        });
+        return keysAndArgs.toArray(new byte[0][]);
+    }
+
+    /**
+     * Encodes a plain script argument.
+     * @param value The argument.
+     * @return The argument as UTF-8 bytes.
+     */
+    private static byte[] toArgument(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Serializes a value with a serializer of the RedisOperations.
+     * @param serializer The serializer, or null when values are already raw bytes.
+     * @param value The value to serialize.
+     * @return The serialized value.
+     */
+    @SuppressWarnings("unchecked")
+    private static byte[] serialize(RedisSerializer<?> serializer, Object value) {
+        if (serializer == null) {
+            return (byte[]) value;
+        }
+        return ((RedisSerializer<Object>) serializer).serialize(value);
+    }
+
+    /**
+     * Gets the key of the hash holding the session.
+     * @param sessionId The ID of the session.
+     * @return The session key.
+     */
+    private String getSecondarySessionKey(String sessionId) {
+        return namespace + "sessions:" + sessionId;
+    }
+
+    /**
+     * Gets the shadow key whose expiry triggers the session expired event.
+     * @param sessionId The ID of the session.
+     * @return The expires key.
+     */
+    private String getExpiresKey(String sessionId) {
+        return getSecondarySessionKey(EXPIRES_PREFIX + sessionId);
+    }
+
+    /**
+     * Gets the key of the set tracking the sessions expiring in the given minute.
+     * @param expiration The expiry minute, in milliseconds since the epoch.
+     * @return The expirations key.
+     */
+    private String getSecondaryExpirationsKey(long expiration) {
+        return namespace + "expirations:" + expiration;
+    }
+
+    /**
+     * Gets the key of the set indexing the sessions of a principal.
+     * @param principalName The name of the principal.
+     * @return The principal index key.
+     */
+    private String getSecondaryPrincipalKey(String principalName) {
+        return namespace + "index:" + FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME + ":" + principalName;
+    }
+
+    private static long roundUpToNextMinute(long timeInMillis) {
+        long minuteInMillis = TimeUnit.MINUTES.toMillis(1);
+        return (timeInMillis / minuteInMillis + 1) * minuteInMillis;
+    }
+
+    /**
+     * How the commands of a secondary write are sent to Redis.
+     */
+    public enum WriteMode {
+        /** All commands are pipelined in one round trip. */
+        PIPELINED,
+        /** All commands are pipelined in one round trip and applied atomically with MULTI/EXEC. */
+        MULTI_EXEC
+    }
+}
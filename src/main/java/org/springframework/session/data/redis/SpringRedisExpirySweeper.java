@@ -0,0 +1,170 @@
+package org.springframework.session.data.redis;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.SessionExpirySweeper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SpringRedisExpirySweeper deletes expired Redis sessions by walking the expirations buckets, the sets of the
+ * sessions expiring in each minute, instead of waiting for keyspace notifications.
+ * Due buckets are drained with SPOP, so every member is handled once, and the sessions they name are checked with one
+ * pipelined HMGET: a session accessed again since it was added to the bucket sits in a later bucket and is only
+ * dropped from this one. Expired sessions are deleted with their expires key and principal index entry in one pipeline.
+ */
+public class SpringRedisExpirySweeper implements SessionExpirySweeper {
+
+    private static final String EXPIRES_PREFIX = "expires:";
+
+    private static final String SESSIONS_SEGMENT = "sessions:";
+
+    private static final String PRINCIPAL_NAME_ATTRIBUTE =
+            RedisSessionMapper.ATTRIBUTE_PREFIX + FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME;
+
+    private static final List<Object> SWEPT_FIELDS = Arrays.asList(RedisSessionMapper.LAST_ACCESSED_TIME_KEY,
+            RedisSessionMapper.MAX_INACTIVE_INTERVAL_KEY, PRINCIPAL_NAME_ATTRIBUTE);
+
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final Duration LOOKBACK = Duration.ofMinutes(10);
+
+    private final RedisOperations<String, Object> sessionRedisOperations;
+
+    private final String namespace;
+
+    private long nextBucket;
+
+    /**
+     * Constructor for SpringRedisExpirySweeper.
+     * @param repository The RedisIndexedSessionRepository whose sessions are swept.
+     */
+    public SpringRedisExpirySweeper(RedisIndexedSessionRepository repository) {
+        this.sessionRedisOperations = repository.getSessionRedisOperations();
+        String sessionKeyPrefix = repository.getSessionKey("");
+        this.namespace = sessionKeyPrefix.substring(0, sessionKeyPrefix.length() - SESSIONS_SEGMENT.length());
+    }
+
+    /**
+     * Gets the name of the storage the sessions are deleted from.
+     * @return REDIS.
+     */
+    @Override
+    public String getName() {
+        return SpringRedisSessionStoreBackend.NAME;
+    }
+
+    /**
+     * Drains the due expirations buckets, oldest first, until a batch of sessions has been deleted.
+     * The first sweep of a node starts a few minutes back, since older buckets have expired with their sessions.
+     * @param now The current time, in milliseconds since the epoch.
+     * @param batchSize The maximum number of sessions to delete.
+     * @return The number of sessions deleted, 0 once every due bucket is drained.
+     */
+    @Override
+    public synchronized int sweep(long now, int batchSize) {
+        long currentBucket = now / MINUTE_MILLIS * MINUTE_MILLIS;
+        if (nextBucket == 0) {
+            nextBucket = currentBucket - LOOKBACK.toMillis();
+        }
+        int deleted = 0;
+        while (deleted < batchSize && nextBucket <= currentBucket) {
+            List<Object> members = sessionRedisOperations.opsForSet()
+                    .pop(getExpirationsKey(nextBucket), batchSize - deleted);
+            if (members == null || members.isEmpty()) {
+                nextBucket += MINUTE_MILLIS;
+                continue;
+            }
+            deleted += deleteExpired(members, now);
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes the expired sessions among the members of an expirations bucket.
+     * @param members The members of the bucket, the expires keys of the sessions.
+     * @param now The current time, in milliseconds since the epoch.
+     * @return The number of sessions deleted.
+     */
+    @SuppressWarnings("unchecked")
+    private int deleteExpired(List<Object> members, long now) {
+        List<String> sessionIds = new ArrayList<>(members.size());
+        for (Object member : members) {
+            String expiresKey = String.valueOf(member);
+            if (expiresKey.startsWith(EXPIRES_PREFIX)) {
+                sessionIds.add(expiresKey.substring(EXPIRES_PREFIX.length()));
+            }
+        }
+        if (sessionIds.isEmpty()) {
+            return 0;
+        }
+        List<Object> hashes = sessionRedisOperations.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                sessionIds.forEach(sessionId -> redisOperations.opsForHash().multiGet(getSessionKey(sessionId), SWEPT_FIELDS));
+                return null;
+            }
+        });
+        List<String> expiredIds = new ArrayList<>();
+        List<Object> principalNames = new ArrayList<>();
+        for (int i = 0; i < sessionIds.size(); i++) {
+            List<Object> fields = (List<Object>) hashes.get(i);
+            if (isExpired(fields, now)) {
+                expiredIds.add(sessionIds.get(i));
+                principalNames.add(fields != null ? fields.get(2) : null);
+            }
+        }
+        if (expiredIds.isEmpty()) {
+            return 0;
+        }
+        sessionRedisOperations.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                for (int i = 0; i < expiredIds.size(); i++) {
+                    String sessionId = expiredIds.get(i);
+                    redisOperations.delete(Arrays.asList(getSessionKey(sessionId), getSessionKey(EXPIRES_PREFIX + sessionId)));
+                    if (principalNames.get(i) instanceof String) {
+                        redisOperations.opsForSet().remove(getPrincipalKey((String) principalNames.get(i)), sessionId);
+                    }
+                }
+                return null;
+            }
+        });
+        return expiredIds.size();
+    }
+
+    /**
+     * Checks whether a session has expired, or is already gone.
+     * @param fields The last accessed time, max inactive interval and principal name of the session hash.
+     * @param now The current time, in milliseconds since the epoch.
+     * @return True if the session has expired or has no hash, otherwise false.
+     */
+    private static boolean isExpired(List<Object> fields, long now) {
+        if (fields == null || !(fields.get(0) instanceof Number) || !(fields.get(1) instanceof Number)) {
+            return true;
+        }
+        long maxInactiveSeconds = ((Number) fields.get(1)).longValue();
+        return maxInactiveSeconds >= 0
+                && ((Number) fields.get(0)).longValue() + TimeUnit.SECONDS.toMillis(maxInactiveSeconds) <= now;
+    }
+
+    private String getSessionKey(String sessionId) {
+        return namespace + SESSIONS_SEGMENT + sessionId;
+    }
+
+    private String getExpirationsKey(long expiration) {
+        return namespace + "expirations:" + expiration;
+    }
+
+    private String getPrincipalKey(String principalName) {
+        return namespace + "index:" + FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME + ":" + principalName;
+    }
+}
@@ -0,0 +1,156 @@
+package org.springframework.session.data.redis;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.session.FindByIndexNameSessionRepository;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SpringRedisLeanSessionRepository keeps every session in a single Redis hash expiring with its native TTL,
+ * as RedisSessionRepository does, without expires keys, expirations buckets or keyspace notifications.
+ * A save is one HSET and one PEXPIREAT, instead of the six or more commands of RedisIndexedSessionRepository.
+ * Optionally the sessions of a principal are indexed in one set per principal, which expires with the session
+ * saved last. Members of deleted or expired sessions are dropped when the index is read.
+ */
+public class SpringRedisLeanSessionRepository extends RedisSessionRepository
+        implements FindByIndexNameSessionRepository<RedisSessionRepository.RedisSession> {
+
+    private static final String PRINCIPAL_NAME_ATTRIBUTE =
+            RedisSessionMapper.ATTRIBUTE_PREFIX + PRINCIPAL_NAME_INDEX_NAME;
+
+    private String namespace = "spring:session:";
+
+    private boolean principalIndex;
+
+    /**
+     * Constructor for SpringRedisLeanSessionRepository.
+     * @param sessionRedisOperations The RedisOperations object to interact with Redis.
+     */
+    public SpringRedisLeanSessionRepository(RedisOperations<String, Object> sessionRedisOperations) {
+        super(sessionRedisOperations);
+    }
+
+    /**
+     * Sets the namespace for the keys used by this repository.
+     * @param namespace The namespace for the keys.
+     */
+    @Override
+    public void setRedisKeyNamespace(String namespace) {
+        super.setRedisKeyNamespace(namespace);
+        this.namespace = namespace.trim() + ":";
+    }
+
+    /**
+     * Sets whether the sessions of every principal are indexed.
+     * @param principalIndex True to maintain the principal index, otherwise false.
+     */
+    public void setPrincipalIndex(boolean principalIndex) {
+        this.principalIndex = principalIndex;
+    }
+
+    /**
+     * Saves a session, and adds it to the index of its principal when the principal index is maintained.
+     * @param session The session to save.
+     */
+    @Override
+    public void save(RedisSession session) {
+        super.save(session);
+        Object principalName = session.getAttribute(PRINCIPAL_NAME_INDEX_NAME);
+        if (principalIndex && principalName != null) {
+            indexPrincipal(principalName.toString(), session);
+        }
+    }
+
+    /**
+     * Deletes a session, and removes it from the index of its principal when the principal index is maintained.
+     * The principal is read with HGET rather than through findById, which deletes expired sessions itself.
+     * @param sessionId The ID of the session to delete.
+     */
+    @Override
+    public void deleteById(String sessionId) {
+        if (principalIndex) {
+            Object principalName = getSessionRedisOperations().opsForHash()
+                    .get(getLeanSessionKey(sessionId), PRINCIPAL_NAME_ATTRIBUTE);
+            if (principalName != null) {
+                getSessionRedisOperations().opsForSet().remove(getPrincipalKey(principalName.toString()), sessionId);
+            }
+        }
+        super.deleteById(sessionId);
+    }
+
+    /**
+     * Finds the live sessions of a principal, and drops the members of sessions that no longer exist from its index.
+     * @param indexName The name of the index, only the principal name index is maintained.
+     * @param indexValue The name of the principal.
+     * @return The sessions of the principal by their ID, empty for other indexes or without the principal index.
+     */
+    @Override
+    public Map<String, RedisSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        if (!principalIndex || !PRINCIPAL_NAME_INDEX_NAME.equals(indexName)) {
+            return Collections.emptyMap();
+        }
+        String principalKey = getPrincipalKey(indexValue);
+        Set<Object> sessionIds = getSessionRedisOperations().opsForSet().members(principalKey);
+        if (sessionIds == null || sessionIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, RedisSession> sessions = new HashMap<>(sessionIds.size());
+        for (Object sessionId : sessionIds) {
+            RedisSession session = findById(sessionId.toString());
+            if (session != null) {
+                sessions.put(session.getId(), session);
+            } else {
+                getSessionRedisOperations().opsForSet().remove(principalKey, sessionId);
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * Adds a session to the index of its principal and extends the index to the expiry of the session, in one
+     * pipelined round trip. The index of a principal whose sessions never expire is persisted.
+     * @param principalName The name of the principal.
+     * @param session The saved session.
+     */
+    private void indexPrincipal(String principalName, RedisSession session) {
+        String principalKey = getPrincipalKey(principalName);
+        getSessionRedisOperations().executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                redisOperations.opsForSet().add(principalKey, session.getId());
+                if (session.getMaxInactiveInterval().isNegative()) {
+                    redisOperations.persist(principalKey);
+                } else {
+                    redisOperations.expireAt(principalKey,
+                            session.getLastAccessedTime().plus(session.getMaxInactiveInterval()));
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Gets the key of the hash holding the session.
+     * @param sessionId The ID of the session.
+     * @return The session key.
+     */
+    private String getLeanSessionKey(String sessionId) {
+        return namespace + "sessions:" + sessionId;
+    }
+
+    /**
+     * Gets the key of the set indexing the sessions of a principal, the one RedisIndexedSessionRepository reads.
+     * @param principalName The name of the principal.
+     * @return The principal index key.
+     */
+    private String getPrincipalKey(String principalName) {
+        return namespace + "index:" + PRINCIPAL_NAME_INDEX_NAME + ":" + principalName;
+    }
+}
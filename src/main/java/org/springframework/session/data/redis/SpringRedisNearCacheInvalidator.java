@@ -0,0 +1,134 @@
+package org.springframework.session.data.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.session.SessionNearCache;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SpringRedisNearCacheInvalidator keeps the near caches of all nodes consistent through Redis pub/sub.
+ * Every node publishes the ids of the sessions it saves or deletes, and evicts the ids published by the others.
+ * Invalidations are published by a background thread, off the request path. An invalidation dropped because
+ * the queue is full only lets the other nodes serve their copy until it expires from their near cache.
+ */
+@Slf4j
+public class SpringRedisNearCacheInvalidator implements MessageListener {
+
+    private static final String SEPARATOR = "|";
+
+    private static final int PUBLISH_QUEUE_CAPACITY = 10_000;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final RedisSerializer<String> serializer = new StringRedisSerializer();
+
+    private final RedisConnectionFactory redisConnectionFactory;
+
+    private final SessionNearCache sessionNearCache;
+
+    private final String channel;
+
+    private final ThreadPoolExecutor publisher;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    /**
+     * Constructor for SpringRedisNearCacheInvalidator.
+     * @param redisConnectionFactory The RedisConnectionFactory used to publish and subscribe.
+     * @param sessionNearCache The near cache of this node.
+     * @param channel The pub/sub channel shared by all nodes.
+     */
+    public SpringRedisNearCacheInvalidator(RedisConnectionFactory redisConnectionFactory,
+                                           SessionNearCache sessionNearCache, String channel) {
+        this.redisConnectionFactory = redisConnectionFactory;
+        this.sessionNearCache = sessionNearCache;
+        this.channel = channel;
+        this.publisher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(PUBLISH_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "session-near-cache-invalidation");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Subscribes to the invalidation channel and registers this invalidator as the publisher of the near cache.
+     */
+    public void start() {
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisConnectionFactory);
+        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+        sessionNearCache.setInvalidationPublisher(this::publish);
+        log.info("Near cache invalidation subscribed to " + channel);
+    }
+
+    /**
+     * Unsubscribes from the invalidation channel and drops the invalidations not published yet.
+     */
+    public void stop() {
+        publisher.shutdownNow();
+        if (listenerContainer != null) {
+            try {
+                listenerContainer.destroy();
+            } catch (Exception e) {
+                log.warn("Failed to stop near cache invalidation listener", e);
+            }
+        }
+    }
+
+    /**
+     * Tells the other nodes that a session changed, in the background.
+     * @param sessionId The ID of the changed session.
+     */
+    public void publish(String sessionId) {
+        try {
+            publisher.execute(() -> publishNow(sessionId));
+        } catch (RejectedExecutionException e) {
+            log.warn("Near cache invalidation queue is full, dropped invalidation for session {}", sessionId);
+        }
+    }
+
+    /**
+     * Publishes the invalidation of a session on the channel.
+     * @param sessionId The ID of the changed session.
+     */
+    private void publishNow(String sessionId) {
+        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
+            connection.publish(serializer.serialize(channel), serializer.serialize(nodeId + SEPARATOR + sessionId));
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish near cache invalidation for session {}", sessionId, e);
+        }
+    }
+
+    /**
+     * Evicts a session changed by another node.
+     * @param message The invalidation message.
+     * @param pattern The pattern the channel matched, unused.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = serializer.deserialize(message.getBody());
+        if (body == null) {
+            return;
+        }
+        int separator = body.indexOf(SEPARATOR);
+        if (separator < 0 || body.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        sessionNearCache.invalidate(body.substring(separator + 1));
+    }
+}
@@ -0,0 +1,74 @@
+package org.springframework.session.data.redis;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.session.serializer.SessionBlobStore;
+
+import java.time.Duration;
+
+/**
+ * SpringRedisSessionBlobStore keeps session attribute blobs in Redis strings that expire with their time to live.
+ */
+public class SpringRedisSessionBlobStore implements SessionBlobStore {
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+
+    private final String keyPrefix;
+
+    /**
+     * Constructor for SpringRedisSessionBlobStore.
+     * @param redisConnectionFactory The RedisConnectionFactory the blobs are stored through.
+     * @param namespace The namespace of the blob keys.
+     */
+    public SpringRedisSessionBlobStore(RedisConnectionFactory redisConnectionFactory, String namespace) {
+        this.redisTemplate = new RedisTemplate<>();
+        this.redisTemplate.setKeySerializer(new StringRedisSerializer());
+        this.redisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        this.redisTemplate.setConnectionFactory(redisConnectionFactory);
+        this.redisTemplate.afterPropertiesSet();
+        this.keyPrefix = namespace + ":blobs:";
+    }
+
+    /**
+     * Gets the name of the storage the blobs are kept in.
+     * @return REDIS.
+     */
+    @Override
+    public String getName() {
+        return SpringRedisSessionStoreBackend.NAME;
+    }
+
+    /**
+     * Stores a blob with SET and an expiry, which also extends the expiry of a stored blob.
+     * @param hash The hexadecimal content hash of the blob.
+     * @param bytes The content of the blob.
+     * @param timeToLive The time the blob is kept.
+     */
+    @Override
+    public void put(String hash, byte[] bytes, Duration timeToLive) {
+        redisTemplate.opsForValue().set(keyPrefix + hash, bytes, timeToLive);
+    }
+
+    /**
+     * Gets a blob.
+     * @param hash The hexadecimal content hash of the blob.
+     * @return The content of the blob, or null if it has expired.
+     */
+    @Override
+    public byte[] get(String hash) {
+        return redisTemplate.opsForValue().get(keyPrefix + hash);
+    }
+
+    /**
+     * Extends the expiry of a blob with EXPIRE.
+     * @param hash The hexadecimal content hash of the blob.
+     * @param timeToLive The time the blob is kept from now.
+     * @return True if the blob is stored, otherwise false.
+     */
+    @Override
+    public boolean touch(String hash, Duration timeToLive) {
+        return Boolean.TRUE.equals(redisTemplate.expire(keyPrefix + hash, timeToLive));
+    }
+}
@@ -1,19 +1,26 @@
 package org.springframework.session.data.redis;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
 import org.springframework.session.data.redis.config.annotation.SpringSessionRedisConnectionFactory;
+import org.springframework.session.serializer.SessionCodec;
 import org.springframework.util.StringUtils;
 
 /**
  * SpringRedisSessionConfig provides configuration for Spring sessions stored in Redis.
- * It initializes and configures SpringRedisAsSecondarySession and RedisIndexedSessionRepository.
+ * It initializes and configures SpringRedisAsSecondarySession and RedisIndexedSessionRepository, or
+ * SpringRedisLeanSessionRepository when the primary storage runs in LEAN mode.
  * @author Aakash Jain
  */
 @Slf4j
@@ -22,16 +29,39 @@ public class SpringRedisSessionConfig {
     @Autowired
     private ApplicationEventPublisher applicationEventPublisher;
 
+    @Value("${spring.session.redis.secondary.write_mode:PIPELINED}")
+    private String secondaryWriteMode;
+
+    @Value("${spring.session.redis.secondary.maintain_indexes:true}")
+    private boolean secondaryMaintainIndexes;
+
+    @Value("${spring.session.redis.primary.mode:INDEXED}")
+    private String primaryMode;
+
+    @Value("${spring.session.redis.secondary.mode:INDEXED}")
+    private String secondaryMode;
+
+    @Value("${spring.session.redis.lean.principal_index:false}")
+    private boolean leanPrincipalIndex;
+
     private String redisNamespace = RedisIndexedSessionRepository.DEFAULT_NAMESPACE;
 
-    private static SpringRedisAsSecondarySession springRedisAsSecondarySession;
+    private SpringRedisAsSecondarySession springRedisAsSecondarySession;
 
     private RedisSerializer<Object> defaultRedisSerializer;
 
-    private static RedisIndexedSessionRepository redisIndexedSessionRepository;
+    private RedisIndexedSessionRepository redisIndexedSessionRepository;
+
+    private SpringRedisLeanSessionRepository springRedisLeanSessionRepository;
 
     private RedisConnectionFactory redisConnectionFactory;
 
+    private SpringRedisSessionSource springRedisSessionSource;
+
+    private SpringRedisExpirySweeper springRedisExpirySweeper;
+
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
     /**
      * Constructor for SpringRedisSessionConfig.
      */
@@ -49,6 +79,12 @@ public class SpringRedisSessionConfig {
         RedisIndexedSessionRepository sessionRepository = getRedisOperationsSessionRepository();
         springRedisAsSecondarySession =
                 new SpringRedisAsSecondarySession(sessionRepository.getSessionRedisOperations());
+        springRedisAsSecondarySession.setWriteMode(
+                SpringRedisAsSecondarySession.WriteMode.valueOf(secondaryWriteMode.toUpperCase()));
+        springRedisAsSecondarySession.setMaintainIndexes(secondaryMaintainIndexes);
+        springRedisAsSecondarySession.setSessionMode(getSecondaryMode());
+        springRedisAsSecondarySession.setLeanPrincipalIndex(leanPrincipalIndex);
+        springRedisAsSecondarySession.setMeterRegistry(meterRegistry);
         return springRedisAsSecondarySession;
     }
 
@@ -73,6 +109,93 @@ public class SpringRedisSessionConfig {
         return redisIndexedSessionRepository;
     }
 
+    /**
+     * Retrieves the configured SpringRedisLeanSessionRepository, keeping one hash per session with a native TTL.
+     * @return The configured SpringRedisLeanSessionRepository.
+     */
+    public SpringRedisLeanSessionRepository getLeanSessionRepository() {
+        if (springRedisLeanSessionRepository != null) {
+            return springRedisLeanSessionRepository;
+        }
+        springRedisLeanSessionRepository = new SpringRedisLeanSessionRepository(createRedisTemplate());
+        if (StringUtils.hasText(this.redisNamespace)) {
+            springRedisLeanSessionRepository.setRedisKeyNamespace(this.redisNamespace);
+        }
+        springRedisLeanSessionRepository.setPrincipalIndex(leanPrincipalIndex);
+        return springRedisLeanSessionRepository;
+    }
+
+    /**
+     * Retrieves the repository used when Redis is primary storage, chosen by the primary mode.
+     * @return The SpringRedisLeanSessionRepository in LEAN mode, otherwise the RedisIndexedSessionRepository.
+     */
+    public SessionRepository<? extends Session> getPrimarySessionRepository() {
+        return getPrimaryMode() == SessionMode.LEAN ? getLeanSessionRepository() : getRedisOperationsSessionRepository();
+    }
+
+    /**
+     * Gets the layout of the sessions written when Redis is primary storage.
+     * @return The primary SessionMode.
+     */
+    public SessionMode getPrimaryMode() {
+        return SessionMode.valueOf(primaryMode.trim().toUpperCase());
+    }
+
+    /**
+     * Gets the layout of the sessions written when Redis is secondary storage.
+     * @return The secondary SessionMode.
+     */
+    public SessionMode getSecondaryMode() {
+        return SessionMode.valueOf(secondaryMode.trim().toUpperCase());
+    }
+
+    /**
+     * Retrieves the SpringRedisSessionSource scanning the sessions of the RedisIndexedSessionRepository.
+     * @return The configured SpringRedisSessionSource.
+     */
+    public SpringRedisSessionSource getSessionSource() {
+        if (springRedisSessionSource == null) {
+            springRedisSessionSource = new SpringRedisSessionSource(getRedisOperationsSessionRepository());
+        }
+        return springRedisSessionSource;
+    }
+
+    /**
+     * Retrieves the SpringRedisExpirySweeper deleting the expired sessions of the RedisIndexedSessionRepository.
+     * @return The configured SpringRedisExpirySweeper.
+     */
+    public SpringRedisExpirySweeper getExpirySweeper() {
+        if (springRedisExpirySweeper == null) {
+            springRedisExpirySweeper = new SpringRedisExpirySweeper(getRedisOperationsSessionRepository());
+        }
+        return springRedisExpirySweeper;
+    }
+
+    /**
+     * Creates a lock held in Redis under the session namespace.
+     * @param lockName The name of the lock.
+     * @return The SpringRedisSessionLock.
+     */
+    public SpringRedisSessionLock getSessionLock(String lockName) {
+        return new SpringRedisSessionLock(redisConnectionFactory, redisNamespace, lockName);
+    }
+
+    /**
+     * Sets the codec the values of the session hashes are encoded with.
+     * @param sessionCodec The SessionCodec to use.
+     */
+    public void setSessionCodec(SessionCodec sessionCodec) {
+        this.defaultRedisSerializer = new SessionCodecRedisSerializer(sessionCodec);
+    }
+
+    /**
+     * Sets the MeterRegistry the secondary session metrics are published to.
+     * @param meterRegistry The MeterRegistry to set.
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * Sets the RedisConnectionFactory.
      * @param springSessionRedisConnectionFactory The RedisConnectionFactory object to use for Spring session.
@@ -90,6 +213,14 @@ public class SpringRedisSessionConfig {
         this.redisConnectionFactory = redisConnectionFactoryToUse;
     }
 
+    /**
+     * Sets the RedisConnectionFactory of one Redis instance, such as a shard, in place of the autowired one.
+     * @param redisConnectionFactory The RedisConnectionFactory object to use.
+     */
+    public void setRedisConnectionFactory(RedisConnectionFactory redisConnectionFactory) {
+        this.redisConnectionFactory = redisConnectionFactory;
+    }
+
     /**
      * Creates a RedisTemplate for interacting with Redis.
      * @return The configured RedisTemplate.
@@ -105,5 +236,22 @@ public class SpringRedisSessionConfig {
         redisTemplate.afterPropertiesSet();
         return redisTemplate;
     }
-}
 
+    /**
+     * Gets the RedisConnectionFactory the sessions are stored through.
+     * @return The RedisConnectionFactory in use.
+     */
+    public RedisConnectionFactory getRedisConnectionFactory() {
+        return redisConnectionFactory;
+    }
+
+    /**
+     * How sessions are laid out in Redis.
+     */
+    public enum SessionMode {
+        /** The session hash, expires key, expirations bucket and principal index of RedisIndexedSessionRepository. */
+        INDEXED,
+        /** One hash per session expiring with its native TTL, as RedisSessionRepository writes it. */
+        LEAN
+    }
+}
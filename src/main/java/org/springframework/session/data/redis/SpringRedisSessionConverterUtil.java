@@ -2,10 +2,11 @@ package org.springframework.session.data.redis;
 
 import org.framework.data.SpringSessionData;
 import lombok.experimental.UtilityClass;
+import org.springframework.session.MapSession;
 import org.springframework.session.Session;
+import org.springframework.session.SessionAttributesView;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -17,31 +18,60 @@ public class SpringRedisSessionConverterUtil {
 
     /**
      * Converts a Session object to a SpringSessionData object.
+     * Sessions of RedisIndexedSessionRepository and of SpringRedisLeanSessionRepository are read alike.
      * @param session The session object to be converted.
      * @return The converted SpringSessionData object.
      */
     public static SpringSessionData convertToSessionData(Session session) {
-        final RedisIndexedSessionRepository.RedisSession redisSession
-                = (RedisIndexedSessionRepository.RedisSession) session;
         return SpringSessionData.builder()
-                .id(redisSession.getId())
-                .attributes(getAttributes(redisSession))
-                .maxInactiveInterval(redisSession.getMaxInactiveInterval())
-                .createdMillis(redisSession.getCreationTime().toEpochMilli())
+                .id(session.getId())
+                .attributes(new SessionAttributesView(session))
+                .maxInactiveInterval(session.getMaxInactiveInterval())
+                .lastAccessedMillis(session.getLastAccessedTime().toEpochMilli())
+                .createdMillis(session.getCreationTime().toEpochMilli())
                 .build();
     }
 
     /**
-     * Retrieves attributes from a RedisSession and returns them as a map.
-     * @param redisSession The RedisSession from which to retrieve attributes.
-     * @return A map containing the attributes of the RedisSession.
+     * Converts the changes made to a Session object to a delta SpringSessionData object.
+     * @param session The session object to be converted.
+     * @param changedAttributeNames The names of the attributes set since the session was last saved.
+     * @param removedAttributeNames The names of the attributes removed since the session was last saved.
+     * @return The converted SpringSessionData object holding only the changed attributes.
+     */
+    public static SpringSessionData convertToSessionDelta(Session session, Set<String> changedAttributeNames,
+                                                          Set<String> removedAttributeNames) {
+        return SpringSessionData.builder()
+                .id(session.getId())
+                .attributes(new SessionAttributesView(session, new HashSet<>(changedAttributeNames)))
+                .maxInactiveInterval(session.getMaxInactiveInterval())
+                .lastAccessedMillis(session.getLastAccessedTime().toEpochMilli())
+                .createdMillis(session.getCreationTime().toEpochMilli())
+                .delta(true)
+                .removedAttributeNames(new HashSet<>(removedAttributeNames))
+                .build();
+    }
+
+    /**
+     * Converts a MapSession snapshot back to a RedisSession of the given repository.
+     * @param repository The RedisIndexedSessionRepository the session belongs to.
+     * @param mapSession The snapshot of the session.
+     * @param isNew True if the session does not exist in Redis yet and must be written in full on save.
+     * @return The RedisSession backed by the snapshot.
+     */
+    public static Session convertToSession(RedisIndexedSessionRepository repository, MapSession mapSession,
+                                           boolean isNew) {
+        return repository.new RedisSession(mapSession, isNew);
+    }
+
+    /**
+     * Converts a MapSession snapshot back to a RedisSession of the given lean repository.
+     * @param repository The RedisSessionRepository the session belongs to.
+     * @param mapSession The snapshot of the session.
+     * @param isNew True if the session does not exist in Redis yet and must be written in full on save.
+     * @return The RedisSession backed by the snapshot.
      */
-    private static Map<String, Object> getAttributes(RedisIndexedSessionRepository.RedisSession redisSession) {
-        Map<String, Object> attributesMap = new HashMap<>();
-        Set<String> attributeNames = redisSession.getAttributeNames();
-        attributeNames.forEach(attribute -> {
-            attributesMap.put(attribute, redisSession.getAttribute(attribute));
-        });
-        return attributesMap;
+    public static Session convertToSession(RedisSessionRepository repository, MapSession mapSession, boolean isNew) {
+        return repository.new RedisSession(mapSession, isNew);
     }
 }
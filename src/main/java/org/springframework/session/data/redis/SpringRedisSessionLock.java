@@ -0,0 +1,72 @@
+package org.springframework.session.data.redis;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.session.SessionLock;
+
+import java.time.Duration;
+import java.util.Collections;
+
+/**
+ * SpringRedisSessionLock holds a lock in a Redis string naming its owner, which expires with the lease.
+ * Acquiring and releasing compare the owner in a Lua script, so a node never takes over or frees a lease it lost.
+ */
+public class SpringRedisSessionLock implements SessionLock {
+
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = RedisScript.of(
+            "local owner = redis.call('GET', KEYS[1]) "
+                    + "if owner == false or owner == ARGV[1] then "
+                    + "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) return 1 end "
+                    + "return 0", Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = RedisScript.of(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end "
+                    + "return 0", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final String lockKey;
+
+    /**
+     * Constructor for SpringRedisSessionLock.
+     * @param redisConnectionFactory The RedisConnectionFactory the lock is held through.
+     * @param namespace The namespace of the lock key.
+     * @param lockName The name of the lock.
+     */
+    public SpringRedisSessionLock(RedisConnectionFactory redisConnectionFactory, String namespace, String lockName) {
+        this.redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        this.lockKey = namespace + ":locks:" + lockName;
+    }
+
+    /**
+     * Gets the name of the storage the lock is held in.
+     * @return REDIS.
+     */
+    @Override
+    public String getName() {
+        return SpringRedisSessionStoreBackend.NAME;
+    }
+
+    /**
+     * Sets the lock key to the owner with the lease as expiry if it is free or already the owner's.
+     * @param owner The unique id of the node.
+     * @param lease The time the lock is held without being renewed.
+     * @return True if the owner holds the lock, otherwise false.
+     */
+    @Override
+    public boolean tryAcquire(String owner, Duration lease) {
+        Long acquired = redisTemplate.execute(ACQUIRE_SCRIPT, Collections.singletonList(lockKey),
+                owner, Long.toString(lease.toMillis()));
+        return acquired != null && acquired == 1;
+    }
+
+    /**
+     * Deletes the lock key if it is the owner's.
+     * @param owner The unique id of the node.
+     */
+    @Override
+    public void release(String owner) {
+        redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(lockKey), owner);
+    }
+}
@@ -0,0 +1,191 @@
+package org.springframework.session.data.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.framework.data.SpringSessionData;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.session.MapSession;
+import org.springframework.session.SessionPage;
+import org.springframework.session.SessionSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SpringRedisSessionSource streams the sessions of a RedisIndexedSessionRepository with SCAN.
+ * Every hexadecimal partition scans the session keys starting with its character, and one more partition scans
+ * the keys of non hexadecimal ids, and an id prefix scans the keys matching the prefix. The hashes of a page are
+ * read with one pipeline.
+ * A SCAN cursor only lives as long as its connection, so a partition resumed from a checkpoint is scanned again
+ * from its start, which is safe since sessions are written with idempotent upserts.
+ */
+@Slf4j
+public class SpringRedisSessionSource implements SessionSource {
+
+    private static final String EXPIRES_SEGMENT = "expires:";
+
+    private final RedisIndexedSessionRepository repository;
+
+    private final RedisOperations<String, Object> sessionRedisOperations;
+
+    private final String sessionKeyPrefix;
+
+    private final RedisSessionMapper redisSessionMapper = new RedisSessionMapper();
+
+    private final Map<String, PatternScan> patternScans = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for SpringRedisSessionSource.
+     * @param repository The RedisIndexedSessionRepository whose sessions are read.
+     */
+    public SpringRedisSessionSource(RedisIndexedSessionRepository repository) {
+        this.repository = repository;
+        this.sessionRedisOperations = repository.getSessionRedisOperations();
+        this.sessionKeyPrefix = repository.getSessionKey("");
+    }
+
+    /**
+     * Gets the name of the storage the sessions are read from.
+     * @return REDIS.
+     */
+    @Override
+    public String getName() {
+        return SpringRedisSessionStoreBackend.NAME;
+    }
+
+    /**
+     * Gets the number of partitions, one per hexadecimal character and one for the other ids.
+     * @return The number of partitions.
+     */
+    @Override
+    public int getPartitionCount() {
+        return HEX_PARTITIONS + 1;
+    }
+
+    /**
+     * Reads the next page of live sessions of a partition.
+     * The cursor is the number of keys the partition's scan has returned so far.
+     * @param partition The partition to read.
+     * @param cursor The cursor returned with the previous page, or null to read the partition from its start.
+     * @param pageSize The maximum number of sessions to read.
+     * @return The page of sessions.
+     */
+    @Override
+    public SessionPage readPage(int partition, String cursor, int pageSize) {
+        return scanPage(getKeyPattern(partition), cursor, pageSize);
+    }
+
+    /**
+     * Reads the next page of live sessions whose id starts with a prefix, scanning the keys matching the prefix.
+     * The cursor is the number of keys the prefix's scan has returned so far.
+     * @param idPrefix The prefix of the session ids to read.
+     * @param cursor The cursor returned with the previous page, or null to read from the first session.
+     * @param pageSize The maximum number of sessions to read.
+     * @return The page of sessions.
+     */
+    @Override
+    public SessionPage readPrefixPage(String idPrefix, String cursor, int pageSize) {
+        return scanPage(sessionKeyPrefix + idPrefix.replaceAll("([*?\\[\\]\\\\^])", "\\\\$1") + "*", cursor, pageSize);
+    }
+
+    /**
+     * Reads the next page of live sessions whose keys match a pattern, resuming the open scan of the pattern.
+     * @param keyPattern The pattern of the session keys.
+     * @param cursor The number of keys the scan has returned so far, or null to scan from the start.
+     * @param pageSize The maximum number of sessions to read.
+     * @return The page of sessions.
+     */
+    private SessionPage scanPage(String keyPattern, String cursor, int pageSize) {
+        PatternScan scan = patternScans.get(keyPattern);
+        if (scan == null || cursor == null || scan.position != Long.parseLong(cursor)) {
+            if (scan != null) {
+                scan.keys.close();
+            }
+            if (cursor != null) {
+                log.info("Redis scan of " + keyPattern + " cannot be resumed, scanning it again");
+            }
+            scan = new PatternScan(sessionRedisOperations.scan(
+                    ScanOptions.scanOptions().match(keyPattern).count(pageSize).build()));
+            patternScans.put(keyPattern, scan);
+        }
+        List<String> keys = new ArrayList<>(pageSize);
+        while (keys.size() < pageSize && scan.keys.hasNext()) {
+            String key = scan.keys.next();
+            scan.position++;
+            if (!key.startsWith(EXPIRES_SEGMENT, sessionKeyPrefix.length())) {
+                keys.add(key);
+            }
+        }
+        List<SpringSessionData> sessions = readSessions(keys);
+        if (scan.keys.hasNext()) {
+            return new SessionPage(sessions, Long.toString(scan.position));
+        }
+        scan.keys.close();
+        patternScans.remove(keyPattern);
+        return new SessionPage(sessions, null);
+    }
+
+    /**
+     * Reads the hashes of the given session keys with one pipeline, skipping the expired sessions.
+     * @param keys The keys of the session hashes.
+     * @return The live sessions.
+     */
+    @SuppressWarnings("unchecked")
+    private List<SpringSessionData> readSessions(List<String> keys) {
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Object> hashes = sessionRedisOperations.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                keys.forEach(key -> redisOperations.opsForHash().entries(key));
+                return null;
+            }
+        });
+        List<SpringSessionData> sessions = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            Map<String, Object> hash = (Map<String, Object>) hashes.get(i);
+            if (hash == null || hash.isEmpty()) {
+                continue;
+            }
+            MapSession mapSession = redisSessionMapper.apply(keys.get(i).substring(sessionKeyPrefix.length()), hash);
+            if (!mapSession.isExpired()) {
+                sessions.add(SpringRedisSessionConverterUtil.convertToSessionData(
+                        SpringRedisSessionConverterUtil.convertToSession(repository, mapSession, false)));
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * Gets the key pattern scanned by a partition.
+     * @param partition The partition.
+     * @return The pattern of the session keys of the partition.
+     */
+    private String getKeyPattern(int partition) {
+        if (partition == HEX_PARTITIONS) {
+            return sessionKeyPrefix + "[^0-9a-f]*";
+        }
+        return sessionKeyPrefix + Character.forDigit(partition, HEX_PARTITIONS) + "*";
+    }
+
+    /**
+     * PatternScan is the open SCAN of a key pattern with the number of keys it has returned.
+     */
+    private static class PatternScan {
+
+        private final Cursor<String> keys;
+
+        private long position;
+
+        private PatternScan(Cursor<String> keys) {
+            this.keys = keys;
+        }
+    }
+}
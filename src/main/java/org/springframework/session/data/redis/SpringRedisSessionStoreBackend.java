@@ -0,0 +1,148 @@
+package org.springframework.session.data.redis;
+
+import org.framework.data.SpringSessionData;
+import org.springframework.session.ISessionSaveAsSecondary;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionExpirySweeper;
+import org.springframework.session.SessionLock;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.SessionSource;
+import org.springframework.session.SessionStoreBackend;
+
+import java.util.Set;
+
+/**
+ * SpringRedisSessionStoreBackend exposes Redis to MultiSessionRepository as primary or secondary storage.
+ */
+public class SpringRedisSessionStoreBackend implements SessionStoreBackend {
+
+    public static final String NAME = "REDIS";
+
+    private final SpringRedisSessionConfig springRedisSessionConfig;
+
+    /**
+     * Constructor for SpringRedisSessionStoreBackend.
+     * @param springRedisSessionConfig The SpringRedisSessionConfig providing the repositories.
+     */
+    public SpringRedisSessionStoreBackend(SpringRedisSessionConfig springRedisSessionConfig) {
+        this.springRedisSessionConfig = springRedisSessionConfig;
+    }
+
+    /**
+     * Gets the name the storage is configured with.
+     * @return REDIS.
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Gets the repository used when Redis is primary storage.
+     * @return The SpringRedisLeanSessionRepository in LEAN mode, otherwise the RedisIndexedSessionRepository.
+     */
+    @Override
+    public SessionRepository getSessionRepository() {
+        return springRedisSessionConfig.getPrimarySessionRepository();
+    }
+
+    /**
+     * Gets the repository used to read and delete sessions when Redis is secondary storage.
+     * @return The SpringRedisAsSecondarySession.
+     */
+    @Override
+    public SessionRepository getSecondarySessionRepository() {
+        return springRedisSessionConfig.getSpringRedisOperationsSessionRepository();
+    }
+
+    /**
+     * Gets the writer used to save sessions when Redis is secondary storage.
+     * @return The SpringRedisAsSecondarySession.
+     */
+    @Override
+    public ISessionSaveAsSecondary getSecondaryWriter() {
+        return springRedisSessionConfig.getSpringRedisOperationsSessionRepository();
+    }
+
+    /**
+     * Converts a RedisSession to a SpringSessionData object.
+     * @param session The session to convert.
+     * @return The converted SpringSessionData object.
+     */
+    @Override
+    public SpringSessionData convertToSessionData(Session session) {
+        return SpringRedisSessionConverterUtil.convertToSessionData(session);
+    }
+
+    /**
+     * Converts the changes made to a RedisSession to a delta SpringSessionData object.
+     * @param session The session to convert.
+     * @param changedAttributeNames The names of the attributes set since the session was last saved.
+     * @param removedAttributeNames The names of the attributes removed since the session was last saved.
+     * @return The converted SpringSessionData object holding only the changes.
+     */
+    @Override
+    public SpringSessionData convertToSessionDelta(Session session, Set<String> changedAttributeNames,
+                                                   Set<String> removedAttributeNames) {
+        return SpringRedisSessionConverterUtil.convertToSessionDelta(session, changedAttributeNames, removedAttributeNames);
+    }
+
+    /**
+     * A RedisSession can be rebuilt from a snapshot of its state.
+     * @return Always true.
+     */
+    @Override
+    public boolean supportsSnapshotRestore() {
+        return true;
+    }
+
+    /**
+     * Restores a RedisSession from a snapshot.
+     * @param snapshot The snapshot of the session.
+     * @param isNew True if the session may be missing from Redis and must be written in full on save.
+     * @return The RedisSession of the primary repository backed by the snapshot.
+     */
+    @Override
+    public Session restoreSession(MapSession snapshot, boolean isNew) {
+        if (springRedisSessionConfig.getPrimaryMode() == SpringRedisSessionConfig.SessionMode.LEAN) {
+            return SpringRedisSessionConverterUtil.convertToSession(
+                    springRedisSessionConfig.getLeanSessionRepository(), snapshot, isNew);
+        }
+        return SpringRedisSessionConverterUtil.convertToSession(
+                springRedisSessionConfig.getRedisOperationsSessionRepository(), snapshot, isNew);
+    }
+
+    /**
+     * Gets the source streaming the live sessions of Redis.
+     * @return The SpringRedisSessionSource.
+     */
+    @Override
+    public SessionSource getSessionSource() {
+        return springRedisSessionConfig.getSessionSource();
+    }
+
+    /**
+     * Gets the sweeper deleting the expired sessions, which are not cleaned up otherwise.
+     * @return The SpringRedisExpirySweeper walking the expirations buckets.
+     * @throws UnsupportedOperationException If both modes are LEAN, since sessions then expire with their TTL.
+     */
+    @Override
+    public SessionExpirySweeper getExpirySweeper() {
+        if (springRedisSessionConfig.getPrimaryMode() == SpringRedisSessionConfig.SessionMode.LEAN
+                && springRedisSessionConfig.getSecondaryMode() == SpringRedisSessionConfig.SessionMode.LEAN) {
+            throw new UnsupportedOperationException("Lean Redis sessions expire with their native TTL");
+        }
+        return springRedisSessionConfig.getExpirySweeper();
+    }
+
+    /**
+     * Gets a lock held in the storage.
+     * @param lockName The name of the lock.
+     * @return The SpringRedisSessionLock.
+     */
+    @Override
+    public SessionLock getLock(String lockName) {
+        return springRedisSessionConfig.getSessionLock(lockName);
+    }
+}
@@ -1,13 +1,32 @@
 package org.springframework.session.jdbc;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.framework.data.SpringSessionData;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.session.FindByIndexNameSessionRepository;
 import org.springframework.session.MapSession;
 import org.springframework.session.ISessionSaveAsSecondary;
+import org.springframework.session.serializer.JdkSessionCodec;
+import org.springframework.session.serializer.SessionCodec;
+import org.springframework.session.serializer.SessionCodecConversionService;
 import org.springframework.transaction.support.TransactionOperations;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * SpringRdbmsAsSecondarySession extends JdbcIndexedSessionRepository and implements ISessionSaveAsSecondaryOperation.
@@ -17,6 +36,45 @@ import java.time.Instant;
 @Slf4j
 public class SpringRdbmsAsSecondarySession extends JdbcIndexedSessionRepository implements ISessionSaveAsSecondary {
 
+    private static final String STORAGE_NAME = "RDBMS";
+
+    /**
+     * Maximum number of session rows upserted by one statement.
+     */
+    private static final int MAX_ROWS_PER_STATEMENT = 100;
+
+    /**
+     * Updates the row of a session a delta applies to, without inserting it, so a delta reaching a database
+     * missing its session never creates a partial session. The principal name is only changed when the delta
+     * sets or removes it.
+     */
+    private static final String DELTA_SESSION_UPDATE_QUERY = "UPDATE %TABLE_NAME% SET LAST_ACCESS_TIME = ?, "
+            + "MAX_INACTIVE_INTERVAL = ?, EXPIRY_TIME = ?, "
+            + "PRINCIPAL_NAME = CASE WHEN ? = 1 THEN ? ELSE PRINCIPAL_NAME END WHERE SESSION_ID = ?";
+
+    private static final String DELETE_ATTRIBUTES_QUERY = "DELETE FROM %TABLE_NAME%_ATTRIBUTES "
+            + "WHERE SESSION_PRIMARY_ID = (SELECT PRIMARY_ID FROM %TABLE_NAME% WHERE SESSION_ID = ?)";
+
+    private static final String DELETE_ATTRIBUTE_QUERY = "DELETE FROM %TABLE_NAME%_ATTRIBUTES "
+            + "WHERE SESSION_PRIMARY_ID = (SELECT PRIMARY_ID FROM %TABLE_NAME% WHERE SESSION_ID = ?) "
+            + "AND ATTRIBUTE_NAME = ?";
+
+    private final JdbcOperations jdbcOperations;
+
+    private final TransactionOperations transactionOperations;
+
+    private SessionCodec sessionCodec = new JdkSessionCodec();
+
+    private String tableName = DEFAULT_TABLE_NAME;
+
+    private SpringRdbmsDialect dialect = SpringRdbmsDialect.GENERIC;
+
+    private DistributionSummary batchSizeSummary;
+
+    private Timer flushTimer;
+
+    private DistributionSummary sessionSizeSummary;
+
     /**
      * Constructor for SpringRdbmsAsSecondarySession.
      * @param jdbcOperations The JdbcOperations object to interact with the database.
@@ -24,15 +82,309 @@ public class SpringRdbmsAsSecondarySession extends JdbcIndexedSessionRepository
      */
     public SpringRdbmsAsSecondarySession(JdbcOperations jdbcOperations, TransactionOperations transactionOperations) {
         super(jdbcOperations, transactionOperations);
+        this.jdbcOperations = jdbcOperations;
+        this.transactionOperations = transactionOperations;
+        setMeterRegistry(Metrics.globalRegistry);
+    }
+
+    /**
+     * Sets the name of the table the sessions are stored in.
+     * @param tableName The name of the table.
+     */
+    @Override
+    public void setTableName(String tableName) {
+        super.setTableName(tableName);
+        this.tableName = tableName.trim();
+    }
+
+    /**
+     * Sets the codec the session attributes are encoded with.
+     * @param sessionCodec The SessionCodec to use.
+     */
+    public void setSessionCodec(SessionCodec sessionCodec) {
+        this.sessionCodec = sessionCodec;
+        setConversionService(SessionCodecConversionService.create(sessionCodec));
+    }
+
+    /**
+     * Sets the dialect used to upsert sessions.
+     * @param dialect The SpringRdbmsDialect of the database.
+     */
+    public void setDialect(SpringRdbmsDialect dialect) {
+        this.dialect = dialect;
     }
 
     /**
      * Saves session data as secondary in a relational database.
+     * With a known dialect the session row and its attributes are upserted without reading the existing session.
      * @param springSessionData The SpringSessionData object containing session data to be saved.
      */
     @Override
     public void saveAsSecondary(SpringSessionData springSessionData) {
-        log.info("Rdbms is set to save secondary session");
+        if (!dialect.supportsUpsert()) {
+            saveWithReadBeforeWrite(springSessionData);
+            return;
+        }
+        saveAllAsSecondary(Collections.singletonList(springSessionData));
+    }
+
+    /**
+     * Saves a batch of sessions as secondary in a single transaction.
+     * Session rows are written with multi-row upserts and attribute rows with one JDBC batch.
+     * The session rows of deltas are only updated, and the attribute rows of a session are only written when
+     * its row exists, so deltas of sessions missing from the database are dropped rather than creating partial
+     * sessions. The attribute rows of full sessions are deleted before their attributes are written, so attributes
+     * a session no longer holds do not survive, and attributes removed by a delta are deleted with a second batch.
+     * @param springSessionDataList The SpringSessionData objects containing session data to be saved.
+     */
+    @Override
+    public void saveAllAsSecondary(List<SpringSessionData> springSessionDataList) {
+        if (!dialect.supportsUpsert()) {
+            springSessionDataList.forEach(this::saveWithReadBeforeWrite);
+            return;
+        }
+        long start = System.nanoTime();
+        List<SpringSessionData> sessions = distinctById(springSessionDataList);
+        List<SpringSessionData> fullSessions = new ArrayList<>(sessions.size());
+        List<SpringSessionData> deltas = new ArrayList<>();
+        sessions.forEach(springSessionData -> (springSessionData.isDelta() ? deltas : fullSessions).add(springSessionData));
+        List<AttributeRow> attributeRows = toAttributeRows(sessions);
+        List<AttributeRow> removedAttributeRows = toRemovedAttributeRows(sessions);
+        long now = System.currentTimeMillis();
+        transactionOperations.executeWithoutResult(status -> {
+            for (int from = 0; from < fullSessions.size(); from += MAX_ROWS_PER_STATEMENT) {
+                List<SpringSessionData> chunk =
+                        fullSessions.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, fullSessions.size()));
+                jdbcOperations.update(getUpsertQuery(dialect.getSessionUpsertQuery(chunk.size())), ps -> {
+                    int parameterIndex = 1;
+                    for (SpringSessionData springSessionData : chunk) {
+                        parameterIndex = setSessionUpsertValues(ps, parameterIndex, springSessionData, now);
+                    }
+                });
+            }
+            if (!deltas.isEmpty()) {
+                jdbcOperations.batchUpdate(getUpsertQuery(DELTA_SESSION_UPDATE_QUERY),
+                        new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                setDeltaSessionUpdateValues(ps, deltas.get(i), now);
+                            }
+
+                            @Override
+                            public int getBatchSize() {
+                                return deltas.size();
+                            }
+                        });
+            }
+            if (!fullSessions.isEmpty()) {
+                jdbcOperations.batchUpdate(getUpsertQuery(DELETE_ATTRIBUTES_QUERY),
+                        new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                ps.setString(1, fullSessions.get(i).getId());
+                            }
+
+                            @Override
+                            public int getBatchSize() {
+                                return fullSessions.size();
+                            }
+                        });
+            }
+            if (!attributeRows.isEmpty()) {
+                jdbcOperations.batchUpdate(getUpsertQuery(dialect.getAttributeUpsertQuery()),
+                        new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                AttributeRow attributeRow = attributeRows.get(i);
+                                ps.setString(1, attributeRow.attributeName);
+                                ps.setBytes(2, attributeRow.attributeBytes);
+                                ps.setString(3, attributeRow.sessionId);
+                            }
+
+                            @Override
+                            public int getBatchSize() {
+                                return attributeRows.size();
+                            }
+                        });
+            }
+            if (!removedAttributeRows.isEmpty()) {
+                jdbcOperations.batchUpdate(getUpsertQuery(DELETE_ATTRIBUTE_QUERY),
+                        new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                AttributeRow attributeRow = removedAttributeRows.get(i);
+                                ps.setString(1, attributeRow.sessionId);
+                                ps.setString(2, attributeRow.attributeName);
+                            }
+
+                            @Override
+                            public int getBatchSize() {
+                                return removedAttributeRows.size();
+                            }
+                        });
+            }
+        });
+        batchSizeSummary.record(sessions.size());
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("{} secondary sessions are saved in Rdbms", sessions.size());
+    }
+
+    /**
+     * Sets the MeterRegistry the batch and session size metrics are published to.
+     * @param meterRegistry The MeterRegistry to set.
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.batchSizeSummary = DistributionSummary.builder("spring.session.secondary.batch.size")
+                .tag("storage", STORAGE_NAME)
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("spring.session.secondary.batch.flush")
+                .tag("storage", STORAGE_NAME)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.sessionSizeSummary = DistributionSummary.builder("spring.session.secondary.size")
+                .tag("storage", STORAGE_NAME)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Keeps the last write of every session, as one upsert statement cannot touch the same row twice.
+     * @param springSessionDataList The sessions to write.
+     * @return The sessions with distinct ids.
+     */
+    private List<SpringSessionData> distinctById(List<SpringSessionData> springSessionDataList) {
+        if (springSessionDataList.size() == 1) {
+            return springSessionDataList;
+        }
+        Map<String, SpringSessionData> sessionsById = new LinkedHashMap<>();
+        springSessionDataList.forEach(springSessionData ->
+                sessionsById.put(springSessionData.getId(), springSessionData));
+        return new ArrayList<>(sessionsById.values());
+    }
+
+    /**
+     * Serializes the attributes of the sessions before the transaction is started, recording the size of every session.
+     * @param sessions The sessions to write.
+     * @return The attribute rows to upsert.
+     */
+    private List<AttributeRow> toAttributeRows(List<SpringSessionData> sessions) {
+        List<AttributeRow> attributeRows = new ArrayList<>();
+        for (SpringSessionData springSessionData : sessions) {
+            long sessionSize = 0;
+            for (Map.Entry<String, Object> attribute : springSessionData.getAttributes().entrySet()) {
+                if (attribute.getValue() != null) {
+                    byte[] attributeBytes = sessionCodec.encode(attribute.getValue());
+                    attributeRows.add(new AttributeRow(springSessionData.getId(), attribute.getKey(), attributeBytes));
+                    sessionSize += attributeBytes.length;
+                }
+            }
+            sessionSizeSummary.record(sessionSize);
+        }
+        return attributeRows;
+    }
+
+    /**
+     * Collects the attributes removed by the deltas among the sessions.
+     * @param sessions The sessions to write.
+     * @return The attribute rows to delete.
+     */
+    private List<AttributeRow> toRemovedAttributeRows(List<SpringSessionData> sessions) {
+        List<AttributeRow> removedAttributeRows = new ArrayList<>();
+        for (SpringSessionData springSessionData : sessions) {
+            if (springSessionData.isDelta()) {
+                springSessionData.getRemovedAttributeNames().forEach(attributeName ->
+                        removedAttributeRows.add(new AttributeRow(springSessionData.getId(), attributeName, null)));
+            }
+        }
+        return removedAttributeRows;
+    }
+
+    /**
+     * Deltas are applied by upserting the changed attribute rows and deleting the removed ones.
+     * Databases without upsert support write through JdbcIndexedSessionRepository and need the full session.
+     * @return True if the dialect supports upserts, otherwise false.
+     */
+    @Override
+    public boolean supportsDelta() {
+        return dialect.supportsUpsert();
+    }
+
+    /**
+     * Binds the values of one row of the session upsert query. New rows use the session id as their primary id,
+     * so attribute rows can be linked without reading the session first.
+     * @param ps The PreparedStatement to bind.
+     * @param parameterIndex The index of the first parameter of the row.
+     * @param springSessionData The SpringSessionData object to bind.
+     * The last access time of the primary session is stored, so both copies expire together and compare equal.
+     * @param now The current time, in milliseconds since the epoch, stored for the times the session data lacks.
+     * @return The index of the first parameter of the next row.
+     * @throws SQLException If a value cannot be bound.
+     */
+    private int setSessionUpsertValues(PreparedStatement ps, int parameterIndex, SpringSessionData springSessionData,
+                                       long now) throws SQLException {
+        Duration maxInactiveInterval = springSessionData.getMaxInactiveInterval();
+        long lastAccessTime = springSessionData.getLastAccessedMillis() > 0
+                ? springSessionData.getLastAccessedMillis() : now;
+        long creationTime = springSessionData.getCreatedMillis() > 0
+                ? springSessionData.getCreatedMillis() : lastAccessTime;
+        ps.setString(parameterIndex, springSessionData.getId());
+        ps.setString(parameterIndex + 1, springSessionData.getId());
+        ps.setLong(parameterIndex + 2, creationTime);
+        ps.setLong(parameterIndex + 3, lastAccessTime);
+        ps.setInt(parameterIndex + 4, (int) maxInactiveInterval.getSeconds());
+        ps.setLong(parameterIndex + 5, maxInactiveInterval.isNegative()
+                ? Long.MAX_VALUE : lastAccessTime + maxInactiveInterval.toMillis());
+        String principalName = springSessionData.getPrincipalName();
+        if (principalName != null) {
+            ps.setString(parameterIndex + 6, principalName);
+        } else {
+            ps.setNull(parameterIndex + 6, Types.VARCHAR);
+        }
+        return parameterIndex + 7;
+    }
+
+    /**
+     * Binds the values of the session update of a delta.
+     * @param ps The PreparedStatement to bind.
+     * @param springSessionData The delta to bind.
+     * @param now The current time, in milliseconds since the epoch, stored when the delta lacks its last access time.
+     * @throws SQLException If a value cannot be bound.
+     */
+    private void setDeltaSessionUpdateValues(PreparedStatement ps, SpringSessionData springSessionData, long now)
+            throws SQLException {
+        Duration maxInactiveInterval = springSessionData.getMaxInactiveInterval();
+        long lastAccessTime = springSessionData.getLastAccessedMillis() > 0
+                ? springSessionData.getLastAccessedMillis() : now;
+        String principalName = springSessionData.getPrincipalName();
+        boolean principalChanged = principalName != null || springSessionData.getRemovedAttributeNames()
+                .contains(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME);
+        ps.setLong(1, lastAccessTime);
+        ps.setInt(2, (int) maxInactiveInterval.getSeconds());
+        ps.setLong(3, maxInactiveInterval.isNegative()
+                ? Long.MAX_VALUE : lastAccessTime + maxInactiveInterval.toMillis());
+        ps.setInt(4, principalChanged ? 1 : 0);
+        if (principalName != null) {
+            ps.setString(5, principalName);
+        } else {
+            ps.setNull(5, Types.VARCHAR);
+        }
+        ps.setString(6, springSessionData.getId());
+    }
+
+    /**
+     * Replaces the table name placeholder of a query.
+     * @param base The query with the %TABLE_NAME% placeholder.
+     * @return The query for the configured table.
+     */
+    private String getUpsertQuery(String base) {
+        return base.replace("%TABLE_NAME%", tableName);
+    }
+
+    /**
+     * Saves session data through JdbcIndexedSessionRepository, for databases without a known upsert syntax.
+     * @param springSessionData The SpringSessionData object containing session data to be saved.
+     */
+    private void saveWithReadBeforeWrite(SpringSessionData springSessionData) {
         JdbcSession session = findById(springSessionData.getId());
         if (session != null) {
             addAttributesAndSave(springSessionData, session);
@@ -44,16 +396,39 @@ public class SpringRdbmsAsSecondarySession extends JdbcIndexedSessionRepository
         jdbcSession.setMaxInactiveInterval(springSessionData.getMaxInactiveInterval());
         jdbcSession.setLastAccessedTime(Instant.now());
         addAttributesAndSave(springSessionData, jdbcSession);
-        log.info("Session is created in Rdbms");
+        log.debug("Secondary session {} is created in Rdbms", springSessionData.getId());
     }
 
     /**
-     * Adds attributes to the session and saves it.
-     * @param springSessionData The SpringSessionData object containing attributes to be added.
-     * @param session The JdbcSession object to which attributes are added.
+     * Sets the attributes of the session data on the session, removes the attributes it no longer holds, and saves it.
+     * @param springSessionData The SpringSessionData object containing the attributes of the session.
+     * @param session The JdbcSession object the attributes are set on.
      */
     private void addAttributesAndSave(SpringSessionData springSessionData, JdbcSession session) {
+        for (String attributeName : new ArrayList<>(session.getAttributeNames())) {
+            if (!springSessionData.getAttributes().containsKey(attributeName)) {
+                session.removeAttribute(attributeName);
+            }
+        }
         springSessionData.getAttributes().forEach(session::setAttribute);
         super.save(session);
     }
+
+    /**
+     * A serialized attribute waiting to be upserted.
+     */
+    private static final class AttributeRow {
+
+        private final String sessionId;
+
+        private final String attributeName;
+
+        private final byte[] attributeBytes;
+
+        private AttributeRow(String sessionId, String attributeName, byte[] attributeBytes) {
+            this.sessionId = sessionId;
+            this.attributeName = attributeName;
+            this.attributeBytes = attributeBytes;
+        }
+    }
 }
@@ -0,0 +1,468 @@
+package org.springframework.session.jdbc;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.framework.data.SpringSessionData;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.ISessionSaveAsSecondary;
+import org.springframework.session.MapSession;
+import org.springframework.session.serializer.JdkSessionCodec;
+import org.springframework.session.serializer.SessionCodec;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SpringRdbmsCompactSessionRepository stores every session in a single row of the SPRING_SESSION_COMPACT table,
+ * with the session id as primary key, indexed expiry time and principal name columns and all attributes serialized
+ * in one SESSION_ATTRIBUTES column. A save is one upsert of the row in the syntax of the dialect, a read one primary
+ * key lookup, so neither joins nor per-attribute statements lock more than the row of the session.
+ * Attributes are encoded one by one with the SessionCodec, so codecs and attribute offload apply as in the other
+ * schemas. The repository serves as primary storage and, writing sessions blindly, as secondary storage.
+ */
+@Slf4j
+public class SpringRdbmsCompactSessionRepository
+        implements FindByIndexNameSessionRepository<MapSession>, ISessionSaveAsSecondary {
+
+    public static final String DEFAULT_TABLE_NAME = "SPRING_SESSION_COMPACT";
+
+    private static final String STORAGE_NAME = "RDBMS";
+
+    /**
+     * Version of the SESSION_ATTRIBUTES encoding, written as its first byte.
+     */
+    private static final int ATTRIBUTES_FORMAT_VERSION = 1;
+
+    /**
+     * Maximum number of session rows upserted by one statement.
+     */
+    private static final int MAX_ROWS_PER_STATEMENT = 100;
+
+    private static final String SESSION_COLUMNS =
+            "SESSION_ID, CREATION_TIME, LAST_ACCESS_TIME, MAX_INACTIVE_INTERVAL, SESSION_ATTRIBUTES";
+
+    private static final String SELECT_SESSION_QUERY = "SELECT " + SESSION_COLUMNS
+            + " FROM %TABLE_NAME% WHERE SESSION_ID = ?";
+
+    private static final String SELECT_PRINCIPAL_SESSIONS_QUERY = "SELECT " + SESSION_COLUMNS
+            + " FROM %TABLE_NAME% WHERE PRINCIPAL_NAME = ? AND EXPIRY_TIME > ?";
+
+    private static final String DELETE_SESSION_QUERY = "DELETE FROM %TABLE_NAME% WHERE SESSION_ID = ?";
+
+    private static final String UPDATE_SESSION_QUERY = "UPDATE %TABLE_NAME% SET CREATION_TIME = ?, "
+            + "LAST_ACCESS_TIME = ?, MAX_INACTIVE_INTERVAL = ?, EXPIRY_TIME = ?, PRINCIPAL_NAME = ?, "
+            + "SESSION_ATTRIBUTES = ? WHERE SESSION_ID = ?";
+
+    private static final String INSERT_SESSION_QUERY = "INSERT INTO %TABLE_NAME% (SESSION_ID, CREATION_TIME, "
+            + "LAST_ACCESS_TIME, MAX_INACTIVE_INTERVAL, EXPIRY_TIME, PRINCIPAL_NAME, SESSION_ATTRIBUTES) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcOperations jdbcOperations;
+
+    private final TransactionOperations transactionOperations;
+
+    private SessionCodec sessionCodec = new JdkSessionCodec();
+
+    private SpringRdbmsDialect dialect = SpringRdbmsDialect.GENERIC;
+
+    private String tableName = DEFAULT_TABLE_NAME;
+
+    private Duration defaultMaxInactiveInterval = Duration.ofSeconds(MapSession.DEFAULT_MAX_INACTIVE_INTERVAL_SECONDS);
+
+    private DistributionSummary sessionSizeSummary;
+
+    /**
+     * Constructor for SpringRdbmsCompactSessionRepository.
+     * @param jdbcOperations The JdbcOperations object to interact with the database.
+     * @param transactionOperations The TransactionOperations object to manage transactions.
+     */
+    public SpringRdbmsCompactSessionRepository(JdbcOperations jdbcOperations,
+                                               TransactionOperations transactionOperations) {
+        this.jdbcOperations = jdbcOperations;
+        this.transactionOperations = transactionOperations;
+        setMeterRegistry(Metrics.globalRegistry);
+    }
+
+    /**
+     * Sets the name of the table the sessions are stored in.
+     * @param tableName The name of the table.
+     */
+    public void setTableName(String tableName) {
+        this.tableName = tableName.trim();
+    }
+
+    /**
+     * Gets the name of the table the sessions are stored in.
+     * @return The name of the table.
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Sets the codec the session attributes are encoded with.
+     * @param sessionCodec The SessionCodec to use.
+     */
+    public void setSessionCodec(SessionCodec sessionCodec) {
+        this.sessionCodec = sessionCodec;
+    }
+
+    /**
+     * Sets the dialect used to upsert sessions.
+     * @param dialect The SpringRdbmsDialect of the database.
+     */
+    public void setDialect(SpringRdbmsDialect dialect) {
+        this.dialect = dialect;
+    }
+
+    /**
+     * Sets the max inactive interval of the sessions created by this repository.
+     * @param defaultMaxInactiveInterval The max inactive interval to set.
+     */
+    public void setDefaultMaxInactiveInterval(Duration defaultMaxInactiveInterval) {
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+    }
+
+    /**
+     * Sets the MeterRegistry the size of the written sessions is published to.
+     * @param meterRegistry The MeterRegistry to set.
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.sessionSizeSummary = DistributionSummary.builder("spring.session.secondary.size")
+                .tag("storage", STORAGE_NAME)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Creates a session, which is stored on its first save.
+     * @return The new session.
+     */
+    @Override
+    public MapSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return session;
+    }
+
+    /**
+     * Saves a session with one upsert of its row. The row of a session whose id was changed is deleted in the
+     * same transaction.
+     * @param session The session to save.
+     */
+    @Override
+    public void save(MapSession session) {
+        Object principalName = session.getAttribute(PRINCIPAL_NAME_INDEX_NAME);
+        Map<String, Object> attributes = new HashMap<>(session.getAttributeNames().size());
+        session.getAttributeNames().forEach(attributeName ->
+                attributes.put(attributeName, session.getAttribute(attributeName)));
+        List<SessionRow> rows = Collections.singletonList(new SessionRow(session.getId(),
+                session.getCreationTime().toEpochMilli(), session.getLastAccessedTime().toEpochMilli(),
+                session.getMaxInactiveInterval(), principalName != null ? principalName.toString() : null,
+                encodeAttributes(attributes)));
+        if (session.getId().equals(session.getOriginalId())) {
+            upsert(rows);
+            return;
+        }
+        transactionOperations.executeWithoutResult(status -> {
+            jdbcOperations.update(getQuery(DELETE_SESSION_QUERY), session.getOriginalId());
+            upsert(rows);
+        });
+    }
+
+    /**
+     * Finds a session with one primary key lookup. An expired session is deleted and not returned.
+     * @param id The ID of the session.
+     * @return The session, or null if it does not exist or has expired.
+     */
+    @Override
+    public MapSession findById(String id) {
+        MapSession session = jdbcOperations.query(getQuery(SELECT_SESSION_QUERY),
+                (ResultSetExtractor<MapSession>) resultSet -> resultSet.next() ? toMapSession(resultSet) : null, id);
+        if (session != null && session.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+        return session;
+    }
+
+    /**
+     * Deletes a session.
+     * @param id The ID of the session to delete.
+     */
+    @Override
+    public void deleteById(String id) {
+        jdbcOperations.update(getQuery(DELETE_SESSION_QUERY), id);
+    }
+
+    /**
+     * Finds the live sessions of a principal through the index on PRINCIPAL_NAME.
+     * @param indexName The name of the index, only the principal name index is maintained.
+     * @param indexValue The name of the principal.
+     * @return The sessions of the principal by their ID, empty for other indexes.
+     */
+    @Override
+    public Map<String, MapSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        if (!PRINCIPAL_NAME_INDEX_NAME.equals(indexName)) {
+            return Collections.emptyMap();
+        }
+        Map<String, MapSession> sessions = new HashMap<>();
+        jdbcOperations.query(getQuery(SELECT_PRINCIPAL_SESSIONS_QUERY), resultSet -> {
+            MapSession session = toMapSession(resultSet);
+            sessions.put(session.getId(), session);
+        }, indexValue, System.currentTimeMillis());
+        return sessions;
+    }
+
+    /**
+     * Saves session data as secondary with one upsert of its row, without reading the existing session.
+     * @param springSessionData The SpringSessionData object containing session data to be saved.
+     */
+    @Override
+    public void saveAsSecondary(SpringSessionData springSessionData) {
+        saveAllAsSecondary(Collections.singletonList(springSessionData));
+    }
+
+    /**
+     * Saves a batch of sessions as secondary with multi-row upserts, in a single transaction when the batch
+     * takes more than one statement.
+     * @param springSessionDataList The SpringSessionData objects containing session data to be saved.
+     */
+    @Override
+    public void saveAllAsSecondary(List<SpringSessionData> springSessionDataList) {
+        long now = System.currentTimeMillis();
+        Map<String, SessionRow> rowsById = new LinkedHashMap<>();
+        for (SpringSessionData springSessionData : springSessionDataList) {
+            long lastAccessTime = springSessionData.getLastAccessedMillis() > 0
+                    ? springSessionData.getLastAccessedMillis() : now;
+            long creationTime = springSessionData.getCreatedMillis() > 0
+                    ? springSessionData.getCreatedMillis() : lastAccessTime;
+            rowsById.put(springSessionData.getId(), new SessionRow(springSessionData.getId(), creationTime,
+                    lastAccessTime, springSessionData.getMaxInactiveInterval(), springSessionData.getPrincipalName(),
+                    encodeAttributes(springSessionData.getAttributes())));
+        }
+        List<SessionRow> rows = new ArrayList<>(rowsById.values());
+        if (rows.size() <= MAX_ROWS_PER_STATEMENT) {
+            upsert(rows);
+        } else {
+            transactionOperations.executeWithoutResult(status -> upsert(rows));
+        }
+        log.debug("{} secondary sessions are saved in Rdbms", rows.size());
+    }
+
+    /**
+     * Reads a session from the current row of a result set selecting the session columns.
+     * @param resultSet The result set positioned on a session row.
+     * @return The session.
+     * @throws SQLException If a column cannot be read.
+     */
+    MapSession toMapSession(ResultSet resultSet) throws SQLException {
+        MapSession session = new MapSession(resultSet.getString("SESSION_ID"));
+        session.setCreationTime(Instant.ofEpochMilli(resultSet.getLong("CREATION_TIME")));
+        session.setLastAccessedTime(Instant.ofEpochMilli(resultSet.getLong("LAST_ACCESS_TIME")));
+        session.setMaxInactiveInterval(Duration.ofSeconds(resultSet.getInt("MAX_INACTIVE_INTERVAL")));
+        decodeAttributes(resultSet.getBytes("SESSION_ATTRIBUTES"), session);
+        return session;
+    }
+
+    /**
+     * Upserts session rows, with multi-row statements of the dialect or an update followed by an insert.
+     * @param rows The rows to write, with distinct session ids.
+     */
+    private void upsert(List<SessionRow> rows) {
+        if (!dialect.supportsUpsert()) {
+            rows.forEach(this::updateOrInsert);
+            return;
+        }
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<SessionRow> chunk = rows.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, rows.size()));
+            jdbcOperations.update(getQuery(dialect.getCompactSessionUpsertQuery(chunk.size())), ps -> {
+                int parameterIndex = 1;
+                for (SessionRow row : chunk) {
+                    parameterIndex = setRowValues(ps, parameterIndex, row);
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes a session row for databases without a known upsert syntax. A row inserted concurrently by another
+     * node is updated instead.
+     * @param row The row to write.
+     */
+    private void updateOrInsert(SessionRow row) {
+        if (update(row)) {
+            return;
+        }
+        try {
+            jdbcOperations.update(getQuery(INSERT_SESSION_QUERY), ps -> setRowValues(ps, 1, row));
+        } catch (DuplicateKeyException e) {
+            update(row);
+        }
+    }
+
+    /**
+     * Updates an existing session row.
+     * @param row The row to write.
+     * @return True if the row exists, otherwise false.
+     */
+    private boolean update(SessionRow row) {
+        return jdbcOperations.update(getQuery(UPDATE_SESSION_QUERY), ps -> {
+            ps.setLong(1, row.creationTime);
+            ps.setLong(2, row.lastAccessTime);
+            ps.setInt(3, (int) row.maxInactiveInterval.getSeconds());
+            ps.setLong(4, row.getExpiryTime());
+            setPrincipalName(ps, 5, row.principalName);
+            ps.setBytes(6, row.attributes);
+            ps.setString(7, row.sessionId);
+        }) > 0;
+    }
+
+    /**
+     * Binds the values of one row, in the column order of the insert and upsert queries.
+     * @param ps The PreparedStatement to bind.
+     * @param parameterIndex The index of the first parameter of the row.
+     * @param row The row to bind.
+     * @return The index of the first parameter of the next row.
+     * @throws SQLException If a value cannot be bound.
+     */
+    private static int setRowValues(PreparedStatement ps, int parameterIndex, SessionRow row) throws SQLException {
+        ps.setString(parameterIndex, row.sessionId);
+        ps.setLong(parameterIndex + 1, row.creationTime);
+        ps.setLong(parameterIndex + 2, row.lastAccessTime);
+        ps.setInt(parameterIndex + 3, (int) row.maxInactiveInterval.getSeconds());
+        ps.setLong(parameterIndex + 4, row.getExpiryTime());
+        setPrincipalName(ps, parameterIndex + 5, row.principalName);
+        ps.setBytes(parameterIndex + 6, row.attributes);
+        return parameterIndex + 7;
+    }
+
+    /**
+     * Binds a principal name, which may be null.
+     * @param ps The PreparedStatement to bind.
+     * @param parameterIndex The index of the parameter.
+     * @param principalName The name of the principal, or null.
+     * @throws SQLException If the value cannot be bound.
+     */
+    private static void setPrincipalName(PreparedStatement ps, int parameterIndex, String principalName)
+            throws SQLException {
+        if (principalName != null) {
+            ps.setString(parameterIndex, principalName);
+        } else {
+            ps.setNull(parameterIndex, Types.VARCHAR);
+        }
+    }
+
+    /**
+     * Serializes the attributes of a session into one value: a version byte, then the name, length and
+     * SessionCodec encoding of every attribute. Null attributes are left out. The size of the value is recorded.
+     * @param attributes The attributes to serialize.
+     * @return The serialized attributes.
+     */
+    private byte[] encodeAttributes(Map<String, Object> attributes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(ATTRIBUTES_FORMAT_VERSION);
+            for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+                if (attribute.getValue() != null) {
+                    byte[] value = sessionCodec.encode(attribute.getValue());
+                    out.writeUTF(attribute.getKey());
+                    out.writeInt(value.length);
+                    out.write(value);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize session attributes", e);
+        }
+        sessionSizeSummary.record(bytes.size());
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deserializes the attributes written by encodeAttributes into a session.
+     * @param bytes The serialized attributes.
+     * @param session The session the attributes are set on.
+     * @throws IllegalStateException If the attributes were written in an unknown format.
+     */
+    private void decodeAttributes(byte[] bytes, MapSession session) {
+        if (bytes == null || bytes.length == 0) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            int version = in.readUnsignedByte();
+            if (version != ATTRIBUTES_FORMAT_VERSION) {
+                throw new IllegalStateException("Unknown session attributes format " + version);
+            }
+            while (in.available() > 0) {
+                String attributeName = in.readUTF();
+                byte[] value = new byte[in.readInt()];
+                in.readFully(value);
+                session.setAttribute(attributeName, sessionCodec.decode(value));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to deserialize the attributes of session " + session.getId(), e);
+        }
+    }
+
+    private String getQuery(String query) {
+        return query.replace("%TABLE_NAME%", tableName);
+    }
+
+    /**
+     * A session row waiting to be written.
+     */
+    private static final class SessionRow {
+
+        private final String sessionId;
+
+        private final long creationTime;
+
+        private final long lastAccessTime;
+
+        private final Duration maxInactiveInterval;
+
+        private final String principalName;
+
+        private final byte[] attributes;
+
+        private SessionRow(String sessionId, long creationTime, long lastAccessTime, Duration maxInactiveInterval,
+                           String principalName, byte[] attributes) {
+            this.sessionId = sessionId;
+            this.creationTime = creationTime;
+            this.lastAccessTime = lastAccessTime;
+            this.maxInactiveInterval = maxInactiveInterval;
+            this.principalName = principalName;
+            this.attributes = attributes;
+        }
+
+        /**
+         * Gets the time the session expires, Long.MAX_VALUE if it never does.
+         * @return The expiry time, in milliseconds since the epoch.
+         */
+        private long getExpiryTime() {
+            return maxInactiveInterval.isNegative() ? Long.MAX_VALUE : lastAccessTime + maxInactiveInterval.toMillis();
+        }
+    }
+}
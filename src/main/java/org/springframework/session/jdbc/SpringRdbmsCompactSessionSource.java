@@ -0,0 +1,120 @@
+package org.springframework.session.jdbc;
+
+import org.framework.data.SpringSessionData;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.session.SessionPage;
+import org.springframework.session.SessionSource;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SpringRdbmsCompactSessionSource streams the sessions of the SPRING_SESSION_COMPACT table with keyset pagination.
+ * Every partition is read in SESSION_ID order and resumed after the last SESSION_ID it returned, on the primary key,
+ * and every session is read with its attributes from its single row.
+ */
+public class SpringRdbmsCompactSessionSource implements SessionSource {
+
+    private static final String SELECT_SESSIONS_QUERY = "SELECT SESSION_ID, CREATION_TIME, LAST_ACCESS_TIME, "
+            + "MAX_INACTIVE_INTERVAL, SESSION_ATTRIBUTES FROM %TABLE_NAME% WHERE EXPIRY_TIME > ?";
+
+    private final SpringRdbmsCompactSessionRepository repository;
+
+    private final JdbcOperations jdbcOperations;
+
+    /**
+     * Constructor for SpringRdbmsCompactSessionSource.
+     * @param repository The SpringRdbmsCompactSessionRepository the rows are read with.
+     * @param jdbcOperations The JdbcOperations object to interact with the database.
+     */
+    public SpringRdbmsCompactSessionSource(SpringRdbmsCompactSessionRepository repository,
+                                           JdbcOperations jdbcOperations) {
+        this.repository = repository;
+        this.jdbcOperations = jdbcOperations;
+    }
+
+    /**
+     * Gets the name of the storage the sessions are read from.
+     * @return RDBMS.
+     */
+    @Override
+    public String getName() {
+        return SpringRdbmsSessionStoreBackend.NAME;
+    }
+
+    /**
+     * Gets the number of partitions, one per hexadecimal character.
+     * @return The number of partitions.
+     */
+    @Override
+    public int getPartitionCount() {
+        return HEX_PARTITIONS;
+    }
+
+    /**
+     * Reads the next page of live sessions of a partition.
+     * The cursor is the SESSION_ID of the last session of the previous page.
+     * @param partition The partition to read.
+     * @param cursor The cursor returned with the previous page, or null to read the partition from its start.
+     * @param pageSize The maximum number of sessions to read.
+     * @return The page of sessions.
+     */
+    @Override
+    public SessionPage readPage(int partition, String cursor, int pageSize) {
+        return readRange(SessionSource.lowerBound(partition), SessionSource.upperBound(partition), cursor, pageSize);
+    }
+
+    /**
+     * Reads the next page of live sessions whose SESSION_ID starts with a prefix.
+     * The cursor is the SESSION_ID of the last session of the previous page.
+     * @param idPrefix The prefix of the session ids to read.
+     * @param cursor The cursor returned with the previous page, or null to read from the first session.
+     * @param pageSize The maximum number of sessions to read.
+     * @return The page of sessions.
+     */
+    @Override
+    public SessionPage readPrefixPage(String idPrefix, String cursor, int pageSize) {
+        return readRange(idPrefix, SessionSource.prefixUpperBound(idPrefix), cursor, pageSize);
+    }
+
+    /**
+     * Reads the next page of live sessions of a SESSION_ID range, in SESSION_ID order.
+     * @param lowerBound The lowest SESSION_ID of the range, included, or null for no lower bound.
+     * @param upperBound The highest SESSION_ID of the range, excluded, or null for no upper bound.
+     * @param cursor The SESSION_ID of the last session of the previous page, or null to read the range from its start.
+     * @param pageSize The maximum number of sessions to read.
+     * @return The page of sessions.
+     */
+    private SessionPage readRange(String lowerBound, String upperBound, String cursor, int pageSize) {
+        StringBuilder query = new StringBuilder(
+                SELECT_SESSIONS_QUERY.replace("%TABLE_NAME%", repository.getTableName()));
+        List<Object> parameters = new ArrayList<>(3);
+        parameters.add(System.currentTimeMillis());
+        if (cursor != null) {
+            query.append(" AND SESSION_ID > ?");
+            parameters.add(cursor);
+        } else if (lowerBound != null) {
+            query.append(" AND SESSION_ID >= ?");
+            parameters.add(lowerBound);
+        }
+        if (upperBound != null) {
+            query.append(" AND SESSION_ID < ?");
+            parameters.add(upperBound);
+        }
+        query.append(" ORDER BY SESSION_ID");
+        List<SpringSessionData> sessions = new ArrayList<>(pageSize);
+        jdbcOperations.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(query.toString());
+            statement.setMaxRows(pageSize);
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            return statement;
+        }, resultSet -> {
+            sessions.add(SpringRdbmsSessionConverterUtil.convertToSessionData(repository.toMapSession(resultSet)));
+        });
+        String lastSessionId = sessions.isEmpty() ? null : sessions.get(sessions.size() - 1).getId();
+        return new SessionPage(sessions, sessions.size() < pageSize ? null : lastSessionId);
+    }
+}
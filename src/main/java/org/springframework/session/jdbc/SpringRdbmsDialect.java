@@ -0,0 +1,145 @@
+package org.springframework.session.jdbc;
+
+import java.util.Collections;
+
+/**
+ * SpringRdbmsDialect holds the dialect specific upsert queries used to write sessions in a single statement.
+ * Queries use the %TABLE_NAME% placeholder of JdbcIndexedSessionRepository, session upserts
+ * additionally use %ROWS% for their multi-row VALUES list. Compact session upserts write the single-row schema
+ * of SpringRdbmsCompactSessionRepository.
+ */
+public enum SpringRdbmsDialect {
+
+    MYSQL(
+            "INSERT INTO %TABLE_NAME% (PRIMARY_ID, SESSION_ID, CREATION_TIME, LAST_ACCESS_TIME, MAX_INACTIVE_INTERVAL, EXPIRY_TIME, PRINCIPAL_NAME) "
+                    + "VALUES %ROWS% "
+                    + "ON DUPLICATE KEY UPDATE LAST_ACCESS_TIME = VALUES(LAST_ACCESS_TIME), MAX_INACTIVE_INTERVAL = VALUES(MAX_INACTIVE_INTERVAL), "
+                    + "EXPIRY_TIME = VALUES(EXPIRY_TIME), PRINCIPAL_NAME = VALUES(PRINCIPAL_NAME)",
+            "INSERT INTO %TABLE_NAME%_ATTRIBUTES (SESSION_PRIMARY_ID, ATTRIBUTE_NAME, ATTRIBUTE_BYTES) "
+                    + "SELECT PRIMARY_ID, ?, ? FROM %TABLE_NAME% WHERE SESSION_ID = ? "
+                    + "ON DUPLICATE KEY UPDATE ATTRIBUTE_BYTES = VALUES(ATTRIBUTE_BYTES)",
+            "INSERT INTO %TABLE_NAME% (SESSION_ID, CREATION_TIME, LAST_ACCESS_TIME, MAX_INACTIVE_INTERVAL, EXPIRY_TIME, PRINCIPAL_NAME, SESSION_ATTRIBUTES) "
+                    + "VALUES %ROWS% "
+                    + "ON DUPLICATE KEY UPDATE LAST_ACCESS_TIME = VALUES(LAST_ACCESS_TIME), MAX_INACTIVE_INTERVAL = VALUES(MAX_INACTIVE_INTERVAL), "
+                    + "EXPIRY_TIME = VALUES(EXPIRY_TIME), PRINCIPAL_NAME = VALUES(PRINCIPAL_NAME), SESSION_ATTRIBUTES = VALUES(SESSION_ATTRIBUTES)"),
+
+    POSTGRESQL(
+            "INSERT INTO %TABLE_NAME% (PRIMARY_ID, SESSION_ID, CREATION_TIME, LAST_ACCESS_TIME, MAX_INACTIVE_INTERVAL, EXPIRY_TIME, PRINCIPAL_NAME) "
+                    + "VALUES %ROWS% "
+                    + "ON CONFLICT (SESSION_ID) DO UPDATE SET LAST_ACCESS_TIME = EXCLUDED.LAST_ACCESS_TIME, "
+                    + "MAX_INACTIVE_INTERVAL = EXCLUDED.MAX_INACTIVE_INTERVAL, EXPIRY_TIME = EXCLUDED.EXPIRY_TIME, "
+                    + "PRINCIPAL_NAME = EXCLUDED.PRINCIPAL_NAME",
+            "INSERT INTO %TABLE_NAME%_ATTRIBUTES (SESSION_PRIMARY_ID, ATTRIBUTE_NAME, ATTRIBUTE_BYTES) "
+                    + "SELECT PRIMARY_ID, ?, ? FROM %TABLE_NAME% WHERE SESSION_ID = ? "
+                    + "ON CONFLICT (SESSION_PRIMARY_ID, ATTRIBUTE_NAME) DO UPDATE SET ATTRIBUTE_BYTES = EXCLUDED.ATTRIBUTE_BYTES",
+            "INSERT INTO %TABLE_NAME% (SESSION_ID, CREATION_TIME, LAST_ACCESS_TIME, MAX_INACTIVE_INTERVAL, EXPIRY_TIME, PRINCIPAL_NAME, SESSION_ATTRIBUTES) "
+                    + "VALUES %ROWS% "
+                    + "ON CONFLICT (SESSION_ID) DO UPDATE SET LAST_ACCESS_TIME = EXCLUDED.LAST_ACCESS_TIME, "
+                    + "MAX_INACTIVE_INTERVAL = EXCLUDED.MAX_INACTIVE_INTERVAL, EXPIRY_TIME = EXCLUDED.EXPIRY_TIME, "
+                    + "PRINCIPAL_NAME = EXCLUDED.PRINCIPAL_NAME, SESSION_ATTRIBUTES = EXCLUDED.SESSION_ATTRIBUTES"),
+
+    H2(
+            "MERGE INTO %TABLE_NAME% T USING (VALUES %ROWS%) "
+                    + "S (PRIMARY_ID, SESSION_ID, CREATION_TIME, LAST_ACCESS_TIME, MAX_INACTIVE_INTERVAL, EXPIRY_TIME, PRINCIPAL_NAME) "
+                    + "ON T.SESSION_ID = S.SESSION_ID "
+                    + "WHEN MATCHED THEN UPDATE SET LAST_ACCESS_TIME = S.LAST_ACCESS_TIME, MAX_INACTIVE_INTERVAL = S.MAX_INACTIVE_INTERVAL, "
+                    + "EXPIRY_TIME = S.EXPIRY_TIME, PRINCIPAL_NAME = S.PRINCIPAL_NAME "
+                    + "WHEN NOT MATCHED THEN INSERT (PRIMARY_ID, SESSION_ID, CREATION_TIME, LAST_ACCESS_TIME, MAX_INACTIVE_INTERVAL, EXPIRY_TIME, PRINCIPAL_NAME) "
+                    + "VALUES (S.PRIMARY_ID, S.SESSION_ID, S.CREATION_TIME, S.LAST_ACCESS_TIME, S.MAX_INACTIVE_INTERVAL, S.EXPIRY_TIME, S.PRINCIPAL_NAME)",
+            "MERGE INTO %TABLE_NAME%_ATTRIBUTES T USING (SELECT PRIMARY_ID AS SESSION_PRIMARY_ID, "
+                    + "CAST(? AS VARCHAR(200)) AS ATTRIBUTE_NAME, CAST(? AS BLOB) AS ATTRIBUTE_BYTES "
+                    + "FROM %TABLE_NAME% WHERE SESSION_ID = ?) S "
+                    + "ON T.SESSION_PRIMARY_ID = S.SESSION_PRIMARY_ID AND T.ATTRIBUTE_NAME = S.ATTRIBUTE_NAME "
+                    + "WHEN MATCHED THEN UPDATE SET ATTRIBUTE_BYTES = S.ATTRIBUTE_BYTES "
+                    + "WHEN NOT MATCHED THEN INSERT (SESSION_PRIMARY_ID, ATTRIBUTE_NAME, ATTRIBUTE_BYTES) "
+                    + "VALUES (S.SESSION_PRIMARY_ID, S.ATTRIBUTE_NAME, S.ATTRIBUTE_BYTES)",
+            "MERGE INTO %TABLE_NAME% (SESSION_ID, CREATION_TIME, LAST_ACCESS_TIME, MAX_INACTIVE_INTERVAL, EXPIRY_TIME, PRINCIPAL_NAME, SESSION_ATTRIBUTES) "
+                    + "KEY (SESSION_ID) VALUES %ROWS%"),
+
+    /**
+     * Databases without a known upsert syntax, which fall back to the JdbcIndexedSessionRepository queries,
+     * and write compact sessions with an update followed by an insert when no row was updated.
+     */
+    GENERIC(null, null, null);
+
+    private static final String SESSION_ROW = "(?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Upserts SPRING_SESSION rows, binding primary id, session id, creation time, last access time,
+     * max inactive interval, expiry time and principal name for every row.
+     */
+    private final String sessionUpsertQuery;
+
+    /**
+     * Upserts one attribute row, binding attribute name, attribute bytes and session id.
+     */
+    private final String attributeUpsertQuery;
+
+    /**
+     * Upserts compact session rows, binding session id, creation time, last access time, max inactive interval,
+     * expiry time, principal name and serialized attributes for every row.
+     */
+    private final String compactSessionUpsertQuery;
+
+    SpringRdbmsDialect(String sessionUpsertQuery, String attributeUpsertQuery, String compactSessionUpsertQuery) {
+        this.sessionUpsertQuery = sessionUpsertQuery;
+        this.attributeUpsertQuery = attributeUpsertQuery;
+        this.compactSessionUpsertQuery = compactSessionUpsertQuery;
+    }
+
+    /**
+     * Gets the query upserting the given number of SPRING_SESSION rows in one statement.
+     * @param rowCount The number of rows to upsert.
+     * @return The multi-row upsert query.
+     */
+    public String getSessionUpsertQuery(int rowCount) {
+        return sessionUpsertQuery.replace("%ROWS%", String.join(", ", Collections.nCopies(rowCount, SESSION_ROW)));
+    }
+
+    /**
+     * Gets the query upserting one attribute row.
+     * @return The attribute upsert query.
+     */
+    public String getAttributeUpsertQuery() {
+        return attributeUpsertQuery;
+    }
+
+    /**
+     * Gets the query upserting the given number of compact session rows in one statement.
+     * @param rowCount The number of rows to upsert.
+     * @return The multi-row upsert query.
+     */
+    public String getCompactSessionUpsertQuery(int rowCount) {
+        return compactSessionUpsertQuery.replace("%ROWS%", String.join(", ", Collections.nCopies(rowCount, SESSION_ROW)));
+    }
+
+    /**
+     * Checks if the dialect writes sessions with upsert queries.
+     * @return True if upserts are supported, otherwise false.
+     */
+    public boolean supportsUpsert() {
+        return sessionUpsertQuery != null;
+    }
+
+    /**
+     * Resolves the dialect from the JDBC database product name.
+     * @param databaseProductName The product name reported by the JDBC driver.
+     * @return The matching dialect, or GENERIC if the database is not known.
+     */
+    public static SpringRdbmsDialect fromDatabaseProductName(String databaseProductName) {
+        if (databaseProductName == null) {
+            return GENERIC;
+        }
+        switch (databaseProductName.toUpperCase()) {
+            case "MYSQL":
+            case "MARIADB":
+                return MYSQL;
+            case "POSTGRESQL":
+                return POSTGRESQL;
+            case "H2":
+                return H2;
+            default:
+                return GENERIC;
+        }
+    }
+}
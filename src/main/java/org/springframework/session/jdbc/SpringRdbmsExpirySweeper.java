@@ -0,0 +1,94 @@
+package org.springframework.session.jdbc;
+
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.session.SessionExpirySweeper;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SpringRdbmsExpirySweeper deletes expired sessions from the SPRING_SESSION table in bounded batches.
+ * A batch selects the oldest expired PRIMARY_IDs through the index on EXPIRY_TIME and deletes them by primary key,
+ * so no statement locks more rows than the batch, and the attribute rows follow through their cascading foreign key.
+ * The SPRING_SESSION_COMPACT table is swept alike, on its SESSION_ID primary key.
+ */
+public class SpringRdbmsExpirySweeper implements SessionExpirySweeper {
+
+    private static final String SELECT_EXPIRED_SESSIONS_QUERY = "SELECT %KEY_COLUMN% FROM %TABLE_NAME% "
+            + "WHERE EXPIRY_TIME < ? ORDER BY EXPIRY_TIME";
+
+    private static final String DELETE_EXPIRED_SESSIONS_QUERY = "DELETE FROM %TABLE_NAME% "
+            + "WHERE %KEY_COLUMN% IN (%PRIMARY_IDS%) AND EXPIRY_TIME < ?";
+
+    private final JdbcOperations jdbcOperations;
+
+    private String tableName = JdbcIndexedSessionRepository.DEFAULT_TABLE_NAME;
+
+    private String keyColumn = "PRIMARY_ID";
+
+    /**
+     * Constructor for SpringRdbmsExpirySweeper.
+     * @param jdbcOperations The JdbcOperations object to interact with the database.
+     */
+    public SpringRdbmsExpirySweeper(JdbcOperations jdbcOperations) {
+        this.jdbcOperations = jdbcOperations;
+    }
+
+    /**
+     * Sets the name of the table the sessions are stored in.
+     * @param tableName The name of the table.
+     */
+    public void setTableName(String tableName) {
+        this.tableName = tableName.trim();
+    }
+
+    /**
+     * Sets the primary key column the expired sessions are deleted by.
+     * @param keyColumn The name of the primary key column.
+     */
+    public void setKeyColumn(String keyColumn) {
+        this.keyColumn = keyColumn.trim();
+    }
+
+    /**
+     * Gets the name of the storage the sessions are deleted from.
+     * @return RDBMS.
+     */
+    @Override
+    public String getName() {
+        return SpringRdbmsSessionStoreBackend.NAME;
+    }
+
+    /**
+     * Deletes the oldest expired sessions, up to the batch size. Sessions extended since they were selected
+     * are kept, since the delete checks EXPIRY_TIME again.
+     * @param now The current time, in milliseconds since the epoch.
+     * @param batchSize The maximum number of sessions to delete.
+     * @return The number of sessions deleted, 0 once no expired session is left.
+     */
+    @Override
+    public int sweep(long now, int batchSize) {
+        List<Object> primaryIds = new ArrayList<>(batchSize);
+        jdbcOperations.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(getQuery(SELECT_EXPIRED_SESSIONS_QUERY));
+            statement.setMaxRows(batchSize);
+            statement.setLong(1, now);
+            return statement;
+        }, resultSet -> {
+            primaryIds.add(resultSet.getString(1));
+        });
+        if (primaryIds.isEmpty()) {
+            return 0;
+        }
+        String query = getQuery(DELETE_EXPIRED_SESSIONS_QUERY).replace("%PRIMARY_IDS%",
+                String.join(", ", Collections.nCopies(primaryIds.size(), "?")));
+        primaryIds.add(now);
+        return jdbcOperations.update(query, primaryIds.toArray());
+    }
+
+    private String getQuery(String query) {
+        return query.replace("%TABLE_NAME%", tableName).replace("%KEY_COLUMN%", keyColumn);
+    }
+}
@@ -0,0 +1,106 @@
+package org.springframework.session.jdbc;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.session.serializer.SessionBlobStore;
+
+import java.time.Duration;
+
+/**
+ * SpringRdbmsSessionBlobStore keeps session attribute blobs in the SPRING_SESSION_BLOBS table.
+ * Expired rows are deleted by purgeExpired, since relational databases do not expire rows by themselves.
+ */
+public class SpringRdbmsSessionBlobStore implements SessionBlobStore {
+
+    private static final String UPDATE_EXPIRY_QUERY = "UPDATE %TABLE_NAME% SET EXPIRY_TIME = ? WHERE BLOB_HASH = ?";
+
+    private static final String INSERT_BLOB_QUERY = "INSERT INTO %TABLE_NAME% (BLOB_HASH, BLOB_BYTES, EXPIRY_TIME) "
+            + "VALUES (?, ?, ?)";
+
+    private static final String SELECT_BLOB_QUERY = "SELECT BLOB_BYTES FROM %TABLE_NAME% "
+            + "WHERE BLOB_HASH = ? AND EXPIRY_TIME > ?";
+
+    private static final String DELETE_EXPIRED_BLOBS_QUERY = "DELETE FROM %TABLE_NAME% WHERE EXPIRY_TIME < ?";
+
+    private final JdbcOperations jdbcOperations;
+
+    private final String tableName;
+
+    /**
+     * Constructor for SpringRdbmsSessionBlobStore.
+     * @param jdbcOperations The JdbcOperations object to interact with the database.
+     * @param tableName The name of the table the blobs are stored in.
+     */
+    public SpringRdbmsSessionBlobStore(JdbcOperations jdbcOperations, String tableName) {
+        this.jdbcOperations = jdbcOperations;
+        this.tableName = tableName.trim();
+    }
+
+    /**
+     * Gets the name of the storage the blobs are kept in.
+     * @return RDBMS.
+     */
+    @Override
+    public String getName() {
+        return SpringRdbmsSessionStoreBackend.NAME;
+    }
+
+    /**
+     * Extends the expiry of a stored blob, or inserts it. The content of a hash never changes,
+     * so a blob inserted concurrently by another node only needs its expiry extended.
+     * @param hash The hexadecimal content hash of the blob.
+     * @param bytes The content of the blob.
+     * @param timeToLive The time the blob is kept.
+     */
+    @Override
+    public void put(String hash, byte[] bytes, Duration timeToLive) {
+        if (touch(hash, timeToLive)) {
+            return;
+        }
+        try {
+            jdbcOperations.update(getQuery(INSERT_BLOB_QUERY), hash, bytes, expiryTime(timeToLive));
+        } catch (DuplicateKeyException e) {
+            touch(hash, timeToLive);
+        }
+    }
+
+    /**
+     * Gets a blob.
+     * @param hash The hexadecimal content hash of the blob.
+     * @return The content of the blob, or null if it is not stored or has expired.
+     */
+    @Override
+    public byte[] get(String hash) {
+        return jdbcOperations.query(getQuery(SELECT_BLOB_QUERY),
+                (ResultSetExtractor<byte[]>) resultSet -> resultSet.next() ? resultSet.getBytes(1) : null,
+                hash, System.currentTimeMillis());
+    }
+
+    /**
+     * Extends the expiry of a blob.
+     * @param hash The hexadecimal content hash of the blob.
+     * @param timeToLive The time the blob is kept from now.
+     * @return True if the blob is stored, otherwise false.
+     */
+    @Override
+    public boolean touch(String hash, Duration timeToLive) {
+        return jdbcOperations.update(getQuery(UPDATE_EXPIRY_QUERY), expiryTime(timeToLive), hash) > 0;
+    }
+
+    /**
+     * Deletes the expired blobs.
+     */
+    @Override
+    public void purgeExpired() {
+        jdbcOperations.update(getQuery(DELETE_EXPIRED_BLOBS_QUERY), System.currentTimeMillis());
+    }
+
+    private String getQuery(String query) {
+        return query.replace("%TABLE_NAME%", tableName);
+    }
+
+    private static long expiryTime(Duration timeToLive) {
+        return System.currentTimeMillis() + timeToLive.toMillis();
+    }
+}
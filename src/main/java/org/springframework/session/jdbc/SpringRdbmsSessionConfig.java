@@ -1,15 +1,42 @@
 package org.springframework.session.jdbc;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.session.ISessionSaveAsSecondary;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.SessionSource;
+import org.springframework.session.serializer.JdkSessionCodec;
+import org.springframework.session.serializer.SessionCodec;
+import org.springframework.session.serializer.SessionCodecConversionService;
 import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.util.StringUtils;
 
 /**
  * SpringRdbmsSessionConfig provides configuration for Spring sessions stored in a relational database.
- * It initializes and configures SpringRdbmsAsSecondarySession and JdbcIndexedSessionRepository.
+ * It initializes and configures SpringRdbmsAsSecondarySession and JdbcIndexedSessionRepository, or
+ * SpringRdbmsCompactSessionRepository for both roles with the COMPACT schema.
  * @author Hardik Sharma
  */
+@Slf4j
 public class SpringRdbmsSessionConfig {
 
+    @Value("${spring.session.rdbms.dialect:}")
+    private String dialectName;
+
+    @Value("${spring.session.rdbms.lock_table_name:SPRING_SESSION_LOCKS}")
+    private String lockTableName;
+
+    @Value("${spring.session.rdbms.schema:INDEXED}")
+    private String schemaName;
+
+    @Value("${spring.session.rdbms.compact.table_name:SPRING_SESSION_COMPACT}")
+    private String compactTableName;
+
     private static JdbcIndexedSessionRepository jdbcIndexedSessionRepository;
 
     private final JdbcOperations jdbcOperations;
@@ -18,6 +45,16 @@ public class SpringRdbmsSessionConfig {
 
     private final TransactionOperations transactionOperations;
 
+    private SpringRdbmsCompactSessionRepository springRdbmsCompactSessionRepository;
+
+    private SessionSource springRdbmsSessionSource;
+
+    private SpringRdbmsExpirySweeper springRdbmsExpirySweeper;
+
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    private SessionCodec sessionCodec = new JdkSessionCodec();
+
     /**
      * Constructor for SpringRdbmsSessionConfig.
      * @param jdbcOperations The JdbcOperations object to interact with the database.
@@ -38,9 +75,78 @@ public class SpringRdbmsSessionConfig {
         }
         springJdbcAsSecondarySession =
                 new SpringRdbmsAsSecondarySession(jdbcOperations, transactionOperations);
+        springJdbcAsSecondarySession.setDialect(resolveDialect());
+        springJdbcAsSecondarySession.setMeterRegistry(meterRegistry);
+        springJdbcAsSecondarySession.setSessionCodec(sessionCodec);
         return springJdbcAsSecondarySession;
     }
 
+    /**
+     * Retrieves the configured SpringRdbmsCompactSessionRepository, keeping every session in a single row.
+     * @return The configured SpringRdbmsCompactSessionRepository.
+     */
+    public SpringRdbmsCompactSessionRepository getCompactSessionRepository() {
+        if (springRdbmsCompactSessionRepository != null) {
+            return springRdbmsCompactSessionRepository;
+        }
+        springRdbmsCompactSessionRepository =
+                new SpringRdbmsCompactSessionRepository(jdbcOperations, transactionOperations);
+        springRdbmsCompactSessionRepository.setTableName(compactTableName);
+        springRdbmsCompactSessionRepository.setDialect(resolveDialect());
+        springRdbmsCompactSessionRepository.setMeterRegistry(meterRegistry);
+        springRdbmsCompactSessionRepository.setSessionCodec(sessionCodec);
+        return springRdbmsCompactSessionRepository;
+    }
+
+    /**
+     * Retrieves the repository used when RDBMS is primary storage, chosen by the schema.
+     * @return The SpringRdbmsCompactSessionRepository with the COMPACT schema, otherwise the JdbcIndexedSessionRepository.
+     */
+    @SuppressWarnings("unchecked")
+    public SessionRepository<Session> getPrimarySessionRepository() {
+        return (SessionRepository<Session>) (getSchema() == Schema.COMPACT
+                ? getCompactSessionRepository() : getJdbcIndexedSessionRepository());
+    }
+
+    /**
+     * Retrieves the repository used to read and delete sessions when RDBMS is secondary storage, chosen by the schema.
+     * @return The SpringRdbmsCompactSessionRepository with the COMPACT schema, otherwise the SpringRdbmsAsSecondarySession.
+     */
+    public SessionRepository<? extends Session> getSecondarySessionRepository() {
+        return getSchema() == Schema.COMPACT ? getCompactSessionRepository() : getSpringJdbcOperationsSessionRepository();
+    }
+
+    /**
+     * Retrieves the writer used to save sessions when RDBMS is secondary storage, chosen by the schema.
+     * @return The SpringRdbmsCompactSessionRepository with the COMPACT schema, otherwise the SpringRdbmsAsSecondarySession.
+     */
+    public ISessionSaveAsSecondary getSecondaryWriter() {
+        return getSchema() == Schema.COMPACT ? getCompactSessionRepository() : getSpringJdbcOperationsSessionRepository();
+    }
+
+    /**
+     * Gets the schema the sessions are stored in.
+     * @return The configured Schema.
+     */
+    public Schema getSchema() {
+        return Schema.valueOf(schemaName.trim().toUpperCase());
+    }
+
+    /**
+     * Resolves the dialect from the configured name, or from the database metadata when none is configured.
+     * @return The SpringRdbmsDialect of the database.
+     */
+    private SpringRdbmsDialect resolveDialect() {
+        if (StringUtils.hasText(dialectName)) {
+            return SpringRdbmsDialect.valueOf(dialectName.trim().toUpperCase());
+        }
+        String databaseProductName = jdbcOperations.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        SpringRdbmsDialect dialect = SpringRdbmsDialect.fromDatabaseProductName(databaseProductName);
+        log.info("Using " + dialect + " dialect for " + databaseProductName);
+        return dialect;
+    }
+
     /**
      * Retrieves the configured JdbcIndexedSessionRepository.
      * @return The configured JdbcIndexedSessionRepository.
@@ -50,6 +156,76 @@ public class SpringRdbmsSessionConfig {
             return jdbcIndexedSessionRepository;
         }
         jdbcIndexedSessionRepository = new JdbcIndexedSessionRepository(jdbcOperations, transactionOperations);
+        jdbcIndexedSessionRepository.setConversionService(SessionCodecConversionService.create(sessionCodec));
         return jdbcIndexedSessionRepository;
     }
+
+    /**
+     * Retrieves the source reading the session table of the configured schema.
+     * @return The configured SpringRdbmsSessionSource, or SpringRdbmsCompactSessionSource with the COMPACT schema.
+     */
+    public SessionSource getSessionSource() {
+        if (springRdbmsSessionSource != null) {
+            return springRdbmsSessionSource;
+        }
+        if (getSchema() == Schema.COMPACT) {
+            springRdbmsSessionSource = new SpringRdbmsCompactSessionSource(getCompactSessionRepository(), jdbcOperations);
+        } else {
+            SpringRdbmsSessionSource sessionSource =
+                    new SpringRdbmsSessionSource(getJdbcIndexedSessionRepository(), jdbcOperations);
+            sessionSource.setSessionCodec(sessionCodec);
+            springRdbmsSessionSource = sessionSource;
+        }
+        return springRdbmsSessionSource;
+    }
+
+    /**
+     * Retrieves the SpringRdbmsExpirySweeper deleting the expired rows of the session table of the configured schema.
+     * @return The configured SpringRdbmsExpirySweeper.
+     */
+    public SpringRdbmsExpirySweeper getExpirySweeper() {
+        if (springRdbmsExpirySweeper == null) {
+            springRdbmsExpirySweeper = new SpringRdbmsExpirySweeper(jdbcOperations);
+            if (getSchema() == Schema.COMPACT) {
+                springRdbmsExpirySweeper.setTableName(compactTableName);
+                springRdbmsExpirySweeper.setKeyColumn("SESSION_ID");
+            }
+        }
+        return springRdbmsExpirySweeper;
+    }
+
+    /**
+     * Creates a lock held in a row of the lock table.
+     * @param lockName The name of the lock.
+     * @return The SpringRdbmsSessionLock.
+     */
+    public SpringRdbmsSessionLock getSessionLock(String lockName) {
+        return new SpringRdbmsSessionLock(jdbcOperations, lockTableName, lockName);
+    }
+
+    /**
+     * Sets the codec the session attributes are encoded with in the attribute table or the compact session row.
+     * @param sessionCodec The SessionCodec to use.
+     */
+    public void setSessionCodec(SessionCodec sessionCodec) {
+        this.sessionCodec = sessionCodec;
+    }
+
+    /**
+     * Sets the MeterRegistry the secondary session metrics are published to.
+     * @param meterRegistry The MeterRegistry to set.
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * How sessions are laid out in the database.
+     */
+    public enum Schema {
+        /** The SPRING_SESSION and SPRING_SESSION_ATTRIBUTES tables of JdbcIndexedSessionRepository. */
+        INDEXED,
+        /** One row per session in SPRING_SESSION_COMPACT, with all attributes serialized in one column. */
+        COMPACT
+    }
 }
@@ -2,11 +2,13 @@ package org.springframework.session.jdbc;
 
 import lombok.experimental.UtilityClass;
 import org.framework.data.SpringSessionData;
+import org.springframework.session.MapSession;
 import org.springframework.session.Session;
+import org.springframework.session.SessionAttributesView;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.HashSet;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * SpringRdbmsSessionConverterUtil provides utility methods for converting sessions to SpringSessionData objects.
@@ -17,30 +19,48 @@ public class SpringRdbmsSessionConverterUtil {
 
     /**
      * Converts a Session object to a SpringSessionData object.
+     * Sessions of JdbcIndexedSessionRepository and of SpringRdbmsCompactSessionRepository are read alike.
      * @param session The session object to be converted.
      * @return The converted SpringSessionData object.
      */
     public static SpringSessionData convertToSessionData(Session session) {
-        final JdbcIndexedSessionRepository.JdbcSession jdbcSession = (JdbcIndexedSessionRepository.JdbcSession) session;
         return SpringSessionData.builder()
-                .id(jdbcSession.getId())
-                .attributes(getAttributes(jdbcSession))
-                .maxInactiveInterval(jdbcSession.getMaxInactiveInterval())
+                .id(session.getId())
+                .attributes(new SessionAttributesView(session))
+                .maxInactiveInterval(session.getMaxInactiveInterval())
+                .lastAccessedMillis(session.getLastAccessedTime().toEpochMilli())
+                .createdMillis(session.getCreationTime().toEpochMilli())
                 .build();
     }
 
     /**
-     * Retrieves attributes from a JdbcSession and returns them as a map.
-     * @param jdbcSession The JdbcSession from which to retrieve attributes.
-     * @return A map containing the attributes of the JdbcSession.
+     * Converts the changes made to a Session object to a delta SpringSessionData object.
+     * @param session The session object to be converted.
+     * @param changedAttributeNames The names of the attributes set since the session was last saved.
+     * @param removedAttributeNames The names of the attributes removed since the session was last saved.
+     * @return The converted SpringSessionData object holding only the changed attributes.
      */
-    private static Map<String, Object> getAttributes(JdbcIndexedSessionRepository.JdbcSession jdbcSession) {
-        Map<String, Object> attributesMap = new HashMap<>();
-        Set<String> attributeNames = jdbcSession.getAttributeNames();
-        attributeNames.forEach(attribute -> {
-            attributesMap.put(attribute, jdbcSession.getAttribute(attribute));
-        });
-        return attributesMap;
+    public static SpringSessionData convertToSessionDelta(Session session, Set<String> changedAttributeNames,
+                                                          Set<String> removedAttributeNames) {
+        return SpringSessionData.builder()
+                .id(session.getId())
+                .attributes(new SessionAttributesView(session, new HashSet<>(changedAttributeNames)))
+                .maxInactiveInterval(session.getMaxInactiveInterval())
+                .lastAccessedMillis(session.getLastAccessedTime().toEpochMilli())
+                .createdMillis(session.getCreationTime().toEpochMilli())
+                .delta(true)
+                .removedAttributeNames(new HashSet<>(removedAttributeNames))
+                .build();
     }
-}
 
+    /**
+     * Converts a MapSession snapshot to a new JdbcSession of the given repository.
+     * The session gets a fresh primary key and is inserted in full on its next save.
+     * @param repository The JdbcIndexedSessionRepository the session belongs to.
+     * @param mapSession The snapshot of the session.
+     * @return The JdbcSession backed by the snapshot.
+     */
+    public static Session convertToSession(JdbcIndexedSessionRepository repository, MapSession mapSession) {
+        return repository.new JdbcSession(mapSession, UUID.randomUUID().toString(), true);
+    }
+}
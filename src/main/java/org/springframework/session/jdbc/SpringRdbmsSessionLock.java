@@ -0,0 +1,83 @@
+package org.springframework.session.jdbc;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.session.SessionLock;
+
+import java.time.Duration;
+
+/**
+ * SpringRdbmsSessionLock holds a lock in a row of the SPRING_SESSION_LOCKS table naming its owner and lease expiry.
+ * The row is taken over with a conditional update when it is the owner's or its lease has expired, and inserted
+ * when it does not exist yet, so the primary key decides between nodes racing for a new lock.
+ */
+public class SpringRdbmsSessionLock implements SessionLock {
+
+    private static final String UPDATE_LOCK_QUERY = "UPDATE %TABLE_NAME% SET LOCK_OWNER = ?, EXPIRY_TIME = ? "
+            + "WHERE LOCK_NAME = ? AND (LOCK_OWNER = ? OR EXPIRY_TIME < ?)";
+
+    private static final String INSERT_LOCK_QUERY = "INSERT INTO %TABLE_NAME% (LOCK_NAME, LOCK_OWNER, EXPIRY_TIME) "
+            + "VALUES (?, ?, ?)";
+
+    private static final String DELETE_LOCK_QUERY = "DELETE FROM %TABLE_NAME% WHERE LOCK_NAME = ? AND LOCK_OWNER = ?";
+
+    private final JdbcOperations jdbcOperations;
+
+    private final String tableName;
+
+    private final String lockName;
+
+    /**
+     * Constructor for SpringRdbmsSessionLock.
+     * @param jdbcOperations The JdbcOperations object to interact with the database.
+     * @param tableName The name of the table the locks are held in.
+     * @param lockName The name of the lock.
+     */
+    public SpringRdbmsSessionLock(JdbcOperations jdbcOperations, String tableName, String lockName) {
+        this.jdbcOperations = jdbcOperations;
+        this.tableName = tableName.trim();
+        this.lockName = lockName;
+    }
+
+    /**
+     * Gets the name of the storage the lock is held in.
+     * @return RDBMS.
+     */
+    @Override
+    public String getName() {
+        return SpringRdbmsSessionStoreBackend.NAME;
+    }
+
+    /**
+     * Takes over or renews the lock row, or inserts it if no node has held the lock yet.
+     * @param owner The unique id of the node.
+     * @param lease The time the lock is held without being renewed.
+     * @return True if the owner holds the lock, otherwise false.
+     */
+    @Override
+    public boolean tryAcquire(String owner, Duration lease) {
+        long now = System.currentTimeMillis();
+        long expiryTime = now + lease.toMillis();
+        if (jdbcOperations.update(getQuery(UPDATE_LOCK_QUERY), owner, expiryTime, lockName, owner, now) > 0) {
+            return true;
+        }
+        try {
+            return jdbcOperations.update(getQuery(INSERT_LOCK_QUERY), lockName, owner, expiryTime) > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Deletes the lock row if it is the owner's.
+     * @param owner The unique id of the node.
+     */
+    @Override
+    public void release(String owner) {
+        jdbcOperations.update(getQuery(DELETE_LOCK_QUERY), lockName, owner);
+    }
+
+    private String getQuery(String query) {
+        return query.replace("%TABLE_NAME%", tableName);
+    }
+}
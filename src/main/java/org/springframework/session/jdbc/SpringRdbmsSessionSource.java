@@ -0,0 +1,181 @@
+package org.springframework.session.jdbc;
+
+import org.framework.data.SpringSessionData;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.session.MapSession;
+import org.springframework.session.SessionPage;
+import org.springframework.session.SessionSource;
+import org.springframework.session.serializer.JdkSessionCodec;
+import org.springframework.session.serializer.SessionCodec;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SpringRdbmsSessionSource streams the sessions of the SPRING_SESSION table with keyset pagination.
+ * Every partition is read in SESSION_ID order and resumed after the last SESSION_ID it returned,
+ * so pages use the unique index on SESSION_ID instead of an offset. The attributes of a page are read with one query.
+ */
+public class SpringRdbmsSessionSource implements SessionSource {
+
+    private static final String SELECT_SESSIONS_QUERY = "SELECT PRIMARY_ID, SESSION_ID, CREATION_TIME, "
+            + "LAST_ACCESS_TIME, MAX_INACTIVE_INTERVAL FROM %TABLE_NAME% WHERE EXPIRY_TIME > ?";
+
+    private static final String SELECT_ATTRIBUTES_QUERY = "SELECT SESSION_PRIMARY_ID, ATTRIBUTE_NAME, ATTRIBUTE_BYTES "
+            + "FROM %TABLE_NAME%_ATTRIBUTES WHERE SESSION_PRIMARY_ID IN (%PRIMARY_IDS%)";
+
+    private final JdbcIndexedSessionRepository repository;
+
+    private final JdbcOperations jdbcOperations;
+
+    private SessionCodec sessionCodec = new JdkSessionCodec();
+
+    private String tableName = JdbcIndexedSessionRepository.DEFAULT_TABLE_NAME;
+
+    /**
+     * Constructor for SpringRdbmsSessionSource.
+     * @param repository The JdbcIndexedSessionRepository the sessions are converted with.
+     * @param jdbcOperations The JdbcOperations object to interact with the database.
+     */
+    public SpringRdbmsSessionSource(JdbcIndexedSessionRepository repository, JdbcOperations jdbcOperations) {
+        this.repository = repository;
+        this.jdbcOperations = jdbcOperations;
+    }
+
+    /**
+     * Sets the name of the table the sessions are stored in.
+     * @param tableName The name of the table.
+     */
+    public void setTableName(String tableName) {
+        this.tableName = tableName.trim();
+    }
+
+    /**
+     * Sets the codec the session attributes are encoded with.
+     * @param sessionCodec The SessionCodec to use.
+     */
+    public void setSessionCodec(SessionCodec sessionCodec) {
+        this.sessionCodec = sessionCodec;
+    }
+
+    /**
+     * Gets the name of the storage the sessions are read from.
+     * @return RDBMS.
+     */
+    @Override
+    public String getName() {
+        return SpringRdbmsSessionStoreBackend.NAME;
+    }
+
+    /**
+     * Gets the number of partitions, one per hexadecimal character.
+     * @return The number of partitions.
+     */
+    @Override
+    public int getPartitionCount() {
+        return HEX_PARTITIONS;
+    }
+
+    /**
+     * Reads the next page of live sessions of a partition.
+     * The cursor is the SESSION_ID of the last session of the previous page.
+     * @param partition The partition to read.
+     * @param cursor The cursor returned with the previous page, or null to read the partition from its start.
+     * @param pageSize The maximum number of sessions to read.
+     * @return The page of sessions.
+     */
+    @Override
+    public SessionPage readPage(int partition, String cursor, int pageSize) {
+        return readRange(SessionSource.lowerBound(partition), SessionSource.upperBound(partition), cursor, pageSize);
+    }
+
+    /**
+     * Reads the next page of live sessions whose SESSION_ID starts with a prefix.
+     * The cursor is the SESSION_ID of the last session of the previous page.
+     * @param idPrefix The prefix of the session ids to read.
+     * @param cursor The cursor returned with the previous page, or null to read from the first session.
+     * @param pageSize The maximum number of sessions to read.
+     * @return The page of sessions.
+     */
+    @Override
+    public SessionPage readPrefixPage(String idPrefix, String cursor, int pageSize) {
+        return readRange(idPrefix, SessionSource.prefixUpperBound(idPrefix), cursor, pageSize);
+    }
+
+    /**
+     * Reads the next page of live sessions of a SESSION_ID range, in SESSION_ID order.
+     * @param lowerBound The lowest SESSION_ID of the range, included, or null for no lower bound.
+     * @param upperBound The highest SESSION_ID of the range, excluded, or null for no upper bound.
+     * @param cursor The SESSION_ID of the last session of the previous page, or null to read the range from its start.
+     * @param pageSize The maximum number of sessions to read.
+     * @return The page of sessions.
+     */
+    private SessionPage readRange(String lowerBound, String upperBound, String cursor, int pageSize) {
+        StringBuilder query = new StringBuilder(getQuery(SELECT_SESSIONS_QUERY));
+        List<Object> parameters = new ArrayList<>(3);
+        parameters.add(System.currentTimeMillis());
+        if (cursor != null) {
+            query.append(" AND SESSION_ID > ?");
+            parameters.add(cursor);
+        } else if (lowerBound != null) {
+            query.append(" AND SESSION_ID >= ?");
+            parameters.add(lowerBound);
+        }
+        if (upperBound != null) {
+            query.append(" AND SESSION_ID < ?");
+            parameters.add(upperBound);
+        }
+        query.append(" ORDER BY SESSION_ID");
+        Map<String, MapSession> sessionsByPrimaryId = new LinkedHashMap<>();
+        jdbcOperations.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(query.toString());
+            statement.setMaxRows(pageSize);
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            return statement;
+        }, resultSet -> {
+            MapSession mapSession = new MapSession(resultSet.getString("SESSION_ID"));
+            mapSession.setCreationTime(Instant.ofEpochMilli(resultSet.getLong("CREATION_TIME")));
+            mapSession.setLastAccessedTime(Instant.ofEpochMilli(resultSet.getLong("LAST_ACCESS_TIME")));
+            mapSession.setMaxInactiveInterval(Duration.ofSeconds(resultSet.getInt("MAX_INACTIVE_INTERVAL")));
+            sessionsByPrimaryId.put(resultSet.getString("PRIMARY_ID"), mapSession);
+        });
+        readAttributes(sessionsByPrimaryId);
+        List<SpringSessionData> sessions = new ArrayList<>(sessionsByPrimaryId.size());
+        String lastSessionId = null;
+        for (Map.Entry<String, MapSession> entry : sessionsByPrimaryId.entrySet()) {
+            sessions.add(SpringRdbmsSessionConverterUtil.convertToSessionData(
+                    repository.new JdbcSession(entry.getValue(), entry.getKey(), false)));
+            lastSessionId = entry.getValue().getId();
+        }
+        return new SessionPage(sessions, sessions.size() < pageSize ? null : lastSessionId);
+    }
+
+    /**
+     * Reads the attributes of the given sessions with one query.
+     * @param sessionsByPrimaryId The sessions, by their primary key.
+     */
+    private void readAttributes(Map<String, MapSession> sessionsByPrimaryId) {
+        if (sessionsByPrimaryId.isEmpty()) {
+            return;
+        }
+        String query = getQuery(SELECT_ATTRIBUTES_QUERY).replace("%PRIMARY_IDS%",
+                String.join(", ", Collections.nCopies(sessionsByPrimaryId.size(), "?")));
+        jdbcOperations.query(query, resultSet -> {
+            MapSession mapSession = sessionsByPrimaryId.get(resultSet.getString("SESSION_PRIMARY_ID"));
+            mapSession.setAttribute(resultSet.getString("ATTRIBUTE_NAME"),
+                    sessionCodec.decode(resultSet.getBytes("ATTRIBUTE_BYTES")));
+        }, sessionsByPrimaryId.keySet().toArray());
+    }
+
+    private String getQuery(String query) {
+        return query.replace("%TABLE_NAME%", tableName);
+    }
+}
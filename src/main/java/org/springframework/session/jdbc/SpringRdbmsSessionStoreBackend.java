@@ -0,0 +1,152 @@
+package org.springframework.session.jdbc;
+
+import org.framework.data.SpringSessionData;
+import org.springframework.session.ISessionSaveAsSecondary;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionExpirySweeper;
+import org.springframework.session.SessionLock;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.SessionSource;
+import org.springframework.session.SessionStoreBackend;
+
+import java.util.Set;
+
+/**
+ * SpringRdbmsSessionStoreBackend exposes a relational database to MultiSessionRepository as primary or secondary storage.
+ */
+public class SpringRdbmsSessionStoreBackend implements SessionStoreBackend {
+
+    public static final String NAME = "RDBMS";
+
+    private final SpringRdbmsSessionConfig springRdbmsSessionConfig;
+
+    /**
+     * Constructor for SpringRdbmsSessionStoreBackend.
+     * @param springRdbmsSessionConfig The SpringRdbmsSessionConfig providing the repositories.
+     */
+    public SpringRdbmsSessionStoreBackend(SpringRdbmsSessionConfig springRdbmsSessionConfig) {
+        this.springRdbmsSessionConfig = springRdbmsSessionConfig;
+    }
+
+    /**
+     * Gets the name the storage is configured with.
+     * @return RDBMS.
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Gets the repository used when RDBMS is primary storage.
+     * @return The SpringRdbmsCompactSessionRepository with the COMPACT schema, otherwise the JdbcIndexedSessionRepository.
+     */
+    @Override
+    public SessionRepository getSessionRepository() {
+        return springRdbmsSessionConfig.getPrimarySessionRepository();
+    }
+
+    /**
+     * Gets the repository used to read and delete sessions when RDBMS is secondary storage.
+     * @return The SpringRdbmsCompactSessionRepository with the COMPACT schema, otherwise the SpringRdbmsAsSecondarySession.
+     */
+    @Override
+    public SessionRepository getSecondarySessionRepository() {
+        return springRdbmsSessionConfig.getSecondarySessionRepository();
+    }
+
+    /**
+     * Gets the writer used to save sessions when RDBMS is secondary storage.
+     * @return The SpringRdbmsCompactSessionRepository with the COMPACT schema, otherwise the SpringRdbmsAsSecondarySession.
+     */
+    @Override
+    public ISessionSaveAsSecondary getSecondaryWriter() {
+        return springRdbmsSessionConfig.getSecondaryWriter();
+    }
+
+    /**
+     * Converts a JdbcSession to a SpringSessionData object.
+     * @param session The session to convert.
+     * @return The converted SpringSessionData object.
+     */
+    @Override
+    public SpringSessionData convertToSessionData(Session session) {
+        return SpringRdbmsSessionConverterUtil.convertToSessionData(session);
+    }
+
+    /**
+     * Converts the changes made to a JdbcSession to a delta SpringSessionData object.
+     * @param session The session to convert.
+     * @param changedAttributeNames The names of the attributes set since the session was last saved.
+     * @param removedAttributeNames The names of the attributes removed since the session was last saved.
+     * @return The converted SpringSessionData object holding only the changes.
+     */
+    @Override
+    public SpringSessionData convertToSessionDelta(Session session, Set<String> changedAttributeNames,
+                                                   Set<String> removedAttributeNames) {
+        return SpringRdbmsSessionConverterUtil.convertToSessionDelta(session, changedAttributeNames, removedAttributeNames);
+    }
+
+    /**
+     * A JdbcSession is bound to the primary key of its row, which a snapshot does not carry. A compact session
+     * is keyed by its id, so it is rebuilt from a snapshot.
+     * @return True with the COMPACT schema, otherwise false.
+     */
+    @Override
+    public boolean supportsSnapshotRestore() {
+        return isCompact();
+    }
+
+    /**
+     * Restores a session from a snapshot. A JdbcSession is restored as a new row, whatever isNew is, since the
+     * primary key of an existing row is unknown, and a compact session is upserted on its next save anyway.
+     * @param snapshot The snapshot of the session.
+     * @param isNew Ignored, the session is always written in full on its next save.
+     * @return The JdbcSession, or the MapSession with the COMPACT schema, backed by the snapshot.
+     */
+    @Override
+    public Session restoreSession(MapSession snapshot, boolean isNew) {
+        if (isCompact()) {
+            return new MapSession(snapshot);
+        }
+        return SpringRdbmsSessionConverterUtil.convertToSession(
+                springRdbmsSessionConfig.getJdbcIndexedSessionRepository(), snapshot);
+    }
+
+    /**
+     * Gets the source streaming the live sessions of the session table.
+     * @return The SpringRdbmsSessionSource, or the SpringRdbmsCompactSessionSource with the COMPACT schema.
+     */
+    @Override
+    public SessionSource getSessionSource() {
+        return springRdbmsSessionConfig.getSessionSource();
+    }
+
+    /**
+     * Gets the sweeper deleting the expired sessions, which are not cleaned up otherwise.
+     * @return The SpringRdbmsExpirySweeper deleting expired rows in batches.
+     */
+    @Override
+    public SessionExpirySweeper getExpirySweeper() {
+        return springRdbmsSessionConfig.getExpirySweeper();
+    }
+
+    /**
+     * Gets a lock held in the storage.
+     * @param lockName The name of the lock.
+     * @return The SpringRdbmsSessionLock.
+     */
+    @Override
+    public SessionLock getLock(String lockName) {
+        return springRdbmsSessionConfig.getSessionLock(lockName);
+    }
+
+    /**
+     * Checks whether the sessions are stored in the COMPACT schema.
+     * @return True with the COMPACT schema, otherwise false.
+     */
+    private boolean isCompact() {
+        return springRdbmsSessionConfig.getSchema() == SpringRdbmsSessionConfig.Schema.COMPACT;
+    }
+}
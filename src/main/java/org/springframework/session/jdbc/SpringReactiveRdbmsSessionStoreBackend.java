@@ -0,0 +1,143 @@
+package org.springframework.session.jdbc;
+
+import org.framework.data.SpringSessionData;
+import org.springframework.session.ReactiveSessionRepository;
+import org.springframework.session.ReactiveSessionStoreBackend;
+import org.springframework.session.Session;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * SpringReactiveRdbmsSessionStoreBackend exposes a relational database to ReactiveMultiSessionRepository as primary or
+ * secondary storage. Spring Session ships no R2DBC repository, so the JDBC repositories of SpringRdbmsSessionConfig,
+ * for either schema, are run on a scheduler meant for blocking calls,
+ * keeping them off the event loop, and the sessions stay readable by the servlet stack.
+ */
+public class SpringReactiveRdbmsSessionStoreBackend implements ReactiveSessionStoreBackend {
+
+    public static final String NAME = "RDBMS";
+
+    private final SpringRdbmsSessionConfig springRdbmsSessionConfig;
+
+    private final Scheduler scheduler;
+
+    private final ReactiveSessionRepository<Session> reactiveSessionRepository =
+            new BlockingSessionRepositoryAdapter();
+
+    /**
+     * Constructor for SpringReactiveRdbmsSessionStoreBackend, running the JDBC calls on the bounded elastic scheduler.
+     * @param springRdbmsSessionConfig The SpringRdbmsSessionConfig providing the repositories.
+     */
+    public SpringReactiveRdbmsSessionStoreBackend(SpringRdbmsSessionConfig springRdbmsSessionConfig) {
+        this(springRdbmsSessionConfig, Schedulers.boundedElastic());
+    }
+
+    /**
+     * Constructor for SpringReactiveRdbmsSessionStoreBackend.
+     * @param springRdbmsSessionConfig The SpringRdbmsSessionConfig providing the repositories.
+     * @param scheduler The scheduler the JDBC calls are run on.
+     */
+    public SpringReactiveRdbmsSessionStoreBackend(SpringRdbmsSessionConfig springRdbmsSessionConfig, Scheduler scheduler) {
+        this.springRdbmsSessionConfig = springRdbmsSessionConfig;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Gets the name the storage is configured with.
+     * @return RDBMS.
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Gets the reactive view of the repository used when RDBMS is primary storage.
+     * @return The ReactiveSessionRepository running the repository of the configured schema on the scheduler.
+     */
+    @Override
+    public ReactiveSessionRepository<? extends Session> getSessionRepository() {
+        return reactiveSessionRepository;
+    }
+
+    /**
+     * Converts a JdbcSession to a SpringSessionData object.
+     * @param session The session to convert.
+     * @return The converted SpringSessionData object.
+     */
+    @Override
+    public SpringSessionData convertToSessionData(Session session) {
+        return SpringRdbmsSessionConverterUtil.convertToSessionData(session);
+    }
+
+    /**
+     * Saves session data as secondary in the database, on the scheduler.
+     * @param springSessionData The SpringSessionData object to save.
+     * @return A Mono completing once the session is saved.
+     */
+    @Override
+    public Mono<Void> saveAsSecondary(SpringSessionData springSessionData) {
+        return Mono.<Void>fromRunnable(() -> springRdbmsSessionConfig.getSecondaryWriter()
+                .saveAsSecondary(springSessionData)).subscribeOn(scheduler);
+    }
+
+    /**
+     * Deletes a session as secondary from the database, on the scheduler.
+     * @param id The ID of the session to delete.
+     * @return A Mono completing once the session is deleted.
+     */
+    @Override
+    public Mono<Void> deleteAsSecondary(String id) {
+        return Mono.<Void>fromRunnable(() -> springRdbmsSessionConfig.getSecondarySessionRepository()
+                .deleteById(id)).subscribeOn(scheduler);
+    }
+
+    /**
+     * BlockingSessionRepositoryAdapter runs the calls of the JDBC repository of the configured schema on the scheduler.
+     */
+    private class BlockingSessionRepositoryAdapter implements ReactiveSessionRepository<Session> {
+
+        /**
+         * Creates a new session, without any JDBC call.
+         * @return A Mono emitting the new session.
+         */
+        @Override
+        public Mono<Session> createSession() {
+            return Mono.fromSupplier(() -> springRdbmsSessionConfig.getPrimarySessionRepository().createSession());
+        }
+
+        /**
+         * Saves a session on the scheduler.
+         * @param session The session to save.
+         * @return A Mono completing once the session is saved.
+         */
+        @Override
+        public Mono<Void> save(Session session) {
+            return Mono.<Void>fromRunnable(() -> springRdbmsSessionConfig.getPrimarySessionRepository().save(session))
+                    .subscribeOn(scheduler);
+        }
+
+        /**
+         * Finds a session by its ID on the scheduler.
+         * @param id The ID of the session to find.
+         * @return A Mono emitting the session, or empty if it is not found.
+         */
+        @Override
+        public Mono<Session> findById(String id) {
+            return Mono.fromCallable(() -> springRdbmsSessionConfig.getPrimarySessionRepository().findById(id))
+                    .subscribeOn(scheduler);
+        }
+
+        /**
+         * Deletes a session by its ID on the scheduler.
+         * @param id The ID of the session to delete.
+         * @return A Mono completing once the session is deleted.
+         */
+        @Override
+        public Mono<Void> deleteById(String id) {
+            return Mono.<Void>fromRunnable(() -> springRdbmsSessionConfig.getPrimarySessionRepository().deleteById(id))
+                    .subscribeOn(scheduler);
+        }
+    }
+}
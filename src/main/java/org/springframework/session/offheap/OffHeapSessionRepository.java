@@ -0,0 +1,241 @@
+package org.springframework.session.offheap;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.framework.data.SpringSessionData;
+import org.springframework.session.ISessionSaveAsSecondary;
+import org.springframework.session.MapSession;
+import org.springframework.session.SessionAttributesView;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.serializer.JdkSessionCodec;
+import org.springframework.session.serializer.SessionCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OffHeapSessionRepository stores sessions in an OffHeapSessionStore, serving as primary storage for single node
+ * deployments or as a local secondary storage.
+ * Sessions are serialized as [creationTime][lastAccessedTime][maxInactiveInterval][attribute count]
+ * followed by the name and serialized bytes of every attribute, and expire maxInactiveInterval after their last access.
+ */
+public class OffHeapSessionRepository implements SessionRepository<MapSession>, ISessionSaveAsSecondary {
+
+    private static final String STORAGE_NAME = "OFFHEAP";
+
+    private final OffHeapSessionStore offHeapSessionStore;
+
+    private SessionCodec sessionCodec = new JdkSessionCodec();
+
+    private Duration defaultMaxInactiveInterval = Duration.ofMinutes(30);
+
+    private DistributionSummary sessionSizeSummary;
+
+    /**
+     * Constructor for OffHeapSessionRepository.
+     * @param offHeapSessionStore The OffHeapSessionStore holding the serialized sessions.
+     */
+    public OffHeapSessionRepository(OffHeapSessionStore offHeapSessionStore) {
+        this.offHeapSessionStore = offHeapSessionStore;
+        setMeterRegistry(Metrics.globalRegistry);
+    }
+
+    /**
+     * Sets the maximum inactive interval of new sessions.
+     * @param defaultMaxInactiveInterval The maximum inactive interval of new sessions.
+     */
+    public void setDefaultMaxInactiveInterval(Duration defaultMaxInactiveInterval) {
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+    }
+
+    /**
+     * Sets the codec the session attributes are encoded with.
+     * @param sessionCodec The SessionCodec to use.
+     */
+    public void setSessionCodec(SessionCodec sessionCodec) {
+        this.sessionCodec = sessionCodec;
+    }
+
+    /**
+     * Sets the MeterRegistry the size of the sessions saved as secondary is published to.
+     * @param meterRegistry The MeterRegistry to set.
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.sessionSizeSummary = DistributionSummary.builder("spring.session.secondary.size")
+                .tag("storage", STORAGE_NAME)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Creates a new session with the default maximum inactive interval.
+     * @return The new session.
+     */
+    @Override
+    public MapSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return session;
+    }
+
+    /**
+     * Saves a session, removing it under its previous id if the id was changed.
+     * @param session The session to save.
+     */
+    @Override
+    public void save(MapSession session) {
+        if (!session.getId().equals(session.getOriginalId())) {
+            offHeapSessionStore.remove(session.getOriginalId());
+        }
+        store(session);
+    }
+
+    /**
+     * Finds a session by its ID.
+     * @param id The ID of the session to find.
+     * @return A copy of the session, or null if it is not stored or has expired.
+     */
+    @Override
+    public MapSession findById(String id) {
+        byte[] bytes = offHeapSessionStore.get(id, System.currentTimeMillis());
+        return bytes != null ? deserialize(id, bytes) : null;
+    }
+
+    /**
+     * Deletes a session by its ID.
+     * @param id The ID of the session to delete.
+     */
+    @Override
+    public void deleteById(String id) {
+        offHeapSessionStore.remove(id);
+    }
+
+    /**
+     * Saves session data as secondary in off-heap memory.
+     * A full session is serialized straight from the session data, a delta is applied on top of the stored session
+     * and dropped when the session is not stored, rather than creating a partial session.
+     * @param springSessionData The SpringSessionData object containing session data to be saved.
+     */
+    @Override
+    public void saveAsSecondary(SpringSessionData springSessionData) {
+        if (!springSessionData.isDelta()) {
+            sessionSizeSummary.record(store(springSessionData.getId(), springSessionData.getCreatedMillis(), springSessionData.getLastAccessedMillis(),
+                    springSessionData.getMaxInactiveInterval(), springSessionData.getAttributes() != null
+                            ? springSessionData.getAttributes() : Collections.emptyMap()));
+            return;
+        }
+        MapSession session = findById(springSessionData.getId());
+        if (session == null) {
+            return;
+        }
+        session.setLastAccessedTime(Instant.ofEpochMilli(springSessionData.getLastAccessedMillis()));
+        session.setMaxInactiveInterval(springSessionData.getMaxInactiveInterval());
+        if (springSessionData.getAttributes() != null) {
+            springSessionData.getAttributes().forEach(session::setAttribute);
+        }
+        if (springSessionData.getRemovedAttributeNames() != null) {
+            springSessionData.getRemovedAttributeNames().forEach(session::removeAttribute);
+        }
+        sessionSizeSummary.record(store(session));
+    }
+
+    /**
+     * Saves a batch of sessions as secondary in off-heap memory. Memory writes need no batching.
+     * @param springSessionDataList The SpringSessionData objects containing session data to be saved.
+     */
+    @Override
+    public void saveAllAsSecondary(List<SpringSessionData> springSessionDataList) {
+        springSessionDataList.forEach(this::saveAsSecondary);
+    }
+
+    /**
+     * Deltas are merged into the stored session.
+     * @return True, off-heap storage applies deltas.
+     */
+    @Override
+    public boolean supportsDelta() {
+        return true;
+    }
+
+    /**
+     * Serializes a session and stores it until it expires.
+     * @param session The session to store.
+     * @return The size of the serialized session, in bytes.
+     * @throws IllegalStateException If the store is full.
+     */
+    private int store(MapSession session) {
+        return store(session.getId(), session.getCreationTime().toEpochMilli(), session.getLastAccessedTime().toEpochMilli(),
+                session.getMaxInactiveInterval(), new SessionAttributesView(session));
+    }
+
+    /**
+     * Serializes the state of a session and stores it until it expires.
+     * @param id The ID of the session.
+     * @param creationTime The creation time of the session, in milliseconds since the epoch.
+     * @param lastAccessedTime The last access time of the session, in milliseconds since the epoch.
+     * @param maxInactiveInterval The maximum inactive interval of the session.
+     * @param attributes The attributes of the session.
+     * @return The size of the serialized session, in bytes.
+     * @throws IllegalStateException If the store is full.
+     */
+    private int store(String id, long creationTime, long lastAccessedTime, Duration maxInactiveInterval,
+                       Map<String, Object> attributes) {
+        long expiresAtMillis = maxInactiveInterval.isNegative()
+                ? Long.MAX_VALUE
+                : lastAccessedTime + maxInactiveInterval.toMillis();
+        byte[] bytes = serialize(id, creationTime, lastAccessedTime, maxInactiveInterval, attributes);
+        if (!offHeapSessionStore.put(id, bytes, expiresAtMillis)) {
+            throw new IllegalStateException("Off-heap session store has no room for session " + id);
+        }
+        return bytes.length;
+    }
+
+    private byte[] serialize(String id, long creationTime, long lastAccessedTime, Duration maxInactiveInterval,
+                             Map<String, Object> attributes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(creationTime);
+            out.writeLong(lastAccessedTime);
+            out.writeLong(maxInactiveInterval.getSeconds());
+            out.writeInt(attributes.size());
+            for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+                byte[] value = sessionCodec.encode(attribute.getValue());
+                out.writeUTF(attribute.getKey());
+                out.writeInt(value.length);
+                out.write(value);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize session " + id, e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private MapSession deserialize(String id, byte[] bytes) {
+        MapSession session = new MapSession(id);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            session.setCreationTime(Instant.ofEpochMilli(in.readLong()));
+            session.setLastAccessedTime(Instant.ofEpochMilli(in.readLong()));
+            session.setMaxInactiveInterval(Duration.ofSeconds(in.readLong()));
+            int attributeCount = in.readInt();
+            for (int i = 0; i < attributeCount; i++) {
+                String attributeName = in.readUTF();
+                byte[] value = new byte[in.readInt()];
+                in.readFully(value);
+                session.setAttribute(attributeName, sessionCodec.decode(value));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to deserialize session " + id, e);
+        }
+        return session;
+    }
+}
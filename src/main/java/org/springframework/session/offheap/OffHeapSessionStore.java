@@ -0,0 +1,455 @@
+package org.springframework.session.offheap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * OffHeapSessionStore keeps serialized sessions outside the Java heap, in direct ByteBuffer slabs
+ * or in slabs mapped from a file.
+ * Slabs are split into power of two chunks, each slab serving a single chunk size, and freed chunks are reused
+ * by the next record of the same size. Records are found through an open addressing index with linear probing,
+ * held in primitive arrays so the store creates no objects per session on the heap.
+ * A record holds the key and the value: [int keyLength][int valueLength][key bytes][value bytes].
+ */
+@Slf4j
+public class OffHeapSessionStore implements Closeable {
+
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final int MIN_CHUNK_SHIFT = 8;
+
+    private static final long EMPTY = -1;
+
+    private static final float MAX_LOAD_FACTOR = 0.7f;
+
+    private final int slabSize;
+
+    private final int maxSlabs;
+
+    private final int maxChunkShift;
+
+    private final FileChannel fileChannel;
+
+    private final Path file;
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+
+    private final long[][] freeChunks;
+
+    private final int[] freeChunkCounts;
+
+    private final int[] currentSlabs;
+
+    private final int[] currentSlabOffsets;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Counter rejectedWrites;
+
+    private long[] addresses;
+
+    private int[] hashes;
+
+    private long[] expiries;
+
+    private int size;
+
+    private long usedBytes;
+
+    /**
+     * Constructor for OffHeapSessionStore.
+     * @param maxMemory The maximum number of bytes the slabs may take.
+     * @param slabSize The size of a slab in bytes, which is also the largest record the store accepts.
+     * @param file The file the slabs are mapped from, or null to allocate direct buffers.
+     * @param meterRegistry The registry the store metrics are published to.
+     */
+    public OffHeapSessionStore(long maxMemory, int slabSize, Path file, MeterRegistry meterRegistry) {
+        if (slabSize < (1 << MIN_CHUNK_SHIFT) || Integer.bitCount(slabSize) != 1 || maxMemory < slabSize) {
+            throw new IllegalArgumentException("Off-heap slab size must be a power of two of at least 256 bytes, "
+                    + "and the maximum memory must hold at least one slab");
+        }
+        this.slabSize = slabSize;
+        this.maxSlabs = (int) Math.min(Integer.MAX_VALUE, maxMemory / slabSize);
+        this.maxChunkShift = Integer.numberOfTrailingZeros(slabSize);
+        int sizeClasses = maxChunkShift - MIN_CHUNK_SHIFT + 1;
+        this.freeChunks = new long[sizeClasses][16];
+        this.freeChunkCounts = new int[sizeClasses];
+        this.currentSlabs = new int[sizeClasses];
+        this.currentSlabOffsets = new int[sizeClasses];
+        Arrays.fill(currentSlabs, -1);
+        this.file = file;
+        this.fileChannel = file != null ? openFile(file) : null;
+        initializeIndex(1024);
+        Gauge.builder("spring.session.offheap.sessions", this, OffHeapSessionStore::size)
+                .register(meterRegistry);
+        Gauge.builder("spring.session.offheap.memory.used", this, OffHeapSessionStore::usedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("spring.session.offheap.memory.reserved", this, store -> (double) store.slabCount() * store.slabSize)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.rejectedWrites = meterRegistry.counter("spring.session.offheap.rejected");
+    }
+
+    /**
+     * Stores a value, replacing the value stored under the same key.
+     * @param key The key of the value.
+     * @param value The value to store.
+     * @param expiresAtMillis The time after which the value is expired, in milliseconds since the epoch.
+     * @return True if the value was stored, false if the store is full or the value is larger than a slab.
+     */
+    public boolean put(String key, byte[] value, long expiresAtMillis) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int recordSize = RECORD_HEADER_SIZE + keyBytes.length + value.length;
+        int hash = key.hashCode();
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(keyBytes, hash);
+            long address = allocate(recordSize);
+            if (address == EMPTY && purgeExpiredLocked(System.currentTimeMillis()) > 0) {
+                slot = findSlot(keyBytes, hash);
+                address = allocate(recordSize);
+            }
+            if (address == EMPTY) {
+                rejectedWrites.increment();
+                log.warn("Off-heap session store is full, session of {} bytes not stored", recordSize);
+                return false;
+            }
+            writeRecord(address, keyBytes, value);
+            if (slot >= 0) {
+                free(addresses[slot]);
+                addresses[slot] = address;
+                expiries[slot] = expiresAtMillis;
+                return true;
+            }
+            if (size + 1 > addresses.length * MAX_LOAD_FACTOR) {
+                initializeIndex(addresses.length * 2);
+            }
+            insert(address, hash, expiresAtMillis);
+            size++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads a value.
+     * @param key The key of the value.
+     * @param nowMillis The current time, values expired at this time are not returned.
+     * @return A copy of the value, or null if there is no value or it has expired.
+     */
+    public byte[] get(String key, long nowMillis) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            int slot = findSlot(keyBytes, key.hashCode());
+            if (slot < 0 || expiries[slot] <= nowMillis) {
+                return null;
+            }
+            long address = addresses[slot];
+            ByteBuffer slab = slabs.get(slabIndex(address));
+            int offset = slabOffset(address);
+            byte[] value = new byte[slab.getInt(offset + 4)];
+            slab.get(offset + RECORD_HEADER_SIZE + keyBytes.length, value);
+            return value;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a value.
+     * @param key The key of the value.
+     * @return True if a value was removed, otherwise false.
+     */
+    public boolean remove(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(keyBytes, key.hashCode());
+            if (slot < 0) {
+                return false;
+            }
+            removeSlot(slot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all expired values and frees their chunks.
+     * @param nowMillis The current time.
+     * @return The number of removed values.
+     */
+    public int purgeExpired(long nowMillis) {
+        lock.writeLock().lock();
+        try {
+            return purgeExpiredLocked(nowMillis);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of stored values, including expired ones not purged yet.
+     * @return The number of stored values.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of bytes taken by the chunks holding values.
+     * @return The used off-heap bytes.
+     */
+    public long usedBytes() {
+        lock.readLock().lock();
+        try {
+            return usedBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Releases the slabs. Direct buffers are freed once they are garbage collected, a mapped file is deleted.
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            slabs.clear();
+            addresses = null;
+            initializeIndex(16);
+            size = 0;
+            usedBytes = 0;
+            if (fileChannel != null) {
+                fileChannel.close();
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete off-heap session file {}", file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int slabCount() {
+        lock.readLock().lock();
+        try {
+            return slabs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the index slot of a key.
+     * @param keyBytes The UTF-8 bytes of the key.
+     * @param hash The hash of the key.
+     * @return The slot holding the key, or -1 if the key is not stored.
+     */
+    private int findSlot(byte[] keyBytes, int hash) {
+        int mask = addresses.length - 1;
+        for (int slot = spread(hash) & mask; addresses[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && keyEquals(addresses[slot], keyBytes)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean keyEquals(long address, byte[] keyBytes) {
+        ByteBuffer slab = slabs.get(slabIndex(address));
+        int offset = slabOffset(address);
+        if (slab.getInt(offset) != keyBytes.length) {
+            return false;
+        }
+        int keyOffset = offset + RECORD_HEADER_SIZE;
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (slab.get(keyOffset + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insert(long address, int hash, long expiresAtMillis) {
+        int mask = addresses.length - 1;
+        int slot = spread(hash) & mask;
+        while (addresses[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        addresses[slot] = address;
+        hashes[slot] = hash;
+        expiries[slot] = expiresAtMillis;
+    }
+
+    /**
+     * Frees the record of a slot and shifts back the following records of its probe sequence,
+     * so lookups never stop at a hole.
+     * @param slot The slot to empty.
+     */
+    private void removeSlot(int slot) {
+        free(addresses[slot]);
+        size--;
+        int mask = addresses.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; addresses[next] != EMPTY; next = (next + 1) & mask) {
+            int home = spread(hashes[next]) & mask;
+            boolean reachable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+            if (reachable) {
+                addresses[hole] = addresses[next];
+                hashes[hole] = hashes[next];
+                expiries[hole] = expiries[next];
+                hole = next;
+            }
+        }
+        addresses[hole] = EMPTY;
+    }
+
+    private int purgeExpiredLocked(long nowMillis) {
+        int purged = 0;
+        int slot = 0;
+        while (slot < addresses.length) {
+            if (addresses[slot] != EMPTY && expiries[slot] <= nowMillis) {
+                removeSlot(slot);
+                purged++;
+                // the slot may now hold a shifted record, check it again
+                continue;
+            }
+            slot++;
+        }
+        return purged;
+    }
+
+    /**
+     * Replaces the index with an empty one of the given capacity and re-inserts the stored records.
+     * @param capacity The new capacity, a power of two.
+     */
+    private void initializeIndex(int capacity) {
+        long[] oldAddresses = addresses;
+        int[] oldHashes = hashes;
+        long[] oldExpiries = expiries;
+        addresses = new long[capacity];
+        hashes = new int[capacity];
+        expiries = new long[capacity];
+        Arrays.fill(addresses, EMPTY);
+        if (oldAddresses == null) {
+            return;
+        }
+        for (int slot = 0; slot < oldAddresses.length; slot++) {
+            if (oldAddresses[slot] != EMPTY) {
+                insert(oldAddresses[slot], oldHashes[slot], oldExpiries[slot]);
+            }
+        }
+    }
+
+    /**
+     * Allocates a chunk for a record, reusing a freed chunk of the same size or carving one from a slab.
+     * @param recordSize The size of the record.
+     * @return The address of the chunk, or EMPTY if no chunk can be allocated.
+     */
+    private long allocate(int recordSize) {
+        int chunkShift = Math.max(MIN_CHUNK_SHIFT, 32 - Integer.numberOfLeadingZeros(recordSize - 1));
+        if (chunkShift > maxChunkShift) {
+            return EMPTY;
+        }
+        int sizeClass = chunkShift - MIN_CHUNK_SHIFT;
+        int chunkSize = 1 << chunkShift;
+        long address;
+        if (freeChunkCounts[sizeClass] > 0) {
+            address = freeChunks[sizeClass][--freeChunkCounts[sizeClass]];
+        } else {
+            if (currentSlabs[sizeClass] < 0 || currentSlabOffsets[sizeClass] + chunkSize > slabSize) {
+                if (slabs.size() >= maxSlabs) {
+                    return EMPTY;
+                }
+                slabs.add(newSlab(slabs.size()));
+                currentSlabs[sizeClass] = slabs.size() - 1;
+                currentSlabOffsets[sizeClass] = 0;
+            }
+            address = ((long) currentSlabs[sizeClass] << 32) | currentSlabOffsets[sizeClass];
+            currentSlabOffsets[sizeClass] += chunkSize;
+        }
+        usedBytes += chunkSize;
+        return address;
+    }
+
+    private void free(long address) {
+        ByteBuffer slab = slabs.get(slabIndex(address));
+        int offset = slabOffset(address);
+        int recordSize = RECORD_HEADER_SIZE + slab.getInt(offset) + slab.getInt(offset + 4);
+        int chunkShift = Math.max(MIN_CHUNK_SHIFT, 32 - Integer.numberOfLeadingZeros(recordSize - 1));
+        int sizeClass = chunkShift - MIN_CHUNK_SHIFT;
+        if (freeChunkCounts[sizeClass] == freeChunks[sizeClass].length) {
+            freeChunks[sizeClass] = Arrays.copyOf(freeChunks[sizeClass], freeChunks[sizeClass].length * 2);
+        }
+        freeChunks[sizeClass][freeChunkCounts[sizeClass]++] = address;
+        usedBytes -= 1 << chunkShift;
+    }
+
+    private void writeRecord(long address, byte[] keyBytes, byte[] value) {
+        ByteBuffer slab = slabs.get(slabIndex(address));
+        int offset = slabOffset(address);
+        slab.putInt(offset, keyBytes.length);
+        slab.putInt(offset + 4, value.length);
+        slab.put(offset + RECORD_HEADER_SIZE, keyBytes);
+        slab.put(offset + RECORD_HEADER_SIZE + keyBytes.length, value);
+    }
+
+    private ByteBuffer newSlab(int index) {
+        if (fileChannel == null) {
+            return ByteBuffer.allocateDirect(slabSize);
+        }
+        try {
+            return fileChannel.map(FileChannel.MapMode.READ_WRITE, (long) index * slabSize, slabSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map off-heap session slab", e);
+        }
+    }
+
+    private static FileChannel openFile(Path file) {
+        try {
+            return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open off-heap session file " + file, e);
+        }
+    }
+
+    private static int slabIndex(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int slabOffset(long address) {
+        return (int) address;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
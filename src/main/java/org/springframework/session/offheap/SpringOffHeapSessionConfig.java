@@ -0,0 +1,122 @@
+package org.springframework.session.offheap;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.session.serializer.JdkSessionCodec;
+import org.springframework.session.serializer.SessionCodec;
+import org.springframework.util.StringUtils;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SpringOffHeapSessionConfig provides configuration for Spring sessions stored in off-heap memory.
+ * It initializes the OffHeapSessionStore, the OffHeapSessionRepository on top of it and the task purging expired sessions.
+ */
+@Slf4j
+public class SpringOffHeapSessionConfig implements DisposableBean {
+
+    @Value("${spring.session.offheap.max_memory:268435456}")
+    private long maxMemory;
+
+    @Value("${spring.session.offheap.slab_size:16777216}")
+    private int slabSize;
+
+    @Value("${spring.session.offheap.file:}")
+    private String file;
+
+    @Value("${spring.session.offheap.max_inactive_interval:PT30M}")
+    private Duration maxInactiveInterval;
+
+    @Value("${spring.session.offheap.cleanup_interval:PT1M}")
+    private Duration cleanupInterval;
+
+    private OffHeapSessionStore offHeapSessionStore;
+
+    private OffHeapSessionRepository offHeapSessionRepository;
+
+    private ScheduledExecutorService cleanupExecutor;
+
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+
+    private SessionCodec sessionCodec = new JdkSessionCodec();
+
+    /**
+     * Constructor for SpringOffHeapSessionConfig.
+     */
+    public SpringOffHeapSessionConfig() {}
+
+    /**
+     * Retrieves the configured OffHeapSessionRepository.
+     * @return The configured OffHeapSessionRepository.
+     */
+    public OffHeapSessionRepository getOffHeapSessionRepository() {
+        if (offHeapSessionRepository != null) {
+            return offHeapSessionRepository;
+        }
+        offHeapSessionStore = new OffHeapSessionStore(maxMemory, slabSize,
+                StringUtils.hasText(file) ? Paths.get(file) : null, meterRegistry);
+        offHeapSessionRepository = new OffHeapSessionRepository(offHeapSessionStore);
+        offHeapSessionRepository.setDefaultMaxInactiveInterval(maxInactiveInterval);
+        offHeapSessionRepository.setSessionCodec(sessionCodec);
+        offHeapSessionRepository.setMeterRegistry(meterRegistry);
+        cleanupExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-offheap-cleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cleanupExecutor.scheduleWithFixedDelay(this::purgeExpiredSessions,
+                cleanupInterval.toMillis(), cleanupInterval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Off-heap session store initialized with " + maxMemory + " bytes in slabs of " + slabSize + " bytes");
+        return offHeapSessionRepository;
+    }
+
+    /**
+     * Sets the MeterRegistry the off-heap store and session size metrics are published to.
+     * @param meterRegistry The MeterRegistry to set.
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Sets the codec the session attributes are encoded with in off-heap memory.
+     * @param sessionCodec The SessionCodec to use.
+     */
+    public void setSessionCodec(SessionCodec sessionCodec) {
+        this.sessionCodec = sessionCodec;
+    }
+
+    /**
+     * Stops the cleanup task and releases the off-heap memory.
+     */
+    @Override
+    public void destroy() {
+        if (cleanupExecutor != null) {
+            cleanupExecutor.shutdownNow();
+        }
+        if (offHeapSessionStore != null) {
+            offHeapSessionStore.close();
+        }
+    }
+
+    /**
+     * Removes the expired sessions from the store.
+     */
+    private void purgeExpiredSessions() {
+        try {
+            int purged = offHeapSessionStore.purgeExpired(System.currentTimeMillis());
+            if (purged > 0) {
+                log.debug("Purged {} expired off-heap sessions", purged);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to purge expired off-heap sessions", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.springframework.session.offheap;
+
+import lombok.experimental.UtilityClass;
+import org.framework.data.SpringSessionData;
+import org.springframework.session.Session;
+import org.springframework.session.SessionAttributesView;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * SpringOffHeapSessionConverterUtil provides utility methods for converting sessions to SpringSessionData objects.
+ */
+@UtilityClass
+public class SpringOffHeapSessionConverterUtil {
+
+    /**
+     * Converts a Session object to a SpringSessionData object.
+     * @param session The session object to be converted.
+     * @return The converted SpringSessionData object.
+     */
+    public static SpringSessionData convertToSessionData(Session session) {
+        return SpringSessionData.builder()
+                .id(session.getId())
+                .attributes(new SessionAttributesView(session))
+                .createdMillis(session.getCreationTime().toEpochMilli())
+                .maxInactiveInterval(session.getMaxInactiveInterval())
+                .lastAccessedMillis(session.getLastAccessedTime().toEpochMilli())
+                .build();
+    }
+
+    /**
+     * Converts the changes made to a Session object to a delta SpringSessionData object.
+     * @param session The session object to be converted.
+     * @param changedAttributeNames The names of the attributes set since the session was last saved.
+     * @param removedAttributeNames The names of the attributes removed since the session was last saved.
+     * @return The converted SpringSessionData object holding only the changed attributes.
+     */
+    public static SpringSessionData convertToSessionDelta(Session session, Set<String> changedAttributeNames,
+                                                          Set<String> removedAttributeNames) {
+        return SpringSessionData.builder()
+                .id(session.getId())
+                .attributes(new SessionAttributesView(session, new HashSet<>(changedAttributeNames)))
+                .createdMillis(session.getCreationTime().toEpochMilli())
+                .maxInactiveInterval(session.getMaxInactiveInterval())
+                .lastAccessedMillis(session.getLastAccessedTime().toEpochMilli())
+                .delta(true)
+                .removedAttributeNames(new HashSet<>(removedAttributeNames))
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package org.springframework.session.offheap;
+
+import org.framework.data.SpringSessionData;
+import org.springframework.session.ISessionSaveAsSecondary;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.SessionStoreBackend;
+
+import java.util.Set;
+
+/**
+ * SpringOffHeapSessionStoreBackend exposes off-heap memory to MultiSessionRepository as primary or secondary storage.
+ * The same OffHeapSessionRepository serves both roles.
+ */
+public class SpringOffHeapSessionStoreBackend implements SessionStoreBackend {
+
+    public static final String NAME = "OFFHEAP";
+
+    private final SpringOffHeapSessionConfig springOffHeapSessionConfig;
+
+    /**
+     * Constructor for SpringOffHeapSessionStoreBackend.
+     * @param springOffHeapSessionConfig The SpringOffHeapSessionConfig providing the repository.
+     */
+    public SpringOffHeapSessionStoreBackend(SpringOffHeapSessionConfig springOffHeapSessionConfig) {
+        this.springOffHeapSessionConfig = springOffHeapSessionConfig;
+    }
+
+    /**
+     * Gets the name the storage is configured with.
+     * @return OFFHEAP.
+     */
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Gets the OffHeapSessionRepository used when off-heap memory is primary storage.
+     * @return The OffHeapSessionRepository.
+     */
+    @Override
+    public SessionRepository getSessionRepository() {
+        return springOffHeapSessionConfig.getOffHeapSessionRepository();
+    }
+
+    /**
+     * Gets the repository used to read and delete sessions when off-heap memory is secondary storage.
+     * @return The OffHeapSessionRepository.
+     */
+    @Override
+    public SessionRepository getSecondarySessionRepository() {
+        return springOffHeapSessionConfig.getOffHeapSessionRepository();
+    }
+
+    /**
+     * Gets the writer used to save sessions when off-heap memory is secondary storage.
+     * @return The OffHeapSessionRepository.
+     */
+    @Override
+    public ISessionSaveAsSecondary getSecondaryWriter() {
+        return springOffHeapSessionConfig.getOffHeapSessionRepository();
+    }
+
+    /**
+     * Converts a MapSession to a SpringSessionData object.
+     * @param session The session to convert.
+     * @return The converted SpringSessionData object.
+     */
+    @Override
+    public SpringSessionData convertToSessionData(Session session) {
+        return SpringOffHeapSessionConverterUtil.convertToSessionData(session);
+    }
+
+    /**
+     * Converts the changes made to a MapSession to a delta SpringSessionData object.
+     * @param session The session to convert.
+     * @param changedAttributeNames The names of the attributes set since the session was last saved.
+     * @param removedAttributeNames The names of the attributes removed since the session was last saved.
+     * @return The converted SpringSessionData object holding only the changes.
+     */
+    @Override
+    public SpringSessionData convertToSessionDelta(Session session, Set<String> changedAttributeNames,
+                                                   Set<String> removedAttributeNames) {
+        return SpringOffHeapSessionConverterUtil.convertToSessionDelta(session, changedAttributeNames, removedAttributeNames);
+    }
+
+    /**
+     * Off-heap sessions are MapSession snapshots, so any session can be restored.
+     * @return Always true.
+     */
+    @Override
+    public boolean supportsSnapshotRestore() {
+        return true;
+    }
+
+    /**
+     * Restores a MapSession from a snapshot, which it already is.
+     * @param snapshot The snapshot of the session.
+     * @param isNew Ignored, off-heap sessions are always written in full.
+     * @return The snapshot.
+     */
+    @Override
+    public Session restoreSession(MapSession snapshot, boolean isNew) {
+        return snapshot;
+    }
+}
@@ -0,0 +1,503 @@
+package org.springframework.session.serializer;
+
+import org.framework.data.SpringSessionData;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * CompactSessionCodec encodes values in a compact tagged binary form.
+ * Every value is a one byte tag followed by its payload: integers as zigzag varints, strings as UTF-8 with a varint
+ * length, and the common collections, UUID, Instant, Duration and SpringSessionData field by field.
+ * Collections are only encoded natively for the exact classes they are decoded to, so decoding never changes a type.
+ * Any other value falls back to JDK serialization inside the tagged form.
+ * Encoded values above the compression threshold are deflated when that makes them smaller.
+ * Values written by JDK serialization are recognized by their stream magic and decoded as such,
+ * so sessions stored before the codec was switched stay readable.
+ */
+public class CompactSessionCodec implements SessionCodec {
+
+    private static final byte PLAIN = (byte) 0xC5;
+
+    private static final byte DEFLATED = (byte) 0xC6;
+
+    private static final byte JDK_STREAM_MAGIC = (byte) 0xAC;
+
+    private static final byte NULL = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte INTEGER = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte FLOAT = 6;
+    private static final byte SHORT = 7;
+    private static final byte BYTE = 8;
+    private static final byte CHARACTER = 9;
+    private static final byte STRING = 10;
+    private static final byte BYTES = 11;
+    private static final byte ARRAY_LIST = 12;
+    private static final byte HASH_SET = 13;
+    private static final byte LINKED_HASH_SET = 14;
+    private static final byte HASH_MAP = 15;
+    private static final byte LINKED_HASH_MAP = 16;
+    private static final byte UUID_VALUE = 17;
+    private static final byte INSTANT = 18;
+    private static final byte DURATION = 19;
+    private static final byte SESSION_DATA = 20;
+    private static final byte JDK_SERIALIZED = 127;
+
+    private final JdkSessionCodec jdkSessionCodec = new JdkSessionCodec();
+
+    private final int compressionThreshold;
+
+    /**
+     * Constructor for CompactSessionCodec.
+     * @param compressionThreshold The encoded size in bytes above which values are compressed, or 0 to never compress.
+     */
+    public CompactSessionCodec(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * Encodes a value in the compact form, compressing it above the threshold.
+     * @param value The value to encode, may be null.
+     * @return The encoded bytes.
+     */
+    @Override
+    public byte[] encode(Object value) {
+        Output output = new Output(64);
+        output.write(PLAIN);
+        writeValue(output, value);
+        if (compressionThreshold <= 0 || output.size() <= compressionThreshold) {
+            return output.toByteArray();
+        }
+        return deflate(output);
+    }
+
+    /**
+     * Decodes a value encoded in the compact form or by JDK serialization.
+     * @param bytes The encoded bytes.
+     * @return The decoded value, may be null.
+     */
+    @Override
+    public Object decode(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        switch (bytes[0]) {
+            case PLAIN:
+                return readValue(new Input(bytes, 1));
+            case DEFLATED:
+                return readValue(new Input(inflate(bytes), 0));
+            case JDK_STREAM_MAGIC:
+                return jdkSessionCodec.decode(bytes);
+            default:
+                throw new IllegalArgumentException("Unknown session codec format " + bytes[0]);
+        }
+    }
+
+    private void writeValue(Output output, Object value) {
+        if (value == null) {
+            output.write(NULL);
+        } else if (value instanceof String) {
+            output.write(STRING);
+            writeString(output, (String) value);
+        } else if (value instanceof Boolean) {
+            output.write((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Integer) {
+            output.write(INTEGER);
+            output.writeVarLong(zigzag((Integer) value));
+        } else if (value instanceof Long) {
+            output.write(LONG);
+            output.writeVarLong(zigzag((Long) value));
+        } else if (value instanceof Double) {
+            output.write(DOUBLE);
+            output.writeFixedLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof Float) {
+            output.write(FLOAT);
+            output.writeVarLong(Float.floatToRawIntBits((Float) value) & 0xFFFFFFFFL);
+        } else if (value instanceof Short) {
+            output.write(SHORT);
+            output.writeVarLong(zigzag((Short) value));
+        } else if (value instanceof Byte) {
+            output.write(BYTE);
+            output.write((Byte) value);
+        } else if (value instanceof Character) {
+            output.write(CHARACTER);
+            output.writeVarLong((Character) value);
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            output.write(BYTES);
+            output.writeVarLong(bytes.length);
+            output.write(bytes, 0, bytes.length);
+        } else if (value.getClass() == ArrayList.class) {
+            writeCollection(output, ARRAY_LIST, (List<?>) value);
+        } else if (value.getClass() == HashSet.class) {
+            writeCollection(output, HASH_SET, (Set<?>) value);
+        } else if (value.getClass() == LinkedHashSet.class) {
+            writeCollection(output, LINKED_HASH_SET, (Set<?>) value);
+        } else if (value.getClass() == HashMap.class) {
+            writeMap(output, HASH_MAP, (Map<?, ?>) value);
+        } else if (value.getClass() == LinkedHashMap.class) {
+            writeMap(output, LINKED_HASH_MAP, (Map<?, ?>) value);
+        } else if (value instanceof UUID) {
+            UUID uuid = (UUID) value;
+            output.write(UUID_VALUE);
+            output.writeFixedLong(uuid.getMostSignificantBits());
+            output.writeFixedLong(uuid.getLeastSignificantBits());
+        } else if (value instanceof Instant) {
+            Instant instant = (Instant) value;
+            output.write(INSTANT);
+            output.writeVarLong(zigzag(instant.getEpochSecond()));
+            output.writeVarLong(instant.getNano());
+        } else if (value instanceof Duration) {
+            Duration duration = (Duration) value;
+            output.write(DURATION);
+            output.writeVarLong(zigzag(duration.getSeconds()));
+            output.writeVarLong(duration.getNano());
+        } else if (value.getClass() == SpringSessionData.class) {
+            writeSessionData(output, (SpringSessionData) value);
+        } else {
+            byte[] bytes = jdkSessionCodec.encode(value);
+            output.write(JDK_SERIALIZED);
+            output.writeVarLong(bytes.length);
+            output.write(bytes, 0, bytes.length);
+        }
+    }
+
+    private Object readValue(Input input) {
+        byte tag = input.read();
+        switch (tag) {
+            case NULL:
+                return null;
+            case FALSE:
+                return Boolean.FALSE;
+            case TRUE:
+                return Boolean.TRUE;
+            case INTEGER:
+                return (int) unzigzag(input.readVarLong());
+            case LONG:
+                return unzigzag(input.readVarLong());
+            case DOUBLE:
+                return Double.longBitsToDouble(input.readFixedLong());
+            case FLOAT:
+                return Float.intBitsToFloat((int) input.readVarLong());
+            case SHORT:
+                return (short) unzigzag(input.readVarLong());
+            case BYTE:
+                return input.read();
+            case CHARACTER:
+                return (char) input.readVarLong();
+            case STRING:
+                return readString(input);
+            case BYTES:
+                return input.readBytes(input.readLength());
+            case ARRAY_LIST: {
+                int size = input.readLength();
+                return readElements(input, size, new ArrayList<>(size));
+            }
+            case HASH_SET: {
+                int size = input.readLength();
+                return readElements(input, size, new HashSet<>(capacity(size)));
+            }
+            case LINKED_HASH_SET: {
+                int size = input.readLength();
+                return readElements(input, size, new LinkedHashSet<>(capacity(size)));
+            }
+            case HASH_MAP: {
+                int size = input.readLength();
+                return readEntries(input, size, new HashMap<>(capacity(size)));
+            }
+            case LINKED_HASH_MAP: {
+                int size = input.readLength();
+                return readEntries(input, size, new LinkedHashMap<>(capacity(size)));
+            }
+            case UUID_VALUE:
+                return new UUID(input.readFixedLong(), input.readFixedLong());
+            case INSTANT:
+                return Instant.ofEpochSecond(unzigzag(input.readVarLong()), input.readVarLong());
+            case DURATION:
+                return Duration.ofSeconds(unzigzag(input.readVarLong()), input.readVarLong());
+            case SESSION_DATA:
+                return readSessionData(input);
+            case JDK_SERIALIZED:
+                return jdkSessionCodec.decode(input.readBytes(input.readLength()));
+            default:
+                throw new IllegalArgumentException("Unknown session codec tag " + tag);
+        }
+    }
+
+    private void writeCollection(Output output, byte tag, Collection<?> values) {
+        output.write(tag);
+        output.writeVarLong(values.size());
+        for (Object value : values) {
+            writeValue(output, value);
+        }
+    }
+
+    private void writeMap(Output output, byte tag, Map<?, ?> map) {
+        output.write(tag);
+        output.writeVarLong(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            writeValue(output, entry.getKey());
+            writeValue(output, entry.getValue());
+        }
+    }
+
+    private <C extends Collection<Object>> C readElements(Input input, int size, C collection) {
+        for (int i = 0; i < size; i++) {
+            collection.add(readValue(input));
+        }
+        return collection;
+    }
+
+    private <M extends Map<Object, Object>> M readEntries(Input input, int size, M map) {
+        for (int i = 0; i < size; i++) {
+            map.put(readValue(input), readValue(input));
+        }
+        return map;
+    }
+
+    /**
+     * Writes the fields of a SpringSessionData in declaration order.
+     * @param output The output to write to.
+     * @param springSessionData The session data to write.
+     */
+    private void writeSessionData(Output output, SpringSessionData springSessionData) {
+        output.write(SESSION_DATA);
+        writeValue(output, springSessionData.getId());
+        writeValue(output, springSessionData.getMaxInactiveInterval());
+        writeValue(output, springSessionData.getAttributes() != null
+                ? new HashMap<>(springSessionData.getAttributes()) : null);
+        output.writeVarLong(zigzag(springSessionData.getCreatedMillis()));
+        output.writeVarLong(zigzag(springSessionData.getLastAccessedMillis()));
+        writeValue(output, springSessionData.isDelta());
+        writeValue(output, springSessionData.getRemovedAttributeNames() != null
+                ? new HashSet<>(springSessionData.getRemovedAttributeNames()) : null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private SpringSessionData readSessionData(Input input) {
+        return SpringSessionData.builder()
+                .id((String) readValue(input))
+                .maxInactiveInterval((Duration) readValue(input))
+                .attributes((Map<String, Object>) readValue(input))
+                .createdMillis(unzigzag(input.readVarLong()))
+                .lastAccessedMillis(unzigzag(input.readVarLong()))
+                .delta((Boolean) readValue(input))
+                .removedAttributeNames((Set<String>) readValue(input))
+                .build();
+    }
+
+    private static void writeString(Output output, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeVarLong(bytes.length);
+        output.write(bytes, 0, bytes.length);
+    }
+
+    private static String readString(Input input) {
+        int length = input.readLength();
+        String value = new String(input.bytes, input.position, length, StandardCharsets.UTF_8);
+        input.position += length;
+        return value;
+    }
+
+    /**
+     * Deflates an encoded value, keeping it plain when deflating does not make it smaller.
+     * The deflated form is the DEFLATED marker, the varint size of the plain value and the deflated plain value.
+     * @param output The encoded value.
+     * @return The bytes to store.
+     */
+    private static byte[] deflate(Output output) {
+        byte[] plain = output.toByteArray();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(plain, 1, plain.length - 1);
+            deflater.finish();
+            Output deflated = new Output(plain.length / 2 + 16);
+            deflated.write(DEFLATED);
+            deflated.writeVarLong(plain.length - 1);
+            byte[] buffer = new byte[Math.min(plain.length, 8192)];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                deflated.write(buffer, 0, length);
+                if (deflated.size() >= plain.length) {
+                    return plain;
+                }
+            }
+            return deflated.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] bytes) {
+        Input input = new Input(bytes, 1);
+        long plainLength = input.readVarLong();
+        if (plainLength < 0 || plainLength > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Malformed length in compressed session value");
+        }
+        byte[] plain = new byte[(int) plainLength];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, input.position, bytes.length - input.position);
+            int length = 0;
+            while (length < plain.length && !inflater.finished()) {
+                int inflated = inflater.inflate(plain, length, plain.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != plain.length) {
+                throw new IllegalArgumentException("Truncated compressed session value");
+            }
+            return plain;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupted compressed session value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Output is a growable byte buffer writing varints and fixed size longs, without the locking of a stream.
+     */
+    private static final class Output {
+
+        private byte[] buffer;
+
+        private int size;
+
+        private Output(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        private void write(byte value) {
+            ensureCapacity(1);
+            buffer[size++] = value;
+        }
+
+        private void write(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, buffer, size, length);
+            size += length;
+        }
+
+        private void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        private void writeFixedLong(long value) {
+            ensureCapacity(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensureCapacity(int length) {
+            if (size + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+            }
+        }
+    }
+
+    /**
+     * Input reads varints and fixed size longs from a byte array.
+     */
+    private static final class Input {
+
+        private final byte[] bytes;
+
+        private int position;
+
+        private Input(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        private byte read() {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("Truncated session value");
+            }
+            return bytes[position++];
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = read();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in session value");
+        }
+
+        private long readFixedLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (read() & 0xFF);
+            }
+            return value;
+        }
+
+        private int readLength() {
+            long length = readVarLong();
+            if (length < 0 || length > bytes.length - position) {
+                throw new IllegalArgumentException("Malformed length in session value");
+            }
+            return (int) length;
+        }
+
+        private byte[] readBytes(int length) {
+            if (length > bytes.length - position) {
+                throw new IllegalArgumentException("Truncated session value");
+            }
+            byte[] value = Arrays.copyOfRange(bytes, position, position + length);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.springframework.session.serializer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DeduplicatingSessionCodec offloads large attribute values to a SessionBlobStore, keyed by the SHA-256 hash
+ * of their encoding, and stores only a 33 byte reference in the session instead.
+ * Sessions sharing a value, e.g. a feature flag snapshot or a permission set, then share one blob,
+ * and since every storage encodes attributes through the codec, the primary and every secondary storage benefit.
+ * Blobs live for a time to live that is extended when a node writes or reads a reference and has not done so
+ * for half of it, so blobs of live sessions stay while abandoned blobs expire. A node holding an expired blob
+ * in its cache writes it back. The time to live grows to twice the longest max inactive interval of the sessions
+ * saved on this node, so sessions given a longer interval than the storages default to keep their blobs.
+ * Blob contents are cached in-process and decoded on every read, so sessions never share a mutable value.
+ */
+@Slf4j
+public class DeduplicatingSessionCodec implements SessionCodec, AutoCloseable {
+
+    private static final byte REFERENCE = (byte) 0xC7;
+
+    private static final int HASH_LENGTH = 32;
+
+    private final SessionCodec sessionCodec;
+
+    private final SessionBlobStore sessionBlobStore;
+
+    private final int threshold;
+
+    private volatile Duration timeToLive;
+
+    private final Cache<String, byte[]> blobs;
+
+    private final Cache<String, Boolean> refreshedBlobs;
+
+    private final ScheduledExecutorService purgeExecutor;
+
+    private final Counter offloadedValues;
+
+    private final Counter blobWrites;
+
+    private final Counter missingBlobs;
+
+    /**
+     * Constructor for DeduplicatingSessionCodec.
+     * @param sessionCodec The codec encoding the values.
+     * @param sessionBlobStore The store the large values are kept in.
+     * @param threshold The encoded size in bytes above which values are offloaded.
+     * @param timeToLive The time a blob is kept after it was last written or touched.
+     * @param cacheMaximumBytes The maximum total size of the blobs cached in-process.
+     * @param purgeInterval The interval between purges of expired blobs, for stores that do not expire them.
+     * @param meterRegistry The registry the offload metrics are published to.
+     */
+    public DeduplicatingSessionCodec(SessionCodec sessionCodec, SessionBlobStore sessionBlobStore, int threshold,
+                                     Duration timeToLive, long cacheMaximumBytes, Duration purgeInterval,
+                                     MeterRegistry meterRegistry) {
+        this.sessionCodec = sessionCodec;
+        this.sessionBlobStore = sessionBlobStore;
+        this.threshold = threshold;
+        this.timeToLive = timeToLive;
+        this.blobs = Caffeine.newBuilder()
+                .maximumWeight(cacheMaximumBytes)
+                .weigher((String hash, byte[] bytes) -> bytes.length)
+                .recordStats()
+                .build();
+        this.refreshedBlobs = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(timeToLive.dividedBy(2))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, blobs, "spring.session.blob.cache");
+        String storageName = sessionBlobStore.getName();
+        this.offloadedValues = meterRegistry.counter("spring.session.blob.offloaded", "storage", storageName);
+        this.blobWrites = meterRegistry.counter("spring.session.blob.writes", "storage", storageName);
+        this.missingBlobs = meterRegistry.counter("spring.session.blob.missing", "storage", storageName);
+        this.purgeExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-" + storageName.toLowerCase() + "-blob-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.purgeExecutor.scheduleWithFixedDelay(this::purgeExpiredBlobs,
+                purgeInterval.toMillis(), purgeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Encodes a value, replacing it by a reference to its blob when its encoding exceeds the threshold.
+     * @param value The value to encode, may be null.
+     * @return The encoded value, or the reference to its blob.
+     */
+    @Override
+    public byte[] encode(Object value) {
+        byte[] bytes = sessionCodec.encode(value);
+        if (bytes.length <= threshold) {
+            return bytes;
+        }
+        byte[] hash = sha256(bytes);
+        String hexHash = HexFormat.of().formatHex(hash);
+        if (refreshedBlobs.getIfPresent(hexHash) == null) {
+            sessionBlobStore.put(hexHash, bytes, timeToLive);
+            refreshedBlobs.put(hexHash, Boolean.TRUE);
+            blobWrites.increment();
+        }
+        blobs.put(hexHash, bytes);
+        offloadedValues.increment();
+        byte[] reference = new byte[HASH_LENGTH + 1];
+        reference[0] = REFERENCE;
+        System.arraycopy(hash, 0, reference, 1, HASH_LENGTH);
+        return reference;
+    }
+
+    /**
+     * Decodes a value, loading its blob when the bytes are a reference.
+     * A blob that has expired from the store decodes to null, so the rest of the session stays readable.
+     * The blob is refreshed whether it was cached or loaded, unless this node refreshed it within half of its time to live.
+     * @param bytes The encoded value or the reference to its blob.
+     * @return The decoded value, may be null.
+     */
+    @Override
+    public Object decode(byte[] bytes) {
+        if (bytes == null || bytes.length != HASH_LENGTH + 1 || bytes[0] != REFERENCE) {
+            return sessionCodec.decode(bytes);
+        }
+        String hexHash = HexFormat.of().formatHex(bytes, 1, bytes.length);
+        byte[] blob = blobs.getIfPresent(hexHash);
+        if (blob == null) {
+            blob = sessionBlobStore.get(hexHash);
+            if (blob == null) {
+                missingBlobs.increment();
+                log.warn("Session attribute blob " + hexHash + " is missing from " + sessionBlobStore.getName());
+                return null;
+            }
+            blobs.put(hexHash, blob);
+        }
+        if (refreshedBlobs.getIfPresent(hexHash) == null) {
+            if (!sessionBlobStore.touch(hexHash, timeToLive)) {
+                sessionBlobStore.put(hexHash, blob, timeToLive);
+                blobWrites.increment();
+            }
+            refreshedBlobs.put(hexHash, Boolean.TRUE);
+        }
+        return sessionCodec.decode(blob);
+    }
+
+    /**
+     * Extends the time to live of the blobs written and refreshed from now on to at least twice a max inactive
+     * interval, so blobs outlive the sessions given that interval. When the time to live grows, every blob is
+     * refreshed again the next time it is encoded or decoded, since earlier refreshes used the shorter one.
+     * @param maxInactiveInterval The max inactive interval of a session, negative if the session never expires.
+     * @return True if the time to live was extended, otherwise false.
+     */
+    public boolean coverMaxInactiveInterval(Duration maxInactiveInterval) {
+        if (maxInactiveInterval == null || maxInactiveInterval.isNegative()) {
+            return false;
+        }
+        Duration requiredTimeToLive = maxInactiveInterval.multipliedBy(2);
+        if (requiredTimeToLive.compareTo(timeToLive) <= 0) {
+            return false;
+        }
+        synchronized (this) {
+            if (requiredTimeToLive.compareTo(timeToLive) <= 0) {
+                return false;
+            }
+            log.info("Session attribute blob ttl is extended from " + timeToLive + " to " + requiredTimeToLive
+                    + " for a max inactive interval of " + maxInactiveInterval);
+            timeToLive = requiredTimeToLive;
+            refreshedBlobs.invalidateAll();
+            return true;
+        }
+    }
+
+    /**
+     * Stops purging expired blobs.
+     */
+    @Override
+    public void close() {
+        purgeExecutor.shutdownNow();
+    }
+
+    private void purgeExpiredBlobs() {
+        try {
+            sessionBlobStore.purgeExpired();
+        } catch (RuntimeException e) {
+            log.warn("Failed to purge expired session attribute blobs: " + e.getMessage());
+        }
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
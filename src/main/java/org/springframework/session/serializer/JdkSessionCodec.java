@@ -0,0 +1,35 @@
+package org.springframework.session.serializer;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+
+/**
+ * JdkSessionCodec encodes values with JDK serialization, the format the storages use by default.
+ */
+public class JdkSessionCodec implements SessionCodec {
+
+    private final Converter<Object, byte[]> serializer = new SerializingConverter();
+
+    private final Converter<byte[], Object> deserializer = new DeserializingConverter();
+
+    /**
+     * Encodes a value with JDK serialization.
+     * @param value The value to encode, may be null.
+     * @return The serialized bytes.
+     */
+    @Override
+    public byte[] encode(Object value) {
+        return serializer.convert(value);
+    }
+
+    /**
+     * Decodes a value serialized by the JDK.
+     * @param bytes The serialized bytes.
+     * @return The deserialized value.
+     */
+    @Override
+    public Object decode(byte[] bytes) {
+        return deserializer.convert(bytes);
+    }
+}
@@ -0,0 +1,45 @@
+package org.springframework.session.serializer;
+
+import java.time.Duration;
+
+/**
+ * SessionBlobStore keeps large session attribute values once under the hash of their content,
+ * so sessions sharing a value only store a reference to it. Blobs expire unless they are written or touched again.
+ */
+public interface SessionBlobStore {
+
+    /**
+     * Gets the name of the storage the blobs are kept in.
+     * @return The name of the storage.
+     */
+    String getName();
+
+    /**
+     * Stores a blob, or extends the expiry of the blob already stored under the hash.
+     * @param hash The hexadecimal content hash of the blob.
+     * @param bytes The content of the blob.
+     * @param timeToLive The time the blob is kept.
+     */
+    void put(String hash, byte[] bytes, Duration timeToLive);
+
+    /**
+     * Gets a blob.
+     * @param hash The hexadecimal content hash of the blob.
+     * @return The content of the blob, or null if it is not stored or has expired.
+     */
+    byte[] get(String hash);
+
+    /**
+     * Extends the expiry of a blob.
+     * @param hash The hexadecimal content hash of the blob.
+     * @param timeToLive The time the blob is kept from now.
+     * @return True if the blob is stored, otherwise false.
+     */
+    boolean touch(String hash, Duration timeToLive);
+
+    /**
+     * Deletes the expired blobs, for storages that do not expire them by themselves.
+     */
+    default void purgeExpired() {
+    }
+}
@@ -0,0 +1,69 @@
+package org.springframework.session.serializer;
+
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * SessionCodec converts session attributes to bytes and back for the storages keeping them serialized.
+ * It is a Spring Serializer and Deserializer, so it plugs into the serializer hooks of every storage.
+ */
+public interface SessionCodec extends Serializer<Object>, Deserializer<Object> {
+
+    /**
+     * Encodes a value to bytes.
+     * @param value The value to encode, may be null.
+     * @return The encoded bytes.
+     */
+    byte[] encode(Object value);
+
+    /**
+     * Decodes a value from bytes.
+     * @param bytes The encoded bytes.
+     * @return The decoded value, may be null.
+     */
+    Object decode(byte[] bytes);
+
+    /**
+     * Writes the encoded value to a stream.
+     * @param value The value to encode.
+     * @param outputStream The stream to write to.
+     * @throws IOException If the stream cannot be written.
+     */
+    @Override
+    default void serialize(Object value, OutputStream outputStream) throws IOException {
+        outputStream.write(encode(value));
+    }
+
+    /**
+     * Reads an encoded value from a stream holding nothing else.
+     * @param inputStream The stream to read from.
+     * @return The decoded value.
+     * @throws IOException If the stream cannot be read.
+     */
+    @Override
+    default Object deserialize(InputStream inputStream) throws IOException {
+        return decode(inputStream.readAllBytes());
+    }
+
+    /**
+     * Creates the codec configured by name.
+     * @param name The name of the codec, JDK or COMPACT.
+     * @param compressionThreshold The size above which the COMPACT codec compresses values, or 0 to never compress.
+     * @return The SessionCodec.
+     * @throws IllegalArgumentException If the name is unknown.
+     */
+    static SessionCodec of(String name, int compressionThreshold) {
+        switch (name.trim().toUpperCase()) {
+            case "JDK":
+                return new JdkSessionCodec();
+            case "COMPACT":
+                return new CompactSessionCodec(compressionThreshold);
+            default:
+                throw new IllegalArgumentException("Unknown session codec " + name);
+        }
+    }
+}
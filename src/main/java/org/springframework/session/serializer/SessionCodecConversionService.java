@@ -0,0 +1,23 @@
+package org.springframework.session.serializer;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.core.convert.support.GenericConversionService;
+
+/**
+ * SessionCodecConversionService builds the ConversionService JdbcIndexedSessionRepository serializes attributes with.
+ */
+@UtilityClass
+public class SessionCodecConversionService {
+
+    /**
+     * Creates a ConversionService converting attributes to bytes and back with a SessionCodec.
+     * @param sessionCodec The SessionCodec encoding the attributes.
+     * @return The ConversionService.
+     */
+    public static GenericConversionService create(SessionCodec sessionCodec) {
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(Object.class, byte[].class, sessionCodec::encode);
+        conversionService.addConverter(byte[].class, Object.class, sessionCodec::decode);
+        return conversionService;
+    }
+}
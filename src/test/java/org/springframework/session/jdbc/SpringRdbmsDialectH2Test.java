@@ -0,0 +1,171 @@
+package org.springframework.session.jdbc;
+
+import org.framework.data.SpringSessionData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.serializer.JdkSessionCodec;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the H2 queries of SpringRdbmsDialect against an in-memory H2 database holding the schema shipped with
+ * Spring Session JDBC, and the compact session table, and reads the written sessions back with the repositories.
+ */
+class SpringRdbmsDialectH2Test {
+
+    private static final String COMPACT_TABLE_DDL = "CREATE TABLE SPRING_SESSION_COMPACT (SESSION_ID CHAR(36) NOT NULL, "
+            + "CREATION_TIME BIGINT NOT NULL, LAST_ACCESS_TIME BIGINT NOT NULL, MAX_INACTIVE_INTERVAL INT NOT NULL, "
+            + "EXPIRY_TIME BIGINT NOT NULL, PRINCIPAL_NAME VARCHAR(100), SESSION_ATTRIBUTES BLOB NOT NULL, "
+            + "CONSTRAINT SPRING_SESSION_COMPACT_PK PRIMARY KEY (SESSION_ID))";
+
+    private JdbcTemplate jdbcTemplate;
+
+    private SpringRdbmsAsSecondarySession secondarySession;
+
+    private SpringRdbmsCompactSessionRepository compactSessionRepository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("org/springframework/session/jdbc/schema-h2.sql"))
+                .execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(COMPACT_TABLE_DDL);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        secondarySession = new SpringRdbmsAsSecondarySession(jdbcTemplate, transactionTemplate);
+        secondarySession.setSessionCodec(new JdkSessionCodec());
+        secondarySession.setDialect(SpringRdbmsDialect.H2);
+        compactSessionRepository = new SpringRdbmsCompactSessionRepository(jdbcTemplate, transactionTemplate);
+        compactSessionRepository.setSessionCodec(new JdkSessionCodec());
+        compactSessionRepository.setDialect(SpringRdbmsDialect.H2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void sessionUpsertInsertsSessionAndAttributes() {
+        String id = UUID.randomUUID().toString();
+        secondarySession.saveAsSecondary(fullSession(id, System.currentTimeMillis(), Map.of("a", "1", "b", 2)));
+
+        Session session = secondarySession.findById(id);
+
+        assertThat(session).isNotNull();
+        assertThat(session.getAttributeNames()).containsExactlyInAnyOrder("a", "b");
+        assertThat((String) session.getAttribute("a")).isEqualTo("1");
+        assertThat((Integer) session.getAttribute("b")).isEqualTo(2);
+    }
+
+    @Test
+    void sessionUpsertUpdatesExistingSessionAndDropsMissingAttributes() {
+        String id = UUID.randomUUID().toString();
+        secondarySession.saveAsSecondary(fullSession(id, System.currentTimeMillis(), Map.of("a", "1", "b", 2)));
+        long lastAccessedMillis = System.currentTimeMillis();
+        secondarySession.saveAsSecondary(fullSession(id, lastAccessedMillis, Map.of("a", "changed")));
+
+        Session session = secondarySession.findById(id);
+
+        assertThat(session.getLastAccessedTime().toEpochMilli()).isEqualTo(lastAccessedMillis);
+        assertThat(session.getAttributeNames()).containsExactly("a");
+        assertThat((String) session.getAttribute("a")).isEqualTo("changed");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM SPRING_SESSION WHERE SESSION_ID = ?",
+                Integer.class, id)).isEqualTo(1);
+    }
+
+    @Test
+    void batchUpsertWritesEverySession() {
+        String first = UUID.randomUUID().toString();
+        String second = UUID.randomUUID().toString();
+        secondarySession.saveAllAsSecondary(List.of(
+                fullSession(first, System.currentTimeMillis(), Map.of("a", "1")),
+                fullSession(second, System.currentTimeMillis(), Map.of("b", "2"))));
+
+        assertThat((String) secondarySession.findById(first).getAttribute("a")).isEqualTo("1");
+        assertThat((String) secondarySession.findById(second).getAttribute("b")).isEqualTo("2");
+    }
+
+    @Test
+    void deltaUpsertsChangedAttributesAndKeepsPrincipalName() {
+        String id = UUID.randomUUID().toString();
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("a", "1");
+        attributes.put("b", 2);
+        attributes.put(FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME, "user");
+        secondarySession.saveAsSecondary(fullSession(id, System.currentTimeMillis(), attributes));
+        secondarySession.saveAsSecondary(delta(id, Map.of("a", "changed", "c", "3"), Set.of("b")));
+
+        Session session = secondarySession.findById(id);
+
+        assertThat(session.getAttributeNames()).containsExactlyInAnyOrder(
+                "a", "c", FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME);
+        assertThat((String) session.getAttribute("a")).isEqualTo("changed");
+        assertThat(jdbcTemplate.queryForObject("SELECT PRINCIPAL_NAME FROM SPRING_SESSION WHERE SESSION_ID = ?",
+                String.class, id)).isEqualTo("user");
+    }
+
+    @Test
+    void deltaOfMissingSessionWritesNothing() {
+        String id = UUID.randomUUID().toString();
+        secondarySession.saveAsSecondary(delta(id, Map.of("a", "1"), Set.of()));
+
+        assertThat(secondarySession.findById(id)).isNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM SPRING_SESSION_ATTRIBUTES", Integer.class))
+                .isZero();
+    }
+
+    @Test
+    void compactSessionUpsertInsertsAndUpdatesRow() {
+        String id = UUID.randomUUID().toString();
+        compactSessionRepository.saveAsSecondary(fullSession(id, System.currentTimeMillis(), Map.of("a", "1", "b", 2)));
+        long lastAccessedMillis = System.currentTimeMillis();
+        compactSessionRepository.saveAsSecondary(fullSession(id, lastAccessedMillis, Map.of("a", "changed")));
+
+        MapSession session = compactSessionRepository.findById(id);
+
+        assertThat(session.getLastAccessedTime().toEpochMilli()).isEqualTo(lastAccessedMillis);
+        assertThat(session.getAttributeNames()).containsExactly("a");
+        assertThat((String) session.getAttribute("a")).isEqualTo("changed");
+    }
+
+    private static SpringSessionData fullSession(String id, long lastAccessedMillis, Map<String, Object> attributes) {
+        return SpringSessionData.builder()
+                .id(id)
+                .maxInactiveInterval(Duration.ofMinutes(30))
+                .attributes(attributes)
+                .createdMillis(1_000)
+                .lastAccessedMillis(lastAccessedMillis)
+                .build();
+    }
+
+    private static SpringSessionData delta(String id, Map<String, Object> attributes, Set<String> removedAttributeNames) {
+        return SpringSessionData.builder()
+                .id(id)
+                .maxInactiveInterval(Duration.ofMinutes(30))
+                .attributes(attributes)
+                .createdMillis(1_000)
+                .lastAccessedMillis(System.currentTimeMillis())
+                .delta(true)
+                .removedAttributeNames(removedAttributeNames)
+                .build();
+    }
+}